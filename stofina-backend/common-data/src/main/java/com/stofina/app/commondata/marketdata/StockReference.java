@@ -0,0 +1,38 @@
+package com.stofina.app.commondata.marketdata;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Static data of a symbol, published on the compacted reference topic keyed by symbol.
+ * Ticks refer to it by {@code symbolId}.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReference {
+    private int symbolId;
+
+    private String symbol;
+
+    private String stockName;
+
+    private String companyName;
+
+    private String isinCode;
+
+    private String equityMarket;
+
+    private String exchange;
+
+    private String currency;
+
+    private BigDecimal defaultPrice;
+
+    private String status;
+}
@@ -0,0 +1,47 @@
+package com.stofina.app.commondata.marketdata;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * One price update of a symbol as it travels on stock-topic. Prices are fixed-point integers so that
+ * the wire format carries no text; names and other static fields come from {@link StockReference}.
+ */
+@Value
+@AllArgsConstructor
+public class StockTick {
+
+    public static final int PRICE_SCALE = 4;
+    public static final int PERCENT_SCALE = 2;
+
+    int symbolId;
+    long priceUnits;
+    long changeUnits;
+    int changePercentUnits;
+    long timestampMillis;
+
+    public static StockTick of(int symbolId, BigDecimal price, BigDecimal changeAmount,
+                               BigDecimal changePercent, long timestampMillis) {
+        return new StockTick(symbolId, toUnits(price, PRICE_SCALE), toUnits(changeAmount, PRICE_SCALE),
+                Math.toIntExact(toUnits(changePercent, PERCENT_SCALE)), timestampMillis);
+    }
+
+    public BigDecimal getPrice() {
+        return BigDecimal.valueOf(priceUnits, PRICE_SCALE);
+    }
+
+    public BigDecimal getChangeAmount() {
+        return BigDecimal.valueOf(changeUnits, PRICE_SCALE);
+    }
+
+    public BigDecimal getChangePercent() {
+        return BigDecimal.valueOf(changePercentUnits, PERCENT_SCALE);
+    }
+
+    private static long toUnits(BigDecimal value, int scale) {
+        return value != null ? value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact() : 0L;
+    }
+}
@@ -0,0 +1,50 @@
+package com.stofina.app.commondata.marketdata;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-size binary layout of a {@link StockTick}, big-endian:
+ * <pre>
+ *  0  byte  version
+ *  1  int   symbol id
+ *  5  long  price      (scale 4)
+ * 13  long  change     (scale 4)
+ * 21  int   change %   (scale 2)
+ * 25  long  timestamp  (epoch millis)
+ * </pre>
+ * A new layout gets a new version byte; readers reject versions they do not know instead of guessing.
+ */
+public final class StockTickCodec {
+
+    public static final byte VERSION = 1;
+    public static final int ENCODED_SIZE = 33;
+
+    private StockTickCodec() {
+    }
+
+    public static byte[] encode(StockTick tick) {
+        return ByteBuffer.allocate(ENCODED_SIZE)
+                .put(VERSION)
+                .putInt(tick.getSymbolId())
+                .putLong(tick.getPriceUnits())
+                .putLong(tick.getChangeUnits())
+                .putInt(tick.getChangePercentUnits())
+                .putLong(tick.getTimestampMillis())
+                .array();
+    }
+
+    public static StockTick decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("Empty stock tick");
+        }
+        if (data[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported stock tick version: " + data[0]);
+        }
+        if (data.length != ENCODED_SIZE) {
+            throw new IllegalArgumentException("Invalid stock tick length: " + data.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data, 1, ENCODED_SIZE - 1);
+        return new StockTick(buffer.getInt(), buffer.getLong(), buffer.getLong(), buffer.getInt(), buffer.getLong());
+    }
+}
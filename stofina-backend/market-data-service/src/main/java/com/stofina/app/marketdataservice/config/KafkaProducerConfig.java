@@ -1,10 +1,13 @@
 package com.stofina.app.marketdataservice.config;
 
-import com.stofina.app.marketdataservice.dto.response.StockResponse;
+import com.stofina.app.commondata.marketdata.StockReference;
+import com.stofina.app.commondata.marketdata.StockTick;
+import com.stofina.app.marketdataservice.kafka.StockTickSerializer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
@@ -13,23 +16,58 @@ import org.springframework.kafka.support.serializer.JsonSerializer;
 import java.util.HashMap;
 import java.util.Map;
 
+@Configuration
 public class KafkaProducerConfig {
 
     @Value("${spring.kafka.bootstrap-servers}")
     private String kafkaBootstrapServers;
 
+    // Ticks of all symbols go out together every cycle; a short linger lets them share one compressed batch per partition
+    @Value("${market.kafka.producer.linger-ms:5}")
+    private int lingerMs;
 
+    @Value("${market.kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${market.kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    // A lost tick is superseded by the next one within seconds, so the leader ack is enough
+    @Value("${market.kafka.producer.tick-acks:1}")
+    private String tickAcks;
+
+    @Bean
+    public ProducerFactory<String, StockTick> stockTickProducerFactory() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StockTickSerializer.class);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        config.put(ProducerConfig.ACKS_CONFIG, tickAcks);
+        return new DefaultKafkaProducerFactory<>(config);
+    }
+
+    @Bean
+    public KafkaTemplate<String, StockTick> stockTickKafkaTemplate() {
+        return new KafkaTemplate<>(stockTickProducerFactory());
+    }
+
+    // Reference data changes rarely and is kept by compaction, so it is sent as JSON and fully acknowledged
     @Bean
-    public ProducerFactory<String, StockResponse> producerFactory() {
+    public ProducerFactory<String, StockReference> stockReferenceProducerFactory() {
         Map<String, Object> config = new HashMap<>();
-        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG,kafkaBootstrapServers);
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
         return new DefaultKafkaProducerFactory<>(config);
     }
 
     @Bean
-    public KafkaTemplate<String, StockResponse> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, StockReference> stockReferenceKafkaTemplate() {
+        return new KafkaTemplate<>(stockReferenceProducerFactory());
     }
 }
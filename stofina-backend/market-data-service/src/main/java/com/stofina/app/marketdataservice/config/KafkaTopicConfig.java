@@ -0,0 +1,38 @@
+package com.stofina.app.marketdataservice.config;
+
+import com.stofina.app.marketdataservice.constant.Constants;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class KafkaTopicConfig {
+
+    // Upper bound on consumer threads that can share the tick stream; KafkaAdmin adds partitions but never removes them
+    @Value("${market.kafka.stock-topic.partitions:12}")
+    private int stockTopicPartitions;
+
+    @Value("${market.kafka.stock-topic.replicas:1}")
+    private int stockTopicReplicas;
+
+    @Bean
+    public NewTopic stockTopic() {
+        return TopicBuilder.name(Constants.Kafka.STOCK_TOPIC)
+                .partitions(stockTopicPartitions)
+                .replicas(stockTopicReplicas)
+                .build();
+    }
+
+    // Latest record per symbol is all a consumer needs to resolve tick symbol ids, so the topic is compacted
+    @Bean
+    public NewTopic stockReferenceTopic() {
+        return TopicBuilder.name(Constants.Kafka.STOCK_REFERENCE_TOPIC)
+                .partitions(1)
+                .replicas(stockTopicReplicas)
+                .config(TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT)
+                .build();
+    }
+}
@@ -100,6 +100,14 @@ public final class Constants {
         }
     }
 
+    public static final class Kafka {
+        public static final String STOCK_TOPIC = "stock-topic";
+        public static final String STOCK_REFERENCE_TOPIC = "stock-reference-topic";
+
+        private Kafka() {
+        }
+    }
+
     public static final class Scheduler {
         public static final int THREAD_POOL_SIZE = 5;
         public static final String THREAD_NAME_PREFIX = "market-scheduler-";
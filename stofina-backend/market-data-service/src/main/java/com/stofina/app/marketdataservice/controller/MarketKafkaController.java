@@ -1,7 +1,6 @@
 package com.stofina.app.marketdataservice.controller;
 
 import com.stofina.app.marketdataservice.dto.response.StockResponse;
-import com.stofina.app.marketdataservice.kafka.MarketDataProducer;
 import com.stofina.app.marketdataservice.service.StockKafkaService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -9,17 +8,17 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 @RequestMapping("/market")
 public class MarketKafkaController {
-    private final MarketDataProducer producer;
     private final StockKafkaService stockKafkaService;
 
-    public MarketKafkaController(MarketDataProducer producer, StockKafkaService stockKafkaService) {
-        this.producer = producer;
+    public MarketKafkaController(StockKafkaService stockKafkaService) {
         this.stockKafkaService = stockKafkaService;
     }
 
     @PostMapping("/send-stock")
     public ResponseEntity<String> sendPrice(@RequestBody StockResponse stockResponse) {
-        producer.sendStockUpdate(stockResponse);
+        if (stockResponse.getCurrentPrice() == null || !stockKafkaService.sendStockToKafka(stockResponse)) {
+            return ResponseEntity.badRequest().body("Unknown symbol or missing price");
+        }
         return ResponseEntity.ok("Stock sent to Kafka");
     }
 
@@ -1,19 +1,36 @@
 package com.stofina.app.marketdataservice.kafka;
 
- import com.stofina.app.marketdataservice.dto.response.StockResponse;
- import org.springframework.kafka.core.KafkaTemplate;
+import com.stofina.app.commondata.marketdata.StockReference;
+import com.stofina.app.commondata.marketdata.StockTick;
+import com.stofina.app.marketdataservice.constant.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 @Service
 public class MarketDataProducer {
-    private final KafkaTemplate<String, StockResponse> kafkaTemplate;
 
-    public MarketDataProducer(KafkaTemplate<String, StockResponse> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataProducer.class);
+
+    private final KafkaTemplate<String, StockTick> stockTickKafkaTemplate;
+    private final KafkaTemplate<String, StockReference> stockReferenceKafkaTemplate;
+
+    public MarketDataProducer(KafkaTemplate<String, StockTick> stockTickKafkaTemplate,
+                              KafkaTemplate<String, StockReference> stockReferenceKafkaTemplate) {
+        this.stockTickKafkaTemplate = stockTickKafkaTemplate;
+        this.stockReferenceKafkaTemplate = stockReferenceKafkaTemplate;
+    }
+
+    // Keyed by symbol: all ticks of a symbol land on one partition and are consumed in order
+    public void sendStockTick(String symbol, StockTick tick) {
+        stockTickKafkaTemplate.send(Constants.Kafka.STOCK_TOPIC, symbol, tick);
+        logger.debug("Stock tick sent to Kafka: {}", symbol);
     }
 
-    public void sendStockUpdate(StockResponse stockResponse) {
-        kafkaTemplate.send("stock-topic", stockResponse);
-        System.out.println("Stock message sent to Kafka: " + stockResponse.getSymbol());
+    // Keyed by symbol as well, so compaction keeps the latest reference record of every symbol
+    public void sendStockReference(StockReference reference) {
+        stockReferenceKafkaTemplate.send(Constants.Kafka.STOCK_REFERENCE_TOPIC, reference.getSymbol(), reference);
+        logger.info("Stock reference sent to Kafka: {} (id={})", reference.getSymbol(), reference.getSymbolId());
     }
 }
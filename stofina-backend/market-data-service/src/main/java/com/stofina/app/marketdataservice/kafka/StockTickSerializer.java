@@ -0,0 +1,13 @@
+package com.stofina.app.marketdataservice.kafka;
+
+import com.stofina.app.commondata.marketdata.StockTick;
+import com.stofina.app.commondata.marketdata.StockTickCodec;
+import org.apache.kafka.common.serialization.Serializer;
+
+public class StockTickSerializer implements Serializer<StockTick> {
+
+    @Override
+    public byte[] serialize(String topic, StockTick tick) {
+        return tick != null ? StockTickCodec.encode(tick) : null;
+    }
+}
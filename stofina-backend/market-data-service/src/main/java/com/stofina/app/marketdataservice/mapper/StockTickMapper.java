@@ -0,0 +1,49 @@
+package com.stofina.app.marketdataservice.mapper;
+
+import com.stofina.app.commondata.marketdata.StockReference;
+import com.stofina.app.commondata.marketdata.StockTick;
+import com.stofina.app.marketdataservice.entity.Stock;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+public class StockTickMapper {
+
+    /**
+     * Change is measured against {@code basePrice}: previous close for simulated prices, default price
+     * for stored ones.
+     */
+    public static StockTick toTick(int symbolId, BigDecimal price, BigDecimal basePrice, LocalDateTime lastUpdated) {
+        BigDecimal changeAmount = BigDecimal.ZERO;
+        BigDecimal changePercent = BigDecimal.ZERO;
+
+        if (basePrice != null && basePrice.compareTo(BigDecimal.ZERO) > 0) {
+            changeAmount = price.subtract(basePrice);
+            changePercent = changeAmount.divide(basePrice, 4, RoundingMode.HALF_UP)
+                    .multiply(new BigDecimal("100"))
+                    .setScale(2, RoundingMode.HALF_UP);
+        }
+
+        long timestampMillis = lastUpdated != null
+                ? lastUpdated.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+        return StockTick.of(symbolId, price, changeAmount, changePercent, timestampMillis);
+    }
+
+    public static StockReference toReference(int symbolId, Stock stock) {
+        return StockReference.builder()
+                .symbolId(symbolId)
+                .symbol(stock.getSymbol())
+                .stockName(stock.getStockName())
+                .companyName(stock.getCompanyName())
+                .isinCode(stock.getIsinCode())
+                .equityMarket(stock.getEquityMarket())
+                .exchange(stock.getExchange())
+                .currency(stock.getCurrency())
+                .defaultPrice(stock.getDefaultPrice())
+                .status(stock.getStatus() != null ? stock.getStatus().name() : null)
+                .build();
+    }
+}
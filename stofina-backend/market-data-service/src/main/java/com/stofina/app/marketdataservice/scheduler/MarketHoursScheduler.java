@@ -1,19 +1,19 @@
 package com.stofina.app.marketdataservice.scheduler;
 
-import com.stofina.app.marketdataservice.dto.response.StockResponse;
 import com.stofina.app.marketdataservice.entity.Stock;
 import com.stofina.app.marketdataservice.kafka.MarketDataProducer;
+import com.stofina.app.marketdataservice.mapper.StockTickMapper;
 import com.stofina.app.marketdataservice.service.MarketHoursService;
 import com.stofina.app.marketdataservice.service.PriceSimulationService;
 import com.stofina.app.marketdataservice.service.WebSocketBroadcastService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 
 // CHECKPOINT 2.8: Market Hours Scheduler
@@ -171,14 +171,30 @@ public class MarketHoursScheduler {
         logger.debug("Market durumu: {}", status);
     }
 
+    // Referans veriler compacted topic'e yazılır; tick'ler sadece symbolId taşır
+    @EventListener(ApplicationReadyEvent.class)
+    public void publishStockReferences() {
+        try {
+            var allStocks = priceSimulationService.getAllStocks();
+            for (Stock stock : allStocks.values()) {
+                marketDataProducer.sendStockReference(
+                        StockTickMapper.toReference(stock.getId().intValue(), stock));
+            }
+            logger.info("Kafka'ya {} adet hisse referans verisi gönderildi", allStocks.size());
+        } catch (Exception e) {
+            logger.error("Kafka referans veri gönderme hatası: {}", e.getMessage(), e);
+        }
+    }
+
     private void sendUpdatedPricesToKafka() {
         try {
             var allStocks = priceSimulationService.getAllStocks();
             logger.debug("Kafka'ya {} adet hisse fiyatı gönderiliyor", allStocks.size());
             
             for (Stock stock : allStocks.values()) {
-                StockResponse stockResponse = convertToStockResponse(stock);
-                marketDataProducer.sendStockUpdate(stockResponse);
+                marketDataProducer.sendStockTick(stock.getSymbol(), StockTickMapper.toTick(
+                        stock.getId().intValue(), stock.getCurrentPrice(), stock.getPreviousClose(),
+                        stock.getLastUpdated()));
             }
             
             logger.info("Kafka'ya {} adet hisse fiyat güncellemesi gönderildi", allStocks.size());
@@ -186,31 +202,4 @@ public class MarketHoursScheduler {
             logger.error("Kafka fiyat gönderme hatası: {}", e.getMessage(), e);
         }
     }
-
-    private StockResponse convertToStockResponse(Stock stock) {
-        BigDecimal changeAmount = stock.getCurrentPrice().subtract(stock.getPreviousClose());
-        BigDecimal changePercent = BigDecimal.ZERO;
-        
-        if (stock.getPreviousClose().compareTo(BigDecimal.ZERO) > 0) {
-            changePercent = changeAmount.divide(stock.getPreviousClose(), 4, RoundingMode.HALF_UP)
-                                      .multiply(new BigDecimal("100"))
-                                      .setScale(2, RoundingMode.HALF_UP);
-        }
-        
-        return new StockResponse(
-                stock.getSymbol(),
-                stock.getStockName(),
-                stock.getCompanyName(),
-                stock.getEquityMarket(),
-                stock.getExchange(),
-                stock.getCurrency(),
-                stock.getIsinCode(),
-                stock.getCurrentPrice(),
-                stock.getDefaultPrice(),
-                changeAmount,
-                changePercent,
-                stock.getStatus(),
-                stock.getLastUpdated()
-        );
-    }
-}
\ No newline at end of file
+}
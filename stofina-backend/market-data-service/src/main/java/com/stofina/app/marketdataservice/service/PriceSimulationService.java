@@ -59,6 +59,8 @@ public class PriceSimulationService {
     
     private void createStock(String symbol, String companyName, BigDecimal defaultPrice) {
         Stock stock = new Stock();
+        // Symbol id carried by Kafka ticks: follows the fixed creation order above, so it is stable across restarts
+        stock.setId((long) stocksInMemory.size() + 1);
         stock.setSymbol(symbol);
         stock.setCompanyName(companyName);
         stock.setDefaultPrice(defaultPrice);
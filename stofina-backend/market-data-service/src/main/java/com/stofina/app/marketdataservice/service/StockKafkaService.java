@@ -1,47 +1,51 @@
 package com.stofina.app.marketdataservice.service;
 
 import com.stofina.app.marketdataservice.dto.response.StockResponse;
+import com.stofina.app.marketdataservice.entity.Stock;
 import com.stofina.app.marketdataservice.kafka.MarketDataProducer;
+import com.stofina.app.marketdataservice.mapper.StockTickMapper;
 import com.stofina.app.marketdataservice.repository.StockRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class StockKafkaService {
 
     private final StockRepository stockRepository;
     private final MarketDataProducer producer;
+    private final PriceSimulationService priceSimulationService;
 
+    // Stored stocks carry the full reference data; symbol ids come from the live stocks so ticks stay resolvable
     public void sendAllStocksToKafka() {
         stockRepository.findAll().forEach(stock -> {
-            BigDecimal changeAmount = stock.getCurrentPrice().subtract(stock.getDefaultPrice());
-
-            BigDecimal changePercent = changeAmount
-                    .divide(stock.getDefaultPrice(), 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
-
-            StockResponse response = new StockResponse(
-                    stock.getSymbol(),
-                    stock.getStockName(),
-                    stock.getCompanyName(),
-                    stock.getEquityMarket(),
-                    stock.getExchange(),
-                    stock.getCurrency(),
-                    stock.getIsinCode(),
-                    stock.getCurrentPrice(),
-                    stock.getDefaultPrice(),
-                    changeAmount,
-                    changePercent,
-                    stock.getStatus(),
-                    stock.getLastUpdated()
-            );
-
-            producer.sendStockUpdate(response);
+            Integer symbolId = resolveSymbolId(stock.getSymbol());
+            if (symbolId == null) {
+                log.warn("Kafka'ya gönderilmedi, simülasyonda olmayan sembol: {}", stock.getSymbol());
+                return;
+            }
+
+            producer.sendStockReference(StockTickMapper.toReference(symbolId, stock));
+            producer.sendStockTick(stock.getSymbol(), StockTickMapper.toTick(symbolId,
+                    stock.getCurrentPrice(), stock.getDefaultPrice(), stock.getLastUpdated()));
         });
     }
 
-}
\ No newline at end of file
+    public boolean sendStockToKafka(StockResponse stockResponse) {
+        Integer symbolId = resolveSymbolId(stockResponse.getSymbol());
+        if (symbolId == null) {
+            return false;
+        }
+
+        producer.sendStockTick(stockResponse.getSymbol(), StockTickMapper.toTick(symbolId,
+                stockResponse.getCurrentPrice(), stockResponse.getDefaultPrice(), stockResponse.getLastUpdated()));
+        return true;
+    }
+
+    private Integer resolveSymbolId(String symbol) {
+        Stock live = symbol != null ? priceSimulationService.getStockBySymbol(symbol) : null;
+        return live != null ? live.getId().intValue() : null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.stofina.app.orderservice.config;
+
+import com.stofina.app.orderservice.util.FileIdHighWaterMark;
+import com.stofina.app.orderservice.util.SnowflakeIdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+@Slf4j
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    public SnowflakeIdGenerator snowflakeIdGenerator(OrderBookConfig orderBookConfig) {
+        OrderBookConfig.IdsConfig ids = orderBookConfig.getIds();
+        if (ids.getNodeId() == null) {
+            // Two instances on the same node id would hand out the same ids
+            throw new IllegalStateException("order-book.ids.node-id must be set (ORDER_SERVICE_NODE_ID)");
+        }
+        Path markFile = Paths.get(ids.getHighWaterMarkDirectory(), "node-" + ids.getNodeId() + ".hwm");
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(ids.getNodeId(), ids.getBlockSize(),
+                System::currentTimeMillis, new FileIdHighWaterMark(markFile));
+        // JPA id generation is not Spring-managed, so it reads the shared instance
+        SnowflakeIdGenerator.setShared(generator);
+        log.info("🆔 Snowflake id generator ready → NodeId: {}, BlockSize: {}", ids.getNodeId(), ids.getBlockSize());
+        return generator;
+    }
+}
@@ -1,6 +1,8 @@
 package com.stofina.app.orderservice.config;
 
-import com.stofina.app.orderservice.dto.response.StockResponse;
+import com.stofina.app.commondata.marketdata.StockReference;
+import com.stofina.app.commondata.marketdata.StockTick;
+import com.stofina.app.orderservice.kafka.StockTickDeserializer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,24 +22,51 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String kafkaBootstrapServers;
 
-    @Bean
-    public ConsumerFactory<String, StockResponse> consumerFactory() {
-        JsonDeserializer<StockResponse> deserializer = new JsonDeserializer<>(StockResponse.class);
-        deserializer.addTrustedPackages("*");
+    // Each listener thread owns a subset of stock-topic partitions; ticks are keyed by symbol,
+    // so one symbol is always handled by one thread while other symbols run in parallel
+    @Value("${spring.kafka.listener.concurrency:4}")
+    private int listenerConcurrency;
+
+    // Upper bound on ticks handed to one batch listener call; a backlog is conflated per symbol
+    @Value("${spring.kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
 
+    @Bean
+    public ConsumerFactory<String, StockTick> consumerFactory() {
         Map<String, Object> config = new HashMap<>();
         config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
         config.put(ConsumerConfig.GROUP_ID_CONFIG, "order-service-group");
         config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, deserializer);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StockTickDeserializer.class);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
 
-        return new DefaultKafkaConsumerFactory<>(config, new StringDeserializer(), deserializer);
+        return new DefaultKafkaConsumerFactory<>(config, new StringDeserializer(), new StockTickDeserializer());
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, StockResponse> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, StockResponse> factory = new ConcurrentKafkaListenerContainerFactory<>();
+    public ConcurrentKafkaListenerContainerFactory<String, StockTick> kafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, StockTick> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(listenerConcurrency);
+        factory.setBatchListener(true);
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, StockReference> stockReferenceConsumerFactory() {
+        JsonDeserializer<StockReference> deserializer = new JsonDeserializer<>(StockReference.class, false);
+        deserializer.addTrustedPackages(StockReference.class.getPackageName());
+
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
+
+        return new DefaultKafkaConsumerFactory<>(config, new StringDeserializer(), deserializer);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, StockReference> stockReferenceListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, StockReference> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(stockReferenceConsumerFactory());
         return factory;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,132 @@
+package com.stofina.app.orderservice.config;
+
+import com.stofina.app.orderservice.enums.PersistenceDurability;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "order-book")
+public class OrderBookConfig {
+
+    private TickLadderConfig tickLadder = new TickLadderConfig();
+    // Market orders only sweep levels within this fraction of the opposite best price
+    private BigDecimal marketProtectionPercent = new BigDecimal("0.05");
+    private SequencerConfig sequencer = new SequencerConfig();
+    private SettlementConfig settlement = new SettlementConfig();
+    private PersistenceConfig persistence = new PersistenceConfig();
+    private JournalConfig journal = new JournalConfig();
+    private IdsConfig ids = new IdsConfig();
+    private FeedConfig feed = new FeedConfig();
+    private StopLossConfig stopLoss = new StopLossConfig();
+    private AlgorithmicMatchingConfig algorithmicMatching = new AlgorithmicMatchingConfig();
+    private DisplayConfig display = new DisplayConfig();
+
+    @Data
+    public static class DisplayConfig {
+        // Changed display books are copied to the Redis replica at most this often
+        private long replicationIntervalMillis = 500;
+        // Delay between bot ladder refreshes; a refresh only costs as much as the price moved.
+        // The simulated price movement keeps its own, slower maintenance schedule
+        private long ladderRefreshIntervalMillis = 1000;
+    }
+
+    @Data
+    public static class AlgorithmicMatchingConfig {
+        // Retry delays are rounded up to the timer tick; 512 ticks of 100 ms cover the 15 s retry in one turn
+        private long tickMillis = 100;
+        private int wheelSize = 512;
+        // Threads running due matching attempts
+        private int workers = 4;
+    }
+
+    @Data
+    public static class StopLossConfig {
+        // Watcher state changes are written in one batch when this many are pending or the interval elapses
+        private int batchSize = 200;
+        private long flushIntervalMillis = 500;
+        // Check activity of untriggered watchers is queued for writing at most this often per symbol
+        private long activitySyncIntervalMillis = 10000;
+    }
+
+    @Data
+    public static class FeedConfig {
+        // Upper bound on WebSocket messages per symbol and topic; also the worst-case added latency
+        private long publishIntervalMillis = 50;
+        private int maxTradesPerFrame = 500;
+    }
+
+    @Data
+    public static class IdsConfig {
+        // Must be unique per running instance (0-63) so ids never collide across nodes; set in application.yml
+        private Long nodeId;
+        // Seconds borrowed ahead of the clock are recorded here so a restart does not reuse them
+        private String highWaterMarkDirectory = "data/ids";
+        // Ids each thread reserves at a time from the shared cursor
+        private int blockSize = 64;
+    }
+
+    @Data
+    public static class JournalConfig {
+        // When enabled, books are rebuilt from snapshot + journal tail on startup
+        private boolean enabled = false;
+        // Absolute path; required when enabled
+        private String directory;
+        private int segmentSizeMb = 64;
+        private long snapshotIntervalSeconds = 60;
+    }
+
+    @Data
+    public static class PersistenceConfig {
+        private PersistenceDurability durability = PersistenceDurability.ASYNC;
+        // A flush starts when this many records are pending or the interval elapses
+        private int batchSize = 500;
+        private long flushIntervalMillis = 20;
+        private long syncTimeoutMillis = 5000;
+        // After this many failed flushes the batch is written record by record; failing records stay queued
+        private int maxFlushAttempts = 5;
+        // Upper bound of the backoff between retries of a failed flush
+        private long maxRetryBackoffMillis = 1000;
+    }
+
+    @Data
+    public static class SettlementConfig {
+        // Workers bound the number of portfolio confirmations in flight
+        private int workers = 4;
+        private int queueCapacity = 10000;
+        // A lane confirms the tasks waiting in its queue with one batch call of at most this many
+        private int maxBatchSize = 200;
+        private long confirmationTimeoutMillis = 10000;
+        // Compensations run on the lanes too, so they are bounded the same way
+        private long compensationTimeoutMillis = 10000;
+        private long shutdownTimeoutMillis = 5000;
+    }
+
+    @Data
+    public static class SequencerConfig {
+        // Each shard is one matching thread owning the books whose symbols hash to it
+        private int shards = 4;
+        private int ringSize = 8192;
+        private long idleParkMicros = 50;
+    }
+
+    @Data
+    public static class TickLadderConfig {
+        private int initialCapacity = 4096;
+        // symbol -> tick size; symbols listed here use the array-indexed ladder
+        private Map<String, BigDecimal> symbols = new HashMap<>();
+
+        public BigDecimal getTickSize(String symbol) {
+            return symbols.entrySet().stream()
+                    .filter(entry -> entry.getKey().equalsIgnoreCase(symbol))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElse(null);
+        }
+    }
+}
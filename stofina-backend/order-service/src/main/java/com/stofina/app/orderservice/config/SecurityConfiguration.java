@@ -67,6 +67,9 @@ public class SecurityConfiguration {
                                 "/api/v1/order-book/**",
                                 "/api/stop-loss/**"
                         ).hasAnyRole("CUSTOMER_SUPER_ADMIN", "CUSTOMER_TRADER")
+                        .requestMatchers(HttpMethod.GET,
+                                "/api/v1/settlement/**"
+                        ).hasRole("CUSTOMER_SUPER_ADMIN")
 
                         .requestMatchers(HttpMethod.POST,
                                 "/api/v1/orders/**",
@@ -13,6 +13,7 @@ public final class ApiEndpoints {
     public static final String ORDER_BOOK_BASE = API_BASE + "/orderbook";
     public static final String ORDERS_BASE = API_BASE + "/orders";
     public static final String MARKET_DATA_BASE = API_BASE + "/market-data";
+    public static final String SETTLEMENT_BASE = API_BASE + "/settlement";
     
     // Path Variables
     public static final String SYMBOL_PATH_VAR = "/{symbol}";
@@ -37,6 +38,9 @@ public final class ApiEndpoints {
 
     // Market data endpoint paths
     public static final String MARKET_DATA_GET_SYMBOL = SYMBOL_PATH_VAR; // "/{symbol}"
+
+    // Settlement endpoint paths
+    public static final String SETTLEMENT_STATUS = "/status";
     
     // Full endpoint paths (for documentation/reference)
     public static final String SYMBOLS_ENDPOINT = ORDER_BOOK_BASE + GET_SYMBOLS;
@@ -0,0 +1,22 @@
+package com.stofina.app.orderservice.controller;
+
+import com.stofina.app.orderservice.constants.ApiEndpoints;
+import com.stofina.app.orderservice.service.TradeSettlementService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(ApiEndpoints.SETTLEMENT_BASE)
+@RequiredArgsConstructor
+public class SettlementController {
+
+    private final TradeSettlementService tradeSettlementService;
+
+    @GetMapping(ApiEndpoints.SETTLEMENT_STATUS)
+    public ResponseEntity<TradeSettlementService.SettlementStatus> getStatus() {
+        return ResponseEntity.ok(tradeSettlementService.getStatus());
+    }
+}
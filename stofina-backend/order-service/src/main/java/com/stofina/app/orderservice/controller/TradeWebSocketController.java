@@ -10,7 +10,6 @@ import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
@@ -25,9 +24,7 @@ public class TradeWebSocketController {
     @Autowired
     private TradeRepository tradeRepository;
 
-    @Autowired
-    private SimpMessagingTemplate messagingTemplate;
-
+    // Live trades are pushed in batched frames by MarketFeedPublisher; this only serves the history
     @MessageMapping("/trades/subscribe")
     @SendTo("/topic/trades/{symbol}")
     public Map<String, Object> subscribeToTrades(@Payload Map<String, Object> message) {
@@ -77,22 +74,4 @@ public class TradeWebSocketController {
             );
         }
     }
-
-    public void broadcastTradeExecution(Trade trade) {
-        Map<String, Object> message = Map.of(
-            "type", "TRADE_EXECUTED",
-            "payload", Map.of(
-                "trade", Map.of(
-                    "id", trade.getTradeId(),
-                    "symbol", trade.getSymbol(),
-                    "price", trade.getPrice(),
-                    "quantity", trade.getQuantity(),
-                    "timestamp", trade.getExecutedAt().toString()
-                )
-            ),
-            "timestamp", System.currentTimeMillis()
-        );
-        
-        messagingTemplate.convertAndSend("/topic/trades/" + trade.getSymbol().toUpperCase(), message);
-    }
-}
\ No newline at end of file
+}
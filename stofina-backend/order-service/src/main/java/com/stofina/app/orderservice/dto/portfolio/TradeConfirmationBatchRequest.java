@@ -0,0 +1,20 @@
+package com.stofina.app.orderservice.dto.portfolio;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for confirming several trades with one call to Portfolio Service.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeConfirmationBatchRequest {
+
+    private List<TradeConfirmationItem> confirmations;
+}
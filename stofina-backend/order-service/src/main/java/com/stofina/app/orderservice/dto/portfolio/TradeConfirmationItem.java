@@ -0,0 +1,34 @@
+package com.stofina.app.orderservice.dto.portfolio;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One confirmation of a batch sent to Portfolio Service.
+ * Account ID is optional and only used to keep the confirmations of an account together.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeConfirmationItem {
+
+    @NotNull(message = "Order ID cannot be null")
+    @Positive(message = "Order ID must be positive")
+    private Long orderId;
+
+    private Long accountId;
+
+    @NotNull(message = "Confirmation type cannot be null")
+    private TradeConfirmationType type;
+
+    /**
+     * Filled quantity of a partial confirmation; unused for full confirmations.
+     */
+    @Positive(message = "Fulfilled quantity must be positive")
+    private Integer fulfilledQuantity;
+}
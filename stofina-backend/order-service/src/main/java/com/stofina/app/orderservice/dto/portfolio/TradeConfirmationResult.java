@@ -0,0 +1,23 @@
+package com.stofina.app.orderservice.dto.portfolio;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one confirmation of a batch, returned by Portfolio Service in request order.
+ * Error code is the HTTP status name the single confirm endpoint would have answered with.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeConfirmationResult {
+
+    private Long orderId;
+    private TradeConfirmationType type;
+    private boolean success;
+    private String errorCode;
+    private String message;
+}
@@ -0,0 +1,11 @@
+package com.stofina.app.orderservice.dto.portfolio;
+
+/**
+ * Kind of a trade confirmation sent to Portfolio Service in a batch.
+ */
+public enum TradeConfirmationType {
+    BUY,
+    SELL,
+    BUY_PARTIAL,
+    SELL_PARTIAL
+}
@@ -0,0 +1,55 @@
+package com.stofina.app.orderservice.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.stofina.app.orderservice.enums.OrderSide;
+import com.stofina.app.orderservice.model.OrderLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Message on /topic/orderbook/{symbol} (deltas) or /user/queue/orderbook/{symbol} (snapshots). A snapshot carries the full top levels, a delta only the
+ * levels that changed since the previous sequence. Both carry the checksum of the top levels after
+ * the message is applied, so a client that misses a sequence or disagrees on the checksum resubscribes.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderBookFeedMessage {
+
+    public static final String TYPE_SNAPSHOT = "ORDER_BOOK_SNAPSHOT";
+    public static final String TYPE_DELTA = "ORDER_BOOK_DELTA";
+
+    private final String type;
+    private final Payload payload;
+    private final long timestamp;
+
+    @Data
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Payload {
+        private final String symbol;
+        private final long sequence;
+        private final long checksum;
+        // Snapshot only
+        private final List<OrderLevel> bids;
+        private final List<OrderLevel> asks;
+        // Delta only
+        private final List<LevelChange> changes;
+    }
+
+    /**
+     * New state of one price level; a quantity of zero removes the level.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class LevelChange {
+        private final OrderSide side;
+        private final BigDecimal price;
+        private final BigDecimal quantity;
+        private final int orderCount;
+    }
+}
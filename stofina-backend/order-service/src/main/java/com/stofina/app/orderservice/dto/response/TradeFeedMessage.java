@@ -0,0 +1,49 @@
+package com.stofina.app.orderservice.dto.response;
+
+import com.stofina.app.orderservice.entity.Trade;
+import com.stofina.app.orderservice.enums.OrderSide;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One frame on /topic/trades/{symbol}: every trade the symbol printed during one publish interval, oldest first.
+ */
+@Data
+@AllArgsConstructor
+public class TradeFeedMessage {
+
+    public static final String TYPE_TRADES = "TRADES_EXECUTED";
+
+    private final String type;
+    private final Payload payload;
+    private final long timestamp;
+
+    @Data
+    @AllArgsConstructor
+    public static class Payload {
+        private final String symbol;
+        private final List<TradeItem> trades;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class TradeItem {
+        private final Long id;
+        private final String symbol;
+        private final BigDecimal price;
+        private final BigDecimal quantity;
+        // Side of the incoming order that took liquidity
+        private final OrderSide side;
+        private final String timestamp;
+        private final Long buyOrderId;
+        private final Long sellOrderId;
+
+        public static TradeItem of(Trade trade, OrderSide aggressorSide) {
+            return new TradeItem(trade.getTradeId(), trade.getSymbol(), trade.getPrice(), trade.getQuantity(),
+                    aggressorSide, String.valueOf(trade.getExecutedAt()), trade.getBuyOrderId(), trade.getSellOrderId());
+        }
+    }
+}
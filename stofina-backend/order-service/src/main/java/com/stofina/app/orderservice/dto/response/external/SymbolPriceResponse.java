@@ -0,0 +1,23 @@
+package com.stofina.app.orderservice.dto.response.external;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+// One entry of market-data's bulk price response; its local timestamp is not needed here
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SymbolPriceResponse {
+
+    private String symbol;
+    private BigDecimal price;
+    private String source;
+
+}
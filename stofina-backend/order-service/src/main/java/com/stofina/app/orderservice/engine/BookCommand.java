@@ -0,0 +1,31 @@
+package com.stofina.app.orderservice.engine;
+
+import com.stofina.app.orderservice.entity.Order;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Pre-allocated ring buffer slot. Producers fill the fields in place and the shard thread
+ * copies them out and clears the slot before executing, so slots are reused without garbage.
+ */
+final class BookCommand {
+
+    BookCommandType type;
+    String symbol;
+    Long orderId;
+    Order order;
+    Order replacement;
+    Supplier<?> task;
+    CompletableFuture<Object> result;
+
+    void clear() {
+        type = null;
+        symbol = null;
+        orderId = null;
+        order = null;
+        replacement = null;
+        task = null;
+        result = null;
+    }
+}
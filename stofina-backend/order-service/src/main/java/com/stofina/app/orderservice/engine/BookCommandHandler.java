@@ -0,0 +1,19 @@
+package com.stofina.app.orderservice.engine;
+
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.entity.Trade;
+
+import java.util.List;
+
+/**
+ * Book operations run by a sequencer shard thread. Implementations can assume they are
+ * the only writer of the books owned by the calling shard and need no locking.
+ */
+public interface BookCommandHandler {
+
+    List<Trade> onNewOrder(Order order);
+
+    boolean onCancel(Long orderId, String symbol);
+
+    boolean onAmend(Order oldOrder, Order newOrder);
+}
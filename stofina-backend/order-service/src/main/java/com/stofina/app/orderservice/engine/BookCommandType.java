@@ -0,0 +1,8 @@
+package com.stofina.app.orderservice.engine;
+
+public enum BookCommandType {
+    NEW_ORDER,
+    CANCEL,
+    AMEND,
+    TASK
+}
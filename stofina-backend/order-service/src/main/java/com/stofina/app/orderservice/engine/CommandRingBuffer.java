@@ -0,0 +1,83 @@
+package com.stofina.app.orderservice.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer / single-consumer ring of pre-allocated {@link BookCommand} slots.
+ * <p>
+ * Each slot carries a sequence number: a producer may claim position {@code p} when the slot
+ * sequence equals {@code p}, and publishes it by setting the sequence to {@code p + 1}. The consumer
+ * reads a slot once its sequence is {@code head + 1} and hands it back with {@code head + capacity}.
+ */
+final class CommandRingBuffer {
+
+    private final BookCommand[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    CommandRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity));
+        this.slots = new BookCommand[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new BookCommand();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return the claimed position, or -1 when the ring is full
+     */
+    long tryClaim() {
+        long position = tail.get();
+        while (true) {
+            long difference = sequences.get((int) position & mask) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (difference < 0) {
+                return -1;
+            }
+            position = tail.get();
+        }
+    }
+
+    BookCommand slot(long position) {
+        return slots[(int) position & mask];
+    }
+
+    void publish(long position) {
+        sequences.set((int) position & mask, position + 1);
+    }
+
+    /**
+     * @return the next published command, or null when nothing is ready. Consumer thread only.
+     */
+    BookCommand peek() {
+        long position = head;
+        int index = (int) position & mask;
+        return sequences.get(index) == position + 1 ? slots[index] : null;
+    }
+
+    /**
+     * Returns the slot read by the last {@link #peek()} to producers. Consumer thread only.
+     */
+    void release() {
+        long position = head;
+        sequences.set((int) position & mask, position + slots.length);
+        head = position + 1;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,118 @@
+package com.stofina.app.orderservice.engine;
+
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.entity.Trade;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer command pipeline for the matching engine.
+ * <p>
+ * Symbols are hashed onto a fixed number of shards. Every new, cancel and amend command for a
+ * symbol is published into that shard's ring buffer and executed in order by the shard's thread,
+ * so books need no locks and a busy symbol only delays the symbols sharing its shard.
+ * Commands issued from a shard's own thread run inline.
+ */
+@Slf4j
+public class OrderBookSequencer {
+
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000L;
+
+    private final SequencerShard[] shards;
+
+    public OrderBookSequencer(int shardCount, int ringSize, long idleParkMicros, BookCommandHandler handler) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+
+        this.shards = new SequencerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new SequencerShard(i, ringSize, TimeUnit.MICROSECONDS.toNanos(idleParkMicros), handler);
+            shards[i].start();
+        }
+        log.info("Order book sequencer started with {} shards (ring size: {})", shardCount, shards[0].getCapacity());
+    }
+
+    public CompletableFuture<List<Trade>> submitNewOrder(Order order) {
+        return dispatch(BookCommandType.NEW_ORDER, order.getSymbol(), order.getOrderId(), order, null, null);
+    }
+
+    public CompletableFuture<Boolean> submitCancel(Long orderId, String symbol) {
+        return dispatch(BookCommandType.CANCEL, symbol, orderId, null, null, null);
+    }
+
+    public CompletableFuture<Boolean> submitAmend(Order oldOrder, Order newOrder) {
+        return dispatch(BookCommandType.AMEND, oldOrder.getSymbol(), oldOrder.getOrderId(), oldOrder, newOrder, null);
+    }
+
+    /**
+     * Runs an arbitrary task on the shard that owns the symbol, e.g. a consistent snapshot read.
+     */
+    public <T> CompletableFuture<T> submit(String symbol, Supplier<T> task) {
+        return dispatch(BookCommandType.TASK, symbol, null, null, null, task);
+    }
+
+    public boolean isOwnerThread(String symbol) {
+        return shardFor(symbol).isCurrentThread();
+    }
+
+    public int shardOf(String symbol) {
+        return shardFor(symbol).getId();
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public List<Integer> getQueueDepths() {
+        List<Integer> depths = new ArrayList<>(shards.length);
+        for (SequencerShard shard : shards) {
+            depths.add(shard.getQueueDepth());
+        }
+        return depths;
+    }
+
+    public long getProcessedCount() {
+        long total = 0;
+        for (SequencerShard shard : shards) {
+            total += shard.getProcessedCount();
+        }
+        return total;
+    }
+
+    public void shutdown() {
+        for (SequencerShard shard : shards) {
+            shard.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> dispatch(BookCommandType type, String symbol, Long orderId,
+                                              Order order, Order replacement, Supplier<?> task) {
+        String normalizedSymbol = normalize(symbol);
+        SequencerShard shard = shardFor(normalizedSymbol);
+
+        if (shard.isCurrentThread()) {
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            shard.execute(type, normalizedSymbol, orderId, order, replacement, task, result);
+            return (CompletableFuture<T>) result;
+        }
+        return shard.publish(type, normalizedSymbol, orderId, order, replacement, task);
+    }
+
+    private SequencerShard shardFor(String symbol) {
+        return shards[(normalize(symbol).hashCode() & 0x7fffffff) % shards.length];
+    }
+
+    private String normalize(String symbol) {
+        if (symbol == null || symbol.trim().isEmpty()) {
+            throw new IllegalArgumentException("Symbol cannot be null or empty");
+        }
+        return symbol.trim().toUpperCase();
+    }
+}
@@ -0,0 +1,186 @@
+package com.stofina.app.orderservice.engine;
+
+import com.stofina.app.orderservice.entity.Order;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * One matching thread and its command ring. The thread is the only writer of the books
+ * whose symbols hash to this shard.
+ */
+@Slf4j
+final class SequencerShard implements Runnable {
+
+    private static final int SPINS_BEFORE_PARK = 200;
+    private static final long STOP_WAIT_MILLIS = 5000L;
+
+    private final int id;
+    private final CommandRingBuffer ring;
+    private final BookCommandHandler handler;
+    private final long idleParkNanos;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private volatile boolean parked;
+    private volatile long processedCount;
+
+    SequencerShard(int id, int ringSize, long idleParkNanos, BookCommandHandler handler) {
+        this.id = id;
+        this.ring = new CommandRingBuffer(ringSize);
+        this.handler = handler;
+        this.idleParkNanos = idleParkNanos;
+        this.thread = new Thread(this, "order-book-shard-" + id);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    boolean isCurrentThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> publish(BookCommandType type, String symbol, Long orderId,
+                                     Order order, Order replacement, Supplier<?> task) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        if (!running) {
+            return (CompletableFuture<T>) stopped(result);
+        }
+
+        long position;
+        while ((position = ring.tryClaim()) < 0) {
+            if (!running) {
+                return (CompletableFuture<T>) stopped(result);
+            }
+            // Ring full: back off until the shard thread catches up
+            LockSupport.parkNanos(1_000L);
+        }
+
+        BookCommand slot = ring.slot(position);
+        slot.type = type;
+        slot.symbol = symbol;
+        slot.orderId = orderId;
+        slot.order = order;
+        slot.replacement = replacement;
+        slot.task = task;
+        slot.result = result;
+        ring.publish(position);
+
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+        if (!running) {
+            // Shutdown raced with this publish. The shard drains its ring before it stops, so once the
+            // thread is gone a command it did not answer never will be
+            awaitStop();
+            if (!result.isDone()) {
+                stopped(result);
+            }
+        }
+        return (CompletableFuture<T>) result;
+    }
+    
+    private CompletableFuture<Object> stopped(CompletableFuture<Object> result) {
+        result.completeExceptionally(new IllegalStateException("Order book shard " + id + " is stopped"));
+        return result;
+    }
+    
+    private void awaitStop() {
+        try {
+            thread.join(STOP_WAIT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        int idleSpins = 0;
+        while (running || ring.peek() != null) {
+            BookCommand slot = ring.peek();
+            if (slot == null) {
+                idleSpins = idle(idleSpins);
+                continue;
+            }
+            idleSpins = 0;
+
+            BookCommandType type = slot.type;
+            String symbol = slot.symbol;
+            Long orderId = slot.orderId;
+            Order order = slot.order;
+            Order replacement = slot.replacement;
+            Supplier<?> task = slot.task;
+            CompletableFuture<Object> result = slot.result;
+            slot.clear();
+            ring.release();
+
+            execute(type, symbol, orderId, order, replacement, task, result);
+            processedCount++;
+        }
+        log.info("Order book shard {} stopped after {} commands", id, processedCount);
+    }
+
+    Object execute(BookCommandType type, String symbol, Long orderId, Order order, Order replacement,
+                   Supplier<?> task, CompletableFuture<Object> result) {
+        try {
+            Object value = switch (type) {
+                case NEW_ORDER -> handler.onNewOrder(order);
+                case CANCEL -> handler.onCancel(orderId, symbol);
+                case AMEND -> handler.onAmend(order, replacement);
+                case TASK -> task.get();
+            };
+            result.complete(value);
+            return value;
+        } catch (Throwable e) {
+            log.error("Order book shard {} failed to execute {} for symbol {}: {}", id, type, symbol, e.getMessage(), e);
+            result.completeExceptionally(e);
+            return null;
+        }
+    }
+
+    private int idle(int idleSpins) {
+        if (idleSpins < SPINS_BEFORE_PARK) {
+            Thread.onSpinWait();
+            return idleSpins + 1;
+        }
+
+        parked = true;
+        // Re-check after announcing the park so a concurrent publish cannot be missed
+        if (ring.peek() == null && running) {
+            LockSupport.parkNanos(this, idleParkNanos);
+        }
+        parked = false;
+        return idleSpins;
+    }
+
+    void shutdown(long timeoutMillis) {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    int getId() {
+        return id;
+    }
+
+    int getQueueDepth() {
+        return ring.size();
+    }
+
+    int getCapacity() {
+        return ring.capacity();
+    }
+
+    long getProcessedCount() {
+        return processedCount;
+    }
+}
@@ -25,7 +25,7 @@ public class Order {
 
     // CHECKPOINT 2.1 - Core Fields
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long orderId;
 
     @Column(nullable = false)
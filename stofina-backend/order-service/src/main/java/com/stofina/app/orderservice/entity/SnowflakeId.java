@@ -0,0 +1,18 @@
+package com.stofina.app.orderservice.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns ids from the shared {@link com.stofina.app.orderservice.util.SnowflakeIdGenerator}
+ * when an entity is persisted without one. Ids assigned up front (e.g. by the matcher) are kept.
+ */
+@IdGeneratorType(SnowflakeIdentifierGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SnowflakeId {
+}
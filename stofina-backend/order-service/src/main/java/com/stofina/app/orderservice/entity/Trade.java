@@ -25,7 +25,7 @@ public class Trade {
 
     // CHECKPOINT 2.2 - Trade Fields
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long tradeId;
 
     @Column(nullable = false)
@@ -0,0 +1,23 @@
+package com.stofina.app.orderservice.enums;
+
+public enum PersistenceDurability {
+
+    // Matching results are written behind the matcher; a crash can lose the last flush window
+    ASYNC("Trades and order updates are flushed in the background by size or time"),
+    // Every matching command waits until its writes are committed; concurrent commands share a batch
+    SYNC("Each matching command waits for its trades and order updates to be committed");
+
+    private final String description;
+
+    PersistenceDurability(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isSync() {
+        return this == SYNC;
+    }
+}
@@ -0,0 +1,152 @@
+package com.stofina.app.orderservice.journal;
+
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.enums.OrderSide;
+import com.stofina.app.orderservice.enums.OrderStatus;
+import com.stofina.app.orderservice.enums.OrderType;
+import com.stofina.app.orderservice.enums.TimeInForce;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary encoding of the order fields needed to rebuild a resting order.
+ * Nullable values are prefixed with a presence byte; enums are stored by name so
+ * reordering an enum does not corrupt existing journals.
+ */
+final class JournalCodec {
+
+    private JournalCodec() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    static void putOrder(ByteBuffer buffer, Order order) {
+        putLong(buffer, order.getOrderId());
+        putLong(buffer, order.getTenantId());
+        putLong(buffer, order.getAccountId());
+        putString(buffer, order.getSymbol());
+        putEnum(buffer, order.getOrderType());
+        putEnum(buffer, order.getSide());
+        putDecimal(buffer, order.getQuantity());
+        putDecimal(buffer, order.getPrice());
+        putDecimal(buffer, order.getFilledQuantity());
+        putDecimal(buffer, order.getAveragePrice());
+        putEnum(buffer, order.getStatus());
+        putEnum(buffer, order.getTimeInForce());
+        putDecimal(buffer, order.getStopPrice());
+        putDateTime(buffer, order.getExpiryDate());
+        putString(buffer, order.getClientOrderId());
+        putDateTime(buffer, order.getCreatedAt());
+        putDateTime(buffer, order.getUpdatedAt());
+        putLong(buffer, order.getVersion());
+        buffer.put((byte) (Boolean.TRUE.equals(order.getIsBot()) ? 1 : 0));
+    }
+
+    static Order getOrder(ByteBuffer buffer) {
+        Order order = new Order();
+        order.setOrderId(getLong(buffer));
+        order.setTenantId(getLong(buffer));
+        order.setAccountId(getLong(buffer));
+        order.setSymbol(getString(buffer));
+        order.setOrderType(getEnum(buffer, OrderType.class));
+        order.setSide(getEnum(buffer, OrderSide.class));
+        order.setQuantity(getDecimal(buffer));
+        order.setPrice(getDecimal(buffer));
+        order.setFilledQuantity(getDecimal(buffer));
+        order.setAveragePrice(getDecimal(buffer));
+        order.setStatus(getEnum(buffer, OrderStatus.class));
+        order.setTimeInForce(getEnum(buffer, TimeInForce.class));
+        order.setStopPrice(getDecimal(buffer));
+        order.setExpiryDate(getDateTime(buffer));
+        order.setClientOrderId(getString(buffer));
+        order.setCreatedAt(getDateTime(buffer));
+        order.setUpdatedAt(getDateTime(buffer));
+        order.setVersion(getLong(buffer));
+        order.setIsBot(buffer.get() == 1);
+        return order;
+    }
+
+    static void putLong(ByteBuffer buffer, Long value) {
+        if (value == null) {
+            buffer.put((byte) 0);
+            return;
+        }
+        buffer.put((byte) 1);
+        buffer.putLong(value);
+    }
+
+    static Long getLong(ByteBuffer buffer) {
+        return buffer.get() == 0 ? null : buffer.getLong();
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void putDecimal(ByteBuffer buffer, BigDecimal value) {
+        if (value == null) {
+            buffer.put((byte) 0);
+            return;
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        buffer.put((byte) unscaled.length);
+        buffer.put(unscaled);
+        buffer.putInt(value.scale());
+    }
+
+    static BigDecimal getDecimal(ByteBuffer buffer) {
+        int length = buffer.get() & 0xff;
+        if (length == 0) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        buffer.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), buffer.getInt());
+    }
+
+    static void putDateTime(ByteBuffer buffer, LocalDateTime value) {
+        if (value == null) {
+            buffer.put((byte) 0);
+            return;
+        }
+        buffer.put((byte) 1);
+        buffer.putLong(value.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(value.getNano());
+    }
+
+    static LocalDateTime getDateTime(ByteBuffer buffer) {
+        if (buffer.get() == 0) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+    }
+
+    static void putEnum(ByteBuffer buffer, Enum<?> value) {
+        putString(buffer, value != null ? value.name() : null);
+    }
+
+    static <E extends Enum<E>> E getEnum(ByteBuffer buffer, Class<E> type) {
+        String name = getString(buffer);
+        return name != null ? Enum.valueOf(type, name) : null;
+    }
+}
@@ -0,0 +1,25 @@
+package com.stofina.app.orderservice.journal;
+
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * A decoded journal entry. {@code order} is set for ADD and AMEND; the fill fields for FILL.
+ */
+@Getter
+@AllArgsConstructor
+public class JournalRecord {
+
+    private final long sequence;
+    private final JournalRecordType type;
+    private final String symbol;
+    private final Long orderId;
+    private final Order order;
+    private final BigDecimal filledQuantity;
+    private final BigDecimal averagePrice;
+    private final OrderStatus status;
+}
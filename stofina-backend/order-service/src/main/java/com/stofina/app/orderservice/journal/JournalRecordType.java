@@ -0,0 +1,33 @@
+package com.stofina.app.orderservice.journal;
+
+/**
+ * Book events written to the journal. Each record carries the resulting book state,
+ * so replay re-applies effects and never re-runs matching.
+ */
+public enum JournalRecordType {
+
+    ADD((byte) 1),      // order rested in the book
+    CANCEL((byte) 2),   // order left the book without being filled
+    FILL((byte) 3),     // resting order filled; removed when nothing remains
+    AMEND((byte) 4),    // resting order replaced
+    CLEAR((byte) 5);    // whole book dropped
+
+    private final byte code;
+
+    JournalRecordType(byte code) {
+        this.code = code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public static JournalRecordType fromCode(byte code) {
+        for (JournalRecordType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown journal record type: " + code);
+    }
+}
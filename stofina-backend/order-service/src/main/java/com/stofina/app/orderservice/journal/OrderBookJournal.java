@@ -0,0 +1,371 @@
+package com.stofina.app.orderservice.journal;
+
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.enums.OrderStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped journal of order book events plus compact book snapshots.
+ * <p>
+ * Records go into fixed-size segment files mapped into memory, so an append is a copy into
+ * the page cache and survives a process crash; segments are forced to disk when they roll and
+ * on close. Each record is {@code [length][crc32c][type][sequence][symbol][payload]}; replay
+ * stops at the first torn or zeroed record. A snapshot stores every book's resting orders in
+ * priority order together with the last sequence it reflects, so startup loads the snapshot and
+ * replays only the journal tail. Segments fully covered by a snapshot are deleted.
+ * <p>
+ * Appends are not synchronized: a journal has exactly one writer, the sequencer shard that owns
+ * its symbols (see {@link ShardJournals}).
+ */
+@Slf4j
+public class OrderBookJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String SNAPSHOT_FILE = "book.snapshot";
+    private static final int SNAPSHOT_MAGIC = 0x4F42534E; // "OBSN"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 4096;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ByteBuffer scratch = ByteBuffer.allocate(MAX_RECORD_BYTES);
+    private final CRC32C crc = new CRC32C();
+
+    private volatile long sequence;
+    private long snapshotSequence;
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment;
+    private boolean recovered;
+
+    public OrderBookJournal(Path directory, int segmentSize) {
+        if (segmentSize < MAX_RECORD_BYTES * 2) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal directory " + directory, e);
+        }
+    }
+
+    /**
+     * Loads the latest snapshot and replays the journal records it does not cover.
+     * Must be called once, before the first append.
+     *
+     * @param snapshotOrder receives (symbol, order) for every snapshotted order in book priority order
+     * @param tailRecord receives every journal record newer than its symbol's snapshot
+     * @return number of journal records replayed
+     */
+    public synchronized long recover(BiConsumer<String, Order> snapshotOrder, Consumer<JournalRecord> tailRecord) {
+        Map<String, Long> symbolSequences = loadSnapshot(snapshotOrder);
+        long replayed = 0;
+        sequence = snapshotSequence;
+
+        for (Path segmentPath : listSegments()) {
+            try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                JournalRecord record;
+                while ((record = readRecord(buffer)) != null) {
+                    sequence = Math.max(sequence, record.getSequence());
+                    long covered = symbolSequences.getOrDefault(record.getSymbol(), snapshotSequence);
+                    if (record.getSequence() > covered) {
+                        tailRecord.accept(record);
+                        replayed++;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read journal segment " + segmentPath, e);
+            }
+        }
+
+        recovered = true;
+        log.info("📒 JOURNAL: Recovered {} symbols from snapshot @{} and replayed {} records (last sequence {})",
+                symbolSequences.size(), snapshotSequence, replayed, sequence);
+        return replayed;
+    }
+
+    public long lastSequence() {
+        return sequence;
+    }
+
+    public void appendAdd(Order order) {
+        ByteBuffer body = begin(JournalRecordType.ADD, order.getSymbol());
+        JournalCodec.putOrder(body, order);
+        commit(body);
+    }
+
+    public void appendAmend(Order order) {
+        ByteBuffer body = begin(JournalRecordType.AMEND, order.getSymbol());
+        JournalCodec.putOrder(body, order);
+        commit(body);
+    }
+
+    public void appendCancel(String symbol, Long orderId) {
+        ByteBuffer body = begin(JournalRecordType.CANCEL, symbol);
+        JournalCodec.putLong(body, orderId);
+        commit(body);
+    }
+
+    public void appendFill(Order order) {
+        ByteBuffer body = begin(JournalRecordType.FILL, order.getSymbol());
+        JournalCodec.putLong(body, order.getOrderId());
+        JournalCodec.putDecimal(body, order.getFilledQuantity());
+        JournalCodec.putDecimal(body, order.getAveragePrice());
+        JournalCodec.putEnum(body, order.getStatus());
+        commit(body);
+    }
+
+    public void appendClear(String symbol) {
+        commit(begin(JournalRecordType.CLEAR, symbol));
+    }
+
+    /**
+     * Encodes a book's resting orders for a snapshot. Call on the thread that owns the book.
+     */
+    public static SymbolSnapshot encodeSnapshot(String symbol, long lastSequence, List<Order> orders) {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.max(MAX_RECORD_BYTES, orders.size() * 256));
+        for (Order order : orders) {
+            if (buffer.remaining() < MAX_RECORD_BYTES) {
+                buffer = grow(buffer);
+            }
+            JournalCodec.putOrder(buffer, order);
+        }
+        byte[] encoded = new byte[buffer.position()];
+        buffer.flip().get(encoded);
+        return new SymbolSnapshot(symbol, lastSequence, orders.size(), encoded);
+    }
+
+    /**
+     * Atomically replaces the snapshot and deletes journal segments it fully covers.
+     *
+     * @param baseSequence journal sequence read before the first book was snapshotted;
+     *                     records of symbols missing from the snapshot are replayed after it
+     */
+    public void writeSnapshot(long baseSequence, Collection<SymbolSnapshot> books) {
+        Path target = directory.resolve(SNAPSHOT_FILE);
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(20);
+            header.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putLong(baseSequence).putInt(books.size());
+            writeFully(channel, header.flip());
+
+            for (SymbolSnapshot book : books) {
+                ByteBuffer bookHeader = ByteBuffer.allocate(MAX_RECORD_BYTES);
+                JournalCodec.putString(bookHeader, book.getSymbol());
+                bookHeader.putLong(book.getLastSequence());
+                bookHeader.putInt(book.getOrderCount());
+                bookHeader.putInt(book.getEncodedOrders().length);
+                writeFully(channel, bookHeader.flip());
+                writeFully(channel, ByteBuffer.wrap(book.getEncodedOrders()));
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write order book snapshot", e);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot publish order book snapshot", e);
+        }
+        deleteSegmentsCoveredBy(baseSequence);
+    }
+
+    @Override
+    public synchronized void close() {
+        closeSegment();
+    }
+
+    private ByteBuffer begin(JournalRecordType type, String symbol) {
+        if (!recovered) {
+            throw new IllegalStateException("Journal must be recovered before appending");
+        }
+        scratch.clear();
+        scratch.put(type.getCode());
+        scratch.putLong(sequence + 1);
+        JournalCodec.putString(scratch, symbol);
+        return scratch;
+    }
+
+    private void commit(ByteBuffer body) {
+        body.flip();
+        int length = body.remaining();
+        if (segment == null || segment.remaining() < RECORD_HEADER_BYTES + length) {
+            rollSegment(sequence + 1);
+        }
+
+        crc.reset();
+        crc.update(body.duplicate());
+        segment.putInt(length);
+        segment.putInt((int) crc.getValue());
+        segment.put(body);
+        sequence++;
+    }
+
+    private JournalRecord readRecord(ByteBuffer buffer) {
+        if (buffer.remaining() < RECORD_HEADER_BYTES) {
+            return null;
+        }
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length <= 0 || length > buffer.remaining()) {
+            return null;
+        }
+
+        ByteBuffer body = buffer.slice(buffer.position(), length);
+        crc.reset();
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            log.warn("📒 JOURNAL: Stopping replay at torn record (position {})", buffer.position() - RECORD_HEADER_BYTES);
+            return null;
+        }
+        buffer.position(buffer.position() + length);
+
+        JournalRecordType type = JournalRecordType.fromCode(body.get());
+        long recordSequence = body.getLong();
+        String symbol = JournalCodec.getString(body);
+        return switch (type) {
+            case ADD, AMEND -> {
+                Order order = JournalCodec.getOrder(body);
+                yield new JournalRecord(recordSequence, type, symbol, order.getOrderId(), order, null, null, null);
+            }
+            case CANCEL -> new JournalRecord(recordSequence, type, symbol, JournalCodec.getLong(body),
+                    null, null, null, null);
+            case FILL -> new JournalRecord(recordSequence, type, symbol, JournalCodec.getLong(body), null,
+                    JournalCodec.getDecimal(body), JournalCodec.getDecimal(body),
+                    JournalCodec.getEnum(body, OrderStatus.class));
+            case CLEAR -> new JournalRecord(recordSequence, type, symbol, null, null, null, null, null);
+        };
+    }
+
+    private Map<String, Long> loadSnapshot(BiConsumer<String, Order> snapshotOrder) {
+        Map<String, Long> symbolSequences = new HashMap<>();
+        Path path = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(path)) {
+            return symbolSequences;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+                throw new IllegalStateException("Unsupported order book snapshot format: " + path);
+            }
+            snapshotSequence = buffer.getLong();
+            int bookCount = buffer.getInt();
+
+            for (int i = 0; i < bookCount; i++) {
+                String symbol = JournalCodec.getString(buffer);
+                long lastSequence = buffer.getLong();
+                int orderCount = buffer.getInt();
+                buffer.getInt(); // encoded length
+                for (int j = 0; j < orderCount; j++) {
+                    snapshotOrder.accept(symbol, JournalCodec.getOrder(buffer));
+                }
+                symbolSequences.put(symbol, lastSequence);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read order book snapshot " + path, e);
+        }
+        return symbolSequences;
+    }
+
+    private void rollSegment(long firstSequence) {
+        closeSegment();
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        try {
+            // A leftover file with this name can only hold a torn first record, so it is overwritten
+            segmentChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal segment " + path, e);
+        }
+        log.debug("📒 JOURNAL: Rolled to segment {}", path.getFileName());
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.force();
+            segmentChannel.close();
+        } catch (IOException e) {
+            log.error("📒 JOURNAL: Failed to close journal segment: {}", e.getMessage());
+        }
+        segment = null;
+        segmentChannel = null;
+    }
+
+    private void deleteSegmentsCoveredBy(long baseSequence) {
+        List<Path> segments = listSegments();
+        // A segment is covered when the next one starts at or below baseSequence + 1
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSequenceOf(segments.get(i + 1)) - 1 > baseSequence) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(segments.get(i));
+            } catch (IOException e) {
+                log.warn("📒 JOURNAL: Could not delete covered segment {}: {}", segments.get(i), e.getMessage());
+            }
+        }
+    }
+
+    private List<Path> listSegments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>(files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .toList());
+            segments.sort((a, b) -> Long.compare(firstSequenceOf(a), firstSequenceOf(b)));
+            return segments;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list journal segments in " + directory, e);
+        }
+    }
+
+    private static long firstSequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+}
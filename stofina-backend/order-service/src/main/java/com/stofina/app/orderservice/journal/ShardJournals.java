@@ -0,0 +1,180 @@
+package com.stofina.app.orderservice.journal;
+
+import com.stofina.app.orderservice.entity.Order;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * One {@link OrderBookJournal} per sequencer shard, so every shard appends to its own segments
+ * and shards never wait on each other.
+ * <p>
+ * Journals live in {@code <root>/shards-<count>/shard-<index>}. A layout is marked ready once it
+ * holds the full book state. When the shard count changes, the ready layout of the previous run is
+ * replayed once; the caller then snapshots the books into the new layout and calls
+ * {@link #finishMigration()}, which marks the new layout ready and deletes the old one.
+ */
+@Slf4j
+public class ShardJournals implements Closeable {
+
+    private static final String LAYOUT_PREFIX = "shards-";
+    private static final String SHARD_PREFIX = "shard-";
+    private static final String READY_MARKER = "layout.ready";
+
+    private final Path root;
+    private final int segmentSize;
+    private final OrderBookJournal[] journals;
+    private Path previousLayout;
+
+    public ShardJournals(Path root, int shardCount, int segmentSize) {
+        this.root = root;
+        this.segmentSize = segmentSize;
+        this.journals = new OrderBookJournal[shardCount];
+    }
+
+    /**
+     * Rebuilds the books from the ready layout and opens one empty-or-recovered journal per shard.
+     *
+     * @return number of journal records replayed
+     */
+    public long recover(BiConsumer<String, Order> snapshotOrder, Consumer<JournalRecord> tailRecord) {
+        Path layout = layoutDirectory(journals.length);
+        List<Path> readyLayouts = listLayouts().stream().filter(ShardJournals::isReady).toList();
+
+        if (!readyLayouts.contains(layout) && !readyLayouts.isEmpty()) {
+            // The previous run used another shard count; its layout holds the state until migrated
+            previousLayout = readyLayouts.stream()
+                    .max(Comparator.comparingLong(ShardJournals::readyAt))
+                    .orElseThrow();
+            deleteRecursively(layout);
+        }
+
+        long replayed = 0;
+        if (previousLayout != null) {
+            for (Path shardDirectory : listShards(previousLayout)) {
+                try (OrderBookJournal previous = new OrderBookJournal(shardDirectory, segmentSize)) {
+                    replayed += previous.recover(snapshotOrder, tailRecord);
+                }
+            }
+            log.info("📒 JOURNAL: Replaying layout {} into {} shards", previousLayout.getFileName(), journals.length);
+        }
+
+        for (int shard = 0; shard < journals.length; shard++) {
+            journals[shard] = new OrderBookJournal(layout.resolve(SHARD_PREFIX + shard), segmentSize);
+            replayed += previousLayout != null
+                    ? journals[shard].recover((symbol, order) -> { }, record -> { })
+                    : journals[shard].recover(snapshotOrder, tailRecord);
+        }
+
+        if (previousLayout == null) {
+            markReady(layout);
+        }
+        return replayed;
+    }
+
+    public boolean isMigrating() {
+        return previousLayout != null;
+    }
+
+    /**
+     * Call after every book was snapshotted into the new layout.
+     */
+    public void finishMigration() {
+        if (previousLayout == null) {
+            return;
+        }
+        markReady(layoutDirectory(journals.length));
+        deleteRecursively(previousLayout);
+        log.info("📒 JOURNAL: Migrated journal layout {} → {}", previousLayout.getFileName(),
+                layoutDirectory(journals.length).getFileName());
+        previousLayout = null;
+    }
+
+    public OrderBookJournal get(int shard) {
+        return journals[shard];
+    }
+
+    public int size() {
+        return journals.length;
+    }
+
+    @Override
+    public void close() {
+        for (OrderBookJournal journal : journals) {
+            if (journal != null) {
+                journal.close();
+            }
+        }
+    }
+
+    private Path layoutDirectory(int shardCount) {
+        return root.resolve(LAYOUT_PREFIX + shardCount);
+    }
+
+    private List<Path> listLayouts() {
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(root)) {
+            return files.filter(Files::isDirectory)
+                    .filter(path -> path.getFileName().toString().startsWith(LAYOUT_PREFIX))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list journal layouts in " + root, e);
+        }
+    }
+
+    private static List<Path> listShards(Path layout) {
+        try (Stream<Path> files = Files.list(layout)) {
+            return files.filter(Files::isDirectory)
+                    .filter(path -> path.getFileName().toString().startsWith(SHARD_PREFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list journal shards in " + layout, e);
+        }
+    }
+
+    private static boolean isReady(Path layout) {
+        return Files.exists(layout.resolve(READY_MARKER));
+    }
+
+    private static long readyAt(Path layout) {
+        try {
+            return Files.getLastModifiedTime(layout.resolve(READY_MARKER)).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void markReady(Path layout) {
+        try {
+            Files.createDirectories(layout);
+            Files.write(layout.resolve(READY_MARKER), new byte[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot mark journal layout " + layout + " ready", e);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete journal layout " + directory, e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.stofina.app.orderservice.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Encoded resting orders of one book, taken on the shard that owns the symbol.
+ * Every journal record of the symbol up to {@code lastSequence} is already reflected in it.
+ */
+@Getter
+@AllArgsConstructor
+public class SymbolSnapshot {
+
+    private final String symbol;
+    private final long lastSequence;
+    private final int orderCount;
+    private final byte[] encodedOrders;
+}
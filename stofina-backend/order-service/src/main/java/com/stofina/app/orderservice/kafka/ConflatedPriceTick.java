@@ -0,0 +1,55 @@
+package com.stofina.app.orderservice.kafka;
+
+import com.stofina.app.orderservice.dto.response.StockResponse;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ticks of one symbol in a polled batch collapsed into one: the latest tick plus the lowest and
+ * highest price seen, so price-crossing checks still see the whole range the batch moved through.
+ */
+@Getter
+public class ConflatedPriceTick {
+
+    private final String symbol;
+    private StockResponse latest;
+    private BigDecimal lowPrice;
+    private BigDecimal highPrice;
+    private int tickCount;
+
+    private ConflatedPriceTick(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * Records arrive per partition in order, and a symbol's ticks share a partition,
+     * so the last tick of a symbol in the batch is its latest.
+     */
+    public static Collection<ConflatedPriceTick> conflate(List<StockResponse> ticks) {
+        Map<String, ConflatedPriceTick> bySymbol = new LinkedHashMap<>();
+        for (StockResponse tick : ticks) {
+            if (tick == null || tick.getSymbol() == null || tick.getCurrentPrice() == null) {
+                continue;
+            }
+            bySymbol.computeIfAbsent(tick.getSymbol(), ConflatedPriceTick::new).add(tick);
+        }
+        return bySymbol.values();
+    }
+
+    private void add(StockResponse tick) {
+        BigDecimal price = tick.getCurrentPrice();
+        latest = tick;
+        lowPrice = lowPrice == null ? price : lowPrice.min(price);
+        highPrice = highPrice == null ? price : highPrice.max(price);
+        tickCount++;
+    }
+
+    public BigDecimal getCurrentPrice() {
+        return latest.getCurrentPrice();
+    }
+}
@@ -1,15 +1,21 @@
 package com.stofina.app.orderservice.kafka;
 
+import com.stofina.app.commondata.marketdata.StockTick;
 import com.stofina.app.orderservice.dto.response.StockResponse;
 import com.stofina.app.orderservice.service.IStopLossService;
 import com.stofina.app.orderservice.service.KafkaPriceCache;
 import com.stofina.app.orderservice.service.SimpleOrderBookManager;
 import com.stofina.app.orderservice.service.PendingOrderService;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 @Slf4j
 @Service
 public class OrderConsumer {
@@ -26,17 +32,48 @@ public class OrderConsumer {
     @Autowired
     private PendingOrderService pendingOrderService;
 
+    @Autowired
+    private StockReferenceRegistry stockReferenceRegistry;
+
+    /**
+     * Only the latest price of a symbol matters for the cache, so a polled batch is collapsed to one
+     * tick per symbol. Stop-loss and pending-order checks get the low/high of the batch so that a price
+     * passed through between polls still triggers them.
+     */
     @KafkaListener(topics = "stock-topic", groupId = "order-service-group")
-    public void consumeStockMessage(StockResponse stockResponse) {
-        log.info("Kafka'dan gelen hisse güncellemesi: symbol={}, price={}, change={}%",
-                stockResponse.getSymbol(), stockResponse.getCurrentPrice(), stockResponse.getChangePercent());
+    public void consumeStockMessages(List<ConsumerRecord<String, StockTick>> records) {
+        List<StockResponse> stockResponses = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, StockTick> record : records) {
+            StockResponse stockResponse = record.value() != null
+                    ? stockReferenceRegistry.resolve(record.key(), record.value()) : null;
+            if (stockResponse != null) {
+                stockResponses.add(stockResponse);
+            }
+        }
+        
+        Collection<ConflatedPriceTick> ticks = ConflatedPriceTick.conflate(stockResponses);
+        if (stockResponses.size() > ticks.size()) {
+            log.info("Kafka'dan {} hisse güncellemesi alındı, {} sembole indirgendi", stockResponses.size(), ticks.size());
+        }
+        
+        for (ConflatedPriceTick tick : ticks) {
+            consumeStockTick(tick);
+        }
+    }
+
+    private void consumeStockTick(ConflatedPriceTick tick) {
+        StockResponse stockResponse = tick.getLatest();
+        log.info("Kafka'dan gelen hisse güncellemesi: symbol={}, price={}, change={}%, range={}-{}, ticks={}",
+                stockResponse.getSymbol(), stockResponse.getCurrentPrice(), stockResponse.getChangePercent(),
+                tick.getLowPrice(), tick.getHighPrice(), tick.getTickCount());
         
         try {
             // Kafka'dan gelen fiyatı cache'le (ana amaç!)
             kafkaPriceCache.updatePrice(stockResponse.getSymbol(), stockResponse.getCurrentPrice());
             
-            // Stop-Loss kontrollerini yap (mevcut method'u kullan)
-            var stopLossResult = stopLossService.checkPrice(stockResponse.getSymbol(), stockResponse.getCurrentPrice());
+            // Stop-Loss kontrollerini yap: batch içindeki en düşük fiyat tetikler, emir son fiyattan açılır
+            var stopLossResult = stopLossService.checkPrice(stockResponse.getSymbol(), tick.getLowPrice(),
+                    stockResponse.getCurrentPrice());
             if (stopLossResult.isSuccess() && !stopLossResult.getData().isEmpty()) {
                 log.info("Stop-loss tetiklendi - symbol: {}, triggered orders: {}", 
                         stockResponse.getSymbol(), stopLossResult.getData().size());
@@ -45,7 +82,7 @@ public class OrderConsumer {
             // 🆕 PENDING ORDER CHECK: Bekleyen emirleri kontrol et ve aktive et
             try {
                 var activatedOrders = pendingOrderService.checkAndActivatePendingOrders(
-                        stockResponse.getSymbol(), stockResponse.getCurrentPrice());
+                        stockResponse.getSymbol(), tick.getLowPrice(), tick.getHighPrice());
                 
                 if (!activatedOrders.isEmpty()) {
                     log.info("🟢 KAFKA: {} bekleyen emir aktive edildi - symbol: {}, price: {}", 
@@ -0,0 +1,67 @@
+package com.stofina.app.orderservice.kafka;
+
+import com.stofina.app.commondata.marketdata.StockReference;
+import com.stofina.app.commondata.marketdata.StockTick;
+import com.stofina.app.orderservice.dto.response.StockResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Static stock data by symbol id, read from the compacted stock-reference-topic. Every instance reads the
+ * whole topic from the beginning on startup, so the registry holds the latest record of every symbol.
+ */
+@Slf4j
+@Component
+public class StockReferenceRegistry {
+
+    private final Map<Integer, StockReference> bySymbolId = new ConcurrentHashMap<>();
+
+    @KafkaListener(id = "stock-reference-listener",
+            topicPartitions = @TopicPartition(topic = "stock-reference-topic",
+                    partitionOffsets = @PartitionOffset(partition = "0", initialOffset = "0")),
+            containerFactory = "stockReferenceListenerContainerFactory")
+    public void consumeStockReference(StockReference reference) {
+        if (reference == null || reference.getSymbol() == null) {
+            return;
+        }
+        StockReference previous = bySymbolId.put(reference.getSymbolId(), reference);
+        if (previous == null || !previous.getSymbol().equals(reference.getSymbol())) {
+            log.info("Hisse referansı alındı: symbolId={}, symbol={}", reference.getSymbolId(), reference.getSymbol());
+        }
+    }
+
+    public StockReference get(int symbolId) {
+        return bySymbolId.get(symbolId);
+    }
+
+    /**
+     * Expands a binary tick to the stock response the price checks work with. The symbol comes from the
+     * reference data; until that has been read the record key, which is always the symbol, stands in.
+     * @return null when the symbol can be resolved from neither
+     */
+    public StockResponse resolve(String key, StockTick tick) {
+        StockReference reference = bySymbolId.get(tick.getSymbolId());
+        String symbol = reference != null ? reference.getSymbol() : key;
+        if (symbol == null) {
+            return null;
+        }
+
+        return new StockResponse(
+                symbol,
+                reference != null ? reference.getCompanyName() : null,
+                tick.getPrice(),
+                reference != null ? reference.getDefaultPrice() : null,
+                tick.getChangeAmount(),
+                tick.getChangePercent(),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(tick.getTimestampMillis()), ZoneId.systemDefault()));
+    }
+}
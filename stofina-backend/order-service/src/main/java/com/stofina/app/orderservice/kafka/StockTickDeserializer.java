@@ -0,0 +1,27 @@
+package com.stofina.app.orderservice.kafka;
+
+import com.stofina.app.commondata.marketdata.StockTick;
+import com.stofina.app.commondata.marketdata.StockTickCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Reads the binary stock-topic ticks. A tick that cannot be decoded, e.g. a newer version written by an
+ * upgraded producer, comes through as null and is skipped by the listener instead of blocking the partition.
+ */
+@Slf4j
+public class StockTickDeserializer implements Deserializer<StockTick> {
+
+    @Override
+    public StockTick deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return StockTickCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ KAFKA: Unreadable stock tick on {} skipped: {}", topic, e.getMessage());
+            return null;
+        }
+    }
+}
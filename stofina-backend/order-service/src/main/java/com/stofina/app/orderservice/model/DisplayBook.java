@@ -0,0 +1,317 @@
+package com.stofina.app.orderservice.model;
+
+import com.stofina.app.orderservice.enums.OrderSide;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Display book of one symbol: the bot ladder and user orders merged into price levels per side.
+ *
+ * Levels are kept up to date as orders come and go, and every change rebuilds the top-of-book
+ * snapshot once, so readers only read a volatile reference. Mutations are serialized on the book.
+ *
+ * Bot orders sit one per level on a fixed price grid, in a window between 0.5% and 3% away from the
+ * centre price on each side. Moving the centre only touches the grid levels that leave or enter the
+ * window, so the cost of a refresh follows the size of the price move rather than the ladder size.
+ */
+public class DisplayBook {
+
+    private static final int SNAPSHOT_DEPTH = 10;
+
+    private static final BigDecimal BOT_NEAR_OFFSET = new BigDecimal("0.005");
+    private static final BigDecimal BOT_FAR_OFFSET = new BigDecimal("0.03");
+    // Grid step as a fraction of the first centre price: 25 levels per side
+    private static final BigDecimal BOT_STEP_FRACTION = new BigDecimal("0.001");
+    private static final BigDecimal MIN_BOT_STEP = new BigDecimal("0.001");
+
+    private final String symbol;
+    private final NavigableMap<BigDecimal, DisplayOrder> botBids = new TreeMap<>();
+    private final NavigableMap<BigDecimal, DisplayOrder> botAsks = new TreeMap<>();
+    private final Map<Long, DisplayOrder> userOrders = new LinkedHashMap<>();
+    private final NavigableMap<BigDecimal, LevelTotal> bidLevels = new TreeMap<>(Comparator.reverseOrder());
+    private final NavigableMap<BigDecimal, LevelTotal> askLevels = new TreeMap<>();
+    // Levels changed since the replica last drained them
+    private final NavigableSet<BigDecimal> changedBids = new TreeSet<>();
+    private final NavigableSet<BigDecimal> changedAsks = new TreeSet<>();
+
+    // Grid step and current window (inclusive grid indexes) of the bot ladder; step is null until placed
+    private BigDecimal botStep;
+    private final long[] bidWindow = new long[2];
+    private final long[] askWindow = new long[2];
+
+    private long version;
+    private volatile SimpleOrderBookSnapshot snapshot;
+
+    public DisplayBook(String symbol) {
+        this.symbol = symbol;
+        this.snapshot = buildSnapshot();
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public SimpleOrderBookSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Moves the bot ladder to the window around the centre price. Only grid levels leaving the window
+     * are removed and only levels entering it are created; bots that stay keep their quantity.
+     *
+     * @param quantityForDistance quantity of a new bot order by its distance from the centre as a fraction
+     * @return the number of bot orders added or removed, 0 when the window did not move
+     */
+    public synchronized int recenterBotLadder(BigDecimal centre, Function<BigDecimal, BigDecimal> quantityForDistance) {
+        if (centre == null || centre.signum() <= 0) {
+            return 0;
+        }
+        boolean placed = botStep != null;
+        if (!placed) {
+            botStep = centre.multiply(BOT_STEP_FRACTION).setScale(3, RoundingMode.HALF_UP).max(MIN_BOT_STEP);
+        }
+
+        BigDecimal one = BigDecimal.ONE;
+        int changed = shiftWindow(OrderSide.BUY, botBids, bidWindow, placed,
+                gridIndex(centre.multiply(one.subtract(BOT_FAR_OFFSET)), RoundingMode.CEILING),
+                gridIndex(centre.multiply(one.subtract(BOT_NEAR_OFFSET)), RoundingMode.FLOOR),
+                centre, quantityForDistance);
+        changed += shiftWindow(OrderSide.SELL, botAsks, askWindow, placed,
+                gridIndex(centre.multiply(one.add(BOT_NEAR_OFFSET)), RoundingMode.CEILING),
+                gridIndex(centre.multiply(one.add(BOT_FAR_OFFSET)), RoundingMode.FLOOR),
+                centre, quantityForDistance);
+
+        if (changed > 0) {
+            publish();
+        }
+        return changed;
+    }
+
+    /**
+     * Adds a user order keyed by its display order id; a previous order with the same id is replaced.
+     */
+    public synchronized void addUserOrder(DisplayOrder order) {
+        DisplayOrder previous = userOrders.put(order.getDisplayOrderId(), order);
+        if (previous != null) {
+            unlevel(previous);
+        }
+        level(order);
+        publish();
+    }
+
+    public synchronized boolean removeUserOrder(Long displayOrderId) {
+        DisplayOrder removed = userOrders.remove(displayOrderId);
+        if (removed == null) {
+            return false;
+        }
+        unlevel(removed);
+        publish();
+        return true;
+    }
+
+    public synchronized void clear() {
+        changedBids.addAll(bidLevels.keySet());
+        changedAsks.addAll(askLevels.keySet());
+        botBids.clear();
+        botAsks.clear();
+        botStep = null;
+        userOrders.clear();
+        bidLevels.clear();
+        askLevels.clear();
+        publish();
+    }
+
+    public synchronized int getBotOrderCount(OrderSide side) {
+        return botOrders(side).size();
+    }
+
+    public synchronized int getOrderCount() {
+        return botBids.size() + botAsks.size() + userOrders.size();
+    }
+
+    public synchronized List<DisplayOrder> getUserOrders() {
+        List<DisplayOrder> copies = new ArrayList<>(userOrders.size());
+        for (DisplayOrder order : userOrders.values()) {
+            // Callers get copies; a changed quantity has to come back through the book to move the levels
+            copies.add(new DisplayOrder(order.getDisplayOrderId(), order.getSymbol(), order.getSide(),
+                    order.getPrice(), order.getQuantity(), order.isBot(), order.getCreatedAt()));
+        }
+        return copies;
+    }
+
+    /**
+     * Hands over the levels of one side changed since the last call, with their current quantity;
+     * levels that no longer exist come back with zero.
+     */
+    public synchronized Map<BigDecimal, BigDecimal> drainLevelChanges(OrderSide side) {
+        NavigableSet<BigDecimal> changed = side == OrderSide.BUY ? changedBids : changedAsks;
+        NavigableMap<BigDecimal, LevelTotal> levels = side == OrderSide.BUY ? bidLevels : askLevels;
+        Map<BigDecimal, BigDecimal> changes = new TreeMap<>();
+        for (BigDecimal price : changed) {
+            LevelTotal total = levels.get(price);
+            changes.put(price, total != null ? total.quantity : BigDecimal.ZERO);
+        }
+        changed.clear();
+        return changes;
+    }
+
+    /**
+     * Merged levels of one side, best price first; used to rewrite the replica as a whole.
+     */
+    public synchronized Map<BigDecimal, BigDecimal> getLevelQuantities(OrderSide side) {
+        NavigableMap<BigDecimal, LevelTotal> levels = side == OrderSide.BUY ? bidLevels : askLevels;
+        Map<BigDecimal, BigDecimal> quantities = new LinkedHashMap<>(levels.size() * 2);
+        levels.forEach((price, total) -> quantities.put(price, total.quantity));
+        return quantities;
+    }
+
+    private NavigableMap<BigDecimal, DisplayOrder> botOrders(OrderSide side) {
+        return side == OrderSide.BUY ? botBids : botAsks;
+    }
+
+    private long gridIndex(BigDecimal price, RoundingMode rounding) {
+        return price.divide(botStep, 0, rounding).longValueExact();
+    }
+
+    private int shiftWindow(OrderSide side, NavigableMap<BigDecimal, DisplayOrder> bots, long[] window, boolean placed,
+                            long low, long high, BigDecimal centre,
+                            Function<BigDecimal, BigDecimal> quantityForDistance) {
+        long oldLow = window[0];
+        long oldHigh = window[1];
+        if (placed && oldLow == low && oldHigh == high) {
+            return 0;
+        }
+
+        int changed = 0;
+        if (placed) {
+            for (long index = oldLow; index <= oldHigh; index++) {
+                if (index < low || index > high) {
+                    DisplayOrder removed = bots.remove(gridPrice(index));
+                    if (removed != null) {
+                        unlevel(removed);
+                        changed++;
+                    }
+                }
+            }
+        }
+        for (long index = low; index <= high; index++) {
+            if (placed && index >= oldLow && index <= oldHigh) {
+                continue;
+            }
+            BigDecimal price = gridPrice(index);
+            BigDecimal distance = price.subtract(centre).abs().divide(centre, 6, RoundingMode.HALF_UP);
+            DisplayOrder order = new DisplayOrder(symbol, side, price, quantityForDistance.apply(distance), true);
+            DisplayOrder previous = bots.put(price, order);
+            if (previous != null) {
+                unlevel(previous);
+            }
+            level(order);
+            changed++;
+        }
+        window[0] = low;
+        window[1] = high;
+        return changed;
+    }
+
+    private BigDecimal gridPrice(long index) {
+        return botStep.multiply(BigDecimal.valueOf(index));
+    }
+
+    private NavigableMap<BigDecimal, LevelTotal> levelsOf(DisplayOrder order) {
+        return order.getSide() == OrderSide.BUY ? bidLevels : askLevels;
+    }
+
+    private void level(DisplayOrder order) {
+        if (order.getPrice() == null || order.getQuantity() == null) {
+            return;
+        }
+        // Levels are keyed by compareTo, so prices that differ only in scale share a level
+        levelsOf(order).computeIfAbsent(order.getPrice(), key -> new LevelTotal()).add(order.getQuantity());
+        changedLevels(order).add(order.getPrice());
+    }
+
+    private void unlevel(DisplayOrder order) {
+        if (order.getPrice() == null || order.getQuantity() == null) {
+            return;
+        }
+        NavigableMap<BigDecimal, LevelTotal> levels = levelsOf(order);
+        LevelTotal total = levels.get(order.getPrice());
+        if (total != null && total.remove(order.getQuantity())) {
+            levels.remove(order.getPrice());
+        }
+        changedLevels(order).add(order.getPrice());
+    }
+
+    private NavigableSet<BigDecimal> changedLevels(DisplayOrder order) {
+        return order.getSide() == OrderSide.BUY ? changedBids : changedAsks;
+    }
+
+    private void publish() {
+        version++;
+        snapshot = buildSnapshot();
+    }
+
+    private SimpleOrderBookSnapshot buildSnapshot() {
+        List<OrderLevel> bids = topLevels(bidLevels);
+        List<OrderLevel> asks = topLevels(askLevels);
+        BigDecimal bestBid = bids.isEmpty() ? null : bids.get(0).getPrice();
+        BigDecimal bestAsk = asks.isEmpty() ? null : asks.get(0).getPrice();
+        BigDecimal spread = bestBid != null && bestAsk != null ? bestAsk.subtract(bestBid) : null;
+
+        return new SimpleOrderBookSnapshot(symbol, bids, asks, bestBid, bestAsk, spread, LocalDateTime.now(),
+                totalQuantity(bids), totalQuantity(asks), version);
+    }
+
+    private static List<OrderLevel> topLevels(NavigableMap<BigDecimal, LevelTotal> levels) {
+        if (levels.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<OrderLevel> top = new ArrayList<>(Math.min(levels.size(), SNAPSHOT_DEPTH));
+        Iterator<Map.Entry<BigDecimal, LevelTotal>> it = levels.entrySet().iterator();
+        while (it.hasNext() && top.size() < SNAPSHOT_DEPTH) {
+            Map.Entry<BigDecimal, LevelTotal> entry = it.next();
+            top.add(new OrderLevel(entry.getKey(), entry.getValue().quantity, entry.getValue().orderCount));
+        }
+        return Collections.unmodifiableList(top);
+    }
+
+    private static int totalQuantity(List<OrderLevel> levels) {
+        int total = 0;
+        for (OrderLevel level : levels) {
+            total += level.getQuantity().intValue();
+        }
+        return total;
+    }
+
+    private static final class LevelTotal {
+        private BigDecimal quantity = BigDecimal.ZERO;
+        private int orderCount;
+
+        void add(BigDecimal amount) {
+            quantity = quantity.add(amount);
+            orderCount++;
+        }
+
+        /**
+         * @return true when the level has no orders left
+         */
+        boolean remove(BigDecimal amount) {
+            quantity = quantity.subtract(amount);
+            return --orderCount <= 0;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.stofina.app.orderservice.model;
+
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.util.FixedPoint;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Fill progress of one order in {@link FixedPoint} units. Matching updates this state and
+ * only writes BigDecimal values back to the {@link Order} entity once per fill.
+ */
+@Getter
+public class FillState {
+
+    private long filled;
+    private long remaining;
+    private long averagePrice;
+
+    private FillState(long filled, long remaining, long averagePrice) {
+        this.filled = filled;
+        this.remaining = remaining;
+        this.averagePrice = averagePrice;
+    }
+
+    public static FillState of(Order order) {
+        BigDecimal filledQuantity = order.getFilledQuantity() != null ? order.getFilledQuantity() : BigDecimal.ZERO;
+        BigDecimal averagePrice = order.getAveragePrice();
+        return new FillState(
+                FixedPoint.toQuantityUnits(filledQuantity),
+                FixedPoint.toQuantityUnits(order.getRemainingQuantity()),
+                averagePrice != null ? FixedPoint.toPriceUnits(averagePrice, RoundingMode.HALF_UP) : 0L);
+    }
+
+    public void fill(long quantity, long price) {
+        // The first fill takes the trade price as is, later fills blend into the weighted average
+        averagePrice = averagePrice == 0
+                ? price
+                : FixedPoint.averagePrice(averagePrice, filled, price, quantity);
+        filled += quantity;
+        remaining -= quantity;
+    }
+
+    public void writeTo(Order order) {
+        order.setFilledQuantity(FixedPoint.toQuantity(filled));
+        order.setAveragePrice(FixedPoint.toPrice(averagePrice));
+        order.setUpdatedAt(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,31 @@
+package com.stofina.app.orderservice.model;
+
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The fill state of an order as the matcher left it: the only columns matching changes.
+ * Captured on the matching thread so the write-behind stage never reads a live order.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class OrderStateUpdate {
+
+    private final Long orderId;
+    private final BigDecimal filledQuantity;
+    private final BigDecimal averagePrice;
+    private final OrderStatus status;
+    private final LocalDateTime updatedAt;
+
+    public static OrderStateUpdate of(Order order) {
+        return new OrderStateUpdate(order.getOrderId(), order.getFilledQuantity(), order.getAveragePrice(),
+                order.getStatus(), order.getUpdatedAt() != null ? order.getUpdatedAt() : LocalDateTime.now());
+    }
+}
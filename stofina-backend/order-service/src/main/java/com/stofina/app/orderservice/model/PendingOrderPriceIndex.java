@@ -0,0 +1,106 @@
+package com.stofina.app.orderservice.model;
+
+import com.stofina.app.orderservice.entity.Order;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Orders waiting for the market price to come within their activation band, indexed per symbol by
+ * order price. A tick turns into a range query over the band, so its cost follows the number of
+ * orders in the band rather than the number of pending orders.
+ *
+ * Orders are claimed by removing them from the price map, so only one tick can activate an order
+ * and a concurrent cancel either sees it pending or not at all.
+ */
+public class PendingOrderPriceIndex {
+
+    private final Map<String, ConcurrentSkipListMap<PriceKey, Order>> bySymbol = new ConcurrentHashMap<>();
+    private final Map<Long, Order> byOrderId = new ConcurrentHashMap<>();
+
+    public void add(Order order) {
+        Order previous = byOrderId.put(order.getOrderId(), order);
+        if (previous != null) {
+            unlink(previous);
+        }
+        // Without a price the order can never come into range; it is only kept for lookups and cancels
+        if (order.getPrice() != null) {
+            bySymbol.computeIfAbsent(order.getSymbol(), key -> new ConcurrentSkipListMap<>())
+                    .put(PriceKey.of(order), order);
+        }
+    }
+
+    public Order remove(Long orderId) {
+        Order order = orderId != null ? byOrderId.remove(orderId) : null;
+        if (order != null) {
+            unlink(order);
+        }
+        return order;
+    }
+
+    /**
+     * Removes and returns the symbol's orders priced within [low, high], lowest price first.
+     */
+    public List<Order> claimWithin(String symbol, BigDecimal low, BigDecimal high) {
+        ConcurrentSkipListMap<PriceKey, Order> orders = bySymbol.get(symbol);
+        if (orders == null || low.compareTo(high) > 0) {
+            return Collections.emptyList();
+        }
+
+        ConcurrentNavigableMap<PriceKey, Order> band = orders.subMap(
+                new PriceKey(low, Long.MIN_VALUE), true, new PriceKey(high, Long.MAX_VALUE), true);
+        if (band.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Order> claimed = new ArrayList<>();
+        for (Map.Entry<PriceKey, Order> entry : band.entrySet()) {
+            Order order = entry.getValue();
+            if (band.remove(entry.getKey(), order)) {
+                if (byOrderId.remove(order.getOrderId(), order)) {
+                    claimed.add(order);
+                }
+            }
+        }
+        return claimed;
+    }
+
+    public List<Order> getBySymbol(String symbol) {
+        ConcurrentSkipListMap<PriceKey, Order> orders = bySymbol.get(symbol);
+        return orders != null ? List.copyOf(orders.values()) : List.of();
+    }
+
+    public List<Order> getAll() {
+        return List.copyOf(byOrderId.values());
+    }
+
+    public int size() {
+        return byOrderId.size();
+    }
+
+    private void unlink(Order order) {
+        ConcurrentSkipListMap<PriceKey, Order> orders = bySymbol.get(order.getSymbol());
+        if (orders != null && order.getPrice() != null) {
+            orders.remove(PriceKey.of(order), order);
+        }
+    }
+
+    private record PriceKey(BigDecimal price, long orderId) implements Comparable<PriceKey> {
+
+        static PriceKey of(Order order) {
+            return new PriceKey(order.getPrice(), order.getOrderId());
+        }
+
+        @Override
+        public int compareTo(PriceKey other) {
+            int byPrice = price.compareTo(other.price);
+            return byPrice != 0 ? byPrice : Long.compare(orderId, other.orderId);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.stofina.app.orderservice.model;
+
+import java.math.BigDecimal;
+
+/**
+ * One side of an order book, keeping price levels in priority order
+ * (descending for bids, ascending for asks).
+ */
+public interface PriceLadder {
+
+    PriceLevel getLevel(BigDecimal price);
+
+    PriceLevel getOrCreateLevel(BigDecimal price);
+
+    void removeLevel(PriceLevel level);
+
+    /**
+     * @return the level with the best price, or null when the side is empty
+     */
+    PriceLevel best();
+
+    /**
+     * @return the next level after the given one in priority order, or null at the end of the side
+     */
+    PriceLevel next(PriceLevel level);
+
+    int levelCount();
+
+    default boolean isEmpty() {
+        return levelCount() == 0;
+    }
+}
@@ -0,0 +1,96 @@
+package com.stofina.app.orderservice.model;
+
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.util.FixedPoint;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single price level of one book side: the resting orders at one price in FIFO order,
+ * kept as an intrusive doubly-linked list of {@link RestingOrder} nodes.
+ * The level keeps a running total of remaining quantity in {@link FixedPoint} units, adjusted on
+ * append, fill, unlink and refresh, so depth views never have to walk the orders.
+ * The tick is only meaningful for levels owned by a {@link TickPriceLadder}.
+ */
+@Getter
+public class PriceLevel {
+
+    private final BigDecimal price;
+    private final long priceUnits;
+    private final long tick;
+    private RestingOrder head;
+    private RestingOrder tail;
+    private int size;
+    private long totalQuantity;
+
+    public PriceLevel(BigDecimal price, long tick) {
+        this.price = price;
+        this.priceUnits = FixedPoint.toPriceUnits(price);
+        this.tick = tick;
+    }
+
+    public BigDecimal getTotalQuantity() {
+        return FixedPoint.toQuantity(totalQuantity);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<Order> getOrders() {
+        List<Order> orders = new ArrayList<>(size);
+        for (RestingOrder node = head; node != null; node = node.next) {
+            orders.add(node.getOrder());
+        }
+        return orders;
+    }
+
+    RestingOrder append(Order order) {
+        RestingOrder node = new RestingOrder(order, this);
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+            node.prev = tail;
+        }
+        tail = node;
+        size++;
+        totalQuantity += node.state.getRemaining();
+        return node;
+    }
+
+    void fill(RestingOrder node, long quantity) {
+        node.state.fill(quantity, priceUnits);
+        totalQuantity -= quantity;
+    }
+
+    // Re-reads the node's state after its order was changed outside the matcher (replace, journal replay)
+    void refresh(RestingOrder node) {
+        FillState state = FillState.of(node.getOrder());
+        totalQuantity += state.getRemaining() - node.state.getRemaining();
+        node.state = state;
+    }
+
+    void unlink(RestingOrder node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        totalQuantity -= node.state.getRemaining();
+        node.detach();
+        size--;
+    }
+}
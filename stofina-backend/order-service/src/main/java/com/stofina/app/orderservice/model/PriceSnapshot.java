@@ -0,0 +1,32 @@
+package com.stofina.app.orderservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Prices of all symbols read from the price table. No update is half applied, and every update
+ * counted in the version is present, itself or through a later update of the same symbol.
+ */
+@Getter
+@AllArgsConstructor
+public class PriceSnapshot {
+
+    // Number of price updates completed when the read started
+    private final long version;
+    private final Map<String, BigDecimal> prices;
+
+    public BigDecimal getPrice(String symbol) {
+        return prices.get(symbol);
+    }
+
+    public boolean hasPrice(String symbol) {
+        return prices.containsKey(symbol);
+    }
+
+    public int size() {
+        return prices.size();
+    }
+}
@@ -0,0 +1,172 @@
+package com.stofina.app.orderservice.model;
+
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latest price per symbol. Each symbol gets one slot for the lifetime of the table; an update overwrites
+ * the slot in place under a sequence number (odd while the write is in progress), so reads take no lock,
+ * allocate nothing and retry only if they overlap a write of the same symbol. Staleness is a subtraction
+ * of monotonic nanotime stamps.
+ *
+ * Ticks of a symbol arrive on one Kafka partition, so each slot has a single writer in practice; the slot
+ * monitor only keeps that true should another caller update the same symbol.
+ */
+public class PriceTable {
+
+    private static final int SPINS_BEFORE_YIELD = 64;
+
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+    private final AtomicLong writesStarted = new AtomicLong();
+    private final AtomicLong writesFinished = new AtomicLong();
+    private final long maxAgeNanos;
+    private volatile CachedSnapshot lastSnapshot;
+
+    public PriceTable(long maxAgeNanos) {
+        this.maxAgeNanos = maxAgeNanos;
+    }
+
+    public void update(String symbol, BigDecimal price) {
+        slots.computeIfAbsent(symbol, key -> new Slot()).write(price, System.nanoTime(), System.currentTimeMillis());
+    }
+
+    /**
+     * @return the symbol's price, or null when there is none or it is older than the maximum age
+     */
+    public BigDecimal get(String symbol) {
+        Slot slot = slots.get(symbol);
+        if (slot == null) {
+            return null;
+        }
+
+        long now = System.nanoTime();
+        for (int attempt = 0; ; attempt++) {
+            long sequence = slot.sequence;
+            if ((sequence & 1) == 0) {
+                BigDecimal price = slot.price;
+                long updatedAtNanos = slot.updatedAtNanos;
+                VarHandle.loadLoadFence();
+                if (slot.sequence == sequence) {
+                    return price != null && now - updatedAtNanos <= maxAgeNanos ? price : null;
+                }
+            }
+            backOff(attempt);
+        }
+    }
+
+    /**
+     * @return wall-clock time of the symbol's last update in epoch millis, or 0 when it has none
+     */
+    public long getLastUpdateMillis(String symbol) {
+        Slot slot = slots.get(symbol);
+        if (slot == null) {
+            return 0L;
+        }
+        for (int attempt = 0; ; attempt++) {
+            long sequence = slot.sequence;
+            if ((sequence & 1) == 0) {
+                long updatedAtMillis = slot.price != null ? slot.updatedAtMillis : 0L;
+                VarHandle.loadLoadFence();
+                if (slot.sequence == sequence) {
+                    return updatedAtMillis;
+                }
+            }
+            backOff(attempt);
+        }
+    }
+
+    /**
+     * Fresh prices of all symbols. Each symbol is read under its own sequence number, so every price is
+     * one whole update, but updates of different symbols that overlap the read may be seen in any order.
+     * While no update finished and no included price went stale, the previous snapshot is returned as is.
+     */
+    public PriceSnapshot snapshot() {
+        long finished = writesFinished.get();
+        long now = System.nanoTime();
+        CachedSnapshot cached = lastSnapshot;
+        if (cached != null && cached.snapshot.getVersion() == finished && writesStarted.get() == finished
+                && (!cached.expires || now - cached.expiresAtNanos <= 0)) {
+            return cached.snapshot;
+        }
+
+        Map<String, BigDecimal> prices = new HashMap<>(slots.size() * 2);
+        long oldestNanos = 0L;
+        boolean expires = false;
+        for (Map.Entry<String, Slot> entry : slots.entrySet()) {
+            Slot slot = entry.getValue();
+            for (int attempt = 0; ; attempt++) {
+                long sequence = slot.sequence;
+                if ((sequence & 1) == 0) {
+                    BigDecimal price = slot.price;
+                    long updatedAtNanos = slot.updatedAtNanos;
+                    VarHandle.loadLoadFence();
+                    if (slot.sequence == sequence) {
+                        if (price != null && now - updatedAtNanos <= maxAgeNanos) {
+                            prices.put(entry.getKey(), price);
+                            if (!expires || updatedAtNanos - oldestNanos < 0) {
+                                oldestNanos = updatedAtNanos;
+                                expires = true;
+                            }
+                        }
+                        break;
+                    }
+                }
+                backOff(attempt);
+            }
+        }
+
+        // Every update counted in finished is in the read, either itself or a later one of its symbol
+        PriceSnapshot snapshot = new PriceSnapshot(finished, Collections.unmodifiableMap(prices));
+        lastSnapshot = new CachedSnapshot(snapshot, expires, oldestNanos + maxAgeNanos);
+        return snapshot;
+    }
+
+    public void clear() {
+        for (Slot slot : slots.values()) {
+            slot.write(null, 0L, 0L);
+        }
+    }
+
+    private static void backOff(int attempt) {
+        if (attempt < SPINS_BEFORE_YIELD) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    private static final class CachedSnapshot {
+        private final PriceSnapshot snapshot;
+        private final boolean expires;
+        private final long expiresAtNanos;
+
+        private CachedSnapshot(PriceSnapshot snapshot, boolean expires, long expiresAtNanos) {
+            this.snapshot = snapshot;
+            this.expires = expires;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private final class Slot {
+        private volatile long sequence;
+        private BigDecimal price;
+        private long updatedAtNanos;
+        private long updatedAtMillis;
+
+        synchronized void write(BigDecimal price, long updatedAtNanos, long updatedAtMillis) {
+            writesStarted.incrementAndGet();
+            sequence++;
+            VarHandle.storeStoreFence();
+            this.price = price;
+            this.updatedAtNanos = updatedAtNanos;
+            this.updatedAtMillis = updatedAtMillis;
+            sequence++;
+            writesFinished.incrementAndGet();
+        }
+    }
+}
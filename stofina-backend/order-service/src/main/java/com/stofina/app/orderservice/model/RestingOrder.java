@@ -0,0 +1,35 @@
+package com.stofina.app.orderservice.model;
+
+import com.stofina.app.orderservice.entity.Order;
+import lombok.Getter;
+
+/**
+ * Node of the intrusive FIFO queue kept by a {@link PriceLevel}.
+ * The book indexes nodes by order id so a cancel can unlink its node without searching.
+ */
+@Getter
+public class RestingOrder {
+
+    private Order order;
+    private PriceLevel level;
+    RestingOrder prev;
+    RestingOrder next;
+    // Fixed-point fill progress; its remaining quantity is what this node contributes to the level total
+    FillState state;
+
+    RestingOrder(Order order, PriceLevel level) {
+        this.order = order;
+        this.level = level;
+        this.state = FillState.of(order);
+    }
+
+    void replaceOrder(Order order) {
+        this.order = order;
+    }
+
+    void detach() {
+        this.level = null;
+        this.prev = null;
+        this.next = null;
+    }
+}
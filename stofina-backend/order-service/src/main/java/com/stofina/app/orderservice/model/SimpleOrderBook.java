@@ -7,7 +7,7 @@ import lombok.Getter;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Getter
 public class SimpleOrderBook {
@@ -15,19 +15,35 @@ public class SimpleOrderBook {
     // CHECKPOINT 5.1 - Core Data Structure
     private static final int TOP_LEVELS = 10;
     
-    private final TreeMap<BigDecimal, Queue<Order>> bids;
-    private final TreeMap<BigDecimal, Queue<Order>> asks;
+    private final PriceLadder bids;
+    private final PriceLadder asks;
+    // orderId -> resting node, for constant-time cancel, replace and lookup
+    private final Map<Long, RestingOrder> restingOrders = new ConcurrentHashMap<>();
     private final String symbol;
     private LocalDateTime lastUpdateTime;
+    // Bumped on every change; lets readers on other threads tell whether a published snapshot is current
+    private volatile long version;
+    private final TopLevelsView topBids = new TopLevelsView();
+    private final TopLevelsView topAsks = new TopLevelsView();
+    private volatile SimpleOrderBookSnapshot publishedSnapshot;
     
     public SimpleOrderBook(String symbol) {
+        this(symbol, new TreeMapPriceLadder(true), new TreeMapPriceLadder(false));
+    }
+    
+    // Tick-indexed book for symbols with a configured tick size
+    public SimpleOrderBook(String symbol, BigDecimal tickSize, int ladderCapacity) {
+        this(symbol, new TickPriceLadder(tickSize, true, ladderCapacity), new TickPriceLadder(tickSize, false, ladderCapacity));
+    }
+    
+    private SimpleOrderBook(String symbol, PriceLadder bids, PriceLadder asks) {
         if (symbol == null || symbol.trim().isEmpty()) {
             throw new IllegalArgumentException("Symbol cannot be null or empty");
         }
         
         this.symbol = symbol.trim().toUpperCase();
-        this.bids = new TreeMap<>(Collections.reverseOrder()); // Descending
-        this.asks = new TreeMap<>(); // Ascending
+        this.bids = bids; // Descending
+        this.asks = asks; // Ascending
         this.lastUpdateTime = LocalDateTime.now();
     }
     
@@ -40,10 +56,18 @@ public class SimpleOrderBook {
             throw new IllegalArgumentException("Order symbol mismatch");
         }
         
-        TreeMap<BigDecimal, Queue<Order>> targetSide = getTargetSide(order.getSide());
+        if (order.getOrderId() != null && restingOrders.containsKey(order.getOrderId())) {
+            throw new IllegalArgumentException("Order already in book: " + order.getOrderId());
+        }
+        
+        PriceLadder targetSide = getTargetSide(order.getSide());
         BigDecimal price = getOrderPrice(order);
         
-        targetSide.computeIfAbsent(price, k -> new LinkedBlockingQueue<>()).offer(order);
+        RestingOrder node = targetSide.getOrCreateLevel(price).append(order);
+        if (order.getOrderId() != null) {
+            restingOrders.put(order.getOrderId(), node);
+        }
+        levelChanged(order.getSide(), price);
         updateTimestamp();
     }
     
@@ -52,28 +76,126 @@ public class SimpleOrderBook {
             return false;
         }
         
-        boolean removed = removeOrderFromSide(bids, orderId) || 
-                         removeOrderFromSide(asks, orderId);
+        RestingOrder node = restingOrders.remove(orderId);
+        if (node == null) {
+            return false;
+        }
+        
+        unlink(node);
+        updateTimestamp();
+        return true;
+    }
+    
+    /**
+     * Removes every resting order but keeps this book instance, so the symbol never
+     * disappears from the manager's book map while it is cleared.
+     *
+     * @return the orders that were resting, bids first
+     */
+    public List<Order> clear() {
+        List<RestingOrder> nodes = new ArrayList<>(restingOrders.size());
+        collectNodes(bids, nodes);
+        collectNodes(asks, nodes);
+        
+        List<Order> cleared = new ArrayList<>(nodes.size());
+        for (RestingOrder node : nodes) {
+            Order order = node.getOrder();
+            if (order.getOrderId() != null) {
+                restingOrders.remove(order.getOrderId());
+            }
+            unlink(node);
+            cleared.add(order);
+        }
+        updateTimestamp();
+        return cleared;
+    }
+    
+    /**
+     * Replaces a resting order. A quantity reduction at the same price keeps the order's
+     * time priority; any other change re-queues it at the back of its new level.
+     */
+    public boolean replaceOrder(Long orderId, Order newOrder) {
+        if (orderId == null || newOrder == null) {
+            return false;
+        }
+        
+        RestingOrder node = restingOrders.get(orderId);
+        if (node == null) {
+            return false;
+        }
+        
+        Order oldOrder = node.getOrder();
+        boolean keepsPriority = oldOrder.getSide() == newOrder.getSide()
+                && getOrderPrice(oldOrder).compareTo(getOrderPrice(newOrder)) == 0
+                && newOrder.getRemainingQuantity().compareTo(oldOrder.getRemainingQuantity()) <= 0
+                && Objects.equals(orderId, newOrder.getOrderId());
         
-        if (removed) {
+        if (keepsPriority) {
+            node.replaceOrder(newOrder);
+            node.getLevel().refresh(node);
+            levelChanged(newOrder.getSide(), node.getLevel().getPrice());
             updateTimestamp();
+            return true;
         }
         
-        return removed;
+        removeOrder(orderId);
+        addOrder(newOrder);
+        return true;
     }
     
-    public BigDecimal getBestBid() {
-        if (bids.isEmpty()) {
-            return null;
+    /**
+     * Re-reads the fill state of a resting order whose entity was changed outside the matcher
+     * (e.g. journal replay), keeping its level total in step. Fully filled orders should be removed instead.
+     */
+    public boolean refreshOrder(Long orderId) {
+        RestingOrder node = orderId != null ? restingOrders.get(orderId) : null;
+        if (node == null) {
+            return false;
         }
-        return bids.firstKey();
+        
+        node.getLevel().refresh(node);
+        levelChanged(node.getOrder().getSide(), node.getLevel().getPrice());
+        updateTimestamp();
+        return true;
     }
     
-    public BigDecimal getBestAsk() {
-        if (asks.isEmpty()) {
-            return null;
+    /**
+     * Applies a fill of {@code quantity} units at the node's level price to a resting order.
+     * The caller removes the order once nothing remains.
+     */
+    public void fillOrder(RestingOrder node, long quantity) {
+        PriceLevel level = node.getLevel();
+        if (level == null) {
+            return;
         }
-        return asks.firstKey();
+        
+        level.fill(node, quantity);
+        levelChanged(node.getOrder().getSide(), level.getPrice());
+        updateTimestamp();
+    }
+    
+    public Order getOrder(Long orderId) {
+        RestingOrder node = orderId != null ? restingOrders.get(orderId) : null;
+        return node != null ? node.getOrder() : null;
+    }
+    
+    // Resting node of the order, for fills that target one order; only the owning shard may use it
+    public RestingOrder getRestingOrder(Long orderId) {
+        return orderId != null ? restingOrders.get(orderId) : null;
+    }
+    
+    public boolean containsOrder(Long orderId) {
+        return orderId != null && restingOrders.containsKey(orderId);
+    }
+    
+    public BigDecimal getBestBid() {
+        PriceLevel best = bids.best();
+        return best != null ? best.getPrice() : null;
+    }
+    
+    public BigDecimal getBestAsk() {
+        PriceLevel best = asks.best();
+        return best != null ? best.getPrice() : null;
     }
     
     public BigDecimal getSpread() {
@@ -92,36 +214,73 @@ public class SimpleOrderBook {
     }
     
     public int getTotalOrderCount() {
-        return bids.values().stream().mapToInt(Queue::size).sum() +
-               asks.values().stream().mapToInt(Queue::size).sum();
+        return restingOrders.size();
     }
     
     public List<OrderLevel> getTop10Bids() {
-        return getTopLevels(bids, TOP_LEVELS);
+        return topBids.get(bids);
     }
     
     public List<OrderLevel> getTop10Asks() {
-        return getTopLevels(asks, TOP_LEVELS);
+        return topAsks.get(asks);
+    }
+    
+    /**
+     * Builds the book snapshot, reusing the last one if nothing changed since.
+     * Call on the thread that owns the book.
+     */
+    public SimpleOrderBookSnapshot getSnapshot() {
+        SimpleOrderBookSnapshot snapshot = getPublishedSnapshot();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        
+        long snapshotVersion = version;
+        List<OrderLevel> topBidLevels = getTop10Bids();
+        List<OrderLevel> topAskLevels = getTop10Asks();
+        snapshot = new SimpleOrderBookSnapshot(symbol, topBidLevels, topAskLevels, getBestBid(), getBestAsk(),
+                getSpread(), lastUpdateTime, sumQuantity(topBidLevels), sumQuantity(topAskLevels), snapshotVersion);
+        publishedSnapshot = snapshot;
+        return snapshot;
+    }
+    
+    /**
+     * The last built snapshot if the book has not changed since, otherwise null.
+     * Safe to call from any thread.
+     */
+    public SimpleOrderBookSnapshot getPublishedSnapshot() {
+        SimpleOrderBookSnapshot snapshot = publishedSnapshot;
+        return snapshot != null && snapshot.getVersion() == version ? snapshot : null;
     }
     
     // CHECKPOINT ENTEGRASYON 2.5 - Get orders for matching
     public List<Order> getBidOrders() {
-        List<Order> bidOrders = new ArrayList<>();
-        for (Queue<Order> orders : bids.values()) {
-            bidOrders.addAll(orders);
-        }
-        return bidOrders;
+        return collectOrders(bids);
     }
     
     public List<Order> getAskOrders() {
-        List<Order> askOrders = new ArrayList<>();
-        for (Queue<Order> orders : asks.values()) {
-            askOrders.addAll(orders);
+        return collectOrders(asks);
+    }
+    
+    private void collectNodes(PriceLadder side, List<RestingOrder> nodes) {
+        for (PriceLevel level = side.best(); level != null; level = side.next(level)) {
+            for (RestingOrder node = level.getHead(); node != null; node = node.getNext()) {
+                nodes.add(node);
+            }
+        }
+    }
+    
+    private List<Order> collectOrders(PriceLadder side) {
+        List<Order> orders = new ArrayList<>();
+        for (PriceLevel level = side.best(); level != null; level = side.next(level)) {
+            for (RestingOrder node = level.getHead(); node != null; node = node.getNext()) {
+                orders.add(node.getOrder());
+            }
         }
-        return askOrders;
+        return orders;
     }
     
-    private TreeMap<BigDecimal, Queue<Order>> getTargetSide(OrderSide side) {
+    private PriceLadder getTargetSide(OrderSide side) {
         return side == OrderSide.BUY ? bids : asks;
     }
     
@@ -129,50 +288,74 @@ public class SimpleOrderBook {
         return order.getPrice() != null ? order.getPrice() : BigDecimal.ZERO;
     }
     
-    private boolean removeOrderFromSide(TreeMap<BigDecimal, Queue<Order>> side, Long orderId) {
-        for (Iterator<Map.Entry<BigDecimal, Queue<Order>>> iterator = side.entrySet().iterator(); 
-             iterator.hasNext();) {
-            
-            Map.Entry<BigDecimal, Queue<Order>> entry = iterator.next();
-            Queue<Order> orders = entry.getValue();
-            
-            if (orders.removeIf(order -> orderId.equals(order.getOrderId()))) {
-                if (orders.isEmpty()) {
-                    iterator.remove();
-                }
-                return true;
-            }
+    private void unlink(RestingOrder node) {
+        PriceLevel level = node.getLevel();
+        PriceLadder side = getTargetSide(node.getOrder().getSide());
+        OrderSide orderSide = node.getOrder().getSide();
+        level.unlink(node);
+        
+        // Reclaim empty levels right away so best-price lookups never see them
+        if (level.isEmpty()) {
+            side.removeLevel(level);
         }
-        return false;
+        levelChanged(orderSide, level.getPrice());
     }
     
-    private List<OrderLevel> getTopLevels(TreeMap<BigDecimal, Queue<Order>> side, int limit) {
-        List<OrderLevel> levels = new ArrayList<>();
-        int count = 0;
-        
-        for (Map.Entry<BigDecimal, Queue<Order>> entry : side.entrySet()) {
-            if (count >= limit) {
-                break;
-            }
-            
-            BigDecimal price = entry.getKey();
-            Queue<Order> orders = entry.getValue();
-            BigDecimal totalQuantity = calculateTotalQuantity(orders);
-            
-            levels.add(new OrderLevel(price, totalQuantity, orders.size()));
-            count++;
+    private void levelChanged(OrderSide side, BigDecimal price) {
+        if (side == OrderSide.BUY) {
+            topBids.levelChanged(price, true);
+        } else {
+            topAsks.levelChanged(price, false);
         }
-        
-        return levels;
     }
     
-    private BigDecimal calculateTotalQuantity(Queue<Order> orders) {
-        return orders.stream()
-                    .map(Order::getRemainingQuantity)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private int sumQuantity(List<OrderLevel> levels) {
+        return levels.stream().mapToInt(level -> level.getQuantity().intValue()).sum();
     }
     
     private void updateTimestamp() {
         this.lastUpdateTime = LocalDateTime.now();
+        this.version++;
+    }
+    
+    /**
+     * Cached top-N levels of one side. A change only invalidates the view when it touches a
+     * price at or inside the current N-th level; changes deeper in the book leave it alone.
+     */
+    private static final class TopLevelsView {
+        private List<OrderLevel> levels = List.of();
+        // Price of the N-th level, or null while the side has fewer than N levels
+        private BigDecimal boundary;
+        private boolean dirty = true;
+        
+        List<OrderLevel> get(PriceLadder side) {
+            if (dirty) {
+                rebuild(side);
+            }
+            return levels;
+        }
+        
+        void levelChanged(BigDecimal price, boolean descending) {
+            if (dirty) {
+                return;
+            }
+            if (boundary == null) {
+                dirty = true;
+                return;
+            }
+            int comparison = price.compareTo(boundary);
+            dirty = descending ? comparison >= 0 : comparison <= 0;
+        }
+        
+        private void rebuild(PriceLadder side) {
+            List<OrderLevel> rebuilt = new ArrayList<>(TOP_LEVELS);
+            for (PriceLevel level = side.best(); level != null && rebuilt.size() < TOP_LEVELS; level = side.next(level)) {
+                rebuilt.add(new OrderLevel(level.getPrice(), level.getTotalQuantity(), level.size()));
+            }
+            
+            levels = Collections.unmodifiableList(rebuilt);
+            boundary = rebuilt.size() == TOP_LEVELS ? rebuilt.get(TOP_LEVELS - 1).getPrice() : null;
+            dirty = false;
+        }
     }
 }
\ No newline at end of file
@@ -21,6 +21,14 @@ public class SimpleOrderBookSnapshot {
     private final LocalDateTime lastUpdateTime;
     private final int totalBidQuantity;
     private final int totalAskQuantity;
+    // Book version the snapshot was taken at
+    private final long version;
+    
+    public SimpleOrderBookSnapshot(String symbol, List<OrderLevel> bids, List<OrderLevel> asks, BigDecimal bestBid,
+                                   BigDecimal bestAsk, BigDecimal spread, LocalDateTime lastUpdateTime,
+                                   int totalBidQuantity, int totalAskQuantity) {
+        this(symbol, bids, asks, bestBid, bestAsk, spread, lastUpdateTime, totalBidQuantity, totalAskQuantity, 0L);
+    }
     
     public boolean isEmpty() {
         return (bids == null || bids.isEmpty()) && 
@@ -15,4 +15,5 @@ public class SimpleStopLossWatcher {
     private LocalDateTime lastCheckAt;
     private int checkCount;
     private boolean triggered = false;
+    private long checksAtArm;       // StopLossTriggerIndex: symbol check count when the watcher was armed
 }
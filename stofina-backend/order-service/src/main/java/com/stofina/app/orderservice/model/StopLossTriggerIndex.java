@@ -0,0 +1,201 @@
+package com.stofina.app.orderservice.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Stop-loss watchers indexed per symbol by trigger price. A sell stop fires once the price falls to or
+ * below its trigger, so a tick only visits the tail of the symbol's map at or above the new price:
+ * O(log n + k) for k triggered watchers instead of a scan over every watcher.
+ *
+ * Both maps are concurrent, so watchers can be added and removed while ticks are processed. A watcher
+ * is claimed by removing it from the trigger map, which lets exactly one tick fire it.
+ */
+public class StopLossTriggerIndex {
+
+    private final Map<String, SymbolWatchers> bySymbol = new ConcurrentHashMap<>();
+    private final Map<Long, SimpleStopLossWatcher> byOrderId = new ConcurrentHashMap<>();
+
+    public void add(SimpleStopLossWatcher watcher) {
+        SimpleStopLossWatcher previous = byOrderId.put(watcher.getOrderId(), watcher);
+        if (previous != null) {
+            unlink(previous);
+        }
+        symbolWatchers(watcher.getSymbol()).arm(watcher);
+    }
+
+    /**
+     * Puts a claimed watcher back under its trigger price, e.g. after a failed trigger attempt.
+     */
+    public void rearm(SimpleStopLossWatcher watcher) {
+        if (byOrderId.get(watcher.getOrderId()) == watcher) {
+            symbolWatchers(watcher.getSymbol()).arm(watcher);
+        }
+    }
+
+    public SimpleStopLossWatcher remove(Long orderId) {
+        SimpleStopLossWatcher watcher = orderId != null ? byOrderId.remove(orderId) : null;
+        if (watcher != null) {
+            unlink(watcher);
+        }
+        return watcher;
+    }
+
+    /**
+     * Claims every armed watcher of the symbol whose trigger price is at or above the given price.
+     * Claimed watchers stay registered by order id until they are removed or rearmed.
+     */
+    public List<SimpleStopLossWatcher> claimTriggered(String symbol, BigDecimal price) {
+        SymbolWatchers watchers = bySymbol.get(symbol);
+        if (watchers == null) {
+            return Collections.emptyList();
+        }
+
+        watchers.recordCheck();
+        ConcurrentNavigableMap<TriggerKey, SimpleStopLossWatcher> crossed =
+                watchers.armed.tailMap(new TriggerKey(price, Long.MIN_VALUE), true);
+        if (crossed.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<SimpleStopLossWatcher> claimed = new ArrayList<>();
+        for (Map.Entry<TriggerKey, SimpleStopLossWatcher> entry : crossed.entrySet()) {
+            if (crossed.remove(entry.getKey(), entry.getValue())) {
+                claimed.add(watchers.withActivity(entry.getValue()));
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Brings check activity of the symbol's armed watchers up to date, at most once per interval.
+     * @return the watchers that were checked since the last sync, empty when the sync is not due
+     */
+    public List<SimpleStopLossWatcher> syncActivity(String symbol, long intervalMillis) {
+        SymbolWatchers watchers = bySymbol.get(symbol);
+        return watchers != null ? watchers.syncActivity(intervalMillis) : Collections.emptyList();
+    }
+
+    public SimpleStopLossWatcher get(Long orderId) {
+        return orderId != null ? byOrderId.get(orderId) : null;
+    }
+
+    public boolean contains(Long orderId) {
+        return orderId != null && byOrderId.containsKey(orderId);
+    }
+
+    public Collection<SimpleStopLossWatcher> all() {
+        return Collections.unmodifiableCollection(byOrderId.values());
+    }
+
+    public int size() {
+        return byOrderId.size();
+    }
+
+    public int countBySymbol(String symbol) {
+        SymbolWatchers watchers = bySymbol.get(symbol);
+        return watchers != null ? watchers.armed.size() : 0;
+    }
+
+    public int removeIf(Predicate<SimpleStopLossWatcher> filter) {
+        int removed = 0;
+        for (SimpleStopLossWatcher watcher : byOrderId.values()) {
+            if (filter.test(watcher) && byOrderId.remove(watcher.getOrderId(), watcher)) {
+                unlink(watcher);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public void clear() {
+        byOrderId.clear();
+        bySymbol.clear();
+    }
+
+    private void unlink(SimpleStopLossWatcher watcher) {
+        SymbolWatchers watchers = bySymbol.get(watcher.getSymbol());
+        if (watchers != null) {
+            watchers.armed.remove(TriggerKey.of(watcher), watcher);
+        }
+    }
+
+    private SymbolWatchers symbolWatchers(String symbol) {
+        return bySymbol.computeIfAbsent(symbol, key -> new SymbolWatchers());
+    }
+
+    private record TriggerKey(BigDecimal price, long orderId) implements Comparable<TriggerKey> {
+
+        static TriggerKey of(SimpleStopLossWatcher watcher) {
+            return new TriggerKey(watcher.getTriggerPrice(), watcher.getOrderId());
+        }
+
+        @Override
+        public int compareTo(TriggerKey other) {
+            int byPrice = price.compareTo(other.price);
+            return byPrice != 0 ? byPrice : Long.compare(orderId, other.orderId);
+        }
+    }
+
+    /**
+     * Check activity is counted once per tick for the symbol rather than written to every watcher;
+     * a watcher's own count is brought up to date when it is claimed or its activity is synced.
+     */
+    private static final class SymbolWatchers {
+        private final ConcurrentSkipListMap<TriggerKey, SimpleStopLossWatcher> armed = new ConcurrentSkipListMap<>();
+        private final AtomicLong checks = new AtomicLong();
+        private volatile LocalDateTime lastCheckAt;
+        private long lastSyncAt = System.currentTimeMillis();
+
+        synchronized void arm(SimpleStopLossWatcher watcher) {
+            watcher.setChecksAtArm(checks.get());
+            armed.put(TriggerKey.of(watcher), watcher);
+        }
+
+        void recordCheck() {
+            checks.incrementAndGet();
+            lastCheckAt = LocalDateTime.now();
+        }
+
+        synchronized List<SimpleStopLossWatcher> syncActivity(long intervalMillis) {
+            long now = System.currentTimeMillis();
+            if (now - lastSyncAt < intervalMillis) {
+                return Collections.emptyList();
+            }
+            lastSyncAt = now;
+
+            long current = checks.get();
+            List<SimpleStopLossWatcher> synced = new ArrayList<>();
+            for (SimpleStopLossWatcher watcher : armed.values()) {
+                long missed = current - watcher.getChecksAtArm();
+                if (missed > 0) {
+                    watcher.setCheckCount(watcher.getCheckCount() + (int) missed);
+                    watcher.setLastCheckAt(lastCheckAt);
+                    watcher.setChecksAtArm(current);
+                    synced.add(watcher);
+                }
+            }
+            return synced;
+        }
+
+        synchronized SimpleStopLossWatcher withActivity(SimpleStopLossWatcher watcher) {
+            // The tick that claims the watcher is not counted, matching the old per-watcher bookkeeping
+            long missed = checks.get() - watcher.getChecksAtArm() - 1;
+            if (missed > 0) {
+                watcher.setCheckCount(watcher.getCheckCount() + (int) missed);
+                watcher.setLastCheckAt(lastCheckAt);
+            }
+            return watcher;
+        }
+    }
+}
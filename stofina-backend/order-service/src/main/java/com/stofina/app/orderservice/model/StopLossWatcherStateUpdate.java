@@ -0,0 +1,27 @@
+package com.stofina.app.orderservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * The mutable columns of a stop_loss_watchers row: check activity, the triggered flag and the
+ * soft-delete flag. Captured when recorded so the flusher never reads a live watcher.
+ */
+@Getter
+@AllArgsConstructor
+public class StopLossWatcherStateUpdate {
+
+    private final Long orderId;
+    private final LocalDateTime lastCheckAt;
+    private final int checkCount;
+    private final boolean triggered;
+    private final boolean active;
+
+    public static StopLossWatcherStateUpdate of(SimpleStopLossWatcher watcher, boolean active) {
+        LocalDateTime lastCheckAt = watcher.getLastCheckAt() != null ? watcher.getLastCheckAt() : LocalDateTime.now();
+        return new StopLossWatcherStateUpdate(watcher.getOrderId(), lastCheckAt, watcher.getCheckCount(),
+                watcher.isTriggered(), active);
+    }
+}
@@ -0,0 +1,198 @@
+package com.stofina.app.orderservice.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Array-indexed ladder for symbols with a known tick size.
+ * <p>
+ * Prices are converted to integer ticks and levels live in a dense array covering a window of ticks
+ * around the traded price. A bitmap marks occupied slots so the best level is tracked in O(1) and
+ * level walks skip empty ticks a 64-slot word at a time. The window is re-centred (and doubled if
+ * needed) when a price falls outside it.
+ */
+public class TickPriceLadder implements PriceLadder {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+    private static final int MAX_CAPACITY = 1 << 20;
+
+    private final BigDecimal tickSize;
+    private final boolean descending;
+
+    private PriceLevel[] levels;
+    private long[] occupied;
+    private long baseTick;
+    private int bestIndex = -1;
+    private int levelCount;
+
+    public TickPriceLadder(BigDecimal tickSize, boolean descending) {
+        this(tickSize, descending, DEFAULT_CAPACITY);
+    }
+
+    public TickPriceLadder(BigDecimal tickSize, boolean descending, int initialCapacity) {
+        if (tickSize == null || tickSize.signum() <= 0) {
+            throw new IllegalArgumentException("Tick size must be positive");
+        }
+        int capacity = Integer.highestOneBit(Math.max(64, Math.min(initialCapacity, MAX_CAPACITY)));
+        this.tickSize = tickSize;
+        this.descending = descending;
+        this.levels = new PriceLevel[capacity];
+        this.occupied = new long[capacity >>> 6];
+    }
+
+    public long toTick(BigDecimal price) {
+        BigDecimal[] quotientAndRemainder = price.divideAndRemainder(tickSize);
+        if (quotientAndRemainder[1].signum() != 0) {
+            throw new IllegalArgumentException("Price " + price + " is not a multiple of tick size " + tickSize);
+        }
+        return quotientAndRemainder[0].longValueExact();
+    }
+
+    @Override
+    public PriceLevel getLevel(BigDecimal price) {
+        long offset = toTick(price) - baseTick;
+        if (levelCount == 0 || offset < 0 || offset >= levels.length) {
+            return null;
+        }
+        return levels[(int) offset];
+    }
+
+    @Override
+    public PriceLevel getOrCreateLevel(BigDecimal price) {
+        long tick = toTick(price);
+        ensureWindow(tick);
+
+        int index = (int) (tick - baseTick);
+        PriceLevel level = levels[index];
+        if (level == null) {
+            level = new PriceLevel(price, tick);
+            levels[index] = level;
+            occupied[index >>> 6] |= 1L << index;
+            levelCount++;
+            if (bestIndex < 0 || isBetter(index, bestIndex)) {
+                bestIndex = index;
+            }
+        }
+        return level;
+    }
+
+    @Override
+    public void removeLevel(PriceLevel level) {
+        long offset = level.getTick() - baseTick;
+        if (offset < 0 || offset >= levels.length || levels[(int) offset] != level) {
+            return;
+        }
+
+        int index = (int) offset;
+        levels[index] = null;
+        occupied[index >>> 6] &= ~(1L << index);
+        levelCount--;
+        if (index == bestIndex) {
+            bestIndex = levelCount == 0 ? -1 : nextOccupied(index);
+        }
+    }
+
+    @Override
+    public PriceLevel best() {
+        return bestIndex < 0 ? null : levels[bestIndex];
+    }
+
+    @Override
+    public PriceLevel next(PriceLevel level) {
+        int index = nextOccupied((int) (level.getTick() - baseTick));
+        return index < 0 ? null : levels[index];
+    }
+
+    @Override
+    public int levelCount() {
+        return levelCount;
+    }
+
+    public int capacity() {
+        return levels.length;
+    }
+
+    private boolean isBetter(int index, int other) {
+        return descending ? index > other : index < other;
+    }
+
+    private int nextOccupied(int index) {
+        return descending ? previousSetBit(index - 1) : nextSetBit(index + 1);
+    }
+
+    private int nextSetBit(int from) {
+        if (from >= levels.length) {
+            return -1;
+        }
+        int wordIndex = from >>> 6;
+        long word = occupied[wordIndex] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex == occupied.length) {
+                return -1;
+            }
+            word = occupied[wordIndex];
+        }
+    }
+
+    private int previousSetBit(int from) {
+        if (from < 0) {
+            return -1;
+        }
+        int wordIndex = from >>> 6;
+        long word = occupied[wordIndex] & (-1L >>> (63 - (from & 63)));
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << 6) + 63 - Long.numberOfLeadingZeros(word);
+            }
+            if (wordIndex-- == 0) {
+                return -1;
+            }
+            word = occupied[wordIndex];
+        }
+    }
+
+    private void ensureWindow(long tick) {
+        int capacity = levels.length;
+        if (levelCount == 0) {
+            if (tick < baseTick || tick >= baseTick + capacity) {
+                baseTick = tick - capacity / 2;
+            }
+            return;
+        }
+        if (tick >= baseTick && tick < baseTick + capacity) {
+            return;
+        }
+
+        long lowTick = Math.min(tick, baseTick + nextSetBit(0));
+        long highTick = Math.max(tick, baseTick + previousSetBit(capacity - 1));
+        long span = highTick - lowTick + 1;
+
+        long newCapacity = capacity;
+        while (newCapacity < span * 2 && newCapacity < MAX_CAPACITY) {
+            newCapacity <<= 1;
+        }
+        if (newCapacity < span) {
+            throw new IllegalArgumentException("Price range exceeds tick ladder capacity of " + MAX_CAPACITY + " ticks");
+        }
+        relocate((int) newCapacity, lowTick - (newCapacity - span) / 2);
+    }
+
+    private void relocate(int newCapacity, long newBaseTick) {
+        PriceLevel[] newLevels = new PriceLevel[newCapacity];
+        long[] newOccupied = new long[newCapacity >>> 6];
+        int shift = (int) (baseTick - newBaseTick);
+
+        for (int index = nextSetBit(0); index >= 0; index = nextSetBit(index + 1)) {
+            int target = index + shift;
+            newLevels[target] = levels[index];
+            newOccupied[target >>> 6] |= 1L << target;
+        }
+
+        bestIndex = bestIndex < 0 ? -1 : bestIndex + shift;
+        levels = newLevels;
+        occupied = newOccupied;
+        baseTick = newBaseTick;
+    }
+}
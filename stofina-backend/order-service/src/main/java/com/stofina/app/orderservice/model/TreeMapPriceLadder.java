@@ -0,0 +1,50 @@
+package com.stofina.app.orderservice.model;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Default ladder backed by a {@link TreeMap}. Works for any price without tick configuration.
+ */
+public class TreeMapPriceLadder implements PriceLadder {
+
+    private final TreeMap<BigDecimal, PriceLevel> levels;
+
+    public TreeMapPriceLadder(boolean descending) {
+        this.levels = descending ? new TreeMap<>(Collections.reverseOrder()) : new TreeMap<>();
+    }
+
+    @Override
+    public PriceLevel getLevel(BigDecimal price) {
+        return levels.get(price);
+    }
+
+    @Override
+    public PriceLevel getOrCreateLevel(BigDecimal price) {
+        return levels.computeIfAbsent(price, p -> new PriceLevel(p, 0L));
+    }
+
+    @Override
+    public void removeLevel(PriceLevel level) {
+        levels.remove(level.getPrice(), level);
+    }
+
+    @Override
+    public PriceLevel best() {
+        Map.Entry<BigDecimal, PriceLevel> entry = levels.firstEntry();
+        return entry != null ? entry.getValue() : null;
+    }
+
+    @Override
+    public PriceLevel next(PriceLevel level) {
+        Map.Entry<BigDecimal, PriceLevel> entry = levels.higherEntry(level.getPrice());
+        return entry != null ? entry.getValue() : null;
+    }
+
+    @Override
+    public int levelCount() {
+        return levels.size();
+    }
+}
@@ -12,10 +12,11 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
 
     List<Order> findByAccountIdAndStatus(Long accountId, OrderStatus status);
 
@@ -24,6 +25,12 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.symbol = :symbol AND o.side = :side AND o.status IN ('ACTIVE', 'PARTIALLY_FILLED') ORDER BY o.price ASC, o.createdAt ASC")
     List<Order> findActiveOrdersForMatching(String symbol, OrderSide side);
 
+    @Query("SELECT o.clientOrderId FROM Order o WHERE o.clientOrderId IN :clientOrderIds")
+    List<String> findExistingClientOrderIds(Collection<String> clientOrderIds);
+
+    @Query("SELECT o.orderId FROM Order o WHERE o.orderId IN :orderIds AND o.status IN :statuses")
+    List<Long> findOrderIdsByStatusIn(Collection<Long> orderIds, Collection<OrderStatus> statuses);
+
     @Query("SELECT o FROM Order o WHERE o.status = 'PENDING_TRIGGER' AND o.stopPrice IS NOT NULL")
     List<Order> findStopLossOrdersToCheck();
 
@@ -40,6 +47,12 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("UPDATE Order o SET o.status = :newStatus, o.updatedAt = CURRENT_TIMESTAMP WHERE o.orderId = :orderId")
     int updateOrderStatus(Long orderId, OrderStatus newStatus);
 
+    // Own transaction: a failed bulk update must not mark the caller's transaction rollback-only
+    @Modifying
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    @Query("UPDATE Order o SET o.status = :newStatus, o.updatedAt = CURRENT_TIMESTAMP WHERE o.orderId IN :orderIds")
+    int updateOrderStatuses(List<Long> orderIds, OrderStatus newStatus);
+
     // Filter by accountId with pagination
     Page<Order> findByAccountId(Long accountId, Pageable pageable);
     
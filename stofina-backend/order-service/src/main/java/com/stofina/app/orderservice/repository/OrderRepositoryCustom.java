@@ -0,0 +1,15 @@
+package com.stofina.app.orderservice.repository;
+
+import com.stofina.app.orderservice.model.OrderStateUpdate;
+
+import java.util.Collection;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Writes filled quantity, average price and status of many orders in JDBC batches.
+     * The matcher owns fill state, so the version is bumped without an optimistic check; the
+     * update never reverts a terminal status written by another path or a larger filled quantity.
+     */
+    void batchUpdateState(Collection<OrderStateUpdate> updates, int batchSize);
+}
@@ -0,0 +1,38 @@
+package com.stofina.app.orderservice.repository;
+
+import com.stofina.app.orderservice.model.OrderStateUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    // A status set outside the matcher (cancel, reject, expiry) is kept, and an older fill
+    // never overwrites a newer one
+    private static final String UPDATE_STATE_SQL =
+            "UPDATE orders SET filled_quantity = ?, average_price = ?, " +
+            "status = CASE WHEN status IN ('CANCELLED', 'REJECTED', 'EXPIRED') THEN status ELSE ? END, " +
+            "updated_at = ?, version = COALESCE(version, 0) + 1 " +
+            "WHERE order_id = ? AND COALESCE(filled_quantity, 0) <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchUpdateState(Collection<OrderStateUpdate> updates, int batchSize) {
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_STATE_SQL, updates, batchSize, (ps, update) -> {
+            ps.setBigDecimal(1, update.getFilledQuantity());
+            ps.setBigDecimal(2, update.getAveragePrice());
+            ps.setString(3, update.getStatus().name());
+            ps.setTimestamp(4, Timestamp.valueOf(update.getUpdatedAt()));
+            ps.setLong(5, update.getOrderId());
+            ps.setBigDecimal(6, update.getFilledQuantity());
+        });
+    }
+}
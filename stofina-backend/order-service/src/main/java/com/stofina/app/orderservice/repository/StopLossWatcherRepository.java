@@ -11,7 +11,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface StopLossWatcherRepository extends JpaRepository<StopLossWatcher, Long> {
+public interface StopLossWatcherRepository extends JpaRepository<StopLossWatcher, Long>, StopLossWatcherRepositoryCustom {
     
     // Aktif watcher'ları getir
     List<StopLossWatcher> findByActiveTrue();
@@ -0,0 +1,14 @@
+package com.stofina.app.orderservice.repository;
+
+import com.stofina.app.orderservice.model.StopLossWatcherStateUpdate;
+
+import java.util.Collection;
+
+public interface StopLossWatcherRepositoryCustom {
+
+    /**
+     * Writes check activity, triggered and active flags of many active watchers in JDBC batches.
+     * Rows that were already soft deleted are left alone.
+     */
+    void batchUpdateState(Collection<StopLossWatcherStateUpdate> updates, int batchSize);
+}
@@ -0,0 +1,34 @@
+package com.stofina.app.orderservice.repository;
+
+import com.stofina.app.orderservice.model.StopLossWatcherStateUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class StopLossWatcherRepositoryCustomImpl implements StopLossWatcherRepositoryCustom {
+
+    private static final String UPDATE_STATE_SQL =
+            "UPDATE stop_loss_watchers SET last_check_at = ?, check_count = ?, triggered = ?, active = ?, " +
+            "version = COALESCE(version, 0) + 1 WHERE order_id = ? AND active = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchUpdateState(Collection<StopLossWatcherStateUpdate> updates, int batchSize) {
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_STATE_SQL, updates, batchSize, (ps, update) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(update.getLastCheckAt()));
+            ps.setInt(2, update.getCheckCount());
+            ps.setBoolean(3, update.isTriggered());
+            ps.setBoolean(4, update.isActive());
+            ps.setLong(5, update.getOrderId());
+            ps.setBoolean(6, true);
+        });
+    }
+}
@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface TradeRepository extends JpaRepository<Trade, Long> {
+public interface TradeRepository extends JpaRepository<Trade, Long>, TradeRepositoryCustom {
 
     List<Trade> findByBuyAccountIdAndExecutedAtBetween(Long accountId, LocalDateTime start, LocalDateTime end);
 
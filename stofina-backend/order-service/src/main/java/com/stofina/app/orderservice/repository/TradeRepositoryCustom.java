@@ -0,0 +1,13 @@
+package com.stofina.app.orderservice.repository;
+
+import com.stofina.app.orderservice.entity.Trade;
+
+import java.util.Collection;
+
+public interface TradeRepositoryCustom {
+
+    /**
+     * Inserts trades in JDBC batches. Fills in tradeRef the same way {@link Trade} does on persist.
+     */
+    void batchInsert(Collection<Trade> trades, int batchSize);
+}
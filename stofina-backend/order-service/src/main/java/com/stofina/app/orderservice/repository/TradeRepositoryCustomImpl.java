@@ -0,0 +1,52 @@
+package com.stofina.app.orderservice.repository;
+
+import com.stofina.app.orderservice.entity.Trade;
+import com.stofina.app.orderservice.util.SnowflakeIdGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@RequiredArgsConstructor
+public class TradeRepositoryCustomImpl implements TradeRepositoryCustom {
+
+    // trade_id is assigned by the matcher, so rows go in exactly as they were reported
+    private static final String INSERT_SQL =
+            "INSERT INTO trades (trade_id, tenant_id, symbol, buy_order_id, sell_order_id, buy_account_id, sell_account_id, " +
+            "price, quantity, is_bot_trade, executed_at, trade_ref) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void batchInsert(Collection<Trade> trades, int batchSize) {
+        if (trades.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, trades, batchSize, (ps, trade) -> {
+            if (trade.getTradeRef() == null) {
+                trade.setTradeRef(trade.generateTradeRef());
+            }
+            LocalDateTime executedAt = trade.getExecutedAt() != null ? trade.getExecutedAt() : LocalDateTime.now();
+
+            if (trade.getTradeId() == null) {
+                trade.setTradeId(SnowflakeIdGenerator.shared().nextId());
+            }
+
+            ps.setLong(1, trade.getTradeId());
+            ps.setLong(2, trade.getTenantId());
+            ps.setString(3, trade.getSymbol());
+            ps.setLong(4, trade.getBuyOrderId());
+            ps.setLong(5, trade.getSellOrderId());
+            ps.setLong(6, trade.getBuyAccountId());
+            ps.setLong(7, trade.getSellAccountId());
+            ps.setBigDecimal(8, trade.getPrice());
+            ps.setBigDecimal(9, trade.getQuantity());
+            ps.setBoolean(10, Boolean.TRUE.equals(trade.getIsBotTrade()));
+            ps.setTimestamp(11, Timestamp.valueOf(executedAt));
+            ps.setString(12, trade.getTradeRef());
+        });
+    }
+}
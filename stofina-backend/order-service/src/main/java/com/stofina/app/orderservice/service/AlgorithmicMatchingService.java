@@ -42,6 +42,18 @@ public interface AlgorithmicMatchingService {
      */
     int getAlgorithmicMatchingCount(Long orderId);
     
+    /**
+     * Drops the order's retry state and cancels its pending attempt, e.g. when it leaves the book
+     * @param orderId Order ID
+     */
+    void cancelAlgorithmicMatching(Long orderId);
+    
+    /**
+     * Points a pending attempt at the order's replacement after an amend
+     * @param order The amended order, same order ID
+     */
+    void updateAlgorithmicMatchingOrder(Order order);
+    
     /**
      * Manually trigger algorithmic matching (for testing)
      * @param orderId Order ID to process
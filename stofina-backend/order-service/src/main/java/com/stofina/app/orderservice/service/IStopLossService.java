@@ -29,6 +29,17 @@ public interface IStopLossService {
      */
     ServiceResult<List<Order>> checkPrice(String symbol, BigDecimal currentPrice);
 
+    /**
+     * Checks stop-loss orders against a price range seen since the last check, e.g. a batch of
+     * conflated ticks. Triggers on the lowest price; triggered orders are priced at the current one.
+     *
+     * @param symbol the stock symbol to check
+     * @param lowestPrice the lowest price seen in the range
+     * @param currentPrice the latest price
+     * @return ServiceResult containing list of triggered orders
+     */
+    ServiceResult<List<Order>> checkPrice(String symbol, BigDecimal lowestPrice, BigDecimal currentPrice);
+
     /**
      * Removes a stop-loss order from monitoring.
      *
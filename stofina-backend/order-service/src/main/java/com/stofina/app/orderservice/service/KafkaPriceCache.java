@@ -1,39 +1,37 @@
 package com.stofina.app.orderservice.service;
 
+import com.stofina.app.orderservice.model.PriceSnapshot;
+import com.stofina.app.orderservice.model.PriceTable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class KafkaPriceCache {
 
-    private final Map<String, PriceCacheEntry> priceCache = new ConcurrentHashMap<>();
+    // 5 dakikadan eski fiyatları geçersiz say
+    private static final long MAX_PRICE_AGE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final PriceTable priceTable = new PriceTable(MAX_PRICE_AGE_NANOS);
     
     public void updatePrice(String symbol, BigDecimal price) {
-        priceCache.put(symbol, new PriceCacheEntry(price, LocalDateTime.now()));
+        priceTable.update(symbol, price);
     }
     
     public BigDecimal getCurrentPrice(String symbol) {
-        PriceCacheEntry entry = priceCache.get(symbol);
-        if (entry == null) {
-            return null;
-        }
-        
-        // 5 dakikadan eski fiyatları geçersiz say
-        if (entry.getUpdatedAt().isBefore(LocalDateTime.now().minusMinutes(5))) {
-            priceCache.remove(symbol);
-            return null;
-        }
-        
-        return entry.getPrice();
+        return priceTable.get(symbol);
     }
     
     public LocalDateTime getLastUpdateTime(String symbol) {
-        PriceCacheEntry entry = priceCache.get(symbol);
-        return entry != null ? entry.getUpdatedAt() : null;
+        long updatedAtMillis = priceTable.getLastUpdateMillis(symbol);
+        return updatedAtMillis != 0L
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(updatedAtMillis), ZoneId.systemDefault())
+                : null;
     }
     
     public boolean hasPrice(String symbol) {
@@ -41,35 +39,18 @@ public class KafkaPriceCache {
     }
     
     public void clearCache() {
-        priceCache.clear();
+        priceTable.clear();
     }
     
-    public Map<String, BigDecimal> getAllPrices() {
-        Map<String, BigDecimal> currentPrices = new ConcurrentHashMap<>();
-        priceCache.forEach((symbol, entry) -> {
-            BigDecimal price = getCurrentPrice(symbol);
-            if (price != null) {
-                currentPrices.put(symbol, price);
-            }
-        });
-        return currentPrices;
+    /**
+     * Consistent view of all fresh prices, for checks that compare several symbols or read one symbol
+     * more than once and must not see a price change halfway through.
+     */
+    public PriceSnapshot snapshot() {
+        return priceTable.snapshot();
     }
     
-    private static class PriceCacheEntry {
-        private final BigDecimal price;
-        private final LocalDateTime updatedAt;
-        
-        public PriceCacheEntry(BigDecimal price, LocalDateTime updatedAt) {
-            this.price = price;
-            this.updatedAt = updatedAt;
-        }
-        
-        public BigDecimal getPrice() {
-            return price;
-        }
-        
-        public LocalDateTime getUpdatedAt() {
-            return updatedAt;
-        }
+    public Map<String, BigDecimal> getAllPrices() {
+        return priceTable.snapshot().getPrices();
     }
-}
\ No newline at end of file
+}
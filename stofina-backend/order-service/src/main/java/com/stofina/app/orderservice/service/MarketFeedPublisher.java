@@ -0,0 +1,31 @@
+package com.stofina.app.orderservice.service;
+
+import com.stofina.app.orderservice.entity.Trade;
+import com.stofina.app.orderservice.enums.OrderSide;
+import com.stofina.app.orderservice.model.SimpleOrderBookSnapshot;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Conflating publisher for the order book and trade topics. Changes only mark a symbol dirty;
+ * a publisher thread sends at most one order book update and one trade frame per symbol per interval.
+ */
+public interface MarketFeedPublisher {
+
+    /**
+     * Marks the symbol's book as changed. The snapshot source is read once, on the next publish tick,
+     * however many times the book changed in between.
+     */
+    void markOrderBookDirty(String symbol, Supplier<SimpleOrderBookSnapshot> snapshotSource);
+
+    /**
+     * Queues trades for the next trade frame of their symbol.
+     */
+    void publishTrades(List<Trade> trades, OrderSide aggressorSide);
+
+    /**
+     * Publishes everything pending right away.
+     */
+    void flush();
+}
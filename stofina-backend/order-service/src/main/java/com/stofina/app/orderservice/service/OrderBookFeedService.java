@@ -0,0 +1,25 @@
+package com.stofina.app.orderservice.service;
+
+import com.stofina.app.orderservice.dto.response.OrderBookFeedMessage;
+import com.stofina.app.orderservice.model.SimpleOrderBookSnapshot;
+
+/**
+ * Incremental L2 feed for /topic/orderbook/{symbol}: per-level deltas stamped with a per-symbol
+ * sequence number and a checksum of the top levels. Snapshots go only to the subscribing session,
+ * on /user/queue/orderbook/{symbol}.
+ */
+public interface OrderBookFeedService {
+
+    /**
+     * Diffs the snapshot against the last published levels and broadcasts the changed levels, if any.
+     */
+    void publish(SimpleOrderBookSnapshot snapshot);
+
+    /**
+     * Brings the feed state up to date with the snapshot and returns it as a full snapshot message
+     * at the current sequence, for a client that is (re)subscribing.
+     */
+    OrderBookFeedMessage snapshot(SimpleOrderBookSnapshot snapshot);
+
+    long getSequence(String symbol);
+}
@@ -27,6 +27,16 @@ public interface PendingOrderService {
      */
     List<Order> checkAndActivatePendingOrders(String symbol, BigDecimal newMarketPrice);
     
+    /**
+     * Activate pending orders of a symbol that came within range of any price between
+     * lowPrice and highPrice, e.g. the range of a batch of conflated ticks
+     * @param symbol Stock symbol
+     * @param lowPrice Lowest market price seen
+     * @param highPrice Highest market price seen
+     * @return List of orders that were activated
+     */
+    List<Order> checkAndActivatePendingOrders(String symbol, BigDecimal lowPrice, BigDecimal highPrice);
+    
     /**
      * Remove order from pending activation (used when order is cancelled)
      * @param orderId Order ID to remove
@@ -12,6 +12,12 @@ public interface ScheduledOrderBookService {
      */
     void scheduledOrderBookMaintenance();
     
+    /**
+     * Re-centres the bot ladders of all display order books on the current prices.
+     * Runs on its own, shorter schedule; a refresh only costs as much as the price moved.
+     */
+    void scheduledLadderRefresh();
+    
     /**
      * Updates market prices for all active symbols.
      * Fetches and updates current market prices from the price feed.
@@ -2,12 +2,12 @@ package com.stofina.app.orderservice.service;
 
 import com.stofina.app.orderservice.entity.Order;
 import com.stofina.app.orderservice.entity.Trade;
-import com.stofina.app.orderservice.model.SimpleOrderBook;
 import com.stofina.app.orderservice.model.SimpleOrderBookSnapshot;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public interface SimpleOrderBookManager {
     
@@ -21,8 +21,6 @@ public interface SimpleOrderBookManager {
     
     boolean updateOrder(Order oldOrder, Order newOrder);
     
-    SimpleOrderBook getOrderBook(String symbol);
-    
     SimpleOrderBookSnapshot getOrderBookSnapshot(String symbol);
     
     BigDecimal getBestBid(String symbol);
@@ -31,6 +29,9 @@ public interface SimpleOrderBookManager {
     
     BigDecimal getSpread(String symbol);
     
+    // The order resting in the book, looked up on the symbol's shard; null when it is not resting
+    Order findRestingOrder(String symbol, Long orderId);
+    
     void clearOrderBook(String symbol);
     
     Set<String> getActiveSymbols();
@@ -43,4 +44,17 @@ public interface SimpleOrderBookManager {
     List<Trade> matchOrder(Order newOrder);
     
     List<Order> getMatchingOrders(Order newOrder);
+    
+    // Asynchronous variants: the command is queued on the symbol's sequencer shard
+    CompletableFuture<List<Trade>> submitOrder(Order order);
+    
+    // Orders of one symbol processed in list order by a single shard command
+    CompletableFuture<List<Trade>> submitOrders(String symbol, List<Order> orders);
+    
+    CompletableFuture<Boolean> submitCancel(Long orderId, String symbol);
+    
+    CompletableFuture<Boolean> submitAmend(Order oldOrder, Order newOrder);
+    
+    // Fills one resting order against an algorithmic counter order on the symbol's shard, through the matcher's fill path
+    CompletableFuture<List<Trade>> submitCounterFill(Long restingOrderId, Order counterOrder);
 }
\ No newline at end of file
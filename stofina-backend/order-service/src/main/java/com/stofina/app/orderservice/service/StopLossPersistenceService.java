@@ -0,0 +1,28 @@
+package com.stofina.app.orderservice.service;
+
+import com.stofina.app.orderservice.model.StopLossWatcherStateUpdate;
+
+/**
+ * Write-behind persistence for stop-loss watcher state.
+ *
+ * Triggers, soft deletes and check activity are collected and written to stop_loss_watchers in
+ * JDBC batches, flushed when the batch is full or the flush interval elapses. Repeated updates of
+ * the same watcher inside one flush window are merged into one.
+ */
+public interface StopLossPersistenceService {
+
+    /**
+     * Queue an update of the watcher's row. A later update of the same watcher replaces it.
+     */
+    void recordState(StopLossWatcherStateUpdate update);
+
+    /**
+     * Write everything recorded so far and wait for it.
+     */
+    void flush();
+
+    /**
+     * @return number of distinct watcher updates waiting to be written
+     */
+    int getPendingCount();
+}
@@ -0,0 +1,50 @@
+package com.stofina.app.orderservice.service;
+
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.entity.Trade;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Write-behind persistence for the results of matching.
+ *
+ * Trades and order fill state recorded by the matcher are collected and written in
+ * JDBC batches, flushed when the batch is full or the flush interval elapses.
+ * Repeated updates of the same order inside one flush window are merged into one.
+ */
+public interface TradePersistenceService {
+
+    /**
+     * Queue the insert of an executed trade.
+     */
+    void recordTrade(Trade trade);
+
+    /**
+     * Queue an update of the order's fill state (filled quantity, average price, status).
+     * The state is captured at call time; a later update of the same order replaces it.
+     */
+    void recordOrderUpdate(Order order);
+
+    /**
+     * With SYNC durability, a future completed once everything recorded so far is committed,
+     * or once the sync timeout has passed. With ASYNC durability, a completed future.
+     * Never blocks, so the matcher can hand the wait to its caller.
+     */
+    CompletableFuture<Void> whenDurable();
+
+    /**
+     * With SYNC durability, block until everything recorded so far is committed.
+     * With ASYNC durability, return immediately. Not for matching threads; they use {@link #whenDurable()}.
+     */
+    void awaitDurable();
+
+    /**
+     * Write everything recorded so far and wait for it, regardless of durability mode.
+     */
+    void flush();
+
+    /**
+     * @return number of trades and distinct order updates waiting to be written
+     */
+    int getPendingCount();
+}
@@ -0,0 +1,72 @@
+package com.stofina.app.orderservice.service;
+
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.entity.Trade;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Asynchronous settlement stage between the matching engine and Portfolio Service.
+ *
+ * The matcher hands over executed trades in execution order and returns immediately;
+ * portfolio confirmations and, when they fail, compensations run on the settlement
+ * workers with a bounded number of requests in flight.
+ */
+public interface TradeSettlementService {
+
+    /**
+     * Queue the buy and sell side confirmations of an executed trade.
+     * Order state is captured at call time, so this must be called after both
+     * orders have been updated with the trade quantity.
+     *
+     * @param trade The executed trade
+     * @param buyOrder The buy side order
+     * @param sellOrder The sell side order
+     */
+    void submitTrade(Trade trade, Order buyOrder, Order sellOrder);
+
+    /**
+     * Queue the confirmation of an order that became FILLED or PARTIALLY_FILLED.
+     *
+     * @param order The order whose fill should be confirmed
+     * @param trade The trade that produced the fill
+     */
+    void submitOrderConfirmation(Order order, Trade trade);
+
+    /**
+     * Queue the release of the funds or stock reserved for the unfilled part of an order that
+     * will not be filled any further. It runs after the confirmations already queued for the account.
+     *
+     * @param order The order whose unfilled quantity is released
+     * @param reason Reason passed on to Portfolio Service
+     */
+    void submitOrderCancellation(Order order, String reason);
+
+    /**
+     * @return current queue depth, in-flight requests, outcome counters and settlement lag
+     */
+    SettlementStatus getStatus();
+
+    @Getter
+    @Builder
+    @ToString
+    class SettlementStatus {
+        private final int queueDepth;
+        private final int inFlight;
+        private final int workers;
+        private final long submitted;
+        private final long settled;
+        private final long failed;
+        private final long compensated;
+        private final long compensationFailed;
+        // Age of the oldest task still waiting for a worker
+        private final long oldestPendingMillis;
+        // Time from hand-over by the matcher to completion of the last settled task
+        private final long lastSettlementLagMillis;
+
+        public boolean isLagging(long thresholdMillis) {
+            return oldestPendingMillis > thresholdMillis;
+        }
+    }
+}
@@ -17,5 +17,8 @@ public interface MarketDataClient {
 
     boolean validatePriceInRange(String symbol, BigDecimal price);
 
+    // Same ±1.5% check against a price the caller already holds, without another lookup
+    boolean isPriceInRange(BigDecimal currentPrice, BigDecimal price);
+
     boolean healthCheck();
 }
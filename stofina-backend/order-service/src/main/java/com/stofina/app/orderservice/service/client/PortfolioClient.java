@@ -3,6 +3,7 @@ package com.stofina.app.orderservice.service.client;
 import com.stofina.app.orderservice.dto.portfolio.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -76,6 +77,15 @@ public interface PortfolioClient {
      */
     CompletableFuture<PortfolioResponse> confirmPartialSellTrade(PartialTradeConfirmationRequest request);
 
+    /**
+     * Confirm several trade executions with one call.
+     * The single confirm methods above are collected into these batches.
+     *
+     * @param confirmations Confirmations to apply, grouped per account by Portfolio Service
+     * @return CompletableFuture with one result per confirmation, in request order
+     */
+    CompletableFuture<List<TradeConfirmationResult>> confirmTrades(List<TradeConfirmationItem> confirmations);
+
     // ========================================
     // PHASE 3: ORDER CANCELLATIONS
     // ========================================
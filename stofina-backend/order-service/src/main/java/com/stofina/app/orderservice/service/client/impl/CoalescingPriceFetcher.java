@@ -0,0 +1,123 @@
+package com.stofina.app.orderservice.service.client.impl;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Fetches prices that missed every cache with as few remote calls as possible. Callers asking for a
+ * symbol that is already being fetched share that fetch. Symbols requested while a batch is in flight
+ * are queued and go out together in the next batch, so at most one round of batch calls runs at a time
+ * no matter how many requests miss at once.
+ */
+@Slf4j
+public class CoalescingPriceFetcher {
+
+    private final Function<List<String>, CompletableFuture<Map<String, BigDecimal>>> batchFetcher;
+    private final int maxBatchSize;
+
+    private final Map<String, CompletableFuture<BigDecimal>> inFlight = new ConcurrentHashMap<>();
+    private final Queue<String> queued = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+
+    /**
+     * @param batchFetcher fetches the prices of up to {@code maxBatchSize} symbols in one call; symbols
+     *                     missing from the result complete with null
+     */
+    public CoalescingPriceFetcher(Function<List<String>, CompletableFuture<Map<String, BigDecimal>>> batchFetcher,
+                                  int maxBatchSize) {
+        this.batchFetcher = batchFetcher;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public CompletableFuture<BigDecimal> fetch(String symbol) {
+        CompletableFuture<BigDecimal> created = new CompletableFuture<>();
+        CompletableFuture<BigDecimal> existing = inFlight.putIfAbsent(symbol, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        // Leave the entry until the result is out, so late callers still join this fetch
+        created.whenComplete((price, error) -> inFlight.remove(symbol, created));
+        queued.add(symbol);
+        dispatch();
+        return created;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private void dispatch() {
+        while (dispatching.compareAndSet(false, true)) {
+            List<String> symbols = drainQueued();
+            if (!symbols.isEmpty()) {
+                sendBatches(symbols);
+                return;
+            }
+            dispatching.set(false);
+            // A symbol queued after the drain but before the flag was cleared would otherwise wait for the next caller
+            if (queued.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    private void sendBatches(List<String> symbols) {
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int from = 0; from < symbols.size(); from += maxBatchSize) {
+            List<String> batch = symbols.subList(from, Math.min(from + maxBatchSize, symbols.size()));
+            batches.add(sendBatch(List.copyOf(batch)));
+        }
+
+        CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            dispatching.set(false);
+            dispatch();
+        });
+    }
+
+    private CompletableFuture<Void> sendBatch(List<String> batch) {
+        CompletableFuture<Map<String, BigDecimal>> response;
+        try {
+            response = batchFetcher.apply(batch);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        return response.handle((prices, error) -> {
+            if (error != null) {
+                log.error("Toplu fiyat çağrısı başarısız - symbols: {}, error: {}", batch, error.getMessage());
+            }
+            for (String symbol : batch) {
+                CompletableFuture<BigDecimal> future = inFlight.get(symbol);
+                if (future == null) {
+                    continue;
+                }
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    future.complete(prices != null ? prices.get(symbol) : null);
+                }
+            }
+            return null;
+        });
+    }
+
+    private List<String> drainQueued() {
+        List<String> symbols = new ArrayList<>();
+        String symbol;
+        while ((symbol = queued.poll()) != null) {
+            symbols.add(symbol);
+        }
+        return symbols;
+    }
+}
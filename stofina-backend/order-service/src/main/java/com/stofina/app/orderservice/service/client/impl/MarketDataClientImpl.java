@@ -3,6 +3,7 @@ package com.stofina.app.orderservice.service.client.impl;
 
 import com.stofina.app.orderservice.config.MarketDataConfig;
 import com.stofina.app.orderservice.dto.response.external.PriceResponse;
+import com.stofina.app.orderservice.dto.response.external.SymbolPriceResponse;
 import com.stofina.app.orderservice.service.KafkaPriceCache;
 import com.stofina.app.orderservice.service.client.MarketDataClient;
 import lombok.extern.slf4j.Slf4j;
@@ -12,18 +13,29 @@ import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 
 @Slf4j
 @Service
 public class MarketDataClientImpl implements MarketDataClient {
 
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(5);
+    private static final String DEFAULT_PRICES_ENDPOINT = "/api/v1/market/prices";
+    // market-data's bulk endpoint rejects more symbols than this in one request
+    private static final int MAX_SYMBOLS_PER_REQUEST = 10;
+
     private final WebClient webClient;
     private final MarketDataConfig marketDataConfig;
     private final RedisTemplate<String, BigDecimal> redisTemplate;
     private final KafkaPriceCache kafkaPriceCache;
+    private final CoalescingPriceFetcher priceFetcher;
 
     public MarketDataClientImpl(WebClient webClient, MarketDataConfig marketDataConfig, 
                                 RedisTemplate<String, BigDecimal> redisTemplate, KafkaPriceCache kafkaPriceCache) {
@@ -31,6 +43,7 @@ public class MarketDataClientImpl implements MarketDataClient {
         this.marketDataConfig = marketDataConfig;
         this.redisTemplate = redisTemplate;
         this.kafkaPriceCache = kafkaPriceCache;
+        this.priceFetcher = new CoalescingPriceFetcher(this::fetchPrices, MAX_SYMBOLS_PER_REQUEST);
     }
 
     @Override
@@ -49,24 +62,18 @@ public class MarketDataClientImpl implements MarketDataClient {
             return cachedPrice;
         }
 
-        // 3. Son çare: HTTP API çağrısı (fallback)
+        // 3. Son çare: HTTP API çağrısı (fallback) - aynı sembol için tek çağrı, farklı semboller toplu çağrı
         log.warn("Kafka ve Redis cache'de fiyat bulunamadı, HTTP API'ye fallback - symbol: {}", symbol);
         
-        String endpoint = marketDataConfig.getEndpoints().get("price");
-        String url = endpoint.replace("{symbol}", symbol);
-
         try {
-            PriceResponse response = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(PriceResponse.class)
-                    .block(Duration.ofSeconds(5));
-
-            if (response != null) {
-                setCachedPrice(symbol, response.getPrice());
-                log.info("HTTP API'den fiyat alındı - symbol: {}, price: {}", symbol, response.getPrice());
-                return response.getPrice();
+            BigDecimal price = priceFetcher.fetch(symbol).get(FETCH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            if (price != null) {
+                log.info("HTTP API'den fiyat alındı - symbol: {}, price: {}", symbol, price);
             }
+            return price;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("HTTP API çağrısı kesildi - symbol: {}", symbol);
         } catch (Exception e) {
             log.error("HTTP API çağrısı başarısız - symbol: {}, error: {}", symbol, e.getMessage());
         }
@@ -74,6 +81,29 @@ public class MarketDataClientImpl implements MarketDataClient {
         return null;
     }
 
+    private CompletableFuture<Map<String, BigDecimal>> fetchPrices(List<String> symbols) {
+        String endpoint = marketDataConfig.getEndpoints().getOrDefault("prices", DEFAULT_PRICES_ENDPOINT);
+
+        return webClient.post()
+                .uri(endpoint)
+                .bodyValue(symbols)
+                .retrieve()
+                .bodyToFlux(SymbolPriceResponse.class)
+                .collectList()
+                .timeout(FETCH_TIMEOUT)
+                .map(responses -> {
+                    Map<String, BigDecimal> prices = new HashMap<>();
+                    for (SymbolPriceResponse response : responses) {
+                        if (response.getSymbol() != null && response.getPrice() != null) {
+                            prices.put(response.getSymbol(), response.getPrice());
+                            setCachedPrice(response.getSymbol(), response.getPrice());
+                        }
+                    }
+                    return prices;
+                })
+                .toFuture();
+    }
+
     @Override
     public PriceResponse getPriceWithDetails(String symbol) {
         String endpoint = marketDataConfig.getEndpoints().get("price");
@@ -113,12 +143,16 @@ public class MarketDataClientImpl implements MarketDataClient {
 
     @Override
     public boolean validatePriceInRange(String symbol, BigDecimal price) {
-        BigDecimal currentPrice = getCurrentPrice(symbol);
-        if (currentPrice == null || price == null) {
+        return isPriceInRange(getCurrentPrice(symbol), price);
+    }
+
+    @Override
+    public boolean isPriceInRange(BigDecimal currentPrice, BigDecimal price) {
+        if (currentPrice == null || price == null || currentPrice.compareTo(BigDecimal.ZERO) <= 0) {
             return false;
         }
         // %1.5 limit kontrolü (Fintek gereksinimi)
-        BigDecimal deviation = price.subtract(currentPrice).abs().divide(currentPrice, 6, BigDecimal.ROUND_HALF_UP);
+        BigDecimal deviation = price.subtract(currentPrice).abs().divide(currentPrice, 6, RoundingMode.HALF_UP);
         return deviation.compareTo(new BigDecimal("0.015")) <= 0;
     }
 
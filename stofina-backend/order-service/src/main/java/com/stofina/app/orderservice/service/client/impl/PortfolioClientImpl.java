@@ -4,6 +4,8 @@ import com.stofina.app.orderservice.dto.portfolio.*;
 import com.stofina.app.orderservice.exception.portfolio.*;
 import com.stofina.app.orderservice.service.client.PortfolioClient;
 // Circuit Breaker imports removed - not needed
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -16,6 +18,7 @@ import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 @Slf4j
@@ -32,17 +35,14 @@ public class PortfolioClientImpl implements PortfolioClient {
     @Value("${portfolio-service.endpoints.sell-stock}")
     private String sellStockEndpoint;
 
-    @Value("${portfolio-service.endpoints.confirm-buy}")
-    private String confirmBuyEndpoint;
+    @Value("${portfolio-service.endpoints.confirm-batch}")
+    private String confirmBatchEndpoint;
 
-    @Value("${portfolio-service.endpoints.confirm-sell}")
-    private String confirmSellEndpoint;
+    @Value("${portfolio-service.confirmation-batch.max-size:100}")
+    private int confirmationBatchMaxSize;
 
-    @Value("${portfolio-service.endpoints.confirm-buy-partial}")
-    private String confirmBuyPartialEndpoint;
-
-    @Value("${portfolio-service.endpoints.confirm-sell-partial}")
-    private String confirmSellPartialEndpoint;
+    @Value("${portfolio-service.confirmation-batch.window-millis:5}")
+    private long confirmationBatchWindowMillis;
 
     @Value("${portfolio-service.endpoints.cancel-buy}")
     private String cancelBuyEndpoint;
@@ -53,6 +53,21 @@ public class PortfolioClientImpl implements PortfolioClient {
     @Value("${portfolio-service.endpoints.health}")
     private String healthEndpoint;
 
+    private TradeConfirmationBatcher confirmationBatcher;
+
+    @PostConstruct
+    public void initConfirmationBatcher() {
+        confirmationBatcher = new TradeConfirmationBatcher(this::confirmTrades,
+                confirmationBatchMaxSize, confirmationBatchWindowMillis);
+        log.info("Trade confirmation batching enabled → MaxSize: {}, WindowMillis: {}",
+                confirmationBatchMaxSize, confirmationBatchWindowMillis);
+    }
+
+    @PreDestroy
+    public void shutdownConfirmationBatcher() {
+        confirmationBatcher.shutdown();
+    }
+
     // PHASE 1: BASIC RESERVATIONS
 
     @Override
@@ -102,20 +117,10 @@ public class PortfolioClientImpl implements PortfolioClient {
         log.info("Confirming buy trade → TradeId: {}, OrderId: {}, ExecutedQuantity: {}", 
                 request.getTradeId(), request.getOrderId(), request.getExecutedQuantity());
 
-        // Portfolio Service expects path parameter: /confirm-buy/{orderId}
-        String uri = confirmBuyEndpoint + "/" + request.getOrderId();
-
-        return portfolioWebClient.post()
-                .uri(uri)
-                .retrieve()
-                .toBodilessEntity()
-                .map(response -> {
-                    log.info("Buy trade confirmation successful → TradeId: {}, HTTP Status: {}", 
-                            request.getTradeId(), response.getStatusCode());
-                    return PortfolioResponse.success("Buy trade confirmed", null);
-                })
-                .onErrorMap(this::mapWebClientException)
-                .toFuture();
+        // Collected into the next confirmation batch instead of its own /confirm-buy/{orderId} call
+        return confirmationBatcher.submit(confirmationItem(request.getOrderId(), request.getAccountId(),
+                        TradeConfirmationType.BUY, null))
+                .thenApply(result -> toPortfolioResponse(result, request.getTradeId(), "Buy trade confirmed"));
     }
 
     @Override
@@ -123,20 +128,9 @@ public class PortfolioClientImpl implements PortfolioClient {
         log.info("Confirming sell trade → TradeId: {}, OrderId: {}, ExecutedQuantity: {}", 
                 request.getTradeId(), request.getOrderId(), request.getExecutedQuantity());
 
-        // Portfolio Service expects path parameter: /confirm-sell/{orderId}
-        String uri = confirmSellEndpoint + "/" + request.getOrderId();
-
-        return portfolioWebClient.post()
-                .uri(uri)
-                .retrieve()
-                .toBodilessEntity()
-                .map(response -> {
-                    log.info("Sell trade confirmation successful → TradeId: {}, HTTP Status: {}", 
-                            request.getTradeId(), response.getStatusCode());
-                    return PortfolioResponse.success("Sell trade confirmed", null);
-                })
-                .onErrorMap(this::mapWebClientException)
-                .toFuture();
+        return confirmationBatcher.submit(confirmationItem(request.getOrderId(), request.getAccountId(),
+                        TradeConfirmationType.SELL, null))
+                .thenApply(result -> toPortfolioResponse(result, request.getTradeId(), "Sell trade confirmed"));
     }
 
     @Override
@@ -144,20 +138,9 @@ public class PortfolioClientImpl implements PortfolioClient {
         log.info("Confirming partial buy trade → TradeId: {}, OrderId: {}, PartialQuantity: {}, RemainingQuantity: {}", 
                 request.getTradeId(), request.getOrderId(), request.getPartialQuantity(), request.getRemainingQuantity());
 
-        // Portfolio Service expects path parameters: /confirm-buy-partial/{orderId}/{fulfilledQuantity}
-        String uri = confirmBuyPartialEndpoint + "/" + request.getOrderId() + "/" + request.getPartialQuantity();
-
-        return portfolioWebClient.post()
-                .uri(uri)
-                .retrieve()
-                .toBodilessEntity()
-                .map(response -> {
-                    log.info("Partial buy trade confirmation successful → TradeId: {}, HTTP Status: {}", 
-                            request.getTradeId(), response.getStatusCode());
-                    return PortfolioResponse.success("Partial buy trade confirmed", null);
-                })
-                .onErrorMap(this::mapWebClientException)
-                .toFuture();
+        return confirmationBatcher.submit(confirmationItem(request.getOrderId(), request.getAccountId(),
+                        TradeConfirmationType.BUY_PARTIAL, request.getPartialQuantity()))
+                .thenApply(result -> toPortfolioResponse(result, request.getTradeId(), "Partial buy trade confirmed"));
     }
 
     @Override
@@ -165,22 +148,56 @@ public class PortfolioClientImpl implements PortfolioClient {
         log.info("Confirming partial sell trade → TradeId: {}, OrderId: {}, PartialQuantity: {}, RemainingQuantity: {}", 
                 request.getTradeId(), request.getOrderId(), request.getPartialQuantity(), request.getRemainingQuantity());
 
-        // Portfolio Service expects path parameters: /confirm-sell-partial/{orderId}/{fulfilledQuantity}
-        String uri = confirmSellPartialEndpoint + "/" + request.getOrderId() + "/" + request.getPartialQuantity();
+        return confirmationBatcher.submit(confirmationItem(request.getOrderId(), request.getAccountId(),
+                        TradeConfirmationType.SELL_PARTIAL, request.getPartialQuantity()))
+                .thenApply(result -> toPortfolioResponse(result, request.getTradeId(), "Partial sell trade confirmed"));
+    }
+
+    @Override
+    public CompletableFuture<List<TradeConfirmationResult>> confirmTrades(List<TradeConfirmationItem> confirmations) {
+        log.info("Confirming trade batch → Count: {}", confirmations.size());
 
         return portfolioWebClient.post()
-                .uri(uri)
+                .uri(confirmBatchEndpoint)
+                .bodyValue(TradeConfirmationBatchRequest.builder().confirmations(confirmations).build())
                 .retrieve()
-                .toBodilessEntity()
-                .map(response -> {
-                    log.info("Partial sell trade confirmation successful → TradeId: {}, HTTP Status: {}", 
-                            request.getTradeId(), response.getStatusCode());
-                    return PortfolioResponse.success("Partial sell trade confirmed", null);
-                })
+                .bodyToFlux(TradeConfirmationResult.class)
+                .collectList()
+                .doOnSuccess(results -> log.info("Trade batch confirmed → Count: {}, Failed: {}",
+                        results.size(), results.stream().filter(result -> !result.isSuccess()).count()))
                 .onErrorMap(this::mapWebClientException)
                 .toFuture();
     }
 
+    private TradeConfirmationItem confirmationItem(Long orderId, Long accountId, TradeConfirmationType type,
+                                                   Integer fulfilledQuantity) {
+        return TradeConfirmationItem.builder()
+                .orderId(orderId)
+                .accountId(accountId)
+                .type(type)
+                .fulfilledQuantity(fulfilledQuantity)
+                .build();
+    }
+
+    private PortfolioResponse toPortfolioResponse(TradeConfirmationResult result, Long tradeId, String successMessage) {
+        if (result.isSuccess()) {
+            log.info("{} → TradeId: {}, OrderId: {}", successMessage, tradeId, result.getOrderId());
+            return PortfolioResponse.success(successMessage, null);
+        }
+
+        log.error("Trade confirmation rejected → TradeId: {}, OrderId: {}, Status: {}, Message: {}",
+                tradeId, result.getOrderId(), result.getErrorCode(), result.getMessage());
+        // Same error codes as a failed single confirm call
+        String errorCode = switch (String.valueOf(result.getErrorCode())) {
+            case "BAD_REQUEST" -> "INVALID_REQUEST";
+            case "NOT_FOUND" -> "NOT_FOUND";
+            case "CONFLICT" -> "CONFLICT";
+            case "SERVICE_UNAVAILABLE", "INTERNAL_SERVER_ERROR" -> "SERVICE_UNAVAILABLE";
+            default -> "HTTP_ERROR";
+        };
+        throw new PortfolioServiceException(result.getMessage(), errorCode);
+    }
+
     // PHASE 3: ORDER CANCELLATIONS
 
     @Override
@@ -0,0 +1,144 @@
+package com.stofina.app.orderservice.service.client.impl;
+
+import com.stofina.app.orderservice.dto.portfolio.TradeConfirmationItem;
+import com.stofina.app.orderservice.dto.portfolio.TradeConfirmationResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects trade confirmations into batches for Portfolio Service. The first confirmation of a batch
+ * opens a short window; the batch goes out when the window closes or when it is full, whichever comes
+ * first. Every caller gets the result of its own confirmation, matched by its position in the batch.
+ */
+@Slf4j
+public class TradeConfirmationBatcher {
+
+    private final Function<List<TradeConfirmationItem>, CompletableFuture<List<TradeConfirmationResult>>> batchSender;
+    private final int maxBatchSize;
+    private final long windowMillis;
+    private final ScheduledExecutorService scheduler;
+
+    private final Object lock = new Object();
+    private List<PendingConfirmation> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean shutdown;
+
+    /**
+     * @param batchSender sends up to {@code maxBatchSize} confirmations in one call and returns one
+     *                    result per confirmation, in the same order
+     */
+    public TradeConfirmationBatcher(
+            Function<List<TradeConfirmationItem>, CompletableFuture<List<TradeConfirmationResult>>> batchSender,
+            int maxBatchSize, long windowMillis) {
+        this.batchSender = batchSender;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.windowMillis = Math.max(0, windowMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "portfolio-confirmation-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<TradeConfirmationResult> submit(TradeConfirmationItem item) {
+        PendingConfirmation confirmation = new PendingConfirmation(item, new CompletableFuture<>());
+        List<PendingConfirmation> full = null;
+
+        synchronized (lock) {
+            if (shutdown) {
+                full = List.of(confirmation);
+            } else {
+                pending.add(confirmation);
+                if (pending.size() >= maxBatchSize) {
+                    full = takePending();
+                } else if (pending.size() == 1) {
+                    scheduledFlush = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+
+        if (full != null) {
+            send(full);
+        }
+        return confirmation.result();
+    }
+
+    /**
+     * Sends the confirmations collected so far without waiting for the window to close.
+     */
+    public void flush() {
+        List<PendingConfirmation> batch;
+        synchronized (lock) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    /**
+     * Sends what is still collected and stops the timer; later confirmations go out one by one.
+     */
+    public void shutdown() {
+        synchronized (lock) {
+            shutdown = true;
+        }
+        flush();
+        scheduler.shutdownNow();
+    }
+
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    private List<PendingConfirmation> takePending() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        List<PendingConfirmation> batch = pending;
+        pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void send(List<PendingConfirmation> batch) {
+        List<TradeConfirmationItem> items = batch.stream().map(PendingConfirmation::item).toList();
+
+        CompletableFuture<List<TradeConfirmationResult>> response;
+        try {
+            response = batchSender.apply(items);
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        response.whenComplete((results, error) -> {
+            if (error != null) {
+                log.error("Trade confirmation batch failed - count: {}, error: {}", batch.size(), error.getMessage());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                CompletableFuture<TradeConfirmationResult> future = batch.get(i).result();
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else if (results == null || i >= results.size()) {
+                    future.completeExceptionally(new IllegalStateException(
+                            "No confirmation result for order: " + batch.get(i).item().getOrderId()));
+                } else {
+                    future.complete(results.get(i));
+                }
+            }
+        });
+    }
+
+    private record PendingConfirmation(TradeConfirmationItem item, CompletableFuture<TradeConfirmationResult> result) {
+    }
+}
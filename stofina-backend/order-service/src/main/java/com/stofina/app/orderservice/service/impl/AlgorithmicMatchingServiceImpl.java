@@ -1,34 +1,37 @@
 package com.stofina.app.orderservice.service.impl;
 
+import com.stofina.app.orderservice.config.OrderBookConfig;
+import com.stofina.app.orderservice.engine.HashedWheelTimer;
 import com.stofina.app.orderservice.entity.Order;
 import com.stofina.app.orderservice.entity.Trade;
 import com.stofina.app.orderservice.enums.OrderSide;
 import com.stofina.app.orderservice.enums.OrderStatus;
 import com.stofina.app.orderservice.enums.OrderType;
 import com.stofina.app.orderservice.repository.OrderRepository;
-import com.stofina.app.orderservice.repository.TradeRepository;
 import com.stofina.app.orderservice.service.AlgorithmicMatchingService;
+import com.stofina.app.orderservice.service.SimpleOrderBookManager;
 import com.stofina.app.orderservice.service.client.PortfolioClient;
 import com.stofina.app.orderservice.dto.portfolio.BuyStockRequest;
 import com.stofina.app.orderservice.dto.portfolio.SellStockRequest;
-import com.stofina.app.orderservice.dto.portfolio.PortfolioResponse;
-import com.stofina.app.orderservice.dto.portfolio.TradeConfirmationRequest;
-import com.stofina.app.orderservice.dto.portfolio.PartialTradeConfirmationRequest;
-import java.util.concurrent.CompletableFuture;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
@@ -37,17 +40,27 @@ public class AlgorithmicMatchingServiceImpl implements AlgorithmicMatchingServic
     
     // CHECKPOINT C1 - Algorithmic Matching Service Implementation
     private final OrderRepository orderRepository;
-    private final TradeRepository tradeRepository;
     private final Random random = new Random();
     
     // CHECKPOINT 3.3 - Portfolio Service integration for algorithmic orders
     private final PortfolioClient portfolioClient;
     
-    // Order tracking: orderId -> algorithmic matching count (max 2)
-    private final Map<Long, Integer> algorithmicMatchingCounts = new ConcurrentHashMap<>();
+    private final OrderBookConfig orderBookConfig;
     
-    // Scheduled executor for delayed algorithmic matching
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(10);
+    // Fills run on the book's sequencer shard; lazy because the manager schedules its attempts through this service
+    @Autowired
+    @Lazy
+    private SimpleOrderBookManager orderBookManager;
+    
+    private static final int MAX_ATTEMPTS = 2;
+    
+    // Only orders with an attempt scheduled or running are tracked; an entry is dropped once the order is
+    // filled, cancelled or out of attempts, so the map follows the live retries rather than every order seen
+    private final Map<Long, MatchingState> matchingStates = new ConcurrentHashMap<>();
+    
+    // Retries wait on a hashed-wheel timer and run on a small worker pool
+    private HashedWheelTimer timer;
+    private ExecutorService workers;
     
     // Algorithm strategies with probabilities
     private enum AlgorithmicStrategy {
@@ -66,6 +79,19 @@ public class AlgorithmicMatchingServiceImpl implements AlgorithmicMatchingServic
         }
     }
     
+    @PostConstruct
+    public void start() {
+        OrderBookConfig.AlgorithmicMatchingConfig config = orderBookConfig.getAlgorithmicMatching();
+        AtomicInteger workerIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(config.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "algorithmic-matching-" + workerIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer = new HashedWheelTimer("algorithmic-matching-timer", config.getTickMillis(), TimeUnit.MILLISECONDS,
+                config.getWheelSize(), workers);
+    }
+    
     @Override
     public void scheduleAlgorithmicMatching(Order order, int delaySeconds) {
         log.info("💡 LIFECYCLE-4: AlgorithmicMatchingService.scheduleAlgorithmicMatching() - ENTRY - OrderId={}, DelaySeconds={}", 
@@ -79,70 +105,123 @@ public class AlgorithmicMatchingServiceImpl implements AlgorithmicMatchingServic
         
         log.info("💡 LIFECYCLE-4: AlgorithmicMatchingService - ELIGIBLE - Scheduling execution in {} seconds", delaySeconds);
         
-        scheduler.schedule(() -> {
+        MatchingState state = matchingStates.computeIfAbsent(order.getOrderId(), id -> new MatchingState(order));
+        scheduleAttempt(state, delaySeconds);
+        
+        log.info("💡 LIFECYCLE-4: AlgorithmicMatchingService.scheduleAlgorithmicMatching() - EXIT - Timer task submitted");
+    }
+    
+    private void scheduleAttempt(MatchingState state, int delaySeconds) {
+        Long orderId = state.order.getOrderId();
+        HashedWheelTimer.Timeout previous = state.timeout;
+        if (previous != null) {
+            previous.cancel();
+        }
+        
+        state.timeout = timer.schedule(() -> {
+            // Cancelled or evicted while waiting for a worker
+            if (matchingStates.get(orderId) != state) {
+                return;
+            }
             try {
-                log.info("💡 LIFECYCLE-4: AlgorithmicMatchingService - DELAYED EXECUTION STARTED - OrderId={}", order.getOrderId());
-                List<Trade> trades = executeAlgorithmicMatching(order);
+                log.info("💡 LIFECYCLE-4: AlgorithmicMatchingService - DELAYED EXECUTION STARTED - OrderId={}", orderId);
+                List<Trade> trades = executeAlgorithmicMatching(state.order);
                 log.info("💡 LIFECYCLE-4: AlgorithmicMatchingService - DELAYED EXECUTION COMPLETED - OrderId={}, Trades={}", 
-                         order.getOrderId(), trades.size());
+                         orderId, trades.size());
             } catch (Exception e) {
                 log.error("💡 LIFECYCLE-4: AlgorithmicMatchingService - EXECUTION FAILED - OrderId={}, Error: {}", 
-                          order.getOrderId(), e.getMessage(), e);
+                          orderId, e.getMessage(), e);
+                evictIfIdle(state);
             }
         }, delaySeconds, TimeUnit.SECONDS);
-        
-        log.info("💡 LIFECYCLE-4: AlgorithmicMatchingService.scheduleAlgorithmicMatching() - EXIT - Scheduler task submitted");
     }
     
     @Override
     public List<Trade> executeAlgorithmicMatching(Order order) {
-        if (!isEligibleForAlgorithmicMatching(order.getOrderId())) {
-            log.warn("Order {} not eligible for algorithmic matching", order.getOrderId());
-            return new ArrayList<>();
-        }
+        MatchingState state = matchingStates.computeIfAbsent(order.getOrderId(), id -> new MatchingState(order));
         
-        // Increment algorithmic matching count
-        int currentCount = algorithmicMatchingCounts.getOrDefault(order.getOrderId(), 0);
-        algorithmicMatchingCounts.put(order.getOrderId(), currentCount + 1);
+        int attempt;
+        synchronized (state) {
+            if (state.attempts >= MAX_ATTEMPTS) {
+                log.warn("Order {} not eligible for algorithmic matching", order.getOrderId());
+                evictIfIdle(state);
+                return new ArrayList<>();
+            }
+            attempt = ++state.attempts;
+        }
+        // A manual trigger takes the place of an attempt still waiting on the timer
+        HashedWheelTimer.Timeout waiting = state.timeout;
+        if (waiting != null) {
+            waiting.cancel();
+        }
         
-        log.info("Executing algorithmic matching for order {} (attempt {}/2)", 
-                order.getOrderId(), currentCount + 1);
+        log.info("Executing algorithmic matching for order {} (attempt {}/{})", 
+                order.getOrderId(), attempt, MAX_ATTEMPTS);
         
-        // Get fresh order data from database
-        Optional<Order> freshOrderOpt = orderRepository.findById(order.getOrderId());
-        if (freshOrderOpt.isEmpty() || freshOrderOpt.get().getStatus() == OrderStatus.FILLED) {
-            log.info("Order {} already filled or not found, skipping algorithmic matching", 
+        // The order is the instance resting in the book, kept current by the matcher; no database read needed.
+        // This is only a quick check, the shard checks the order again before filling it
+        if (order.getStatus() == OrderStatus.FILLED || order.getStatus() == OrderStatus.CANCELLED
+                || order.getRemainingQuantity().compareTo(BigDecimal.ZERO) <= 0) {
+            log.info("Order {} already filled or cancelled, skipping algorithmic matching", 
                     order.getOrderId());
+            cancelAlgorithmicMatching(order.getOrderId());
             return new ArrayList<>();
         }
         
-        Order freshOrder = freshOrderOpt.get();
-        
         // Select algorithmic strategy
         AlgorithmicStrategy strategy = selectAlgorithmicStrategy();
-        log.info("Selected algorithmic strategy: {} for order {}", strategy, freshOrder.getOrderId());
+        log.info("Selected algorithmic strategy: {} for order {}", strategy, order.getOrderId());
         
-        switch (strategy) {
-            case FULL_FILL:
-                return executeFillStrategy(freshOrder, true);
-            case PARTIAL_FILL:
-                return executeFillStrategy(freshOrder, false);
-            case NO_FILL:
-                return executeNoFillStrategy(freshOrder);
-            default:
-                return new ArrayList<>();
+        try {
+            switch (strategy) {
+                case FULL_FILL:
+                    return executeFillStrategy(order, true);
+                case PARTIAL_FILL:
+                    return executeFillStrategy(order, false);
+                case NO_FILL:
+                    return executeNoFillStrategy(order);
+                default:
+                    return new ArrayList<>();
+            }
+        } finally {
+            // No further attempt was scheduled: the order is filled or out of attempts
+            evictIfIdle(state);
         }
     }
     
     @Override
     public boolean isEligibleForAlgorithmicMatching(Long orderId) {
-        int count = algorithmicMatchingCounts.getOrDefault(orderId, 0);
-        return count < 2; // Maximum 2 algorithmic matching attempts per order
+        return getAlgorithmicMatchingCount(orderId) < MAX_ATTEMPTS;
     }
     
     @Override
     public int getAlgorithmicMatchingCount(Long orderId) {
-        return algorithmicMatchingCounts.getOrDefault(orderId, 0);
+        MatchingState state = orderId != null ? matchingStates.get(orderId) : null;
+        return state != null ? state.attempts : 0;
+    }
+    
+    @Override
+    public void cancelAlgorithmicMatching(Long orderId) {
+        MatchingState state = orderId != null ? matchingStates.remove(orderId) : null;
+        if (state != null && state.timeout != null && state.timeout.cancel()) {
+            log.debug("Algorithmic matching cancelled for order {}", orderId);
+        }
+    }
+    
+    @Override
+    public void updateAlgorithmicMatchingOrder(Order order) {
+        MatchingState state = order != null ? matchingStates.get(order.getOrderId()) : null;
+        if (state != null) {
+            state.order = order;
+        }
+    }
+    
+    public int getTrackedOrderCount() {
+        return matchingStates.size();
+    }
+    
+    public int getPendingTimerCount() {
+        return timer.getPendingCount();
     }
     
     @Override
@@ -153,7 +232,25 @@ public class AlgorithmicMatchingServiceImpl implements AlgorithmicMatchingServic
             return new ArrayList<>();
         }
         
-        return executeAlgorithmicMatching(orderOpt.get());
+        // Prefer the instance resting in the book, which the matcher keeps current
+        Order order = orderOpt.get();
+        Order resting = orderBookManager.findRestingOrder(order.getSymbol(), orderId);
+        return executeAlgorithmicMatching(resting != null ? resting : order);
+    }
+    
+    private void evictIfIdle(MatchingState state) {
+        HashedWheelTimer.Timeout timeout = state.timeout;
+        boolean attemptPending = timeout != null && !timeout.isExpired() && !timeout.isCancelled();
+        if (!attemptPending) {
+            matchingStates.remove(state.order.getOrderId(), state);
+        }
+    }
+    
+    private void scheduleNextAttempt(Order order) {
+        MatchingState state = matchingStates.get(order.getOrderId());
+        if (state != null) {
+            scheduleAttempt(state, 15);
+        }
     }
     
     private AlgorithmicStrategy selectAlgorithmicStrategy() {
@@ -201,27 +298,24 @@ public class AlgorithmicMatchingServiceImpl implements AlgorithmicMatchingServic
             return new ArrayList<>();
         }
         
-        // Create trade
-        Trade trade = createAlgorithmicTrade(userOrder, counterBotOrder, counterQuantity);
-        
-        // Update user order
-        updateOrderAfterAlgorithmicTrade(userOrder, counterQuantity, userOrder.getPrice());
-        
-        // Save trade and updated order
-        tradeRepository.save(trade);
-        orderRepository.save(userOrder);
+        // The fill runs on the symbol's sequencer shard through the matcher's fill path, so the book's fill state
+        // and level totals, settlement, write-behind persistence and the trade feed all see it
+        List<Trade> trades;
+        try {
+            trades = orderBookManager.submitCounterFill(userOrder.getOrderId(), counterBotOrder).join();
+        } catch (CompletionException e) {
+            log.error("🤖 ALGORITHMIC: Counter fill failed → UserOrderId: {}, Error: {}", userOrder.getOrderId(),
+                    e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return new ArrayList<>();
+        }
+        if (trades.isEmpty()) {
+            log.info("🤖 ALGORITHMIC: Order {} left the book before the counter fill", userOrder.getOrderId());
+            return trades;
+        }
         
+        Trade trade = trades.get(0);
         log.info("Algorithmic trade executed: {} {} @ {} - Trade ID: {}", 
-                counterQuantity, userOrder.getSymbol(), userOrder.getPrice(), trade.getTradeId());
-        
-        // AUTO-CONFIRM: Automatically confirm filled/partially filled user order in Portfolio Service
-        if (userOrder.getStatus() == OrderStatus.FILLED) {
-            log.info("🤖 AUTO-CONFIRM: User Order FILLED via algorithmic matching, confirming in Portfolio Service → OrderId: {}", userOrder.getOrderId());
-            autoConfirmFilledOrder(userOrder, trade);
-        } else if (userOrder.getStatus() == OrderStatus.PARTIALLY_FILLED) {
-            log.info("🤖 AUTO-CONFIRM: User Order PARTIALLY_FILLED via algorithmic matching, confirming partial trade → OrderId: {}", userOrder.getOrderId());
-            autoConfirmFilledOrder(userOrder, trade);
-        }
+                trade.getQuantity(), userOrder.getSymbol(), trade.getPrice(), trade.getTradeId());
         
         // Schedule next algorithmic matching if partially filled and eligible
         if (!fullFill && userOrder.getRemainingQuantity().compareTo(BigDecimal.ZERO) > 0 
@@ -229,10 +323,10 @@ public class AlgorithmicMatchingServiceImpl implements AlgorithmicMatchingServic
             // Second attempt is always 15 seconds delay
             log.info("Scheduling second algorithmic matching for remaining quantity: {} (15 seconds delay)", 
                     userOrder.getRemainingQuantity());
-            scheduleAlgorithmicMatching(userOrder, 15);
+            scheduleNextAttempt(userOrder);
         }
         
-        return Arrays.asList(trade);
+        return trades;
     }
     
     private List<Trade> executeNoFillStrategy(Order userOrder) {
@@ -244,7 +338,7 @@ public class AlgorithmicMatchingServiceImpl implements AlgorithmicMatchingServic
             // Second attempt is always 15 seconds delay
             log.info("Scheduling second algorithmic matching attempt for order {} (15 seconds delay)", 
                     userOrder.getOrderId());
-            scheduleAlgorithmicMatching(userOrder, 15);
+            scheduleNextAttempt(userOrder);
         } else {
             log.info("Order {} reached maximum algorithmic matching attempts, will remain in book", 
                     userOrder.getOrderId());
@@ -283,50 +377,6 @@ public class AlgorithmicMatchingServiceImpl implements AlgorithmicMatchingServic
         return savedBot;
     }
     
-    private Trade createAlgorithmicTrade(Order userOrder, Order botOrder, BigDecimal quantity) {
-        Order buyOrder = userOrder.getSide() == OrderSide.BUY ? userOrder : botOrder;
-        Order sellOrder = userOrder.getSide() == OrderSide.SELL ? userOrder : botOrder;
-        
-        Trade trade = new Trade();
-        // JPA will auto-generate the tradeId - no manual setting needed
-        trade.setBuyOrderId(buyOrder.getOrderId());
-        trade.setSellOrderId(sellOrder.getOrderId());
-        trade.setSymbol(userOrder.getSymbol());
-        trade.setPrice(userOrder.getPrice());
-        trade.setQuantity(quantity);
-        trade.setExecutedAt(LocalDateTime.now());
-        trade.setBuyAccountId(buyOrder.getAccountId());
-        trade.setSellAccountId(sellOrder.getAccountId());
-        trade.setTenantId(userOrder.getTenantId());
-        trade.setIsBotTrade(true); // Mark as algorithmic trade
-        
-        return trade;
-    }
-    
-    private void updateOrderAfterAlgorithmicTrade(Order order, BigDecimal tradeQuantity, BigDecimal tradePrice) {
-        BigDecimal newFilledQuantity = order.getFilledQuantity().add(tradeQuantity);
-        order.setFilledQuantity(newFilledQuantity);
-        
-        // Update average price (weighted average)
-        if (order.getAveragePrice() == null || order.getAveragePrice().compareTo(BigDecimal.ZERO) == 0) {
-            order.setAveragePrice(tradePrice);
-        } else {
-            BigDecimal totalValue = order.getAveragePrice().multiply(order.getFilledQuantity().subtract(tradeQuantity))
-                    .add(tradePrice.multiply(tradeQuantity));
-            order.setAveragePrice(totalValue.divide(newFilledQuantity, 4, RoundingMode.HALF_UP));
-        }
-        
-        // Update status based on remaining quantity calculation
-        BigDecimal remainingQuantity = order.getQuantity().subtract(newFilledQuantity);
-        if (remainingQuantity.compareTo(BigDecimal.ZERO) <= 0) {
-            order.setStatus(OrderStatus.FILLED);
-        } else {
-            order.setStatus(OrderStatus.PARTIALLY_FILLED);
-        }
-        
-        order.setUpdatedAt(LocalDateTime.now());
-    }
-    
     private OrderSide getOppositeSide(OrderSide side) {
         return side == OrderSide.BUY ? OrderSide.SELL : OrderSide.BUY;
     }
@@ -338,7 +388,13 @@ public class AlgorithmicMatchingServiceImpl implements AlgorithmicMatchingServic
     @PreDestroy
     public void shutdown() {
         log.info("Shutting down algorithmic matching scheduler...");
-        scheduler.shutdown();
+        if (timer != null) {
+            timer.stop();
+        }
+        if (workers != null) {
+            workers.shutdown();
+        }
+        matchingStates.clear();
     }
 
     // CHECKPOINT 3.3 - Portfolio Service Integration Helper Methods
@@ -430,100 +486,15 @@ public class AlgorithmicMatchingServiceImpl implements AlgorithmicMatchingServic
     }
     
     /**
-     * AUTO-CONFIRM: Automatically confirm filled order in Portfolio Service
-     * This method is called when an order is marked as FILLED or PARTIALLY_FILLED via algorithmic matching
-     * to automatically call the appropriate Portfolio Service confirm endpoint.
+     * Retry state of one order. Attempts are counted here; the timeout is the attempt waiting on the timer.
      */
-    private void autoConfirmFilledOrder(Order filledOrder, Trade trade) {
-        try {
-            log.info("🤖 AUTO-CONFIRM (ALGORITHMIC): Processing order → OrderId: {}, Side: {}, Status: {}", 
-                    filledOrder.getOrderId(), filledOrder.getSide(), filledOrder.getStatus());
-            
-            // Skip auto-confirm for bot orders (account ID is 999999L)
-            if (filledOrder.getAccountId().equals(999999L)) {
-                log.info("🤖 AUTO-CONFIRM (ALGORITHMIC): Skipping auto-confirm for BOT account → OrderId: {}", filledOrder.getOrderId());
-                return;
-            }
-            
-            CompletableFuture<PortfolioResponse> confirmationFuture;
-            
-            if (filledOrder.getSide() == OrderSide.BUY) {
-                if (filledOrder.getStatus() == OrderStatus.FILLED) {
-                    // FULLY FILLED - Use normal confirmBuyTrade
-                    TradeConfirmationRequest buyRequest = TradeConfirmationRequest.builder()
-                            .tradeId(trade.getTradeId())
-                            .orderId(filledOrder.getOrderId())
-                            .executedQuantity(trade.getQuantity().intValue())  // Trade quantity
-                            .executedPrice(trade.getPrice())
-                            .build();
-                    
-                    log.info("🤖 AUTO-CONFIRM (ALGORITHMIC): Confirming FULLY FILLED BUY order → {}", buyRequest);
-                    confirmationFuture = portfolioClient.confirmBuyTrade(buyRequest);
-                } else if (filledOrder.getStatus() == OrderStatus.PARTIALLY_FILLED) {
-                    // PARTIALLY FILLED - Use confirmPartialBuyTrade
-                    PartialTradeConfirmationRequest partialBuyRequest = PartialTradeConfirmationRequest.builder()
-                            .tradeId(trade.getTradeId())
-                            .orderId(filledOrder.getOrderId())
-                            .partialQuantity(trade.getQuantity().intValue())  // Actually filled quantity
-                            .remainingQuantity(filledOrder.getRemainingQuantity().intValue())
-                            .executedPrice(trade.getPrice())
-                            .build();
-                    
-                    log.info("🤖 AUTO-CONFIRM (ALGORITHMIC): Confirming PARTIALLY FILLED BUY order → {}", partialBuyRequest);
-                    confirmationFuture = portfolioClient.confirmPartialBuyTrade(partialBuyRequest);
-                } else {
-                    log.warn("🤖 AUTO-CONFIRM (ALGORITHMIC): Unexpected order status for BUY order → OrderId: {}, Status: {}", 
-                            filledOrder.getOrderId(), filledOrder.getStatus());
-                    return;
-                }
-            } else {
-                if (filledOrder.getStatus() == OrderStatus.FILLED) {
-                    // FULLY FILLED - Use normal confirmSellTrade
-                    TradeConfirmationRequest sellRequest = TradeConfirmationRequest.builder()
-                            .tradeId(trade.getTradeId())
-                            .orderId(filledOrder.getOrderId())
-                            .executedQuantity(trade.getQuantity().intValue())  // Trade quantity
-                            .executedPrice(trade.getPrice())
-                            .build();
-                    
-                    log.info("🤖 AUTO-CONFIRM (ALGORITHMIC): Confirming FULLY FILLED SELL order → {}", sellRequest);
-                    confirmationFuture = portfolioClient.confirmSellTrade(sellRequest);
-                } else if (filledOrder.getStatus() == OrderStatus.PARTIALLY_FILLED) {
-                    // PARTIALLY FILLED - Use confirmPartialSellTrade
-                    PartialTradeConfirmationRequest partialSellRequest = PartialTradeConfirmationRequest.builder()
-                            .tradeId(trade.getTradeId())
-                            .orderId(filledOrder.getOrderId())
-                            .partialQuantity(trade.getQuantity().intValue())  // Actually filled quantity
-                            .remainingQuantity(filledOrder.getRemainingQuantity().intValue())
-                            .executedPrice(trade.getPrice())
-                            .build();
-                    
-                    log.info("🤖 AUTO-CONFIRM (ALGORITHMIC): Confirming PARTIALLY FILLED SELL order → {}", partialSellRequest);
-                    confirmationFuture = portfolioClient.confirmPartialSellTrade(partialSellRequest);
-                } else {
-                    log.warn("🤖 AUTO-CONFIRM (ALGORITHMIC): Unexpected order status for SELL order → OrderId: {}, Status: {}", 
-                            filledOrder.getOrderId(), filledOrder.getStatus());
-                    return;
-                }
-            }
-            
-            // Execute confirmation asynchronously without blocking
-            confirmationFuture.thenAccept(response -> {
-                if (response.isSuccess()) {
-                    log.info("✅ AUTO-CONFIRM (ALGORITHMIC): Order confirmation successful → OrderId: {}", filledOrder.getOrderId());
-                } else {
-                    log.error("❌ AUTO-CONFIRM (ALGORITHMIC): Order confirmation failed → OrderId: {}, Error: {}", 
-                            filledOrder.getOrderId(), response.getMessage());
-                }
-            }).exceptionally(throwable -> {
-                log.error("🚨 AUTO-CONFIRM (ALGORITHMIC): Exception during order confirmation → OrderId: {}, Error: {}", 
-                        filledOrder.getOrderId(), throwable.getMessage());
-                return null;
-            });
-            
-        } catch (Exception e) {
-            log.error("🚨 AUTO-CONFIRM (ALGORITHMIC): Unexpected error during auto-confirm → OrderId: {}, Error: {}", 
-                    filledOrder.getOrderId(), e.getMessage());
+    private static final class MatchingState {
+        private volatile Order order;
+        private volatile int attempts;
+        private volatile HashedWheelTimer.Timeout timeout;
+        
+        MatchingState(Order order) {
+            this.order = order;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.stofina.app.orderservice.service.impl;
 
+import com.stofina.app.orderservice.config.OrderBookConfig;
 import com.stofina.app.orderservice.dto.portfolio.CompensationRequest;
 import com.stofina.app.orderservice.dto.portfolio.CompensationType;
 import com.stofina.app.orderservice.dto.portfolio.PortfolioResponse;
@@ -15,6 +16,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -29,6 +32,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class CompensationServiceImpl implements CompensationService {
 
     private final PortfolioClient portfolioClient;
+    private final OrderBookConfig orderBookConfig;
     
     // Compensation queue counters (in production, these would be persisted)
     private final AtomicInteger pendingCompensations = new AtomicInteger(0);
@@ -56,7 +60,8 @@ public class CompensationServiceImpl implements CompensationService {
             log.info("🔧 COMPENSATION: Attempting trade rollback → {}", compensationRequest.getSummary());
 
             CompletableFuture<PortfolioResponse> compensationFuture = portfolioClient.compensateTrade(compensationRequest);
-            PortfolioResponse response = compensationFuture.get();
+            // Runs on a settlement lane: a hung call must not hold up the settlements queued behind it
+            PortfolioResponse response = compensationFuture.get(compensationTimeoutMillis(), TimeUnit.MILLISECONDS);
 
             if (response.isSuccess()) {
                 log.info("✅ COMPENSATION: Trade rollback successful → TradeId: {}, Message: {}", 
@@ -103,6 +108,22 @@ public class CompensationServiceImpl implements CompensationService {
             );
             return false;
 
+        } catch (TimeoutException e) {
+            log.error("🔧 COMPENSATION: Trade rollback timed out → TradeId: {}", trade.getTradeId());
+            failedCompensations.incrementAndGet();
+            pendingCompensations.decrementAndGet();
+            
+            // The outcome is unknown, so the trade needs a manual check
+            handleCriticalCompensationFailure(
+                    CompensationType.TRADE_ROLLBACK,
+                    buyOrder.getOrderId(),
+                    trade.getTradeId(),
+                    "No answer within " + compensationTimeoutMillis() + " ms",
+                    buyOrder.getAccountId(),
+                    sellOrder.getAccountId()
+            );
+            return false;
+
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             log.error("🔧 COMPENSATION: Trade rollback interrupted → TradeId: {}", trade.getTradeId(), e);
@@ -148,7 +169,7 @@ public class CompensationServiceImpl implements CompensationService {
             log.info("🔧 COMPENSATION: Attempting reservation cancellation → {}", compensationRequest.getSummary());
 
             CompletableFuture<PortfolioResponse> compensationFuture = portfolioClient.compensateTrade(compensationRequest);
-            PortfolioResponse response = compensationFuture.get();
+            PortfolioResponse response = compensationFuture.get(compensationTimeoutMillis(), TimeUnit.MILLISECONDS);
 
             if (response.isSuccess()) {
                 log.info("✅ COMPENSATION: Reservation cancellation successful → OrderId: {}", order.getOrderId());
@@ -271,7 +292,7 @@ public class CompensationServiceImpl implements CompensationService {
     public boolean isPortfolioServiceHealthyForCompensations() {
         try {
             CompletableFuture<Boolean> healthFuture = portfolioClient.isPortfolioServiceHealthy();
-            Boolean isHealthy = healthFuture.get();
+            Boolean isHealthy = healthFuture.get(compensationTimeoutMillis(), TimeUnit.MILLISECONDS);
             
             log.debug("🔧 COMPENSATION: Portfolio Service health check → Healthy: {}", isHealthy);
             return isHealthy != null && isHealthy;
@@ -284,6 +305,10 @@ public class CompensationServiceImpl implements CompensationService {
 
     // PRIVATE HELPER METHODS
 
+    private long compensationTimeoutMillis() {
+        return orderBookConfig.getSettlement().getCompensationTimeoutMillis();
+    }
+
     /**
      * Determines if a compensation failure is critical and requires immediate attention.
      */
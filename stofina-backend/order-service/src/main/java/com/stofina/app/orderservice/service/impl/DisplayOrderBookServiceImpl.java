@@ -1,39 +1,53 @@
 package com.stofina.app.orderservice.service.impl;
 
+import com.stofina.app.orderservice.config.OrderBookConfig;
 import com.stofina.app.orderservice.entity.Order;
 import com.stofina.app.orderservice.enums.OrderSide;
+import com.stofina.app.orderservice.model.DisplayBook;
 import com.stofina.app.orderservice.model.DisplayOrder;
-import com.stofina.app.orderservice.model.OrderLevel;
 import com.stofina.app.orderservice.model.SimpleOrderBookSnapshot;
 import com.stofina.app.orderservice.service.DisplayOrderBookService;
+import com.stofina.app.orderservice.service.MarketFeedPublisher;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.LockSupport;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class DisplayOrderBookServiceImpl implements DisplayOrderBookService {
     
-    // CHECKPOINT 4.1 - Display-Only Order Book Implementation with Redis
-    private final RedisTemplate<String, Object> jsonRedisTemplate;
-    private final Map<String, List<DisplayOrder>> userOrders = new ConcurrentHashMap<>();
+    // CHECKPOINT 4.1 - Display-Only Order Book Implementation
+    // Books live in memory; Redis only holds a write-behind replica of their levels for other instances
+    private final RedisTemplate<String, BigDecimal> redisTemplate;
+    private final MarketFeedPublisher marketFeedPublisher;
+    private final OrderBookConfig orderBookConfig;
+    private final Map<String, DisplayBook> displayBooks = new ConcurrentHashMap<>();
+    private final Set<String> dirtySymbols = ConcurrentHashMap.newKeySet();
+    // Symbols whose replica has to be rewritten as a whole, e.g. after a failed write
+    private final Set<String> resyncSymbols = ConcurrentHashMap.newKeySet();
     private final Random random = new Random();
     
-    // Redis Keys
+    private Thread replicator;
+    private volatile boolean running;
+    
+    // Redis Keys - one hash per side, price -> merged level quantity
     private static final String REDIS_KEY_BIDS = "orderbook:display:%s:bids";
     private static final String REDIS_KEY_ASKS = "orderbook:display:%s:asks";
     private static final Duration REDIS_TTL = Duration.ofHours(1);
+    private static final long REPLICATOR_JOIN_MILLIS = 5000;
+    
+    private static final BigDecimal BOT_TIER_1_DISTANCE = new BigDecimal("0.0075");
+    private static final BigDecimal BOT_TIER_2_DISTANCE = new BigDecimal("0.015");
     
     // TODO: ENTEGRASYON SIRASINDA KALDIRILACAK - Mock BIST symbols - Synced with Market Data Service
     private static final List<String> MOCK_BIST_SYMBOLS = Arrays.asList(
@@ -57,6 +71,11 @@ public class DisplayOrderBookServiceImpl implements DisplayOrderBookService {
     
     @PostConstruct
     public void initializeAllDisplayBooks() {
+        running = true;
+        replicator = new Thread(this::runReplicator, "display-book-replicator");
+        replicator.setDaemon(true);
+        replicator.start();
+        
         log.info("Initializing display order books for all symbols...");
         MOCK_BIST_SYMBOLS.forEach(symbol -> {
             BigDecimal price = MOCK_INITIAL_PRICES.get(symbol);
@@ -66,6 +85,20 @@ public class DisplayOrderBookServiceImpl implements DisplayOrderBookService {
         log.info("All display order books initialized: {} symbols", MOCK_BIST_SYMBOLS.size());
     }
     
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (replicator == null) {
+            return;
+        }
+        LockSupport.unpark(replicator);
+        try {
+            replicator.join(REPLICATOR_JOIN_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
     @Override
     public void initializeDisplayOrderBook(String symbol, BigDecimal currentPrice) {
         if (symbol == null || currentPrice == null) {
@@ -76,16 +109,17 @@ public class DisplayOrderBookServiceImpl implements DisplayOrderBookService {
         String normalizedSymbol = symbol.trim().toUpperCase();
         
         // Clear existing display orders
-        clearBotOrdersFromRedis(normalizedSymbol);
-        userOrders.put(normalizedSymbol, new ArrayList<>());
+        DisplayBook book = displayBook(normalizedSymbol);
+        book.clear();
+        // Whatever the replica held before belongs to an older book
+        resyncSymbols.add(normalizedSymbol);
         
-        // Create unique bot orders
-        createUniqueBidOrders(normalizedSymbol, currentPrice);
-        createUniqueAskOrders(normalizedSymbol, currentPrice);
+        // Place the bot ladder around the price
+        book.recenterBotLadder(currentPrice, this::botQuantity);
+        publishDisplayChange(normalizedSymbol);
         
         log.info("Display order book initialized for {}: {} BID, {} ASK orders", 
-                normalizedSymbol, getBotOrdersFromRedis(normalizedSymbol, OrderSide.BUY).size(), 
-                getBotOrdersFromRedis(normalizedSymbol, OrderSide.SELL).size());
+                normalizedSymbol, book.getBotOrderCount(OrderSide.BUY), book.getBotOrderCount(OrderSide.SELL));
     }
     
     @Override
@@ -96,12 +130,13 @@ public class DisplayOrderBookServiceImpl implements DisplayOrderBookService {
         
         String normalizedSymbol = symbol.trim().toUpperCase();
         
-        // Clear and recreate bot orders with new price
-        clearBotOrders(normalizedSymbol);
-        createUniqueBidOrders(normalizedSymbol, newPrice);
-        createUniqueAskOrders(normalizedSymbol, newPrice);
-        
-        log.debug("Display prices updated for {}: new center price {}", normalizedSymbol, newPrice);
+        // Only the bot levels leaving or entering the ladder window change; an unmoved window costs nothing
+        int changed = displayBook(normalizedSymbol).recenterBotLadder(newPrice, this::botQuantity);
+        if (changed > 0) {
+            publishDisplayChange(normalizedSymbol);
+            log.debug("Display prices updated for {}: new center price {}, {} bot orders shifted", 
+                    normalizedSymbol, newPrice, changed);
+        }
     }
     
     @Override
@@ -110,32 +145,9 @@ public class DisplayOrderBookServiceImpl implements DisplayOrderBookService {
             return null;
         }
         
-        String normalizedSymbol = symbol.trim().toUpperCase();
-        
-        // Combine bot orders and user orders
-        List<DisplayOrder> allBids = combineOrders(normalizedSymbol, OrderSide.BUY);
-        List<DisplayOrder> allAsks = combineOrders(normalizedSymbol, OrderSide.SELL);
-        
-        // Convert to OrderLevel format and get top 10
-        List<OrderLevel> bidLevels = convertToOrderLevels(allBids, true);
-        List<OrderLevel> askLevels = convertToOrderLevels(allAsks, false);
-        
-        // Calculate best prices and spread
-        BigDecimal bestBid = bidLevels.isEmpty() ? null : bidLevels.get(0).getPrice();
-        BigDecimal bestAsk = askLevels.isEmpty() ? null : askLevels.get(0).getPrice();
-        BigDecimal spread = calculateSpread(bestBid, bestAsk);
-        
-        return new SimpleOrderBookSnapshot(
-            normalizedSymbol,
-            bidLevels,
-            askLevels,
-            bestBid,
-            bestAsk,
-            spread,
-            LocalDateTime.now(),
-            calculateTotalQuantity(bidLevels),
-            calculateTotalQuantity(askLevels)
-        );
+        // Levels are merged as orders change; the snapshot is prebuilt
+        DisplayBook book = displayBooks.get(symbol.trim().toUpperCase());
+        return book != null ? book.snapshot() : new DisplayBook(symbol.trim().toUpperCase()).snapshot();
     }
     
     @Override
@@ -153,8 +165,13 @@ public class DisplayOrderBookServiceImpl implements DisplayOrderBookService {
             userOrder.getRemainingQuantity(),
             false // User order, not bot
         );
+        // Keyed by the order id so removeFromDisplay finds it again
+        if (userOrder.getOrderId() != null) {
+            displayOrder.setDisplayOrderId(userOrder.getOrderId());
+        }
         
-        userOrders.computeIfAbsent(symbol, k -> new ArrayList<>()).add(displayOrder);
+        displayBook(symbol).addUserOrder(displayOrder);
+        publishDisplayChange(symbol);
         log.debug("User order added to display: {} {} @ {} × {}", 
                 userOrder.getSide(), symbol, userOrder.getPrice(), userOrder.getRemainingQuantity());
     }
@@ -166,10 +183,10 @@ public class DisplayOrderBookServiceImpl implements DisplayOrderBookService {
         }
         
         String normalizedSymbol = symbol.trim().toUpperCase();
-        List<DisplayOrder> userOrderList = userOrders.get(normalizedSymbol);
+        DisplayBook book = displayBooks.get(normalizedSymbol);
         
-        if (userOrderList != null) {
-            userOrderList.removeIf(order -> orderId.equals(order.getDisplayOrderId()));
+        if (book != null && book.removeUserOrder(orderId)) {
+            publishDisplayChange(normalizedSymbol);
         }
     }
     
@@ -184,30 +201,20 @@ public class DisplayOrderBookServiceImpl implements DisplayOrderBookService {
             return 0;
         }
         
-        String normalizedSymbol = symbol.trim().toUpperCase();
-        int botCount = getBotOrdersFromRedis(normalizedSymbol, OrderSide.BUY).size() +
-                      getBotOrdersFromRedis(normalizedSymbol, OrderSide.SELL).size();
-        int userCount = userOrders.getOrDefault(normalizedSymbol, new ArrayList<>()).size();
-        
-        return botCount + userCount;
+        DisplayBook book = displayBooks.get(symbol.trim().toUpperCase());
+        return book != null ? book.getOrderCount() : 0;
     }
     
     @Override
     public BigDecimal getDisplayBestBid(String symbol) {
-        List<DisplayOrder> allBids = combineOrders(symbol, OrderSide.BUY);
-        return allBids.stream()
-                .map(DisplayOrder::getPrice)
-                .max(BigDecimal::compareTo)
-                .orElse(null);
+        SimpleOrderBookSnapshot snapshot = getDisplaySnapshot(symbol);
+        return snapshot != null ? snapshot.getBestBid() : null;
     }
     
     @Override
     public BigDecimal getDisplayBestAsk(String symbol) {
-        List<DisplayOrder> allAsks = combineOrders(symbol, OrderSide.SELL);
-        return allAsks.stream()
-                .map(DisplayOrder::getPrice)
-                .min(BigDecimal::compareTo)
-                .orElse(null);
+        SimpleOrderBookSnapshot snapshot = getDisplaySnapshot(symbol);
+        return snapshot != null ? snapshot.getBestAsk() : null;
     }
     
     @Override
@@ -217,8 +224,11 @@ public class DisplayOrderBookServiceImpl implements DisplayOrderBookService {
         }
         
         String normalizedSymbol = symbol.trim().toUpperCase();
-        clearBotOrdersFromRedis(normalizedSymbol);
-        userOrders.remove(normalizedSymbol);
+        DisplayBook book = displayBooks.get(normalizedSymbol);
+        if (book != null) {
+            book.clear();
+        }
+        publishDisplayChange(normalizedSymbol);
         
         log.debug("Display order book cleared for symbol: {}", normalizedSymbol);
     }
@@ -229,263 +239,126 @@ public class DisplayOrderBookServiceImpl implements DisplayOrderBookService {
             return;
         }
         
-        String normalizedSymbol = symbol.trim().toUpperCase();
-        
-        List<DisplayOrder> bids = getBotOrdersFromRedis(normalizedSymbol, OrderSide.BUY);
-        List<DisplayOrder> asks = getBotOrdersFromRedis(normalizedSymbol, OrderSide.SELL);
-        
-        // If less than 15 orders on either side, refill
-        if (bids == null || bids.size() < 15) {
-            addMoreBidOrders(normalizedSymbol, currentPrice, 25 - (bids != null ? bids.size() : 0));
-        }
-        
-        if (asks == null || asks.size() < 15) {
-            addMoreAskOrders(normalizedSymbol, currentPrice, 25 - (asks != null ? asks.size() : 0));
-        }
+        // The ladder window is always full, so keeping depth is the same as following the price
+        updateDisplayPrices(symbol, currentPrice);
     }
     
-    private void createUniqueBidOrders(String symbol, BigDecimal currentPrice) {
-        List<DisplayOrder> bids = new ArrayList<>();
-        
-        // TIER 1: ±0.5% (15 orders with micro-spreads)
-        for (int i = 1; i <= 15; i++) {
-            BigDecimal baseOffset = currentPrice.multiply(new BigDecimal("0.005")); // 0.5%
-            BigDecimal microSpread = new BigDecimal("0.001").multiply(BigDecimal.valueOf(i));
-            BigDecimal price = currentPrice.subtract(baseOffset).subtract(microSpread);
-            price = price.setScale(3, RoundingMode.HALF_UP); // 3 decimal precision for uniqueness
-            
-            BigDecimal quantity = BigDecimal.valueOf(random.nextInt(500, 2001));
-            bids.add(new DisplayOrder(symbol, OrderSide.BUY, price, quantity, true));
-        }
-        
-        // TIER 2: 0.5%-1% (5 orders)
-        for (int i = 1; i <= 5; i++) {
-            BigDecimal baseOffset = currentPrice.multiply(new BigDecimal("0.01")); // 1%
-            BigDecimal spacing = new BigDecimal("0.002").multiply(BigDecimal.valueOf(i));
-            BigDecimal price = currentPrice.subtract(baseOffset).subtract(spacing);
-            price = price.setScale(3, RoundingMode.HALF_UP);
-            
-            BigDecimal quantity = BigDecimal.valueOf(random.nextInt(200, 801));
-            bids.add(new DisplayOrder(symbol, OrderSide.BUY, price, quantity, true));
-        }
-        
-        // TIER 3: 1%-3% (5 orders)
-        for (int i = 1; i <= 5; i++) {
-            BigDecimal baseOffset = currentPrice.multiply(new BigDecimal("0.03")); // 3%
-            BigDecimal spacing = new BigDecimal("0.004").multiply(BigDecimal.valueOf(i));
-            BigDecimal price = currentPrice.subtract(baseOffset).add(spacing);
-            price = price.setScale(3, RoundingMode.HALF_UP);
-            
-            BigDecimal quantity = BigDecimal.valueOf(random.nextInt(1000, 5001));
-            bids.add(new DisplayOrder(symbol, OrderSide.BUY, price, quantity, true));
-        }
-        
-        setBotOrdersToRedis(symbol, OrderSide.BUY, bids);
+    // The snapshot is read on the next publish tick and the replica written on the next replication pass
+    private void publishDisplayChange(String symbol) {
+        dirtySymbols.add(symbol);
+        marketFeedPublisher.markOrderBookDirty(symbol, () -> getDisplaySnapshot(symbol));
     }
     
-    private void createUniqueAskOrders(String symbol, BigDecimal currentPrice) {
-        List<DisplayOrder> asks = new ArrayList<>();
-        
-        // TIER 1: ±0.5% (15 orders with micro-spreads)
-        for (int i = 1; i <= 15; i++) {
-            BigDecimal baseOffset = currentPrice.multiply(new BigDecimal("0.005")); // 0.5%
-            BigDecimal microSpread = new BigDecimal("0.001").multiply(BigDecimal.valueOf(i));
-            BigDecimal price = currentPrice.add(baseOffset).add(microSpread);
-            price = price.setScale(3, RoundingMode.HALF_UP);
-            
-            BigDecimal quantity = BigDecimal.valueOf(random.nextInt(500, 2001));
-            asks.add(new DisplayOrder(symbol, OrderSide.SELL, price, quantity, true));
-        }
-        
-        // TIER 2: 0.5%-1% (5 orders)
-        for (int i = 1; i <= 5; i++) {
-            BigDecimal baseOffset = currentPrice.multiply(new BigDecimal("0.01")); // 1%
-            BigDecimal spacing = new BigDecimal("0.002").multiply(BigDecimal.valueOf(i));
-            BigDecimal price = currentPrice.add(baseOffset).add(spacing);
-            price = price.setScale(3, RoundingMode.HALF_UP);
-            
-            BigDecimal quantity = BigDecimal.valueOf(random.nextInt(200, 801));
-            asks.add(new DisplayOrder(symbol, OrderSide.SELL, price, quantity, true));
-        }
-        
-        // TIER 3: 1%-3% (5 orders)
-        for (int i = 1; i <= 5; i++) {
-            BigDecimal baseOffset = currentPrice.multiply(new BigDecimal("0.03")); // 3%
-            BigDecimal spacing = new BigDecimal("0.004").multiply(BigDecimal.valueOf(i));
-            BigDecimal price = currentPrice.add(baseOffset).subtract(spacing);
-            price = price.setScale(3, RoundingMode.HALF_UP);
-            
-            BigDecimal quantity = BigDecimal.valueOf(random.nextInt(1000, 5001));
-            asks.add(new DisplayOrder(symbol, OrderSide.SELL, price, quantity, true));
-        }
-        
-        setBotOrdersToRedis(symbol, OrderSide.SELL, asks);
+    private DisplayBook displayBook(String symbol) {
+        return displayBooks.computeIfAbsent(symbol, DisplayBook::new);
     }
     
-    private void clearBotOrders(String symbol) {
-        clearBotOrdersFromRedis(symbol);
-    }
-    
-    private List<DisplayOrder> combineOrders(String symbol, OrderSide side) {
-        if (symbol == null) {
-            return new ArrayList<>();
+    // Quantity tiers by distance from the centre: near the spread, mid book, deep book
+    private BigDecimal botQuantity(BigDecimal distance) {
+        if (distance.compareTo(BOT_TIER_1_DISTANCE) <= 0) {
+            return BigDecimal.valueOf(random.nextInt(500, 2001));
         }
-        
-        String normalizedSymbol = symbol.trim().toUpperCase();
-        
-        // Get bot orders from Redis
-        List<DisplayOrder> botOrders = getBotOrdersFromRedis(normalizedSymbol, side);
-        
-        List<DisplayOrder> userOrderList = userOrders.getOrDefault(normalizedSymbol, new ArrayList<>())
-            .stream()
-            .filter(order -> order.getSide() == side)
-            .collect(Collectors.toList());
-        
-        List<DisplayOrder> combined = new ArrayList<>(botOrders);
-        combined.addAll(userOrderList);
-        
-        return combined;
+        if (distance.compareTo(BOT_TIER_2_DISTANCE) <= 0) {
+            return BigDecimal.valueOf(random.nextInt(200, 801));
+        }
+        return BigDecimal.valueOf(random.nextInt(1000, 5001));
     }
     
-    private List<OrderLevel> convertToOrderLevels(List<DisplayOrder> orders, boolean descending) {
-        Map<BigDecimal, BigDecimal> priceLevels = new HashMap<>();
-        
-        // Group by price and sum quantities
-        for (DisplayOrder order : orders) {
-            priceLevels.merge(order.getPrice(), order.getQuantity(), BigDecimal::add);
+    @Override
+    public List<DisplayOrder> getUserOrdersForSymbol(String symbol) {
+        if (symbol == null || symbol.trim().isEmpty()) {
+            return new ArrayList<>();
         }
         
-        // Convert to OrderLevel and sort
-        List<OrderLevel> levels = priceLevels.entrySet().stream()
-            .map(entry -> new OrderLevel(entry.getKey(), entry.getValue(), 1))
-            .sorted(descending ? 
-                Comparator.comparing(OrderLevel::getPrice).reversed() :
-                Comparator.comparing(OrderLevel::getPrice))
-            .limit(10) // Top 10 levels
-            .collect(Collectors.toList());
+        DisplayBook book = displayBooks.get(symbol.trim().toUpperCase());
         
-        return levels;
+        // The book hands out copies to avoid external modifications
+        return book != null ? book.getUserOrders() : new ArrayList<>();
     }
     
-    private BigDecimal calculateSpread(BigDecimal bestBid, BigDecimal bestAsk) {
-        if (bestBid == null || bestAsk == null) {
-            return null;
+    // REDIS REPLICA - write-behind of changed levels, never read on the request path
+    private void runReplicator() {
+        long intervalNanos = Duration.ofMillis(orderBookConfig.getDisplay().getReplicationIntervalMillis()).toNanos();
+        while (running) {
+            LockSupport.parkNanos(this, intervalNanos);
+            replicateDirtyBooks();
         }
-        return bestAsk.subtract(bestBid);
+        // Last pass so a clean shutdown leaves the replica current
+        replicateDirtyBooks();
     }
     
-    private int calculateTotalQuantity(List<OrderLevel> levels) {
-        return levels.stream().mapToInt(level -> level.getQuantity().intValue()).sum();
-    }
-    
-    private void addMoreBidOrders(String symbol, BigDecimal currentPrice, int count) {
-        List<DisplayOrder> existingBids = getBotOrdersFromRedis(symbol, OrderSide.BUY);
-        if (existingBids == null) {
-            existingBids = new ArrayList<>();
-        }
-        
-        for (int i = 0; i < count; i++) {
-            BigDecimal price = currentPrice.subtract(
-                currentPrice.multiply(new BigDecimal("0.01").multiply(BigDecimal.valueOf(i + 1)))
-            ).setScale(3, RoundingMode.HALF_UP);
-            
-            BigDecimal quantity = BigDecimal.valueOf(random.nextInt(500, 2001));
-            existingBids.add(new DisplayOrder(symbol, OrderSide.BUY, price, quantity, true));
+    private void replicateDirtyBooks() {
+        for (String symbol : dirtySymbols) {
+            // Removed before reading the book, so a change made during the write marks it dirty again
+            if (dirtySymbols.remove(symbol)) {
+                replicateBook(symbol);
+            }
         }
-        
-        // Save updated list back to Redis
-        setBotOrdersToRedis(symbol, OrderSide.BUY, existingBids);
     }
     
-    private void addMoreAskOrders(String symbol, BigDecimal currentPrice, int count) {
-        List<DisplayOrder> existingAsks = getBotOrdersFromRedis(symbol, OrderSide.SELL);
-        if (existingAsks == null) {
-            existingAsks = new ArrayList<>();
+    private void replicateBook(String symbol) {
+        DisplayBook book = displayBooks.get(symbol);
+        if (book == null) {
+            return;
         }
-        
-        for (int i = 0; i < count; i++) {
-            BigDecimal price = currentPrice.add(
-                currentPrice.multiply(new BigDecimal("0.01").multiply(BigDecimal.valueOf(i + 1)))
-            ).setScale(3, RoundingMode.HALF_UP);
-            
-            BigDecimal quantity = BigDecimal.valueOf(random.nextInt(500, 2001));
-            existingAsks.add(new DisplayOrder(symbol, OrderSide.SELL, price, quantity, true));
+        String bidKey = String.format(REDIS_KEY_BIDS, symbol);
+        String askKey = String.format(REDIS_KEY_ASKS, symbol);
+        try {
+            if (resyncSymbols.remove(symbol)) {
+                // Drained changes are covered by the full rewrite
+                book.drainLevelChanges(OrderSide.BUY);
+                book.drainLevelChanges(OrderSide.SELL);
+                rewriteLevels(bidKey, book.getLevelQuantities(OrderSide.BUY));
+                rewriteLevels(askKey, book.getLevelQuantities(OrderSide.SELL));
+            } else {
+                writeLevelChanges(bidKey, book.drainLevelChanges(OrderSide.BUY));
+                writeLevelChanges(askKey, book.drainLevelChanges(OrderSide.SELL));
+            }
+            log.debug("Replicated display book levels to Redis for {}", symbol);
+        } catch (Exception e) {
+            // Changes drained by the failed pass are gone, so the next pass rewrites the book as a whole
+            resyncSymbols.add(symbol);
+            dirtySymbols.add(symbol);
+            log.warn("Failed to replicate display book to Redis for {}: {}", symbol, e.getMessage());
         }
-        
-        // Save updated list back to Redis
-        setBotOrdersToRedis(symbol, OrderSide.SELL, existingAsks);
     }
     
-    @Override
-    public List<DisplayOrder> getUserOrdersForSymbol(String symbol) {
-        if (symbol == null || symbol.trim().isEmpty()) {
-            return new ArrayList<>();
+    private void writeLevelChanges(String key, Map<BigDecimal, BigDecimal> changes) {
+        if (changes.isEmpty()) {
+            return;
         }
+        List<Object> removed = new ArrayList<>();
+        Map<String, BigDecimal> updated = new LinkedHashMap<>();
+        changes.forEach((price, quantity) -> {
+            if (quantity.signum() == 0) {
+                removed.add(levelField(price));
+            } else {
+                updated.put(levelField(price), quantity);
+            }
+        });
         
-        String normalizedSymbol = symbol.trim().toUpperCase();
-        List<DisplayOrder> userOrderList = userOrders.get(normalizedSymbol);
-        
-        if (userOrderList == null) {
-            return new ArrayList<>();
+        if (!removed.isEmpty()) {
+            redisTemplate.opsForHash().delete(key, removed.toArray());
         }
-        
-        // Return copy to avoid external modifications
-        return new ArrayList<>(userOrderList);
-    }
-    
-    // REDIS HELPER METHODS
-    private List<DisplayOrder> getBotOrdersFromRedis(String symbol, OrderSide side) {
-        try {
-            String key = side == OrderSide.BUY ? 
-                String.format(REDIS_KEY_BIDS, symbol) : 
-                String.format(REDIS_KEY_ASKS, symbol);
-            
-            // Use Spring's TypeReference for proper deserialization
-            List<DisplayOrder> result = (List<DisplayOrder>) jsonRedisTemplate.opsForValue().get(key);
-            return result != null ? result : new ArrayList<>();
-        } catch (Exception e) {
-            log.warn("Failed to get bot orders from Redis for {}: {}", symbol, e.getMessage());
-            // Fallback: return empty list and recreate bot orders
-            createBotOrdersForSymbol(symbol);
-            return new ArrayList<>();
+        if (!updated.isEmpty()) {
+            redisTemplate.opsForHash().putAll(key, updated);
         }
+        redisTemplate.expire(key, REDIS_TTL);
     }
     
-    private void createBotOrdersForSymbol(String symbol) {
-        try {
-            BigDecimal mockPrice = new BigDecimal("50.00"); // Default mock price
-            clearBotOrdersFromRedis(symbol);
-            createUniqueBidOrders(symbol, mockPrice);
-            createUniqueAskOrders(symbol, mockPrice);
-            log.info("Recreated bot orders for {} due to Redis deserialization issue", symbol);
-        } catch (Exception e) {
-            log.error("Failed to recreate bot orders for {}: {}", symbol, e.getMessage());
+    private void rewriteLevels(String key, Map<BigDecimal, BigDecimal> levels) {
+        Map<String, BigDecimal> fields = new LinkedHashMap<>();
+        levels.forEach((price, quantity) -> fields.put(levelField(price), quantity));
+        
+        redisTemplate.delete(key);
+        if (!fields.isEmpty()) {
+            redisTemplate.opsForHash().putAll(key, fields);
+            redisTemplate.expire(key, REDIS_TTL);
         }
     }
     
-    private void setBotOrdersToRedis(String symbol, OrderSide side, List<DisplayOrder> orders) {
-        try {
-            String key = side == OrderSide.BUY ? 
-                String.format(REDIS_KEY_BIDS, symbol) : 
-                String.format(REDIS_KEY_ASKS, symbol);
-            
-            jsonRedisTemplate.opsForValue().set(key, orders, REDIS_TTL);
-            log.debug("Stored {} {} bot orders in Redis for {}", orders.size(), side, symbol);
-        } catch (Exception e) {
-            log.error("Failed to store bot orders to Redis for {}: {}", symbol, e.getMessage());
-        }
-    }
-    
-    private void clearBotOrdersFromRedis(String symbol) {
-        try {
-            String bidKey = String.format(REDIS_KEY_BIDS, symbol);
-            String askKey = String.format(REDIS_KEY_ASKS, symbol);
-            
-            jsonRedisTemplate.delete(bidKey);
-            jsonRedisTemplate.delete(askKey);
-            log.debug("Cleared bot orders from Redis for {}", symbol);
-        } catch (Exception e) {
-            log.error("Failed to clear bot orders from Redis for {}: {}", symbol, e.getMessage());
-        }
+    // One field per level whatever the scale the price came with
+    private static String levelField(BigDecimal price) {
+        return price.stripTrailingZeros().toPlainString();
     }
-}
\ No newline at end of file
+}
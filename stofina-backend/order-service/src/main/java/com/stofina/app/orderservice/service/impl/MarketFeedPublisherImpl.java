@@ -0,0 +1,124 @@
+package com.stofina.app.orderservice.service.impl;
+
+import com.stofina.app.orderservice.config.OrderBookConfig;
+import com.stofina.app.orderservice.dto.response.TradeFeedMessage;
+import com.stofina.app.orderservice.entity.Trade;
+import com.stofina.app.orderservice.enums.OrderSide;
+import com.stofina.app.orderservice.model.SimpleOrderBookSnapshot;
+import com.stofina.app.orderservice.service.MarketFeedPublisher;
+import com.stofina.app.orderservice.service.OrderBookFeedService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Dirty-set conflation: producers only record that a symbol changed (and queue its trades), and a single
+ * publisher thread drains the dirty set on a fixed interval. Outbound messages per symbol are therefore
+ * capped at one order book delta and one trade frame per interval no matter how busy the book is.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MarketFeedPublisherImpl implements MarketFeedPublisher {
+
+    private static final String TRADES_TOPIC_PREFIX = "/topic/trades/";
+
+    private final OrderBookFeedService orderBookFeedService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final OrderBookConfig orderBookConfig;
+
+    // symbol -> latest snapshot source; re-marking a dirty symbol just replaces the source
+    private final Map<String, Supplier<SimpleOrderBookSnapshot>> dirtyBooks = new ConcurrentHashMap<>();
+    private final Map<String, Queue<TradeFeedMessage.TradeItem>> pendingTrades = new ConcurrentHashMap<>();
+    private ScheduledExecutorService publisher;
+
+    @PostConstruct
+    public void start() {
+        long interval = orderBookConfig.getFeed().getPublishIntervalMillis();
+        publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "market-feed-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        publisher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("📡 FEED: Market feed publisher started → Interval: {}ms", interval);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (publisher != null) {
+            publisher.shutdownNow();
+        }
+    }
+
+    @Override
+    public void markOrderBookDirty(String symbol, Supplier<SimpleOrderBookSnapshot> snapshotSource) {
+        if (symbol == null || snapshotSource == null) {
+            return;
+        }
+        dirtyBooks.put(symbol.trim().toUpperCase(), snapshotSource);
+    }
+
+    @Override
+    public void publishTrades(List<Trade> trades, OrderSide aggressorSide) {
+        if (trades == null) {
+            return;
+        }
+        for (Trade trade : trades) {
+            if (trade.getSymbol() == null) {
+                continue;
+            }
+            pendingTrades.computeIfAbsent(trade.getSymbol().trim().toUpperCase(), key -> new ConcurrentLinkedQueue<>())
+                    .add(TradeFeedMessage.TradeItem.of(trade, aggressorSide));
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        for (String symbol : dirtyBooks.keySet()) {
+            Supplier<SimpleOrderBookSnapshot> source = dirtyBooks.remove(symbol);
+            if (source == null) {
+                continue;
+            }
+            try {
+                orderBookFeedService.publish(source.get());
+            } catch (Exception e) {
+                log.warn("📡 FEED: Order book publish failed for {}: {}", symbol, e.getMessage());
+            }
+        }
+
+        int maxTrades = orderBookConfig.getFeed().getMaxTradesPerFrame();
+        pendingTrades.forEach((symbol, queue) -> {
+            List<TradeFeedMessage.TradeItem> batch = new ArrayList<>();
+            TradeFeedMessage.TradeItem item;
+            while (batch.size() < maxTrades && (item = queue.poll()) != null) {
+                batch.add(item);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                messagingTemplate.convertAndSend(TRADES_TOPIC_PREFIX + symbol, new TradeFeedMessage(
+                        TradeFeedMessage.TYPE_TRADES,
+                        new TradeFeedMessage.Payload(symbol, batch),
+                        System.currentTimeMillis()));
+            } catch (Exception e) {
+                log.warn("📡 FEED: Trade frame publish failed for {}: {}", symbol, e.getMessage());
+            }
+        });
+    }
+}
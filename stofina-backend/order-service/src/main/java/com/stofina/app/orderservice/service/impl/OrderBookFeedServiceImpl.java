@@ -0,0 +1,176 @@
+package com.stofina.app.orderservice.service.impl;
+
+import com.stofina.app.orderservice.dto.response.OrderBookFeedMessage;
+import com.stofina.app.orderservice.enums.OrderSide;
+import com.stofina.app.orderservice.model.OrderLevel;
+import com.stofina.app.orderservice.model.SimpleOrderBookSnapshot;
+import com.stofina.app.orderservice.service.OrderBookFeedService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the last published top levels per symbol and turns each new snapshot into the list of levels
+ * that changed. The work per update is bounded by the number of top levels, not by the size of the book.
+ *
+ * Checksum: CRC32 over "price:quantity;" for every bid level (best first) followed by every ask level
+ * (best first), with both numbers written as plain decimals without trailing zeros.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OrderBookFeedServiceImpl implements OrderBookFeedService {
+
+    private static final String TOPIC_PREFIX = "/topic/orderbook/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Map<String, FeedState> states = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(SimpleOrderBookSnapshot snapshot) {
+        if (snapshot == null || snapshot.getSymbol() == null) {
+            return;
+        }
+
+        FeedState state = getState(snapshot.getSymbol());
+        synchronized (state) {
+            OrderBookFeedMessage delta = state.apply(snapshot);
+            if (delta != null) {
+                // Sent under the state lock so deltas leave in sequence order
+                messagingTemplate.convertAndSend(TOPIC_PREFIX + state.symbol, delta);
+            }
+        }
+    }
+
+    @Override
+    public OrderBookFeedMessage snapshot(SimpleOrderBookSnapshot snapshot) {
+        FeedState state = getState(snapshot.getSymbol());
+        synchronized (state) {
+            OrderBookFeedMessage delta = state.apply(snapshot);
+            if (delta != null) {
+                messagingTemplate.convertAndSend(TOPIC_PREFIX + state.symbol, delta);
+            }
+            return state.toSnapshotMessage();
+        }
+    }
+
+    @Override
+    public long getSequence(String symbol) {
+        FeedState state = symbol != null ? states.get(symbol.trim().toUpperCase()) : null;
+        if (state == null) {
+            return 0L;
+        }
+        synchronized (state) {
+            return state.sequence;
+        }
+    }
+
+    private FeedState getState(String symbol) {
+        String normalizedSymbol = symbol.trim().toUpperCase();
+        return states.computeIfAbsent(normalizedSymbol, FeedState::new);
+    }
+
+    static long checksum(Collection<OrderLevel> bids, Collection<OrderLevel> asks) {
+        StringBuilder builder = new StringBuilder();
+        appendLevels(builder, bids);
+        appendLevels(builder, asks);
+
+        CRC32 crc = new CRC32();
+        crc.update(builder.toString().getBytes(StandardCharsets.US_ASCII));
+        return crc.getValue();
+    }
+
+    private static void appendLevels(StringBuilder builder, Collection<OrderLevel> levels) {
+        for (OrderLevel level : levels) {
+            builder.append(plain(level.getPrice())).append(':').append(plain(level.getQuantity())).append(';');
+        }
+    }
+
+    private static String plain(BigDecimal value) {
+        return value.signum() == 0 ? "0" : value.stripTrailingZeros().toPlainString();
+    }
+
+    private static final class FeedState {
+        private final String symbol;
+        private final NavigableMap<BigDecimal, OrderLevel> bids = new TreeMap<>(Comparator.reverseOrder());
+        private final NavigableMap<BigDecimal, OrderLevel> asks = new TreeMap<>();
+        private long sequence;
+        private long checksum = checksum(List.of(), List.of());
+
+        FeedState(String symbol) {
+            this.symbol = symbol;
+        }
+
+        /**
+         * @return the delta message for the changed levels, or null when nothing changed
+         */
+        OrderBookFeedMessage apply(SimpleOrderBookSnapshot snapshot) {
+            List<OrderBookFeedMessage.LevelChange> changes = new ArrayList<>();
+            diff(OrderSide.BUY, bids, snapshot.getBids(), changes);
+            diff(OrderSide.SELL, asks, snapshot.getAsks(), changes);
+            if (changes.isEmpty()) {
+                return null;
+            }
+
+            sequence++;
+            checksum = checksum(bids.values(), asks.values());
+            return OrderBookFeedMessage.builder()
+                    .type(OrderBookFeedMessage.TYPE_DELTA)
+                    .payload(OrderBookFeedMessage.Payload.builder()
+                            .symbol(symbol)
+                            .sequence(sequence)
+                            .checksum(checksum)
+                            .changes(changes)
+                            .build())
+                    .timestamp(System.currentTimeMillis())
+                    .build();
+        }
+
+        OrderBookFeedMessage toSnapshotMessage() {
+            return OrderBookFeedMessage.builder()
+                    .type(OrderBookFeedMessage.TYPE_SNAPSHOT)
+                    .payload(OrderBookFeedMessage.Payload.builder()
+                            .symbol(symbol)
+                            .sequence(sequence)
+                            .checksum(checksum)
+                            .bids(new ArrayList<>(bids.values()))
+                            .asks(new ArrayList<>(asks.values()))
+                            .build())
+                    .timestamp(System.currentTimeMillis())
+                    .build();
+        }
+
+        private static void diff(OrderSide side, NavigableMap<BigDecimal, OrderLevel> current, List<OrderLevel> levels,
+                                 List<OrderBookFeedMessage.LevelChange> changes) {
+            List<OrderLevel> incoming = levels != null ? levels : List.of();
+            Set<BigDecimal> seen = new TreeSet<>();
+
+            for (OrderLevel level : incoming) {
+                seen.add(level.getPrice());
+                OrderLevel previous = current.get(level.getPrice());
+                if (previous == null || previous.getQuantity().compareTo(level.getQuantity()) != 0
+                        || previous.getOrderCount() != level.getOrderCount()) {
+                    current.put(level.getPrice(), level);
+                    changes.add(new OrderBookFeedMessage.LevelChange(side, level.getPrice(), level.getQuantity(),
+                            level.getOrderCount()));
+                }
+            }
+
+            Iterator<Map.Entry<BigDecimal, OrderLevel>> iterator = current.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<BigDecimal, OrderLevel> entry = iterator.next();
+                if (!seen.contains(entry.getKey())) {
+                    iterator.remove();
+                    changes.add(new OrderBookFeedMessage.LevelChange(side, entry.getKey(), BigDecimal.ZERO, 0));
+                }
+            }
+        }
+    }
+}
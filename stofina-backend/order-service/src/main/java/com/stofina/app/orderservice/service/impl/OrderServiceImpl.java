@@ -264,6 +264,8 @@ public class OrderServiceImpl implements OrderService {
         order.setUpdatedAt(LocalDateTime.now());
 
         orderRepository.save(order);
+        // A cancelled order must not be filled by a pending algorithmic retry
+        algorithmicMatchingService.cancelAlgorithmicMatching(orderId);
         log.info("🚫 CANCEL: Order successfully cancelled - OrderId: {}", orderId);
     }
 
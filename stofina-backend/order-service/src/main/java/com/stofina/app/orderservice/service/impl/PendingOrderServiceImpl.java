@@ -2,6 +2,7 @@ package com.stofina.app.orderservice.service.impl;
 
 import com.stofina.app.orderservice.entity.Order;
 import com.stofina.app.orderservice.enums.OrderStatus;
+import com.stofina.app.orderservice.model.PendingOrderPriceIndex;
 import com.stofina.app.orderservice.repository.OrderRepository;
 import com.stofina.app.orderservice.service.PendingOrderService;
 import com.stofina.app.orderservice.service.AlgorithmicMatchingService;
@@ -12,9 +13,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 @Slf4j
 @Service
@@ -25,11 +27,14 @@ public class PendingOrderServiceImpl implements PendingOrderService {
     private final SimpleOrderBookManager orderBookManager;
     private final AlgorithmicMatchingService algorithmicMatchingService;
     
-    // Thread-safe in-memory cache for fast access
-    private final List<Order> pendingOrders = new CopyOnWriteArrayList<>();
+    // Thread-safe in-memory cache for fast access, indexed per symbol by order price
+    private final PendingOrderPriceIndex pendingOrders = new PendingOrderPriceIndex();
     
     // 1.5% price deviation limit
     private static final BigDecimal PRICE_DEVIATION_LIMIT = new BigDecimal("0.015");
+    
+    // isPriceWithinRange rounds the deviation HALF_UP to 6 places, so the band reaches half a unit further
+    private static final BigDecimal BAND_LIMIT = PRICE_DEVIATION_LIMIT.add(new BigDecimal("0.0000005"));
 
     @Override
     @Transactional
@@ -55,44 +60,53 @@ public class PendingOrderServiceImpl implements PendingOrderService {
     @Override
     @Transactional
     public List<Order> checkAndActivatePendingOrders(String symbol, BigDecimal newMarketPrice) {
-        log.debug("🔍 PENDING: Checking pending orders for symbol: {}, New price: {}, Pending count: {}", 
-                symbol, newMarketPrice, pendingOrders.size());
+        return checkAndActivatePendingOrders(symbol, newMarketPrice, newMarketPrice);
+    }
+
+    /**
+     * The ±1.5% band around the price range is a range query on the symbol's price index; only orders
+     * inside it are touched. All activations of one check share a single status update and a single
+     * order book submission.
+     */
+    @Override
+    @Transactional
+    public List<Order> checkAndActivatePendingOrders(String symbol, BigDecimal lowPrice, BigDecimal highPrice) {
+        if (lowPrice == null || highPrice == null || lowPrice.compareTo(BigDecimal.ZERO) <= 0) {
+            return List.of();
+        }
         
-        List<Order> activatedOrders = new CopyOnWriteArrayList<>();
+        List<Order> candidates = pendingOrders.claimWithin(symbol,
+                lowPrice.subtract(lowPrice.multiply(BAND_LIMIT)), highPrice.add(highPrice.multiply(BAND_LIMIT)));
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
         
-        // Iterator to safely remove items while iterating
-        var iterator = pendingOrders.iterator();
-        while (iterator.hasNext()) {
-            Order pendingOrder = iterator.next();
-            
-            // Check if this order matches the symbol and is eligible for activation
-            if (symbol.equals(pendingOrder.getSymbol()) && 
-                isPriceWithinRange(newMarketPrice, pendingOrder.getPrice())) {
-                
-                log.info("🟢 PENDING: Activating order - OrderId: {}, Symbol: {}, " +
-                        "OrderPrice: {}, NewMarketPrice: {}", 
-                        pendingOrder.getOrderId(), symbol, pendingOrder.getPrice(), newMarketPrice);
-                
-                // Activate the order
-                Order activatedOrder = activateOrder(pendingOrder);
-                if (activatedOrder != null) {
-                    activatedOrders.add(activatedOrder);
-                    iterator.remove(); // Remove from pending list
-                    
-                    // Add to order book and trigger matching
-                    orderBookManager.addOrder(activatedOrder);
-                    
-                    log.info("✅ PENDING: Order activated and added to order book - OrderId: {}", 
-                            activatedOrder.getOrderId());
-                }
+        List<Order> eligibleOrders = new ArrayList<>(candidates.size());
+        for (Order candidate : candidates) {
+            // The band is padded for rounding; orders right at its edges get the exact check
+            if (isWithinRangeOfAny(lowPrice, highPrice, candidate.getPrice())) {
+                eligibleOrders.add(candidate);
+            } else {
+                pendingOrders.add(candidate);
             }
         }
+        if (eligibleOrders.isEmpty()) {
+            return List.of();
+        }
         
-        if (!activatedOrders.isEmpty()) {
-            log.info("🟢 PENDING: Activated {} orders for symbol: {} at price: {}", 
-                    activatedOrders.size(), symbol, newMarketPrice);
+        List<Order> activatedOrders = activateOrders(eligibleOrders);
+        if (activatedOrders.isEmpty()) {
+            return activatedOrders;
         }
         
+        // ACTIVE is already committed by the status update's own transaction, so the orders go to the
+        // symbol's sequencer shard now; waiting for the caller's commit would strand them if it rolled back
+        submitToOrderBook(symbol, activatedOrders);
+        
+        log.info("🟢 PENDING: Activated {} orders for symbol: {} at prices: {} - {} - OrderIds: {}", 
+                activatedOrders.size(), symbol, lowPrice, highPrice,
+                activatedOrders.stream().map(Order::getOrderId).toList());
+        
         return activatedOrders;
     }
 
@@ -101,7 +115,7 @@ public class PendingOrderServiceImpl implements PendingOrderService {
     public boolean removePendingOrder(Long orderId) {
         log.info("🗑️ PENDING: Removing pending order - OrderId: {}", orderId);
         
-        boolean removed = pendingOrders.removeIf(order -> order.getOrderId().equals(orderId));
+        boolean removed = pendingOrders.remove(orderId) != null;
         
         if (removed) {
             // Also update database status to CANCELLED
@@ -121,14 +135,12 @@ public class PendingOrderServiceImpl implements PendingOrderService {
 
     @Override
     public List<Order> getPendingOrdersBySymbol(String symbol) {
-        return pendingOrders.stream()
-                .filter(order -> symbol.equals(order.getSymbol()))
-                .toList();
+        return pendingOrders.getBySymbol(symbol);
     }
 
     @Override
     public List<Order> getAllPendingOrders() {
-        return List.copyOf(pendingOrders);
+        return pendingOrders.getAll();
     }
 
     @Override
@@ -139,7 +151,7 @@ public class PendingOrderServiceImpl implements PendingOrderService {
         }
         
         BigDecimal deviation = orderPrice.subtract(currentPrice).abs()
-                .divide(currentPrice, 6, BigDecimal.ROUND_HALF_UP);
+                .divide(currentPrice, 6, RoundingMode.HALF_UP);
         boolean withinRange = deviation.compareTo(PRICE_DEVIATION_LIMIT) <= 0;
         
         log.debug("🔍 PENDING: Price range check - CurrentPrice: {}, OrderPrice: {}, " +
@@ -150,25 +162,47 @@ public class PendingOrderServiceImpl implements PendingOrderService {
         return withinRange;
     }
     
+    private boolean isWithinRangeOfAny(BigDecimal lowPrice, BigDecimal highPrice, BigDecimal orderPrice) {
+        boolean betweenPrices = orderPrice.compareTo(lowPrice) >= 0 && orderPrice.compareTo(highPrice) <= 0;
+        return betweenPrices || isPriceWithinRange(lowPrice, orderPrice) || isPriceWithinRange(highPrice, orderPrice);
+    }
+    
+    private void submitToOrderBook(String symbol, List<Order> activatedOrders) {
+        // One command per check; the Kafka thread does not wait for matching
+        orderBookManager.submitOrders(symbol, activatedOrders).whenComplete((trades, error) -> {
+            if (error != null) {
+                log.error("❌ PENDING: Activated orders failed in order book - Symbol: {}, Count: {}", 
+                        symbol, activatedOrders.size(), error);
+            } else {
+                log.info("✅ PENDING: Activated orders processed by order book - Symbol: {}, Count: {}, Trades: {}", 
+                        symbol, activatedOrders.size(), trades.size());
+            }
+        });
+    }
+    
     /**
-     * Activate a pending order by changing its status and updating database
+     * Activate pending orders by changing their status with one database update.
+     * The update runs in its own transaction, so a failure does not mark the caller's transaction
+     * rollback-only. On failure the orders go back to the pending index and are retried on a later tick.
      */
-    @Transactional
-    private Order activateOrder(Order pendingOrder) {
+    private List<Order> activateOrders(List<Order> orders) {
         try {
-            // Change status to ACTIVE
-            pendingOrder.setStatus(OrderStatus.ACTIVE);
-            pendingOrder.setUpdatedAt(LocalDateTime.now());
+            List<Long> orderIds = orders.stream().map(Order::getOrderId).toList();
+            orderRepository.updateOrderStatuses(orderIds, OrderStatus.ACTIVE);
             
-            // Save to database
-            Order savedOrder = orderRepository.save(pendingOrder);
+            LocalDateTime now = LocalDateTime.now();
+            for (Order order : orders) {
+                order.setStatus(OrderStatus.ACTIVE);
+                order.setUpdatedAt(now);
+            }
             
-            log.info("🟢 PENDING: Order status changed to ACTIVE - OrderId: {}", savedOrder.getOrderId());
-            return savedOrder;
+            log.info("🟢 PENDING: Order status changed to ACTIVE - OrderIds: {}", orderIds);
+            return orders;
             
         } catch (Exception e) {
-            log.error("❌ PENDING: Failed to activate order - OrderId: {}", pendingOrder.getOrderId(), e);
-            return null;
+            log.error("❌ PENDING: Failed to activate {} orders", orders.size(), e);
+            orders.forEach(pendingOrders::add);
+            return List.of();
         }
     }
-}
\ No newline at end of file
+}
@@ -57,6 +57,21 @@ public class ScheduledOrderBookServiceImpl implements ScheduledOrderBookService
         }
     }
     
+    @Override
+    @Scheduled(fixedDelayString = "${order-book.display.ladder-refresh-interval-millis:1000}")
+    public void scheduledLadderRefresh() {
+        if (!scheduledTaskEnabled.get()) {
+            return;
+        }
+        
+        // Runs on the scheduler thread like the price simulation, so it never sees CURRENT_PRICES mid-update
+        try {
+            refreshDisplayOrderBooks();
+        } catch (Exception e) {
+            log.error("❌ Display ladder refresh failed: {}", e.getMessage(), e);
+        }
+    }
+    
     @Override
     public void updateAllMarketPrices() {
         log.info(LogMessages.PRICE_UPDATE_START);
@@ -78,10 +93,11 @@ public class ScheduledOrderBookServiceImpl implements ScheduledOrderBookService
     
     @Override
     public void refreshDisplayOrderBooks() {
-        log.info("🔄 Refreshing display order books with new prices");
+        log.debug("🔄 Refreshing display order books with new prices");
         
+        // Bot ladders only shift the levels the price move touched; symbols whose window did not move are skipped
         CURRENT_PRICES.forEach((symbol, price) -> {
-            displayOrderBookService.maintainDisplayDepth(symbol, price);
+            displayOrderBookService.updateDisplayPrices(symbol, price);
         });
     }
     
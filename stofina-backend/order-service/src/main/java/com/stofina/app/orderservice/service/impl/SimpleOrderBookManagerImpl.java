@@ -1,32 +1,46 @@
 package com.stofina.app.orderservice.service.impl;
 
+import com.stofina.app.orderservice.config.OrderBookConfig;
 import com.stofina.app.orderservice.entity.Order;
 import com.stofina.app.orderservice.entity.Trade;
-import com.stofina.app.orderservice.model.OrderLevel;
+import com.stofina.app.orderservice.model.FillState;
+import com.stofina.app.orderservice.model.PriceLadder;
+import com.stofina.app.orderservice.model.PriceLevel;
+import com.stofina.app.orderservice.model.RestingOrder;
 import com.stofina.app.orderservice.enums.OrderSide;
 import com.stofina.app.orderservice.enums.OrderStatus;
 import com.stofina.app.orderservice.model.SimpleOrderBook;
 import com.stofina.app.orderservice.model.SimpleOrderBookSnapshot;
-import com.stofina.app.orderservice.repository.OrderRepository;
-import com.stofina.app.orderservice.repository.TradeRepository;
 import com.stofina.app.orderservice.service.AlgorithmicMatchingService;
+import com.stofina.app.orderservice.service.MarketFeedPublisher;
 import com.stofina.app.orderservice.service.SimpleOrderBookManager;
-import com.stofina.app.orderservice.service.client.PortfolioClient;
-import com.stofina.app.orderservice.service.CompensationService;
-import com.stofina.app.orderservice.dto.portfolio.*;
-import com.stofina.app.orderservice.exception.portfolio.PortfolioServiceException;
+import com.stofina.app.orderservice.service.TradePersistenceService;
+import com.stofina.app.orderservice.service.TradeSettlementService;
+import com.stofina.app.orderservice.engine.BookCommandHandler;
+import com.stofina.app.orderservice.engine.OrderBookSequencer;
+import com.stofina.app.orderservice.journal.JournalRecord;
+import com.stofina.app.orderservice.journal.OrderBookJournal;
+import com.stofina.app.orderservice.journal.ShardJournals;
+import com.stofina.app.orderservice.journal.SymbolSnapshot;
+import com.stofina.app.orderservice.util.FixedPoint;
+import com.stofina.app.orderservice.util.SnowflakeIdGenerator;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -34,21 +48,29 @@ import java.util.concurrent.ExecutionException;
 public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
     
     // CHECKPOINT 5.2 - Thread-Safe Order Book Management
+    // Books are only mutated by the sequencer shard that owns their symbol
     private final ConcurrentHashMap<String, SimpleOrderBook> orderBooks = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, ReentrantLock> symbolLocks = new ConcurrentHashMap<>();
+    private OrderBookSequencer sequencer;
     
-    // CHECKPOINT ENTEGRASYON 2.2 - Repository dependencies
-    private final OrderRepository orderRepository;
-    private final TradeRepository tradeRepository;
+    // Book events are journaled so books survive a restart; null when journaling is disabled
+    private ShardJournals journals;
+    private ScheduledExecutorService snapshotScheduler;
     
     // CHECKPOINT C3 - Algorithmic matching integration
     private final AlgorithmicMatchingService algorithmicMatchingService;
     
-    // CHECKPOINT 2.3 - Portfolio Service integration
-    private final PortfolioClient portfolioClient;
+    // CHECKPOINT 3.2 - Confirmations and compensations run off the matching thread
+    private final TradeSettlementService tradeSettlementService;
     
-    // CHECKPOINT 3.2 - Compensation Service integration
-    private final CompensationService compensationService;
+    // Trades and order fill state are written behind the matcher in batches
+    private final TradePersistenceService tradePersistenceService;
+    
+    private final OrderBookConfig orderBookConfig;
+    
+    private final SnowflakeIdGenerator idGenerator;
+    
+    // Trades go out on /topic/trades/{symbol} in one frame per publish interval
+    private final MarketFeedPublisher marketFeedPublisher;
     
     // TODO: ENTEGRASYON SIRASINDA KALDIRILACAK - Mock BIST symbols for testing
     private static final List<String> MOCK_BIST_SYMBOLS = Arrays.asList(
@@ -57,6 +79,169 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
     );
     
     @PostConstruct
+    public void start() {
+        OrderBookConfig.JournalConfig journalConfig = orderBookConfig.getJournal();
+        // A relative path would follow the working directory and silently start from an empty journal
+        if (journalConfig.isEnabled() && (journalConfig.getDirectory() == null || journalConfig.getDirectory().isBlank()
+                || !Paths.get(journalConfig.getDirectory()).isAbsolute())) {
+            throw new IllegalStateException(
+                    "order-book.journal.directory must be an absolute path (ORDER_BOOK_JOURNAL_DIR) when the journal is enabled");
+        }
+        OrderBookConfig.SequencerConfig sequencerConfig = orderBookConfig.getSequencer();
+        sequencer = new OrderBookSequencer(sequencerConfig.getShards(), sequencerConfig.getRingSize(),
+                sequencerConfig.getIdleParkMicros(), new EngineCommandHandler());
+        if (journalConfig.isEnabled()) {
+            startJournal();
+        }
+        initializeMockSymbols();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (snapshotScheduler != null) {
+            // Let a running snapshot finish; two snapshots must never write the same temp file
+            snapshotScheduler.shutdown();
+            try {
+                if (!snapshotScheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("📒 JOURNAL: Periodic snapshot still running at shutdown, skipping final snapshot");
+                } else {
+                    // A fresh snapshot keeps the next startup's replay short
+                    snapshotOrderBooks();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (sequencer != null) {
+            log.info("Shutting down order book sequencer...");
+            sequencer.shutdown();
+        }
+        if (journals != null) {
+            journals.close();
+        }
+    }
+    
+    /**
+     * Rebuilds every book from the latest snapshot and the journal tail, then schedules
+     * periodic snapshots. Runs before any command reaches the sequencer.
+     */
+    private void startJournal() {
+        OrderBookConfig.JournalConfig journalConfig = orderBookConfig.getJournal();
+        long startedAt = System.currentTimeMillis();
+        
+        journals = new ShardJournals(Paths.get(journalConfig.getDirectory()), sequencer.getShardCount(),
+                journalConfig.getSegmentSizeMb() * 1024 * 1024);
+        journals.recover(this::restoreSnapshotOrder, this::replayJournalRecord);
+        if (journals.isMigrating()) {
+            // Shard count changed: the rebuilt books become the first snapshot of the new layout
+            writeSnapshots();
+            journals.finishMigration();
+        }
+        
+        int restingOrders = orderBooks.values().stream().mapToInt(SimpleOrderBook::getTotalOrderCount).sum();
+        log.info("📒 JOURNAL: Order books rebuilt in {} ms → {} symbols, {} resting orders", 
+                System.currentTimeMillis() - startedAt, orderBooks.size(), restingOrders);
+        
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-book-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = journalConfig.getSnapshotIntervalSeconds();
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshotOrderBooks, interval, interval, TimeUnit.SECONDS);
+    }
+    
+    private void restoreSnapshotOrder(String symbol, Order order) {
+        getOrCreateOrderBook(symbol).addOrder(order);
+    }
+    
+    private void replayJournalRecord(JournalRecord record) {
+        String symbol = record.getSymbol();
+        SimpleOrderBook orderBook = getOrCreateOrderBook(symbol);
+        Long orderId = record.getOrderId();
+        
+        switch (record.getType()) {
+            case ADD -> {
+                if (!orderBook.containsOrder(orderId)) {
+                    orderBook.addOrder(record.getOrder());
+                }
+            }
+            case CANCEL -> orderBook.removeOrder(orderId);
+            case AMEND -> orderBook.replaceOrder(orderId, record.getOrder());
+            case FILL -> {
+                Order resting = orderBook.getOrder(orderId);
+                if (resting != null) {
+                    resting.setFilledQuantity(record.getFilledQuantity());
+                    resting.setAveragePrice(record.getAveragePrice());
+                    resting.setStatus(record.getStatus());
+                    if (resting.getRemainingQuantity().compareTo(BigDecimal.ZERO) <= 0) {
+                        orderBook.removeOrder(orderId);
+                    } else {
+                        orderBook.refreshOrder(orderId);
+                    }
+                }
+            }
+            case CLEAR -> orderBooks.computeIfAbsent(symbol, this::createOrderBook).clear();
+        }
+    }
+    
+    /**
+     * Writes a snapshot of all books. Each book is encoded on its own shard, so the snapshot
+     * is consistent per symbol without stopping matching for other symbols.
+     */
+    public void snapshotOrderBooks() {
+        if (journals == null) {
+            return;
+        }
+        
+        try {
+            writeSnapshots();
+        } catch (Exception e) {
+            log.error("📒 JOURNAL: Snapshot failed: {}", e.getMessage(), e);
+        }
+    }
+    
+    // Each shard's books go into that shard's journal
+    private void writeSnapshots() {
+        long startedAt = System.currentTimeMillis();
+        int symbols = 0;
+        int orders = 0;
+        
+        for (int shard = 0; shard < journals.size(); shard++) {
+            OrderBookJournal journal = journals.get(shard);
+            long baseSequence = journal.lastSequence();
+            
+            List<CompletableFuture<SymbolSnapshot>> pending = new ArrayList<>();
+            for (String symbol : orderBooks.keySet()) {
+                if (sequencer.shardOf(symbol) != shard) {
+                    continue;
+                }
+                pending.add(sequencer.submit(symbol, () -> {
+                    SimpleOrderBook orderBook = orderBooks.get(symbol);
+                    List<Order> resting = new ArrayList<>();
+                    if (orderBook != null) {
+                        resting.addAll(orderBook.getBidOrders());
+                        resting.addAll(orderBook.getAskOrders());
+                    }
+                    return OrderBookJournal.encodeSnapshot(symbol, journal.lastSequence(), resting);
+                }));
+            }
+            
+            List<SymbolSnapshot> snapshots = pending.stream().map(CompletableFuture::join).toList();
+            journal.writeSnapshot(baseSequence, snapshots);
+            symbols += snapshots.size();
+            orders += snapshots.stream().mapToInt(SymbolSnapshot::getOrderCount).sum();
+        }
+        
+        log.info("📒 JOURNAL: Snapshot written → {} shards, {} symbols, {} orders in {} ms", journals.size(), symbols,
+                orders, System.currentTimeMillis() - startedAt);
+    }
+    
+    // Journal of the shard that owns the symbol; only that shard's thread appends to it
+    private OrderBookJournal journalOf(String symbol) {
+        return journals != null ? journals.get(sequencer.shardOf(symbol)) : null;
+    }
+    
     public void initializeMockSymbols() {
         // TODO: ENTEGRASYON SIRASINDA KALDIRILACAK - Initialize mock BIST symbols
         log.info("Initializing mock BIST symbols for testing...");
@@ -74,8 +259,7 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
         }
         
         String normalizedSymbol = symbol.trim().toUpperCase();
-        orderBooks.computeIfAbsent(normalizedSymbol, SimpleOrderBook::new);
-        symbolLocks.computeIfAbsent(normalizedSymbol, k -> new ReentrantLock());
+        orderBooks.computeIfAbsent(normalizedSymbol, this::createOrderBook);
         
         log.debug("Order book initialized for symbol: {}", normalizedSymbol);
     }
@@ -90,8 +274,105 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
             return new ArrayList<>();
         }
         
+        try {
+            return acknowledgeWhenDurable(order.getSymbol(), sequencer.submitNewOrder(order)).join();
+        } catch (CompletionException e) {
+            log.error("Failed to process order {} for symbol {}: {}", order.getOrderId(), order.getSymbol(), 
+                      e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    @Override
+    public CompletableFuture<List<Trade>> submitOrder(Order order) {
+        if (order == null || order.getSymbol() == null) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        return acknowledgeWhenDurable(order.getSymbol(), sequencer.submitNewOrder(order));
+    }
+    
+    @Override
+    public CompletableFuture<List<Trade>> submitOrders(String symbol, List<Order> orders) {
+        if (symbol == null || orders == null || orders.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        
+        String normalizedSymbol = symbol.trim().toUpperCase();
+        return acknowledgeWhenDurable(normalizedSymbol, sequencer.submit(normalizedSymbol, () -> {
+            List<Trade> trades = new ArrayList<>();
+            for (Order order : orders) {
+                trades.addAll(processNewOrder(order));
+            }
+            return trades;
+        }));
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> submitCancel(Long orderId, String symbol) {
+        if (orderId == null || symbol == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return sequencer.submitCancel(orderId, symbol);
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> submitAmend(Order oldOrder, Order newOrder) {
+        if (oldOrder == null || newOrder == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return sequencer.submitAmend(oldOrder, newOrder);
+    }
+    
+    @Override
+    public CompletableFuture<List<Trade>> submitCounterFill(Long restingOrderId, Order counterOrder) {
+        if (restingOrderId == null || counterOrder == null || counterOrder.getSymbol() == null) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        String symbol = counterOrder.getSymbol().trim().toUpperCase();
+        return acknowledgeWhenDurable(symbol, sequencer.submit(symbol, () -> processCounterFill(restingOrderId, counterOrder)));
+    }
+    
+    /**
+     * With SYNC durability the caller's future completes once the trades are committed. The wait happens
+     * after the shard has moved on, so a database round trip never holds up matching; a command issued
+     * from the shard itself is not held back at all.
+     */
+    private CompletableFuture<List<Trade>> acknowledgeWhenDurable(String symbol, CompletableFuture<List<Trade>> matched) {
+        if (sequencer.isOwnerThread(symbol)) {
+            return matched;
+        }
+        return matched.thenCompose(trades -> trades.isEmpty()
+                ? CompletableFuture.completedFuture(trades)
+                : tradePersistenceService.whenDurable().thenApply(ignored -> trades));
+    }
+    
+    /**
+     * Runs on the shard thread. The resting order may have been filled or cancelled since the attempt was
+     * scheduled; then nothing is filled. The counter order never rests in the book.
+     */
+    private List<Trade> processCounterFill(Long restingOrderId, Order counterOrder) {
+        List<Trade> trades = new ArrayList<>(1);
+        SimpleOrderBook orderBook = orderBooks.get(counterOrder.getSymbol().trim().toUpperCase());
+        RestingOrder node = orderBook != null ? orderBook.getRestingOrder(restingOrderId) : null;
+        if (node == null) {
+            log.info("Counter fill skipped, order {} is no longer resting in the book", restingOrderId);
+            return trades;
+        }
+        
+        FillState counter = FillState.of(counterOrder);
+        executeFill(orderBook, counterOrder, counter, node, trades, true);
+        if (trades.isEmpty()) {
+            return trades;
+        }
+        
+        counterOrder.setStatus(counter.getRemaining() <= 0 ? OrderStatus.FILLED : OrderStatus.PARTIALLY_FILLED);
+        tradePersistenceService.recordOrderUpdate(counterOrder);
+        return trades;
+    }
+    
+    // Runs on the shard thread that owns the order's symbol
+    private List<Trade> processNewOrder(Order order) {
         String symbol = order.getSymbol().trim().toUpperCase();
-        ReentrantLock lock = acquireLock(symbol);
         
         try {
             // CHECKPOINT ENTEGRASYON 2.3 - Matching before adding
@@ -101,10 +382,22 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
             
             // If order not fully filled, add remaining to book and trigger algorithmic matching
             log.info("🔍 DEBUG-A: Checking remaining quantity = {}", order.getRemainingQuantity());
-            if (order.getRemainingQuantity().compareTo(BigDecimal.ZERO) > 0) {
+            if (order.getRemainingQuantity().compareTo(BigDecimal.ZERO) > 0 && isMarketOrder(order)) {
+                // Market orders never rest: the rest is cancelled and its reservation released
+                log.info("Market order {} not fully filled within protection band, cancelling remaining {}", 
+                         order.getOrderId(), order.getRemainingQuantity());
+                order.setStatus(OrderStatus.CANCELLED);
+                order.setUpdatedAt(LocalDateTime.now());
+                tradePersistenceService.recordOrderUpdate(order);
+                tradeSettlementService.submitOrderCancellation(order, "Market order not filled within protection band");
+            } else if (order.getRemainingQuantity().compareTo(BigDecimal.ZERO) > 0) {
                 log.info("DEBUG - Order has remaining quantity: {}", order.getRemainingQuantity());
                 SimpleOrderBook orderBook = getOrCreateOrderBook(symbol);
                 orderBook.addOrder(order);
+                OrderBookJournal journal = journalOf(symbol);
+                if (journal != null) {
+                    journal.appendAdd(order);
+                }
                 log.info("Order added to book: {} for symbol: {} with remaining quantity: {}", 
                          order.getOrderId(), symbol, order.getRemainingQuantity());
                 
@@ -129,8 +422,6 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
         } catch (Exception e) {
             log.error("Failed to process order {} for symbol {}: {}", order.getOrderId(), symbol, e.getMessage());
             return new ArrayList<>();
-        } finally {
-            releaseLock(lock);
         }
     }
     
@@ -140,23 +431,25 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
             return false;
         }
         
-        String normalizedSymbol = symbol.trim().toUpperCase();
-        ReentrantLock lock = acquireLock(normalizedSymbol);
+        return awaitResult(sequencer.submitCancel(orderId, symbol));
+    }
+    
+    private boolean processCancel(Long orderId, String symbol) {
+        SimpleOrderBook orderBook = orderBooks.get(symbol);
+        if (orderBook == null) {
+            return false;
+        }
         
-        try {
-            SimpleOrderBook orderBook = orderBooks.get(normalizedSymbol);
-            if (orderBook == null) {
-                return false;
-            }
-            
-            boolean removed = orderBook.removeOrder(orderId);
-            if (removed) {
-                log.debug("Order removed: {} from symbol: {}", orderId, normalizedSymbol);
+        boolean removed = orderBook.removeOrder(orderId);
+        if (removed) {
+            algorithmicMatchingService.cancelAlgorithmicMatching(orderId);
+            OrderBookJournal journal = journalOf(symbol);
+            if (journal != null) {
+                journal.appendCancel(symbol, orderId);
             }
-            return removed;
-        } finally {
-            releaseLock(lock);
+            log.debug("Order removed: {} from symbol: {}", orderId, symbol);
         }
+        return removed;
     }
     
     @Override
@@ -165,30 +458,20 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
             return false;
         }
         
-        String symbol = oldOrder.getSymbol().trim().toUpperCase();
-        ReentrantLock lock = acquireLock(symbol);
-        
-        try {
-            boolean removed = removeOrderWithoutLock(oldOrder.getOrderId(), symbol);
-            if (removed) {
-                SimpleOrderBook orderBook = getOrCreateOrderBook(symbol);
-                orderBook.addOrder(newOrder);
-                return true;
-            }
-            return false;
-        } finally {
-            releaseLock(lock);
-        }
+        return awaitResult(sequencer.submitAmend(oldOrder, newOrder));
     }
     
-    @Override
-    public SimpleOrderBook getOrderBook(String symbol) {
-        if (symbol == null) {
-            return null;
+    private boolean processAmend(Order oldOrder, Order newOrder) {
+        SimpleOrderBook orderBook = orderBooks.get(oldOrder.getSymbol().trim().toUpperCase());
+        boolean replaced = orderBook != null && orderBook.replaceOrder(oldOrder.getOrderId(), newOrder);
+        if (replaced) {
+            algorithmicMatchingService.updateAlgorithmicMatchingOrder(newOrder);
         }
-        
-        String normalizedSymbol = symbol.trim().toUpperCase();
-        return orderBooks.get(normalizedSymbol);
+        OrderBookJournal journal = journalOf(newOrder.getSymbol());
+        if (replaced && journal != null) {
+            journal.appendAmend(newOrder);
+        }
+        return replaced;
     }
     
     @Override
@@ -198,36 +481,53 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
         }
         
         String normalizedSymbol = symbol.trim().toUpperCase();
-        ReentrantLock lock = acquireLock(normalizedSymbol);
+        SimpleOrderBook current = orderBooks.get(normalizedSymbol);
+        // Unchanged books are served from the published snapshot without a trip through the shard
+        SimpleOrderBookSnapshot published = current != null ? current.getPublishedSnapshot() : null;
+        if (published != null) {
+            return published;
+        }
         
-        try {
+        return awaitResult(sequencer.submit(normalizedSymbol, () -> {
             SimpleOrderBook orderBook = orderBooks.get(normalizedSymbol);
             if (orderBook == null) {
                 return createEmptySnapshot(normalizedSymbol);
             }
             
-            return createSnapshot(orderBook);
-        } finally {
-            releaseLock(lock);
-        }
+            return orderBook.getSnapshot();
+        }));
     }
     
+    // Top of book comes from the snapshot the shard publishes, never from the live book
     @Override
     public BigDecimal getBestBid(String symbol) {
-        SimpleOrderBook orderBook = getOrderBook(symbol);
-        return orderBook != null ? orderBook.getBestBid() : null;
+        SimpleOrderBookSnapshot snapshot = getOrderBookSnapshot(symbol);
+        return snapshot != null ? snapshot.getBestBid() : null;
     }
     
     @Override
     public BigDecimal getBestAsk(String symbol) {
-        SimpleOrderBook orderBook = getOrderBook(symbol);
-        return orderBook != null ? orderBook.getBestAsk() : null;
+        SimpleOrderBookSnapshot snapshot = getOrderBookSnapshot(symbol);
+        return snapshot != null ? snapshot.getBestAsk() : null;
     }
     
     @Override
     public BigDecimal getSpread(String symbol) {
-        SimpleOrderBook orderBook = getOrderBook(symbol);
-        return orderBook != null ? orderBook.getSpread() : null;
+        SimpleOrderBookSnapshot snapshot = getOrderBookSnapshot(symbol);
+        return snapshot != null ? snapshot.getSpread() : null;
+    }
+    
+    @Override
+    public Order findRestingOrder(String symbol, Long orderId) {
+        if (symbol == null || orderId == null) {
+            return null;
+        }
+        
+        String normalizedSymbol = symbol.trim().toUpperCase();
+        return awaitResult(sequencer.submit(normalizedSymbol, () -> {
+            SimpleOrderBook orderBook = orderBooks.get(normalizedSymbol);
+            return orderBook != null ? orderBook.getOrder(orderId) : null;
+        }));
     }
     
     @Override
@@ -237,15 +537,17 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
         }
         
         String normalizedSymbol = symbol.trim().toUpperCase();
-        ReentrantLock lock = acquireLock(normalizedSymbol);
-        
-        try {
-            orderBooks.remove(normalizedSymbol);
-            initializeOrderBook(normalizedSymbol);
+        awaitResult(sequencer.submit(normalizedSymbol, () -> {
+            // Cleared in place: a snapshot walking the book map must still see the symbol
+            orderBooks.computeIfAbsent(normalizedSymbol, this::createOrderBook).clear()
+                    .forEach(order -> algorithmicMatchingService.cancelAlgorithmicMatching(order.getOrderId()));
+            OrderBookJournal journal = journalOf(normalizedSymbol);
+            if (journal != null) {
+                journal.appendClear(normalizedSymbol);
+            }
             log.debug("Order book cleared for symbol: {}", normalizedSymbol);
-        } finally {
-            releaseLock(lock);
-        }
+            return null;
+        }));
     }
     
     @Override
@@ -255,8 +557,15 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
     
     @Override
     public int getTotalOrderCount(String symbol) {
-        SimpleOrderBook orderBook = getOrderBook(symbol);
-        return orderBook != null ? orderBook.getTotalOrderCount() : 0;
+        if (symbol == null) {
+            return 0;
+        }
+        
+        String normalizedSymbol = symbol.trim().toUpperCase();
+        return awaitResult(sequencer.submit(normalizedSymbol, () -> {
+            SimpleOrderBook orderBook = orderBooks.get(normalizedSymbol);
+            return orderBook != null ? orderBook.getTotalOrderCount() : 0;
+        }));
     }
     
     @Override
@@ -264,39 +573,34 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
         return symbol != null && orderBooks.containsKey(symbol.trim().toUpperCase());
     }
     
-    private ReentrantLock acquireLock(String symbol) {
-        ReentrantLock lock = symbolLocks.computeIfAbsent(symbol, k -> new ReentrantLock());
-        lock.lock();
-        return lock;
+    public OrderBookSequencer getSequencer() {
+        return sequencer;
     }
     
-    private void releaseLock(ReentrantLock lock) {
-        if (lock != null && lock.isHeldByCurrentThread()) {
-            lock.unlock();
+    private <T> T awaitResult(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
     }
     
     private SimpleOrderBook getOrCreateOrderBook(String symbol) {
-        return orderBooks.computeIfAbsent(symbol, SimpleOrderBook::new);
+        return orderBooks.computeIfAbsent(symbol, this::createOrderBook);
     }
     
-    private boolean removeOrderWithoutLock(Long orderId, String symbol) {
-        SimpleOrderBook orderBook = orderBooks.get(symbol);
-        return orderBook != null && orderBook.removeOrder(orderId);
-    }
-    
-    private SimpleOrderBookSnapshot createSnapshot(SimpleOrderBook orderBook) {
-        return new SimpleOrderBookSnapshot(
-            orderBook.getSymbol(),
-            orderBook.getTop10Bids(),
-            orderBook.getTop10Asks(),
-            orderBook.getBestBid(),
-            orderBook.getBestAsk(),
-            orderBook.getSpread(),
-            orderBook.getLastUpdateTime(),
-            calculateTotalQuantity(orderBook.getTop10Bids()),
-            calculateTotalQuantity(orderBook.getTop10Asks())
-        );
+    private SimpleOrderBook createOrderBook(String symbol) {
+        OrderBookConfig.TickLadderConfig tickLadder = orderBookConfig.getTickLadder();
+        BigDecimal tickSize = tickLadder.getTickSize(symbol);
+        if (tickSize == null) {
+            return new SimpleOrderBook(symbol);
+        }
+        
+        log.info("Using tick ladder order book for symbol: {} (tick size: {})", symbol, tickSize);
+        return new SimpleOrderBook(symbol, tickSize, tickLadder.getInitialCapacity());
     }
     
     private SimpleOrderBookSnapshot createEmptySnapshot(String symbol) {
@@ -305,11 +609,6 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
         );
     }
     
-    private int calculateTotalQuantity(java.util.List<OrderLevel> levels) {
-        return levels != null ? 
-            levels.stream().mapToInt(level -> level.getQuantity().intValue()).sum() : 0;
-    }
-    
     // CHECKPOINT ENTEGRASYON 2.4 - Real Order Book Matching Implementation
     @Override
     public List<Trade> matchOrder(Order newOrder) {
@@ -324,84 +623,27 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
             orderBook = getOrCreateOrderBook(symbol);
         }
         
-        List<Order> matchingOrders = getMatchingOrders(newOrder);
+        PriceLadder oppositeSide = getOppositeSide(orderBook, newOrder.getSide());
+        long limitPrice = resolveLimitPrice(newOrder, oppositeSide);
+        FillState taker = FillState.of(newOrder);
         
-        for (Order oppositeOrder : matchingOrders) {
-            if (newOrder.getRemainingQuantity().compareTo(BigDecimal.ZERO) <= 0) {
-                break; // New order fully filled
+        // Walk levels from the best price outward; stop once the limit no longer crosses or the order is filled
+        PriceLevel level = oppositeSide.best();
+        while (level != null && taker.getRemaining() > 0
+                && crosses(newOrder.getSide(), limitPrice, level.getPriceUnits())) {
+            
+            RestingOrder node = level.getHead();
+            while (node != null && taker.getRemaining() > 0) {
+                RestingOrder nextNode = node.getNext();
+                executeFill(orderBook, newOrder, taker, node, trades, false);
+                node = nextNode;
             }
             
-            if (oppositeOrder.getRemainingQuantity().compareTo(BigDecimal.ZERO) <= 0) {
-                continue; // Skip already filled orders
-            }
-            
-            // Execute trade
-            BigDecimal tradeQuantity = newOrder.getRemainingQuantity().min(oppositeOrder.getRemainingQuantity());
-            BigDecimal tradePrice = oppositeOrder.getPrice(); // Price from existing order (price-time priority)
-            
-            Trade trade = createTrade(newOrder, oppositeOrder, tradePrice, tradeQuantity);
-            
-            // CHECKPOINT 2.3 - Portfolio Service Trade Confirmation BEFORE updating order state
-            log.info("🏦 PORTFOLIO: Starting trade confirmation → TradeId: {}, NewOrder: {}, OppositeOrder: {}", 
-                    trade.getTradeId(), newOrder.getOrderId(), oppositeOrder.getOrderId());
-            
-            boolean portfolioConfirmationSuccess = performPortfolioTradeConfirmation(trade, newOrder, oppositeOrder, tradeQuantity);
-            if (!portfolioConfirmationSuccess) {
-                log.error("🏦 PORTFOLIO: Trade confirmation failed → TradeId: {}, attempting compensation", 
-                        trade.getTradeId());
-                
-                // CHECKPOINT 3.2 - Trigger compensation for failed trade confirmation
-                try {
-                    Order buyOrder = newOrder.getSide() == OrderSide.BUY ? newOrder : oppositeOrder;
-                    Order sellOrder = newOrder.getSide() == OrderSide.SELL ? newOrder : oppositeOrder;
-                    
-                    boolean compensationSuccess = compensationService.compensateFailedTrade(
-                            trade, buyOrder, sellOrder, "Portfolio trade confirmation failed"
-                    );
-                    
-                    if (compensationSuccess) {
-                        log.info("✅ COMPENSATION: Trade compensation successful → TradeId: {}", trade.getTradeId());
-                    } else {
-                        log.error("❌ COMPENSATION: Trade compensation failed → TradeId: {}", trade.getTradeId());
-                    }
-                } catch (Exception compensationEx) {
-                    log.error("🚨 COMPENSATION: Exception during trade compensation → TradeId: {}", 
-                            trade.getTradeId(), compensationEx);
-                }
-                
-                continue; // Skip this trade, try next matching order
-            }
-            
-            trades.add(trade);
-            
-            // Update order quantities AFTER portfolio confirmation
-            updateOrderAfterTrade(newOrder, tradeQuantity, tradePrice);
-            updateOrderAfterTrade(oppositeOrder, tradeQuantity, tradePrice);
-            
-            // Save trade to database
-            tradeRepository.save(trade);
-            
-            // Update orders in database
-            orderRepository.save(newOrder);
-            orderRepository.save(oppositeOrder);
-            
-            // Remove fully filled orders from book
-            if (oppositeOrder.getRemainingQuantity().compareTo(BigDecimal.ZERO) <= 0) {
-                orderBook.removeOrder(oppositeOrder.getOrderId());
-                oppositeOrder.setStatus(OrderStatus.FILLED);
-                orderRepository.save(oppositeOrder);
-                
-                // AUTO-CONFIRM: Automatically confirm filled order in Portfolio Service
-                log.info("🔄 AUTO-CONFIRM: Order FILLED, confirming in Portfolio Service → OrderId: {}", oppositeOrder.getOrderId());
-                autoConfirmFilledOrder(oppositeOrder, trade);
-            }
-            
-            log.info("Trade executed: {} {} @ {} between orders {} and {}", 
-                    tradeQuantity, symbol, tradePrice, newOrder.getOrderId(), oppositeOrder.getOrderId());
+            level = oppositeSide.next(level);
         }
         
         // Update new order status
-        if (newOrder.getRemainingQuantity().compareTo(BigDecimal.ZERO) <= 0) {
+        if (taker.getRemaining() <= 0) {
             newOrder.setStatus(OrderStatus.FILLED);
             
             // AUTO-CONFIRM: Automatically confirm filled new order in Portfolio Service
@@ -409,9 +651,9 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
             // Use the last trade for this new order
             if (!trades.isEmpty()) {
                 Trade lastTrade = trades.get(trades.size() - 1);
-                autoConfirmFilledOrder(newOrder, lastTrade);
+                tradeSettlementService.submitOrderConfirmation(newOrder, lastTrade);
             }
-        } else if (newOrder.getFilledQuantity().compareTo(BigDecimal.ZERO) > 0) {
+        } else if (taker.getFilled() > 0) {
             newOrder.setStatus(OrderStatus.PARTIALLY_FILLED);
             
             // AUTO-CONFIRM: PARTIALLY_FILLED emirler için de otomatik onay
@@ -421,14 +663,74 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
             for (Trade trade : trades) {
                 if (trade.getBuyOrderId().equals(newOrder.getOrderId()) || 
                     trade.getSellOrderId().equals(newOrder.getOrderId())) {
-                    autoConfirmFilledOrder(newOrder, trade);
+                    tradeSettlementService.submitOrderConfirmation(newOrder, trade);
                 }
             }
         }
         
+        if (!trades.isEmpty()) {
+            tradePersistenceService.recordOrderUpdate(newOrder);
+        }
+        
         return trades;
     }
     
+    private void executeFill(SimpleOrderBook orderBook, Order newOrder, FillState taker, RestingOrder node,
+                             List<Trade> trades, boolean botTrade) {
+        Order oppositeOrder = node.getOrder();
+        FillState maker = node.getState();
+        if (maker.getRemaining() <= 0) {
+            return; // Skip already filled orders
+        }
+        
+        // Execute trade at the resting level's price (price-time priority), all arithmetic in fixed-point units
+        long quantityUnits = Math.min(taker.getRemaining(), maker.getRemaining());
+        long priceUnits = node.getLevel().getPriceUnits();
+        BigDecimal tradeQuantity = FixedPoint.toQuantity(quantityUnits);
+        BigDecimal tradePrice = FixedPoint.toPrice(priceUnits);
+        
+        Trade trade = createTrade(newOrder, oppositeOrder, tradePrice, tradeQuantity);
+        trade.setIsBotTrade(botTrade);
+        trades.add(trade);
+        
+        taker.fill(quantityUnits, priceUnits);
+        taker.writeTo(newOrder);
+        orderBook.fillOrder(node, quantityUnits);
+        maker.writeTo(oppositeOrder);
+        
+        // CHECKPOINT 2.3 - Portfolio confirmation (and compensation on failure) runs on the settlement stage
+        Order buyOrder = newOrder.getSide() == OrderSide.BUY ? newOrder : oppositeOrder;
+        Order sellOrder = newOrder.getSide() == OrderSide.SELL ? newOrder : oppositeOrder;
+        tradeSettlementService.submitTrade(trade, buyOrder, sellOrder);
+        
+        // Remove fully filled orders from book
+        if (maker.getRemaining() <= 0) {
+            orderBook.removeOrder(oppositeOrder.getOrderId());
+            oppositeOrder.setStatus(OrderStatus.FILLED);
+            algorithmicMatchingService.cancelAlgorithmicMatching(oppositeOrder.getOrderId());
+            
+            // AUTO-CONFIRM: Automatically confirm filled order in Portfolio Service
+            log.info("🔄 AUTO-CONFIRM: Order FILLED, confirming in Portfolio Service → OrderId: {}", oppositeOrder.getOrderId());
+            tradeSettlementService.submitOrderConfirmation(oppositeOrder, trade);
+        } else {
+            oppositeOrder.setStatus(OrderStatus.PARTIALLY_FILLED);
+        }
+        
+        OrderBookJournal journal = journalOf(oppositeOrder.getSymbol());
+        if (journal != null) {
+            journal.appendFill(oppositeOrder);
+        }
+        
+        // Written behind the matcher; the new order's state is recorded once matching finishes
+        tradePersistenceService.recordTrade(trade);
+        tradePersistenceService.recordOrderUpdate(oppositeOrder);
+        // Every fill passes here, whichever path matched it, so the trade feed sees them all
+        marketFeedPublisher.publishTrades(List.of(trade), newOrder.getSide());
+        
+        log.info("Trade executed: {} {} @ {} between orders {} and {}", 
+                tradeQuantity, newOrder.getSymbol(), tradePrice, newOrder.getOrderId(), oppositeOrder.getOrderId());
+    }
+    
     @Override
     public List<Order> getMatchingOrders(Order newOrder) {
         List<Order> matchingOrders = new ArrayList<>();
@@ -442,44 +744,53 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
             return matchingOrders;
         }
         
-        // Get orders from opposite side
-        List<Order> oppositeOrders = newOrder.getSide() == OrderSide.BUY ? 
-                                    orderBook.getAskOrders() : orderBook.getBidOrders();
+        // Levels are already in price-time priority, so collect them in walk order
+        PriceLadder oppositeSide = getOppositeSide(orderBook, newOrder.getSide());
+        long limitPrice = resolveLimitPrice(newOrder, oppositeSide);
         
-        for (Order oppositeOrder : oppositeOrders) {
-            if (canMatch(newOrder, oppositeOrder)) {
-                matchingOrders.add(oppositeOrder);
-            }
-        }
-        
-        // Sort by price-time priority
-        if (newOrder.getSide() == OrderSide.BUY) {
-            // For buy orders, match with lowest ask prices first
-            matchingOrders.sort((o1, o2) -> {
-                int priceCompare = o1.getPrice().compareTo(o2.getPrice());
-                return priceCompare != 0 ? priceCompare : o1.getCreatedAt().compareTo(o2.getCreatedAt());
-            });
-        } else {
-            // For sell orders, match with highest bid prices first
-            matchingOrders.sort((o1, o2) -> {
-                int priceCompare = o2.getPrice().compareTo(o1.getPrice());
-                return priceCompare != 0 ? priceCompare : o1.getCreatedAt().compareTo(o2.getCreatedAt());
-            });
+        for (PriceLevel level = oppositeSide.best(); 
+             level != null && crosses(newOrder.getSide(), limitPrice, level.getPriceUnits()); 
+             level = oppositeSide.next(level)) {
+            matchingOrders.addAll(level.getOrders());
         }
         
         return matchingOrders;
     }
     
-    private boolean canMatch(Order buyOrder, Order sellOrder) {
-        if (buyOrder.getSide() == sellOrder.getSide()) {
-            return false; // Same side orders cannot match
+    private PriceLadder getOppositeSide(SimpleOrderBook orderBook, OrderSide side) {
+        return side == OrderSide.BUY ? orderBook.getAsks() : orderBook.getBids();
+    }
+    
+    /**
+     * Limit orders cross up to their own price. Market orders sweep the opposite side up to
+     * the protection band around its best price, so a thin book cannot fill them at any price.
+     * The band is rounded inward to the price grid, which selects exactly the levels the unrounded band would.
+     * Only meaningful while the opposite side has a best level.
+     */
+    private long resolveLimitPrice(Order order, PriceLadder oppositeSide) {
+        if (!isMarketOrder(order)) {
+            return FixedPoint.toPriceUnits(order.getPrice());
         }
         
-        Order actualBuyOrder = buyOrder.getSide() == OrderSide.BUY ? buyOrder : sellOrder;
-        Order actualSellOrder = buyOrder.getSide() == OrderSide.SELL ? buyOrder : sellOrder;
+        PriceLevel best = oppositeSide.best();
+        if (best == null) {
+            return 0L;
+        }
         
+        BigDecimal band = orderBookConfig.getMarketProtectionPercent();
+        if (order.getSide() == OrderSide.BUY) {
+            return FixedPoint.toPriceUnits(best.getPrice().multiply(BigDecimal.ONE.add(band)), RoundingMode.FLOOR);
+        }
+        return FixedPoint.toPriceUnits(best.getPrice().multiply(BigDecimal.ONE.subtract(band)), RoundingMode.CEILING);
+    }
+    
+    private boolean crosses(OrderSide side, long limitPrice, long levelPrice) {
         // Buy price must be >= sell price for match
-        return actualBuyOrder.getPrice().compareTo(actualSellOrder.getPrice()) >= 0;
+        return side == OrderSide.BUY ? limitPrice >= levelPrice : limitPrice <= levelPrice;
+    }
+    
+    private boolean isMarketOrder(Order order) {
+        return order.getPrice() == null || (order.getOrderType() != null && order.getOrderType().isMarketOrder());
     }
     
     private Trade createTrade(Order buyOrder, Order sellOrder, BigDecimal price, BigDecimal quantity) {
@@ -487,8 +798,8 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
         Order actualSellOrder = buyOrder.getSide() == OrderSide.SELL ? buyOrder : sellOrder;
         
         Trade trade = new Trade();
-        // Generate unique trade ID using nanoTime and thread ID for uniqueness
-        trade.setTradeId(System.nanoTime() + Thread.currentThread().getId());
+        // Assigned here so settlement, persistence and the journal all see the id the trade is stored under
+        trade.setTradeId(idGenerator.nextId());
         trade.setBuyOrderId(actualBuyOrder.getOrderId());
         trade.setSellOrderId(actualSellOrder.getOrderId());
         trade.setSymbol(buyOrder.getSymbol());
@@ -502,269 +813,21 @@ public class SimpleOrderBookManagerImpl implements SimpleOrderBookManager {
         return trade;
     }
     
-    private void updateOrderAfterTrade(Order order, BigDecimal tradeQuantity, BigDecimal tradePrice) {
-        BigDecimal newFilledQuantity = order.getFilledQuantity().add(tradeQuantity);
-        order.setFilledQuantity(newFilledQuantity);
+    private class EngineCommandHandler implements BookCommandHandler {
         
-        // Update average price (weighted average)
-        if (order.getAveragePrice() == null || order.getAveragePrice().compareTo(BigDecimal.ZERO) == 0) {
-            order.setAveragePrice(tradePrice);
-        } else {
-            BigDecimal totalValue = order.getAveragePrice().multiply(order.getFilledQuantity().subtract(tradeQuantity))
-                                   .add(tradePrice.multiply(tradeQuantity));
-            order.setAveragePrice(totalValue.divide(newFilledQuantity, 4, java.math.RoundingMode.HALF_UP));
+        @Override
+        public List<Trade> onNewOrder(Order order) {
+            return processNewOrder(order);
         }
         
-        order.setUpdatedAt(LocalDateTime.now());
-    }
-
-    // PORTFOLIO SERVICE INTEGRATION HELPER METHODS
-
-    /**
-     * Performs portfolio trade confirmation for both buy and sell sides of a trade.
-     * This method handles both full and partial trade confirmations.
-     * @param trade The executed trade
-     * @param newOrder The new order that triggered the trade
-     * @param oppositeOrder The existing order that matched
-     * @param executedQuantity The quantity that was executed in this trade
-     * @return true if portfolio confirmation successful, false otherwise
-     */
-    private boolean performPortfolioTradeConfirmation(Trade trade, Order newOrder, Order oppositeOrder, 
-                                                     BigDecimal executedQuantity) {
-        try {
-            // Determine buy and sell orders
-            Order buyOrder = newOrder.getSide() == OrderSide.BUY ? newOrder : oppositeOrder;
-            Order sellOrder = newOrder.getSide() == OrderSide.SELL ? newOrder : oppositeOrder;
-            
-            // Calculate remaining quantities after this trade
-            BigDecimal buyOrderRemainingAfterTrade = buyOrder.getRemainingQuantity().subtract(executedQuantity);
-            BigDecimal sellOrderRemainingAfterTrade = sellOrder.getRemainingQuantity().subtract(executedQuantity);
-            
-            // Determine confirmation type (full vs partial)
-            boolean isBuyOrderPartial = buyOrderRemainingAfterTrade.compareTo(BigDecimal.ZERO) > 0;
-            boolean isSellOrderPartial = sellOrderRemainingAfterTrade.compareTo(BigDecimal.ZERO) > 0;
-            
-            CompletableFuture<PortfolioResponse> buyConfirmationFuture = null;
-            CompletableFuture<PortfolioResponse> sellConfirmationFuture = null;
-            
-            // Only confirm portfolio operations for real users (non-bot orders)
-            boolean shouldConfirmBuyOrder = !buyOrder.getIsBot();
-            boolean shouldConfirmSellOrder = !sellOrder.getIsBot();
-            
-            log.info("🤖 BOT CHECK: BuyOrder isBot={}, SellOrder isBot={} → Confirming: Buy={}, Sell={}", 
-                    buyOrder.getIsBot(), sellOrder.getIsBot(), shouldConfirmBuyOrder, shouldConfirmSellOrder);
-            
-            if (shouldConfirmBuyOrder && isBuyOrderPartial) {
-                // Partial buy trade confirmation
-                PartialTradeConfirmationRequest buyRequest = PartialTradeConfirmationRequest.builder()
-                        .tradeId(trade.getTradeId())
-                        .orderId(buyOrder.getOrderId())
-                        .accountId(buyOrder.getAccountId())
-                        .symbol(buyOrder.getSymbol())
-                        .partialQuantity(executedQuantity.intValue())
-                        .remainingQuantity(buyOrderRemainingAfterTrade.intValue())
-                        .executedPrice(trade.getPrice())
-                        .build();
-                
-                log.info("🏦 PORTFOLIO: Confirming PARTIAL BUY trade → {}", buyRequest);
-                buyConfirmationFuture = portfolioClient.confirmPartialBuyTrade(buyRequest);
-            } else if (shouldConfirmBuyOrder) {
-                // Full buy trade confirmation
-                TradeConfirmationRequest buyRequest = TradeConfirmationRequest.builder()
-                        .tradeId(trade.getTradeId())
-                        .orderId(buyOrder.getOrderId())
-                        .accountId(buyOrder.getAccountId())
-                        .symbol(buyOrder.getSymbol())
-                        .executedQuantity(executedQuantity.intValue())
-                        .executedPrice(trade.getPrice())
-                        .build();
-                
-                log.info("🏦 PORTFOLIO: Confirming FULL BUY trade → {}", buyRequest);
-                buyConfirmationFuture = portfolioClient.confirmBuyTrade(buyRequest);
-            } else {
-                log.info("🤖 PORTFOLIO: Skipping BUY confirmation - Order is from BOT → OrderId: {}", buyOrder.getOrderId());
-            }
-            
-            if (shouldConfirmSellOrder && isSellOrderPartial) {
-                // Partial sell trade confirmation
-                PartialTradeConfirmationRequest sellRequest = PartialTradeConfirmationRequest.builder()
-                        .tradeId(trade.getTradeId())
-                        .orderId(sellOrder.getOrderId())
-                        .accountId(sellOrder.getAccountId())
-                        .symbol(sellOrder.getSymbol())
-                        .partialQuantity(executedQuantity.intValue())
-                        .remainingQuantity(sellOrderRemainingAfterTrade.intValue())
-                        .executedPrice(trade.getPrice())
-                        .build();
-                
-                log.info("🏦 PORTFOLIO: Confirming PARTIAL SELL trade → {}", sellRequest);
-                sellConfirmationFuture = portfolioClient.confirmPartialSellTrade(sellRequest);
-            } else if (shouldConfirmSellOrder) {
-                // Full sell trade confirmation
-                TradeConfirmationRequest sellRequest = TradeConfirmationRequest.builder()
-                        .tradeId(trade.getTradeId())
-                        .orderId(sellOrder.getOrderId())
-                        .accountId(sellOrder.getAccountId())
-                        .symbol(sellOrder.getSymbol())
-                        .executedQuantity(executedQuantity.intValue())
-                        .executedPrice(trade.getPrice())
-                        .build();
-                
-                log.info("🏦 PORTFOLIO: Confirming FULL SELL trade → {}", sellRequest);
-                sellConfirmationFuture = portfolioClient.confirmSellTrade(sellRequest);
-            } else {
-                log.info("🤖 PORTFOLIO: Skipping SELL confirmation - Order is from BOT → OrderId: {}", sellOrder.getOrderId());
-            }
-            
-            // Wait for confirmations to complete (only for real users)
-            PortfolioResponse buyResponse = null;
-            PortfolioResponse sellResponse = null;
-            
-            if (buyConfirmationFuture != null) {
-                buyResponse = buyConfirmationFuture.get();
-            }
-            if (sellConfirmationFuture != null) {
-                sellResponse = sellConfirmationFuture.get();
-            }
-            
-            // Check responses (consider success if no confirmation was needed due to bot orders)
-            boolean buySuccess = (buyResponse == null) || buyResponse.isSuccess(); // null means bot order (no confirmation needed)
-            boolean sellSuccess = (sellResponse == null) || sellResponse.isSuccess(); // null means bot order (no confirmation needed)
-            
-            if (buySuccess && sellSuccess) {
-                log.info("🏦 PORTFOLIO: Trade confirmations successful → TradeId: {}, BuySuccess: {}, SellSuccess: {}", 
-                        trade.getTradeId(), buySuccess, sellSuccess);
-                return true;
-            } else {
-                log.error("🏦 PORTFOLIO: Trade confirmation failed → TradeId: {}, BuySuccess: {}, SellSuccess: {}", 
-                        trade.getTradeId(), buySuccess, sellSuccess);
-                
-                if (buyResponse != null && !buyResponse.isSuccess()) {
-                    log.error("🏦 PORTFOLIO: Buy confirmation error → {}", buyResponse.getMessage());
-                }
-                if (sellResponse != null && !sellResponse.isSuccess()) {
-                    log.error("🏦 PORTFOLIO: Sell confirmation error → {}", sellResponse.getMessage());
-                }
-                
-                // TODO: In Phase 3, implement compensation mechanism for failed confirmations
-                return false;
-            }
-            
-        } catch (ExecutionException e) {
-            log.error("🏦 PORTFOLIO: Trade confirmation execution error → TradeId: {}", trade.getTradeId(), e);
-            
-            // Check if the cause is a known portfolio exception
-            if (e.getCause() instanceof PortfolioServiceException portfolioEx) {
-                log.error("🏦 PORTFOLIO: Portfolio service error during trade confirmation → ErrorCode: {}, Message: {}", 
-                        portfolioEx.getErrorCode(), portfolioEx.getMessage());
-            }
-            return false;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("🏦 PORTFOLIO: Trade confirmation interrupted → TradeId: {}", trade.getTradeId(), e);
-            return false;
-        } catch (Exception e) {
-            log.error("🏦 PORTFOLIO: Unexpected error during trade confirmation → TradeId: {}", trade.getTradeId(), e);
-            return false;
+        @Override
+        public boolean onCancel(Long orderId, String symbol) {
+            return processCancel(orderId, symbol);
         }
-    }
-    
-    /**
-     * AUTO-CONFIRM: Automatically confirm filled order in Portfolio Service
-     * This method is called when an order is marked as FILLED to automatically
-     * call the appropriate Portfolio Service confirm endpoint.
-     */
-    private void autoConfirmFilledOrder(Order filledOrder, Trade trade) {
-        try {
-            log.info("🤖 AUTO-CONFIRM: Processing filled order → OrderId: {}, Side: {}, Quantity: {}", 
-                    filledOrder.getOrderId(), filledOrder.getSide(), filledOrder.getQuantity());
-            
-            // Skip auto-confirm for bot orders (account ID contains "BOT")
-            String accountIdStr = String.valueOf(filledOrder.getAccountId());
-            if (accountIdStr.contains("BOT")) {
-                log.info("🤖 AUTO-CONFIRM: Skipping auto-confirm for BOT order → OrderId: {}", filledOrder.getOrderId());
-                return;
-            }
-            
-            CompletableFuture<PortfolioResponse> confirmationFuture;
-            
-            if (filledOrder.getSide() == OrderSide.BUY) {
-                if (filledOrder.getStatus() == OrderStatus.FILLED) {
-                    // FULLY FILLED - Use normal confirmBuyTrade
-                    TradeConfirmationRequest buyRequest = TradeConfirmationRequest.builder()
-                            .tradeId(trade.getTradeId())
-                            .orderId(filledOrder.getOrderId())
-                            .executedQuantity(trade.getQuantity().intValue())  // Trade quantity
-                            .executedPrice(trade.getPrice())
-                            .build();
-                    
-                    log.info("🤖 AUTO-CONFIRM (ORDER BOOK): Confirming FULLY FILLED BUY order → {}", buyRequest);
-                    confirmationFuture = portfolioClient.confirmBuyTrade(buyRequest);
-                } else if (filledOrder.getStatus() == OrderStatus.PARTIALLY_FILLED) {
-                    // PARTIALLY FILLED - Use confirmPartialBuyTrade
-                    PartialTradeConfirmationRequest partialBuyRequest = PartialTradeConfirmationRequest.builder()
-                            .tradeId(trade.getTradeId())
-                            .orderId(filledOrder.getOrderId())
-                            .partialQuantity(trade.getQuantity().intValue())  // Actually filled quantity in this trade
-                            .remainingQuantity(filledOrder.getRemainingQuantity().intValue())
-                            .executedPrice(trade.getPrice())
-                            .build();
-                    
-                    log.info("🤖 AUTO-CONFIRM (ORDER BOOK): Confirming PARTIALLY FILLED BUY order → {}", partialBuyRequest);
-                    confirmationFuture = portfolioClient.confirmPartialBuyTrade(partialBuyRequest);
-                } else {
-                    log.warn("🤖 AUTO-CONFIRM (ORDER BOOK): Unexpected order status for BUY order → OrderId: {}, Status: {}", 
-                            filledOrder.getOrderId(), filledOrder.getStatus());
-                    return;
-                }
-            } else {
-                if (filledOrder.getStatus() == OrderStatus.FILLED) {
-                    // FULLY FILLED - Use normal confirmSellTrade
-                    TradeConfirmationRequest sellRequest = TradeConfirmationRequest.builder()
-                            .tradeId(trade.getTradeId())
-                            .orderId(filledOrder.getOrderId())
-                            .executedQuantity(trade.getQuantity().intValue())  // Trade quantity
-                            .executedPrice(trade.getPrice())
-                            .build();
-                    
-                    log.info("🤖 AUTO-CONFIRM (ORDER BOOK): Confirming FULLY FILLED SELL order → {}", sellRequest);
-                    confirmationFuture = portfolioClient.confirmSellTrade(sellRequest);
-                } else if (filledOrder.getStatus() == OrderStatus.PARTIALLY_FILLED) {
-                    // PARTIALLY FILLED - Use confirmPartialSellTrade
-                    PartialTradeConfirmationRequest partialSellRequest = PartialTradeConfirmationRequest.builder()
-                            .tradeId(trade.getTradeId())
-                            .orderId(filledOrder.getOrderId())
-                            .partialQuantity(trade.getQuantity().intValue())  // Actually filled quantity in this trade
-                            .remainingQuantity(filledOrder.getRemainingQuantity().intValue())
-                            .executedPrice(trade.getPrice())
-                            .build();
-                    
-                    log.info("🤖 AUTO-CONFIRM (ORDER BOOK): Confirming PARTIALLY FILLED SELL order → {}", partialSellRequest);
-                    confirmationFuture = portfolioClient.confirmPartialSellTrade(partialSellRequest);
-                } else {
-                    log.warn("🤖 AUTO-CONFIRM (ORDER BOOK): Unexpected order status for SELL order → OrderId: {}, Status: {}", 
-                            filledOrder.getOrderId(), filledOrder.getStatus());
-                    return;
-                }
-            }
-            
-            // Execute confirmation asynchronously without blocking
-            confirmationFuture.thenAccept(response -> {
-                if (response.isSuccess()) {
-                    log.info("✅ AUTO-CONFIRM: Order confirmation successful → OrderId: {}", filledOrder.getOrderId());
-                } else {
-                    log.error("❌ AUTO-CONFIRM: Order confirmation failed → OrderId: {}, Error: {}", 
-                            filledOrder.getOrderId(), response.getMessage());
-                }
-            }).exceptionally(throwable -> {
-                log.error("🚨 AUTO-CONFIRM: Exception during order confirmation → OrderId: {}, Error: {}", 
-                        filledOrder.getOrderId(), throwable.getMessage());
-                return null;
-            });
-            
-        } catch (Exception e) {
-            log.error("🚨 AUTO-CONFIRM: Unexpected error during auto-confirm → OrderId: {}, Error: {}", 
-                    filledOrder.getOrderId(), e.getMessage());
+        
+        @Override
+        public boolean onAmend(Order oldOrder, Order newOrder) {
+            return processAmend(oldOrder, newOrder);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,203 @@
+package com.stofina.app.orderservice.service.impl;
+
+import com.stofina.app.orderservice.config.OrderBookConfig;
+import com.stofina.app.orderservice.model.StopLossWatcherStateUpdate;
+import com.stofina.app.orderservice.repository.StopLossWatcherRepository;
+import com.stofina.app.orderservice.service.StopLossPersistenceService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StopLossPersistenceServiceImpl implements StopLossPersistenceService {
+
+    private static final long FLUSH_TIMEOUT_MILLIS = 5000;
+
+    private final StopLossWatcherRepository stopLossWatcherRepository;
+    private final TransactionOperations transactionOperations;
+    private final OrderBookConfig orderBookConfig;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushNeeded = lock.newCondition();
+    private final Condition flushCompleted = lock.newCondition();
+
+    // Guarded by lock; swapped out as a whole by the flusher
+    private Map<Long, StopLossWatcherStateUpdate> pending = new LinkedHashMap<>();
+    private long recordedSeq;
+    private long flushedSeq;
+    private boolean flushRequested;
+
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "stop-loss-persistence-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        OrderBookConfig.StopLossConfig config = orderBookConfig.getStopLoss();
+        log.info("🛑 STOP LOSS: Write-behind started → BatchSize: {}, FlushInterval: {}ms",
+                config.getBatchSize(), config.getFlushIntervalMillis());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        lock.lock();
+        try {
+            flushNeeded.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(FLUSH_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (getPendingCount() > 0) {
+            log.error("🚨 STOP LOSS: Shutting down with {} unwritten watcher updates", getPendingCount());
+        }
+    }
+
+    @Override
+    public void recordState(StopLossWatcherStateUpdate update) {
+        lock.lock();
+        try {
+            // Re-inserting keeps the first-seen position; only the latest state is written
+            pending.put(update.getOrderId(), update);
+            recordedSeq++;
+            if (pending.size() >= orderBookConfig.getStopLoss().getBatchSize()) {
+                flushNeeded.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void flush() {
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(FLUSH_TIMEOUT_MILLIS);
+        lock.lock();
+        try {
+            long target = recordedSeq;
+            if (flushedSeq >= target) {
+                return;
+            }
+            flushRequested = true;
+            flushNeeded.signal();
+            while (flushedSeq < target) {
+                if (timeoutNanos <= 0) {
+                    log.error("🚨 STOP LOSS: Timed out waiting for watcher flush → Pending: {}", pending.size());
+                    return;
+                }
+                timeoutNanos = flushCompleted.awaitNanos(timeoutNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runFlusher() {
+        OrderBookConfig.StopLossConfig config = orderBookConfig.getStopLoss();
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMillis());
+
+        while (running || getPendingCount() > 0) {
+            Map<Long, StopLossWatcherStateUpdate> batch;
+            long batchSeq;
+
+            lock.lock();
+            try {
+                long waitNanos = intervalNanos;
+                while (running && !flushRequested && pending.size() < config.getBatchSize() && waitNanos > 0) {
+                    waitNanos = flushNeeded.awaitNanos(waitNanos);
+                }
+                flushRequested = false;
+                if (pending.isEmpty()) {
+                    flushedSeq = recordedSeq;
+                    flushCompleted.signalAll();
+                    continue;
+                }
+
+                batch = pending;
+                batchSeq = recordedSeq;
+                pending = new LinkedHashMap<>();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            boolean written = write(batch, config.getBatchSize());
+
+            lock.lock();
+            try {
+                if (written) {
+                    flushedSeq = batchSeq;
+                    flushCompleted.signalAll();
+                } else {
+                    // Newer states recorded meanwhile win over the failed batch
+                    flushRequested = true;
+                    batch.putAll(pending);
+                    pending = batch;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (!written && !running) {
+                break;
+            }
+            if (!written) {
+                sleepQuietly(config.getFlushIntervalMillis());
+            }
+        }
+    }
+
+    private boolean write(Map<Long, StopLossWatcherStateUpdate> batch, int batchSize) {
+        long start = System.nanoTime();
+        try {
+            transactionOperations.executeWithoutResult(status ->
+                    stopLossWatcherRepository.batchUpdateState(batch.values(), batchSize));
+            log.debug("🛑 STOP LOSS: Flushed {} watcher updates in {}µs",
+                    batch.size(), TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            return true;
+        } catch (Exception e) {
+            log.error("❌ STOP LOSS: Flush of {} watcher updates failed, will retry: {}", batch.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
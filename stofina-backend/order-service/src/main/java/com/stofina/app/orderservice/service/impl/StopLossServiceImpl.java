@@ -1,15 +1,20 @@
 package com.stofina.app.orderservice.service.impl;
 
 import com.stofina.app.orderservice.common.ServiceResult;
+import com.stofina.app.orderservice.config.OrderBookConfig;
 import com.stofina.app.orderservice.entity.Order;
 import com.stofina.app.orderservice.entity.StopLossWatcher;
 import com.stofina.app.orderservice.enums.OrderSide;
 import com.stofina.app.orderservice.enums.OrderStatus;
 import com.stofina.app.orderservice.enums.OrderType;
 import com.stofina.app.orderservice.model.SimpleStopLossWatcher;
+import com.stofina.app.orderservice.model.StopLossTriggerIndex;
+import com.stofina.app.orderservice.model.StopLossWatcherStateUpdate;
+import com.stofina.app.orderservice.repository.OrderRepository;
 import com.stofina.app.orderservice.repository.StopLossWatcherRepository;
 import com.stofina.app.orderservice.service.IOrderService;
 import com.stofina.app.orderservice.service.IStopLossService;
+import com.stofina.app.orderservice.service.StopLossPersistenceService;
 import com.stofina.app.orderservice.service.client.PortfolioClient;
 import com.stofina.app.orderservice.dto.portfolio.SellStockRequest;
 import com.stofina.app.orderservice.dto.portfolio.OrderCancellationRequest;
@@ -27,7 +32,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
@@ -38,12 +42,21 @@ public class StopLossServiceImpl implements IStopLossService {
 
     private final IOrderService orderService;
     private final StopLossWatcherRepository stopLossWatcherRepository;
+    private final StopLossPersistenceService stopLossPersistenceService;
+    private final OrderRepository orderRepository;
+    private final OrderBookConfig orderBookConfig;
     
     // CHECKPOINT 3.4 - Portfolio Service integration for stop loss validation
     private final PortfolioClient portfolioClient;
 
-    // Thread-safe in-memory cache (database ile senkronize)
-    private final List<SimpleStopLossWatcher> stopLossWatchers = new CopyOnWriteArrayList<>();
+    // Thread-safe in-memory cache (database ile senkronize), sembol bazında tetik fiyatına göre sıralı
+    private final StopLossTriggerIndex stopLossWatchers = new StopLossTriggerIndex();
+    
+    private static final String TRIGGERED_CLIENT_ORDER_PREFIX = "STOP_TRIGGERED_";
+    private static final List<OrderStatus> CLOSED_ORDER_STATUSES =
+            List.of(OrderStatus.FILLED, OrderStatus.CANCELLED, OrderStatus.REJECTED, OrderStatus.EXPIRED);
+    // SQL Server accepts at most 2100 parameters per statement
+    private static final int RECONCILE_CHUNK_SIZE = 1000;
     
     // Startup'ta database'den watcher'ları yükle
     @EventListener(ApplicationReadyEvent.class)
@@ -51,11 +64,14 @@ public class StopLossServiceImpl implements IStopLossService {
         log.info("🔄 Loading stop loss watchers from database...");
         try {
             List<StopLossWatcher> dbWatchers = stopLossWatcherRepository.findByActiveTrueAndTriggeredFalse();
+            List<SimpleStopLossWatcher> loaded = dbWatchers.stream().map(this::convertToSimpleWatcher).toList();
+            Set<Long> reconciled = reconcileWithOrders(loaded);
             stopLossWatchers.clear();
             
-            for (StopLossWatcher dbWatcher : dbWatchers) {
-                SimpleStopLossWatcher simpleWatcher = convertToSimpleWatcher(dbWatcher);
-                stopLossWatchers.add(simpleWatcher);
+            for (SimpleStopLossWatcher simpleWatcher : loaded) {
+                if (!reconciled.contains(simpleWatcher.getOrderId())) {
+                    stopLossWatchers.add(simpleWatcher);
+                }
             }
             
             log.info("✅ Loaded {} stop loss watchers from database", stopLossWatchers.size());
@@ -92,38 +108,46 @@ public class StopLossServiceImpl implements IStopLossService {
 
     @Override
     public ServiceResult<List<Order>> checkPrice(String symbol, BigDecimal currentPrice) {
+        return checkPrice(symbol, currentPrice, currentPrice);
+    }
+
+    /**
+     * Only watchers whose trigger price is at or above the lowest price are visited; the rest of the
+     * symbol's watchers and every other symbol's watchers are not touched on this tick.
+     */
+    @Override
+    public ServiceResult<List<Order>> checkPrice(String symbol, BigDecimal lowestPrice, BigDecimal currentPrice) {
         List<Order> triggeredOrders = new ArrayList<>();
 
-        log.info("🔍 STOP LOSS ENTRY - Symbol: {}, Price: {}, Total Watchers: {}", 
-                 symbol, currentPrice, stopLossWatchers.size());
-        
-        Iterator<SimpleStopLossWatcher> iterator = stopLossWatchers.iterator();
-        int watcherIndex = 0;
-        while (iterator.hasNext()) {
-            SimpleStopLossWatcher watcher = iterator.next();
-            watcherIndex++;
-            
-            log.info("🔍 CHECKING WATCHER #{} - OrderId: {}, Symbol: {}, TriggerPrice: {}", 
-                     watcherIndex, watcher.getOrderId(), watcher.getSymbol(), watcher.getTriggerPrice());
-
-            if (shouldTrigger(watcher, symbol, currentPrice)) {
-                Order triggeredOrder = triggerStopLoss(watcher, currentPrice);
-                if (triggeredOrder != null) {
-                    triggeredOrders.add(triggeredOrder);
-                    iterator.remove(); // Tetiklenen watcher'ı listeden çıkar
-                }
-            } else {
-                // Check count'u artır ve son kontrol zamanını güncelle
-                updateWatcherActivity(watcher);
+        List<SimpleStopLossWatcher> crossed = stopLossWatchers.claimTriggered(symbol, lowestPrice.min(currentPrice));
+        log.debug("🔍 STOP LOSS ENTRY - Symbol: {}, Price: {}, Crossed: {}, Total Watchers: {}",
+                 symbol, currentPrice, crossed.size(), stopLossWatchers.size());
+
+        for (SimpleStopLossWatcher watcher : crossed) {
+            Order triggeredOrder = triggerStopLoss(watcher, currentPrice);
+            if (triggeredOrder != null) {
+                triggeredOrders.add(triggeredOrder);
+                stopLossWatchers.remove(watcher.getOrderId()); // Tetiklenen watcher'ı listeden çıkar
+            } else if (!watcher.isTriggered()) {
+                // Tetikleme başlamadan hata aldı, sonraki fiyatta tekrar denenecek
+                stopLossWatchers.rearm(watcher);
             }
         }
+        
+        // Tetiklenmeyen watcher'ların kontrol sayaçları aralıklarla toplu yazılır
+        for (SimpleStopLossWatcher watcher : stopLossWatchers.syncActivity(symbol,
+                orderBookConfig.getStopLoss().getActivitySyncIntervalMillis())) {
+            stopLossPersistenceService.recordState(StopLossWatcherStateUpdate.of(watcher, true));
+        }
 
         String message = triggeredOrders.isEmpty()
                 ? String.format("Symbol %s için hiçbir stop-loss tetiklenmedi. (Fiyat: %s)", symbol, currentPrice)
                 : String.format("%d stop-loss emri tetiklendi. (Symbol: %s, Fiyat: %s)",
                 triggeredOrders.size(), symbol, currentPrice);
 
-        log.info("🔍 STOP LOSS EXIT - {}", message);
+        if (!triggeredOrders.isEmpty()) {
+            log.info("🔍 STOP LOSS EXIT - {}", message);
+        }
         return ServiceResult.success(triggeredOrders, message);
     }
 
@@ -131,6 +155,14 @@ public class StopLossServiceImpl implements IStopLossService {
     @Transactional
     public ServiceResult<Boolean> remove(Long orderId) {
         try {
+            // Bellekteki watcher'lar için soft delete toplu yazılır
+            SimpleStopLossWatcher removedWatcher = stopLossWatchers.remove(orderId);
+            if (removedWatcher != null) {
+                stopLossPersistenceService.recordState(StopLossWatcherStateUpdate.of(removedWatcher, false));
+                log.info("Stop-loss watcher silindi. OrderId: {}", orderId);
+                return ServiceResult.success(true, "Stop-loss takibi durduruldu.");
+            }
+            
             // Database'den soft delete
             Optional<StopLossWatcher> dbWatcher = stopLossWatcherRepository.findByOrderIdAndActiveTrue(orderId);
             if (dbWatcher.isPresent()) {
@@ -138,9 +170,6 @@ public class StopLossServiceImpl implements IStopLossService {
                 watcher.setActive(false);
                 stopLossWatcherRepository.save(watcher);
                 
-                // In-memory cache'den kaldır
-                boolean removed = stopLossWatchers.removeIf(w -> Objects.equals(w.getOrderId(), orderId));
-                
                 log.info("Stop-loss watcher silindi. WatcherId: {}, OrderId: {}", watcher.getWatcherId(), orderId);
                 return ServiceResult.success(true, "Stop-loss takibi durduruldu.");
             } else {
@@ -155,14 +184,12 @@ public class StopLossServiceImpl implements IStopLossService {
 
     @Override
     public ServiceResult<Boolean> isWatching(Long orderId) {
-        boolean exists = stopLossWatchers.stream()
-                .anyMatch(watcher -> Objects.equals(watcher.getOrderId(), orderId));
-        return ServiceResult.success(exists);
+        return ServiceResult.success(stopLossWatchers.contains(orderId));
     }
 
     @Override
     public ServiceResult<List<Order>> getAllWatched() {
-        List<Order> watchedOrders = stopLossWatchers.stream()
+        List<Order> watchedOrders = stopLossWatchers.all().stream()
                 .map(this::convertWatcherToOrder)
                 .toList();
 
@@ -174,10 +201,7 @@ public class StopLossServiceImpl implements IStopLossService {
     //Belirli sembol için takip edilen stop-loss sayısını döndürür
 
     public ServiceResult<Integer> getWatchedCountBySymbol(String symbol) {
-        int count = (int) stopLossWatchers.stream()
-                .filter(watcher -> symbol.equals(watcher.getSymbol()))
-                .count();
-        return ServiceResult.success(count);
+        return ServiceResult.success(stopLossWatchers.countBySymbol(symbol));
     }
 
     //Süresi dolmuş watcher'ları temizler (örn: 24 saatten eski)
@@ -185,15 +209,7 @@ public class StopLossServiceImpl implements IStopLossService {
     public ServiceResult<Integer> cleanupExpiredWatchers() {
         LocalDateTime cutoffTime = LocalDateTime.now().minusDays(1);
 
-        int removedCount = 0;
-        Iterator<SimpleStopLossWatcher> iterator = stopLossWatchers.iterator();
-        while (iterator.hasNext()) {
-            SimpleStopLossWatcher watcher = iterator.next();
-            if (watcher.getCreatedAt().isBefore(cutoffTime)) {
-                iterator.remove();
-                removedCount++;
-            }
-        }
+        int removedCount = stopLossWatchers.removeIf(watcher -> watcher.getCreatedAt().isBefore(cutoffTime));
 
         if (removedCount > 0) {
             log.info("Süresi dolmuş {} stop-loss watcher temizlendi.", removedCount);
@@ -242,31 +258,11 @@ public class StopLossServiceImpl implements IStopLossService {
         return watcher;
     }
 
-    private boolean shouldTrigger(SimpleStopLossWatcher watcher, String symbol, BigDecimal currentPrice) {
-        boolean isNotTriggered = !watcher.isTriggered();
-        boolean symbolMatch = watcher.getSymbol().equals(symbol);
-        boolean priceBelow = currentPrice.compareTo(watcher.getTriggerPrice()) <= 0;
-        
-        log.info("🔍 STOP LOSS DEBUG - OrderId: {}, Symbol: {} vs {}, Price: {} vs {}, NotTriggered: {}, SymbolMatch: {}, PriceBelow: {}", 
-                 watcher.getOrderId(), symbol, watcher.getSymbol(), currentPrice, watcher.getTriggerPrice(), 
-                 isNotTriggered, symbolMatch, priceBelow);
-        
-        return isNotTriggered && symbolMatch && priceBelow;
-    }
-
-    @Transactional
     public Order triggerStopLoss(SimpleStopLossWatcher watcher, BigDecimal currentPrice) {
         try {
-            // Database'de watcher'ı tetiklenmiş olarak işaretle
-            Optional<StopLossWatcher> dbWatcherOpt = stopLossWatcherRepository.findByOrderIdAndActiveTrue(watcher.getOrderId());
-            if (dbWatcherOpt.isPresent()) {
-                StopLossWatcher dbWatcher = dbWatcherOpt.get();
-                dbWatcher.setTriggered(true);
-                stopLossWatcherRepository.save(dbWatcher);
-            }
-            
-            // In-memory watcher'ı da güncelle
+            // Watcher'ı tetiklenmiş olarak işaretle; database'e toplu yazılır
             watcher.setTriggered(true);
+            stopLossPersistenceService.recordState(StopLossWatcherStateUpdate.of(watcher, true));
 
             // Yeni LIMIT_SELL emri oluştur
             Order limitSellOrder = createLimitSellOrder(watcher, currentPrice);
@@ -410,6 +406,54 @@ public class StopLossServiceImpl implements IStopLossService {
         }
     }
 
+    /**
+     * Startup check for state the write-behind flusher may have lost in a crash. A watcher whose
+     * LIMIT_SELL was already created is marked triggered instead of firing a second time, and one whose
+     * original order is closed is soft deleted.
+     * @return order ids of the watchers that must not be armed
+     */
+    private Set<Long> reconcileWithOrders(List<SimpleStopLossWatcher> watchers) {
+        Set<Long> reconciled = new HashSet<>();
+        if (watchers.isEmpty()) {
+            return reconciled;
+        }
+        
+        Map<Long, SimpleStopLossWatcher> byOrderId = new HashMap<>();
+        watchers.forEach(watcher -> byOrderId.put(watcher.getOrderId(), watcher));
+        List<Long> orderIds = new ArrayList<>(byOrderId.keySet());
+        
+        int alreadyTriggered = 0;
+        int closed = 0;
+        for (int from = 0; from < orderIds.size(); from += RECONCILE_CHUNK_SIZE) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + RECONCILE_CHUNK_SIZE, orderIds.size()));
+            
+            List<String> clientOrderIds = chunk.stream().map(id -> TRIGGERED_CLIENT_ORDER_PREFIX + id).toList();
+            for (String clientOrderId : orderRepository.findExistingClientOrderIds(clientOrderIds)) {
+                Long orderId = Long.valueOf(clientOrderId.substring(TRIGGERED_CLIENT_ORDER_PREFIX.length()));
+                SimpleStopLossWatcher watcher = byOrderId.get(orderId);
+                if (watcher != null && reconciled.add(orderId)) {
+                    watcher.setTriggered(true);
+                    stopLossPersistenceService.recordState(StopLossWatcherStateUpdate.of(watcher, true));
+                    alreadyTriggered++;
+                }
+            }
+            
+            for (Long orderId : orderRepository.findOrderIdsByStatusIn(chunk, CLOSED_ORDER_STATUSES)) {
+                if (reconciled.add(orderId)) {
+                    stopLossPersistenceService.recordState(StopLossWatcherStateUpdate.of(byOrderId.get(orderId), false));
+                    closed++;
+                }
+            }
+        }
+        
+        if (!reconciled.isEmpty()) {
+            stopLossPersistenceService.flush();
+            log.warn("🔄 Reconciled stop loss watchers with orders → AlreadyTriggered: {}, OriginalOrderClosed: {}",
+                    alreadyTriggered, closed);
+        }
+        return reconciled;
+    }
+
     private void updateOriginalOrderStatus(Long orderId, OrderStatus newStatus) {
         try {
             orderService.updateOrderStatus(orderId, newStatus);
@@ -419,11 +463,6 @@ public class StopLossServiceImpl implements IStopLossService {
         }
     }
 
-    private void updateWatcherActivity(SimpleStopLossWatcher watcher) {
-        watcher.setLastCheckAt(LocalDateTime.now());
-        watcher.setCheckCount(watcher.getCheckCount() + 1);
-    }
-
     private Order convertWatcherToOrder(SimpleStopLossWatcher watcher) {
         Order order = new Order();
         order.setOrderId(watcher.getOrderId());
@@ -0,0 +1,355 @@
+package com.stofina.app.orderservice.service.impl;
+
+import com.stofina.app.orderservice.config.OrderBookConfig;
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.entity.Trade;
+import com.stofina.app.orderservice.model.OrderStateUpdate;
+import com.stofina.app.orderservice.repository.OrderRepository;
+import com.stofina.app.orderservice.repository.TradeRepository;
+import com.stofina.app.orderservice.service.TradePersistenceService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TradePersistenceServiceImpl implements TradePersistenceService {
+
+    private final TradeRepository tradeRepository;
+    private final OrderRepository orderRepository;
+    private final TransactionOperations transactionOperations;
+    private final OrderBookConfig orderBookConfig;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushNeeded = lock.newCondition();
+    private final Condition flushCompleted = lock.newCondition();
+
+    // Guarded by lock; swapped out as a whole by the flusher
+    private List<Trade> pendingTrades = new ArrayList<>();
+    private Map<Long, OrderStateUpdate> pendingOrders = new LinkedHashMap<>();
+    private long recordedSeq;
+    private long flushedSeq;
+    private boolean flushRequested;
+    // Completed once flushedSeq reaches their key; one future per recorded sequence waited on
+    private final NavigableMap<Long, CompletableFuture<Void>> durableWaiters = new TreeMap<>();
+    // Failed flushes of the batch at the head of the queue; only touched by the flusher
+    private int failedAttempts;
+
+    private Thread flusher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "trade-persistence-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        OrderBookConfig.PersistenceConfig config = orderBookConfig.getPersistence();
+        log.info("💾 PERSISTENCE: Write-behind started → Durability: {}, BatchSize: {}, FlushInterval: {}ms",
+                config.getDurability(), config.getBatchSize(), config.getFlushIntervalMillis());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        lock.lock();
+        try {
+            flushNeeded.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(orderBookConfig.getPersistence().getSyncTimeoutMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (getPendingCount() > 0) {
+            log.error("🚨 PERSISTENCE: Shutting down with {} unwritten records", getPendingCount());
+        }
+        List<CompletableFuture<Void>> waiting;
+        lock.lock();
+        try {
+            waiting = new ArrayList<>(durableWaiters.values());
+            durableWaiters.clear();
+        } finally {
+            lock.unlock();
+        }
+        waiting.forEach(waiter -> waiter.completeExceptionally(
+                new IllegalStateException("Trade persistence stopped before the records were written")));
+    }
+
+    @Override
+    public void recordTrade(Trade trade) {
+        lock.lock();
+        try {
+            pendingTrades.add(trade);
+            recorded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void recordOrderUpdate(Order order) {
+        OrderStateUpdate update = OrderStateUpdate.of(order);
+        lock.lock();
+        try {
+            // Re-inserting keeps the first-seen position; only the latest state is written
+            pendingOrders.put(update.getOrderId(), update);
+            recorded();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> whenDurable() {
+        if (!orderBookConfig.getPersistence().getDurability().isSync()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> waiter;
+        lock.lock();
+        try {
+            long target = recordedSeq;
+            if (flushedSeq >= target) {
+                return CompletableFuture.completedFuture(null);
+            }
+            flushRequested = true;
+            flushNeeded.signal();
+            waiter = durableWaiters.computeIfAbsent(target, seq -> new CompletableFuture<>());
+        } finally {
+            lock.unlock();
+        }
+        // Like flush(), stop waiting after the sync timeout; the records stay queued and are still written
+        CompletableFuture<Void> acknowledged = waiter.copy();
+        CompletableFuture.delayedExecutor(orderBookConfig.getPersistence().getSyncTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .execute(() -> {
+                    if (acknowledged.complete(null)) {
+                        log.error("🚨 PERSISTENCE: Timed out waiting for flush → Pending: {}", getPendingCount());
+                    }
+                });
+        return acknowledged;
+    }
+
+    @Override
+    public void awaitDurable() {
+        if (orderBookConfig.getPersistence().getDurability().isSync()) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(orderBookConfig.getPersistence().getSyncTimeoutMillis());
+        lock.lock();
+        try {
+            long target = recordedSeq;
+            if (flushedSeq >= target) {
+                return;
+            }
+            flushRequested = true;
+            flushNeeded.signal();
+            while (flushedSeq < target) {
+                if (timeoutNanos <= 0) {
+                    log.error("🚨 PERSISTENCE: Timed out waiting for flush → Pending: {}", pendingSize());
+                    return;
+                }
+                timeoutNanos = flushCompleted.awaitNanos(timeoutNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pendingSize();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recorded() {
+        recordedSeq++;
+        if (pendingSize() >= orderBookConfig.getPersistence().getBatchSize()) {
+            flushNeeded.signal();
+        }
+    }
+
+    private int pendingSize() {
+        return pendingTrades.size() + pendingOrders.size();
+    }
+
+    private void runFlusher() {
+        OrderBookConfig.PersistenceConfig config = orderBookConfig.getPersistence();
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getFlushIntervalMillis());
+
+        while (running || getPendingCount() > 0) {
+            List<Trade> trades;
+            Map<Long, OrderStateUpdate> orders;
+            long batchSeq;
+            List<CompletableFuture<Void>> durable = List.of();
+
+            lock.lock();
+            try {
+                long waitNanos = intervalNanos;
+                while (running && !flushRequested && pendingSize() < config.getBatchSize() && waitNanos > 0) {
+                    waitNanos = flushNeeded.awaitNanos(waitNanos);
+                }
+                flushRequested = false;
+                if (pendingSize() == 0) {
+                    durable = flushedUpTo(recordedSeq);
+                    trades = null;
+                    orders = null;
+                    batchSeq = recordedSeq;
+                } else {
+                    trades = pendingTrades;
+                    orders = pendingOrders;
+                    batchSeq = recordedSeq;
+                    pendingTrades = new ArrayList<>();
+                    pendingOrders = new LinkedHashMap<>();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            if (trades == null) {
+                durable.forEach(waiter -> waiter.complete(null));
+                continue;
+            }
+
+            boolean written = write(trades, orders, config.getBatchSize());
+            if (written) {
+                failedAttempts = 0;
+            } else if (++failedAttempts >= config.getMaxFlushAttempts()) {
+                // Write around a record that keeps failing so it does not hold back everything behind it;
+                // whatever still fails stays queued and is retried, nothing is ever dropped
+                writeOneByOne(trades, orders);
+                written = trades.isEmpty() && orders.isEmpty();
+                if (written) {
+                    failedAttempts = 0;
+                }
+            }
+
+            lock.lock();
+            try {
+                if (written) {
+                    durable = flushedUpTo(batchSeq);
+                } else {
+                    requeue(trades, orders);
+                }
+            } finally {
+                lock.unlock();
+            }
+            // Completed outside the lock: the waiters' callers continue on this thread
+            durable.forEach(waiter -> waiter.complete(null));
+
+            if (!written && !running) {
+                break;
+            }
+            if (!written) {
+                sleepQuietly(retryBackoffMillis(config));
+            }
+        }
+    }
+
+    // Call with the lock held; returns the durability waiters now satisfied, to be completed after unlocking
+    private List<CompletableFuture<Void>> flushedUpTo(long seq) {
+        flushedSeq = seq;
+        flushCompleted.signalAll();
+        NavigableMap<Long, CompletableFuture<Void>> reached = durableWaiters.headMap(seq, true);
+        if (reached.isEmpty()) {
+            return List.of();
+        }
+        List<CompletableFuture<Void>> waiters = new ArrayList<>(reached.values());
+        reached.clear();
+        return waiters;
+    }
+
+    private boolean write(List<Trade> trades, Map<Long, OrderStateUpdate> orders, int batchSize) {
+        long start = System.nanoTime();
+        try {
+            transactionOperations.executeWithoutResult(status -> {
+                tradeRepository.batchInsert(trades, batchSize);
+                orderRepository.batchUpdateState(orders.values(), batchSize);
+            });
+            log.debug("💾 PERSISTENCE: Flushed {} trades and {} order updates in {}µs",
+                    trades.size(), orders.size(), TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+            return true;
+        } catch (Exception e) {
+            log.error("❌ PERSISTENCE: Flush of {} trades and {} order updates failed, will retry: {}",
+                    trades.size(), orders.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    // Removes the records that were written, leaving only the ones that failed
+    private void writeOneByOne(List<Trade> trades, Map<Long, OrderStateUpdate> orders) {
+        log.error("🚨 PERSISTENCE: Batch failed {} times, writing {} trades and {} order updates one by one",
+                failedAttempts, trades.size(), orders.size());
+        trades.removeIf(trade -> {
+            try {
+                transactionOperations.executeWithoutResult(status -> tradeRepository.batchInsert(List.of(trade), 1));
+                return true;
+            } catch (Exception e) {
+                log.error("☠️ PERSISTENCE: Trade cannot be written, keeping it for retry → {}, Error: {}", trade, e.getMessage());
+                return false;
+            }
+        });
+        orders.values().removeIf(update -> {
+            try {
+                transactionOperations.executeWithoutResult(status -> orderRepository.batchUpdateState(List.of(update), 1));
+                return true;
+            } catch (Exception e) {
+                log.error("☠️ PERSISTENCE: Order update cannot be written, keeping it for retry → {}, Error: {}", update, e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    // Doubles with every failed flush, capped so an outage is retried at a steady pace
+    private long retryBackoffMillis(OrderBookConfig.PersistenceConfig config) {
+        int doublings = Math.min(failedAttempts, 16);
+        return Math.min(config.getFlushIntervalMillis() << doublings, config.getMaxRetryBackoffMillis());
+    }
+
+    // Put a failed batch back in front of anything recorded meanwhile; newer order states win.
+    // The retry runs after the backoff instead of waiting for the next flush window.
+    private void requeue(List<Trade> trades, Map<Long, OrderStateUpdate> orders) {
+        flushRequested = true;
+        trades.addAll(pendingTrades);
+        pendingTrades = trades;
+        orders.putAll(pendingOrders);
+        pendingOrders = orders;
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
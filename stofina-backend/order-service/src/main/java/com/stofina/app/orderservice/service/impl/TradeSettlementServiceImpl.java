@@ -0,0 +1,649 @@
+package com.stofina.app.orderservice.service.impl;
+
+import com.stofina.app.orderservice.config.OrderBookConfig;
+import com.stofina.app.orderservice.dto.portfolio.OrderCancellationRequest;
+import com.stofina.app.orderservice.dto.portfolio.PortfolioResponse;
+import com.stofina.app.orderservice.dto.portfolio.TradeConfirmationItem;
+import com.stofina.app.orderservice.dto.portfolio.TradeConfirmationResult;
+import com.stofina.app.orderservice.dto.portfolio.TradeConfirmationType;
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.entity.Trade;
+import com.stofina.app.orderservice.enums.OrderSide;
+import com.stofina.app.orderservice.enums.OrderStatus;
+import com.stofina.app.orderservice.enums.OrderType;
+import com.stofina.app.orderservice.exception.portfolio.PortfolioServiceException;
+import com.stofina.app.orderservice.service.CompensationService;
+import com.stofina.app.orderservice.service.TradeSettlementService;
+import com.stofina.app.orderservice.service.client.PortfolioClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Settlement lanes: each task is routed to a fixed lane by the account it confirms, so the
+ * confirmations of one account are sent in the order the matcher produced them. A trade
+ * between two users is split into one confirmation per side, each on its own account's lane;
+ * the trade counts as settled, or is compensated, once both sides have reported.
+ * <p>
+ * A lane drains the tasks waiting in its queue and confirms them with one batch call, so a slow
+ * portfolio service costs one wait per batch instead of one per confirmation.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TradeSettlementServiceImpl implements TradeSettlementService {
+
+    private final PortfolioClient portfolioClient;
+    private final CompensationService compensationService;
+    private final OrderBookConfig orderBookConfig;
+
+    // One single-threaded lane per worker; at most one batch per lane is in flight
+    private final List<SettlementLane> lanes = new ArrayList<>();
+    private volatile boolean running;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong settled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong compensated = new AtomicLong();
+    private final AtomicLong compensationFailed = new AtomicLong();
+    private final AtomicLong lastSettlementLagNanos = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        OrderBookConfig.SettlementConfig config = orderBookConfig.getSettlement();
+        int laneCapacity = Math.max(1, config.getQueueCapacity() / Math.max(1, config.getWorkers()));
+        running = true;
+        for (int i = 0; i < Math.max(1, config.getWorkers()); i++) {
+            SettlementLane lane = new SettlementLane(i, laneCapacity);
+            lane.thread.start();
+            lanes.add(lane);
+        }
+        log.info("🏦 SETTLEMENT: Started {} settlement lanes (queue capacity {} per lane)",
+                lanes.size(), laneCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        long deadline = System.currentTimeMillis() + orderBookConfig.getSettlement().getShutdownTimeoutMillis();
+        for (SettlementLane lane : lanes) {
+            try {
+                lane.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        int unsettled = queueDepth();
+        lanes.clear();
+        if (unsettled > 0) {
+            log.error("🚨 SETTLEMENT: Shutting down with {} unsettled tasks", unsettled);
+        }
+    }
+
+    @Override
+    public void submitTrade(Trade trade, Order buyOrder, Order sellOrder) {
+        submitted.incrementAndGet();
+        SideSnapshot buySide = new SideSnapshot(buyOrder);
+        SideSnapshot sellSide = new SideSnapshot(sellOrder);
+        TradeSettlement settlement = new TradeSettlement(trade, buySide, sellSide);
+
+        log.info("🤖 BOT CHECK: BuyOrder isBot={}, SellOrder isBot={} → Confirming: Buy={}, Sell={}",
+                buySide.bot, sellSide.bot, !buySide.bot, !sellSide.bot);
+
+        // Only confirm portfolio operations for real users (non-bot orders)
+        List<SideConfirmationTask> sides = new ArrayList<>(2);
+        if (!buySide.bot) {
+            sides.add(new SideConfirmationTask(settlement, buySide, OrderSide.BUY));
+        } else {
+            log.info("🤖 PORTFOLIO: Skipping BUY confirmation - Order is from BOT → OrderId: {}", buySide.orderId);
+        }
+        if (!sellSide.bot) {
+            sides.add(new SideConfirmationTask(settlement, sellSide, OrderSide.SELL));
+        } else {
+            log.info("🤖 PORTFOLIO: Skipping SELL confirmation - Order is from BOT → OrderId: {}", sellSide.orderId);
+        }
+
+        if (sides.isEmpty()) {
+            settled.incrementAndGet();
+            return;
+        }
+        settlement.pendingSides.set(sides.size());
+        sides.forEach(this::enqueue);
+    }
+
+    @Override
+    public void submitOrderConfirmation(Order order, Trade trade) {
+        submitted.incrementAndGet();
+        enqueue(new OrderConfirmationTask(order, trade));
+    }
+
+    @Override
+    public void submitOrderCancellation(Order order, String reason) {
+        submitted.incrementAndGet();
+        enqueue(new OrderCancellationTask(order, reason));
+    }
+
+    @Override
+    public SettlementStatus getStatus() {
+        long oldestPendingNanos = 0;
+        for (SettlementLane lane : lanes) {
+            SettlementTask oldest = lane.queue.peek();
+            if (oldest != null) {
+                oldestPendingNanos = Math.max(oldestPendingNanos, System.nanoTime() - oldest.enqueuedAtNanos);
+            }
+        }
+
+        return SettlementStatus.builder()
+                .queueDepth(queueDepth())
+                .inFlight(inFlight.get())
+                .workers(lanes.size())
+                .submitted(submitted.get())
+                .settled(settled.get())
+                .failed(failed.get())
+                .compensated(compensated.get())
+                .compensationFailed(compensationFailed.get())
+                .oldestPendingMillis(TimeUnit.NANOSECONDS.toMillis(oldestPendingNanos))
+                .lastSettlementLagMillis(TimeUnit.NANOSECONDS.toMillis(lastSettlementLagNanos.get()))
+                .build();
+    }
+
+    private int queueDepth() {
+        int depth = 0;
+        for (SettlementLane lane : lanes) {
+            depth += lane.queue.size();
+        }
+        return depth;
+    }
+
+    private void enqueue(SettlementTask task) {
+        SettlementLane lane = lanes.get(Math.floorMod(Objects.hashCode(task.accountId()), lanes.size()));
+        if (lane.queue.offer(task)) {
+            return;
+        }
+
+        // Only reached when settlement is far behind; holding the matcher here is the backpressure
+        log.warn("⚠️ SETTLEMENT: Lane {} full ({} tasks), matcher waiting for settlement → AccountId: {}",
+                lane.index, lane.queue.size(), task.accountId());
+        try {
+            lane.queue.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.complete(false);
+            log.error("🚨 SETTLEMENT: Interrupted while queueing settlement → AccountId: {}", task.accountId());
+        }
+    }
+
+    private final class SettlementLane implements Runnable {
+        private final int index;
+        private final BlockingQueue<SettlementTask> queue;
+        private final Thread thread;
+
+        SettlementLane(int index, int capacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this, "trade-settlement-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            int maxBatchSize = Math.max(1, orderBookConfig.getSettlement().getMaxBatchSize());
+            List<SettlementTask> batch = new ArrayList<>(maxBatchSize);
+            while (running || !queue.isEmpty()) {
+                SettlementTask first;
+                try {
+                    first = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                inFlight.addAndGet(batch.size());
+                try {
+                    settle(batch);
+                } catch (Exception e) {
+                    log.error("🚨 SETTLEMENT: Unexpected error while settling batch of {} tasks", batch.size(), e);
+                    batch.forEach(task -> finish(task, false));
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends the confirmations of the batch in one call; each task completes exactly once, in batch order.
+     * A release goes out on its own, after the confirmations queued before it.
+     */
+    private void settle(List<SettlementTask> batch) {
+        List<SettlementTask> confirming = new ArrayList<>(batch.size());
+        List<TradeConfirmationItem> items = new ArrayList<>(batch.size());
+        for (SettlementTask task : batch) {
+            if (task instanceof OrderCancellationTask cancellation) {
+                // The portfolio must see the fills before the unfilled rest is released
+                settle(confirming, items);
+                confirming = new ArrayList<>(batch.size());
+                items = new ArrayList<>(batch.size());
+                finish(task, cancellation.release());
+                continue;
+            }
+            TradeConfirmationItem item = task.confirmation();
+            if (item == null) {
+                finish(task, task.settledWithoutConfirmation());
+            } else {
+                confirming.add(task);
+                items.add(item);
+            }
+        }
+        settle(confirming, items);
+    }
+
+    private void settle(List<SettlementTask> confirming, List<TradeConfirmationItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+
+        List<TradeConfirmationResult> results = confirm(items);
+        for (int i = 0; i < confirming.size(); i++) {
+            SettlementTask task = confirming.get(i);
+            TradeConfirmationResult result = results != null && i < results.size() ? results.get(i) : null;
+            if (result != null && !result.isSuccess()) {
+                log.error("🏦 PORTFOLIO: Confirmation rejected → TradeId: {}, OrderId: {}, Type: {}, Status: {}, Error: {}",
+                        task.trade.getTradeId(), items.get(i).getOrderId(), items.get(i).getType(),
+                        result.getErrorCode(), result.getMessage());
+            }
+            finish(task, result != null && result.isSuccess());
+        }
+    }
+
+    private List<TradeConfirmationResult> confirm(List<TradeConfirmationItem> items) {
+        try {
+            List<TradeConfirmationResult> results = portfolioClient.confirmTrades(items)
+                    .get(orderBookConfig.getSettlement().getConfirmationTimeoutMillis(), TimeUnit.MILLISECONDS);
+            if (results == null || results.size() != items.size()) {
+                log.error("🏦 PORTFOLIO: Confirmation batch answered {} of {} confirmations",
+                        results == null ? 0 : results.size(), items.size());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            log.error("🏦 PORTFOLIO: Confirmation batch of {} failed", items.size(), e);
+            if (e.getCause() instanceof PortfolioServiceException portfolioEx) {
+                log.error("🏦 PORTFOLIO: Portfolio service error during trade confirmation → ErrorCode: {}, Message: {}",
+                        portfolioEx.getErrorCode(), portfolioEx.getMessage());
+            }
+        } catch (TimeoutException e) {
+            log.error("🏦 PORTFOLIO: Confirmation batch of {} timed out", items.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("🏦 PORTFOLIO: Confirmation batch of {} interrupted", items.size(), e);
+        }
+        return null;
+    }
+
+    private void finish(SettlementTask task, boolean success) {
+        if (task.finished) {
+            return;
+        }
+        task.finished = true;
+        inFlight.decrementAndGet();
+        lastSettlementLagNanos.set(System.nanoTime() - task.enqueuedAtNanos);
+        task.complete(success);
+    }
+
+    private abstract static class SettlementTask {
+        final Trade trade;
+        final long enqueuedAtNanos = System.nanoTime();
+        // Only touched by the lane thread
+        boolean finished;
+
+        SettlementTask(Trade trade) {
+            this.trade = trade;
+        }
+
+        // Routing key: tasks of one account always go to the same lane
+        abstract Long accountId();
+
+        // Confirmation to send, or null when the task needs none
+        abstract TradeConfirmationItem confirmation();
+
+        // Outcome of a task that sent no confirmation
+        boolean settledWithoutConfirmation() {
+            return false;
+        }
+
+        abstract void complete(boolean success);
+    }
+
+    /**
+     * Both sides of one trade. Settled once every confirmed side has reported; compensated
+     * when any side failed.
+     */
+    private final class TradeSettlement {
+        private final Trade trade;
+        // Copied on the matching thread; the orders themselves keep changing
+        private final SideSnapshot buySide;
+        private final SideSnapshot sellSide;
+        private final AtomicInteger pendingSides = new AtomicInteger();
+        private final AtomicBoolean sideFailed = new AtomicBoolean();
+
+        TradeSettlement(Trade trade, SideSnapshot buySide, SideSnapshot sellSide) {
+            this.trade = trade;
+            this.buySide = buySide;
+            this.sellSide = sellSide;
+        }
+
+        void sideCompleted(boolean success) {
+            if (!success) {
+                sideFailed.set(true);
+            }
+            if (pendingSides.decrementAndGet() > 0) {
+                return;
+            }
+            if (!sideFailed.get()) {
+                settled.incrementAndGet();
+                log.info("🏦 PORTFOLIO: Trade confirmations successful → TradeId: {}", trade.getTradeId());
+                return;
+            }
+            failed.incrementAndGet();
+            compensate();
+        }
+
+        private void compensate() {
+            log.error("🏦 PORTFOLIO: Trade confirmation failed → TradeId: {}, attempting compensation",
+                    trade.getTradeId());
+
+            // CHECKPOINT 3.2 - Trigger compensation for failed trade confirmation
+            try {
+                boolean compensationSuccess = compensationService.compensateFailedTrade(
+                        trade, buySide.toOrder(), sellSide.toOrder(), "Portfolio trade confirmation failed"
+                );
+
+                if (compensationSuccess) {
+                    compensated.incrementAndGet();
+                    log.info("✅ COMPENSATION: Trade compensation successful → TradeId: {}", trade.getTradeId());
+                } else {
+                    compensationFailed.incrementAndGet();
+                    log.error("❌ COMPENSATION: Trade compensation failed → TradeId: {}", trade.getTradeId());
+                }
+            } catch (Exception compensationEx) {
+                compensationFailed.incrementAndGet();
+                log.error("🚨 COMPENSATION: Exception during trade compensation → TradeId: {}",
+                        trade.getTradeId(), compensationEx);
+            }
+        }
+    }
+
+    /**
+     * Confirms one side of a trade. Order fields are copied on the matching thread
+     * because the orders keep changing while the task waits in the queue.
+     */
+    private final class SideConfirmationTask extends SettlementTask {
+        private final TradeSettlement settlement;
+        private final SideSnapshot side;
+        private final OrderSide orderSide;
+
+        SideConfirmationTask(TradeSettlement settlement, SideSnapshot side, OrderSide orderSide) {
+            super(settlement.trade);
+            this.settlement = settlement;
+            this.side = side;
+            this.orderSide = orderSide;
+        }
+
+        @Override
+        Long accountId() {
+            return side.accountId;
+        }
+
+        @Override
+        void complete(boolean success) {
+            settlement.sideCompleted(success);
+        }
+
+        @Override
+        TradeConfirmationItem confirmation() {
+            boolean partial = side.remainingAfterTrade.compareTo(BigDecimal.ZERO) > 0;
+            TradeConfirmationItem item = confirmationItem(side.orderId, side.accountId, orderSide, partial, trade);
+
+            log.info("🏦 PORTFOLIO: Confirming {} {} trade → TradeId: {}, {}",
+                    partial ? "PARTIAL" : "FULL", orderSide, trade.getTradeId(), item);
+            return item;
+        }
+    }
+
+    /**
+     * AUTO-CONFIRM: confirms an order that became FILLED or PARTIALLY_FILLED, using the
+     * status and remaining quantity the order had when the fill happened.
+     */
+    private final class OrderConfirmationTask extends SettlementTask {
+        private final Long orderId;
+        private final Long accountId;
+        private final OrderSide side;
+        private final OrderStatus status;
+        private final BigDecimal remainingQuantity;
+
+        OrderConfirmationTask(Order order, Trade trade) {
+            super(trade);
+            this.orderId = order.getOrderId();
+            this.accountId = order.getAccountId();
+            this.side = order.getSide();
+            this.status = order.getStatus();
+            this.remainingQuantity = order.getRemainingQuantity();
+        }
+
+        @Override
+        Long accountId() {
+            return accountId;
+        }
+
+        @Override
+        void complete(boolean success) {
+            if (success) {
+                settled.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+        }
+
+        @Override
+        boolean settledWithoutConfirmation() {
+            return isBotAccount();
+        }
+
+        @Override
+        TradeConfirmationItem confirmation() {
+            log.info("🤖 AUTO-CONFIRM: Processing filled order → OrderId: {}, Side: {}, Status: {}",
+                    orderId, side, status);
+
+            // Skip auto-confirm for bot orders (account ID contains "BOT")
+            if (isBotAccount()) {
+                log.info("🤖 AUTO-CONFIRM: Skipping auto-confirm for BOT order → OrderId: {}", orderId);
+                return null;
+            }
+
+            if (status != OrderStatus.FILLED && status != OrderStatus.PARTIALLY_FILLED) {
+                log.warn("🤖 AUTO-CONFIRM (ORDER BOOK): Unexpected order status for {} order → OrderId: {}, Status: {}",
+                        side, orderId, status);
+                return null;
+            }
+
+            TradeConfirmationItem item = confirmationItem(orderId, accountId, side,
+                    status == OrderStatus.PARTIALLY_FILLED, trade);
+            log.info("🤖 AUTO-CONFIRM (ORDER BOOK): Confirming {} {} order → TradeId: {}, {}",
+                    status == OrderStatus.FILLED ? "FULLY FILLED" : "PARTIALLY FILLED", side, trade.getTradeId(), item);
+            return item;
+        }
+
+        private boolean isBotAccount() {
+            return String.valueOf(accountId).contains("BOT");
+        }
+    }
+
+    /**
+     * Releases the reservation held for the unfilled part of an order, using the quantities the
+     * order had when it stopped filling.
+     */
+    private final class OrderCancellationTask extends SettlementTask {
+        private final Long orderId;
+        private final Long accountId;
+        private final String symbol;
+        private final OrderType orderType;
+        private final BigDecimal quantity;
+        private final BigDecimal filledQuantity;
+        private final boolean bot;
+        private final String reason;
+
+        OrderCancellationTask(Order order, String reason) {
+            super(null);
+            this.orderId = order.getOrderId();
+            this.accountId = order.getAccountId();
+            this.symbol = order.getSymbol();
+            this.orderType = order.getOrderType();
+            this.quantity = order.getQuantity();
+            this.filledQuantity = order.getFilledQuantity();
+            this.bot = Boolean.TRUE.equals(order.getIsBot());
+            this.reason = reason;
+        }
+
+        @Override
+        Long accountId() {
+            return accountId;
+        }
+
+        @Override
+        void complete(boolean success) {
+            if (success) {
+                settled.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+        }
+
+        @Override
+        TradeConfirmationItem confirmation() {
+            return null;
+        }
+
+        boolean release() {
+            if (bot) {
+                log.info("🤖 PORTFOLIO: Skipping release - Order is from BOT → OrderId: {}", orderId);
+                return true;
+            }
+
+            OrderCancellationRequest request = OrderCancellationRequest.builder()
+                    .orderId(orderId)
+                    .accountId(accountId)
+                    .symbol(symbol)
+                    .orderType(orderType)
+                    .originalQuantity(quantity.intValue())
+                    .filledQuantity(filledQuantity.intValue())
+                    .reason(reason)
+                    .build();
+            log.info("🏦 PORTFOLIO: Releasing unfilled quantity → {}", request.getDescription());
+
+            try {
+                CompletableFuture<PortfolioResponse> release = request.isBuyOrder()
+                        ? portfolioClient.cancelBuyOrder(request)
+                        : portfolioClient.cancelSellOrder(request);
+                PortfolioResponse response = release.get(
+                        orderBookConfig.getSettlement().getConfirmationTimeoutMillis(), TimeUnit.MILLISECONDS);
+                if (response == null || !response.isSuccess()) {
+                    log.error("🏦 PORTFOLIO: Release rejected → OrderId: {}, Error: {}", orderId,
+                            response != null ? response.getMessage() : null);
+                    return false;
+                }
+                return true;
+            } catch (ExecutionException e) {
+                log.error("🏦 PORTFOLIO: Release failed → OrderId: {}", orderId, e);
+            } catch (TimeoutException e) {
+                log.error("🏦 PORTFOLIO: Release timed out → OrderId: {}", orderId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("🏦 PORTFOLIO: Release interrupted → OrderId: {}", orderId, e);
+            }
+            return false;
+        }
+    }
+
+    private static TradeConfirmationItem confirmationItem(Long orderId, Long accountId, OrderSide side,
+                                                          boolean partial, Trade trade) {
+        TradeConfirmationType type = side == OrderSide.BUY
+                ? (partial ? TradeConfirmationType.BUY_PARTIAL : TradeConfirmationType.BUY)
+                : (partial ? TradeConfirmationType.SELL_PARTIAL : TradeConfirmationType.SELL);
+        return TradeConfirmationItem.builder()
+                .orderId(orderId)
+                .accountId(accountId)
+                .type(type)
+                .fulfilledQuantity(partial ? trade.getQuantity().intValue() : null)
+                .build();
+    }
+
+    private static final class SideSnapshot {
+        private final Long orderId;
+        private final Long accountId;
+        private final Long tenantId;
+        private final String symbol;
+        private final OrderSide side;
+        private final OrderType orderType;
+        private final OrderStatus status;
+        private final BigDecimal price;
+        private final BigDecimal quantity;
+        private final BigDecimal filledQuantity;
+        private final boolean bot;
+        private final BigDecimal remainingAfterTrade;
+
+        SideSnapshot(Order order) {
+            this.orderId = order.getOrderId();
+            this.accountId = order.getAccountId();
+            this.tenantId = order.getTenantId();
+            this.symbol = order.getSymbol();
+            this.side = order.getSide();
+            this.orderType = order.getOrderType();
+            this.status = order.getStatus();
+            this.price = order.getPrice();
+            this.quantity = order.getQuantity();
+            this.filledQuantity = order.getFilledQuantity();
+            this.bot = Boolean.TRUE.equals(order.getIsBot());
+            this.remainingAfterTrade = order.getRemainingQuantity();
+        }
+
+        // Detached order holding the state at hand-over, for the compensation call
+        Order toOrder() {
+            Order order = new Order();
+            order.setOrderId(orderId);
+            order.setAccountId(accountId);
+            order.setTenantId(tenantId);
+            order.setSymbol(symbol);
+            order.setSide(side);
+            order.setOrderType(orderType);
+            order.setStatus(status);
+            order.setPrice(price);
+            order.setQuantity(quantity);
+            order.setFilledQuantity(filledQuantity);
+            order.setIsBot(bot);
+            return order;
+        }
+    }
+}
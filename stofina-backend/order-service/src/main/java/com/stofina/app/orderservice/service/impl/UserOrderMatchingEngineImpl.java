@@ -11,6 +11,8 @@ import com.stofina.app.orderservice.enums.OrderSide;
 import com.stofina.app.orderservice.enums.OrderStatus;
 import com.stofina.app.orderservice.enums.OrderType;
 import com.stofina.app.orderservice.service.UserOrderMatchingEngine;
+import com.stofina.app.orderservice.util.SnowflakeIdGenerator;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -22,11 +24,13 @@ import java.util.Arrays;
 import java.util.Random;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class UserOrderMatchingEngineImpl implements UserOrderMatchingEngine {
     
     // CHECKPOINT 4.2 - User Order Matching Engine Implementation
     private final Random random = new Random();
+    private final SnowflakeIdGenerator idGenerator;
     
     @Override
     public boolean isWithinValidRange(Order userOrder, BigDecimal currentPrice) {
@@ -98,7 +102,7 @@ public class UserOrderMatchingEngineImpl implements UserOrderMatchingEngine {
         }
         
         Order counterBot = new Order();
-        counterBot.setOrderId(System.currentTimeMillis() + random.nextInt(1000));
+        counterBot.setOrderId(idGenerator.nextId());
         counterBot.setTenantId(userOrder.getTenantId());
         counterBot.setAccountId(999999L); // Special bot account ID
         counterBot.setSymbol(userOrder.getSymbol());
@@ -212,7 +216,7 @@ public class UserOrderMatchingEngineImpl implements UserOrderMatchingEngine {
         Order actualSellOrder = buyOrder.getSide() == OrderSide.SELL ? buyOrder : sellOrder;
         
         Trade trade = new Trade();
-        trade.setTradeId(System.currentTimeMillis() + random.nextInt(1000));
+        trade.setTradeId(idGenerator.nextId());
         trade.setBuyOrderId(actualBuyOrder.getOrderId());
         trade.setSellOrderId(actualSellOrder.getOrderId());
         trade.setSymbol(buyOrder.getSymbol());
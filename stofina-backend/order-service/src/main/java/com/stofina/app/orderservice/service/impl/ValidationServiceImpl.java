@@ -1,5 +1,6 @@
 package com.stofina.app.orderservice.service.impl;
 
+import com.stofina.app.orderservice.config.OrderBookConfig;
 import com.stofina.app.orderservice.dto.request.CreateOrderRequest;
 import com.stofina.app.orderservice.dto.request.UpdateOrderRequest;
 import com.stofina.app.orderservice.entity.Order;
@@ -24,6 +25,7 @@ public class ValidationServiceImpl implements ValidationService {
 
     private final MarketDataClient marketDataClient;
     private final PortfolioClient portfolioClient;
+    private final OrderBookConfig orderBookConfig;
 
     @Override
     public void validateOrderRequest(CreateOrderRequest request) {
@@ -34,6 +36,9 @@ public class ValidationServiceImpl implements ValidationService {
                 (request.getPrice() == null || request.getPrice().compareTo(BigDecimal.ZERO) <= 0)) {
             throw new IllegalArgumentException("Price must be provided for this order type");
         }
+        if (request.getPrice() != null) {
+            checkTickSize(request.getSymbol(), request.getPrice());
+        }
     }
 
     @Override
@@ -46,14 +51,13 @@ public class ValidationServiceImpl implements ValidationService {
 
     @Override
     public void checkPriceLimits(String symbol, BigDecimal price) {
-        // Get real-time market price
+        // Get real-time market price once; the range check and the error message both use this value
         BigDecimal currentPrice = marketDataClient.getCurrentPrice(symbol);
         if (currentPrice == null) {
             throw new IllegalArgumentException("Market fiyatı alınamadı: " + symbol);
         }
         
-        // Use MarketDataClient's validatePriceInRange for ±1.5% check
-        if (!marketDataClient.validatePriceInRange(symbol, price)) {
+        if (!marketDataClient.isPriceInRange(currentPrice, price)) {
             BigDecimal deviation = price.subtract(currentPrice).abs()
                     .divide(currentPrice, 4, BigDecimal.ROUND_HALF_UP)
                     .multiply(new BigDecimal("100"));
@@ -107,6 +111,18 @@ public class ValidationServiceImpl implements ValidationService {
         if (request.getPrice() == null && request.getQuantity() == null) {
             throw new IllegalArgumentException("At least one field (price or quantity) must be provided for update");
         }
+        if (request.getPrice() != null) {
+            checkTickSize(existing.getSymbol(), request.getPrice());
+        }
+    }
+
+    // Tick ladder books index prices by tick, so an off-tick price must be refused before the order is saved
+    private void checkTickSize(String symbol, BigDecimal price) {
+        BigDecimal tickSize = orderBookConfig.getTickLadder().getTickSize(symbol);
+        if (tickSize != null && price.remainder(tickSize).signum() != 0) {
+            throw new IllegalArgumentException(
+                    String.format("Price %s is not a multiple of tick size %s for %s", price, tickSize, symbol));
+        }
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.stofina.app.orderservice.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Keeps the high-water mark in a small file, replaced atomically on every store.
+ */
+public class FileIdHighWaterMark implements IdHighWaterMark {
+
+    private final Path file;
+
+    public FileIdHighWaterMark(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public long load() {
+        if (!Files.exists(file)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(Files.readString(file, StandardCharsets.US_ASCII).trim());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read id high-water mark " + file, e);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Corrupt id high-water mark " + file, e);
+        }
+    }
+
+    @Override
+    public void store(long seconds) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.writeString(temp, Long.toString(seconds), StandardCharsets.US_ASCII);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot store id high-water mark " + file, e);
+        }
+    }
+}
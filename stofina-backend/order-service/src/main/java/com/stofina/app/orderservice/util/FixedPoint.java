@@ -0,0 +1,76 @@
+package com.stofina.app.orderservice.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Scaled-long representation of prices and quantities used on the matching path.
+ * Scales follow the order table columns: prices in 1/10000 units, quantities in 1/100 units,
+ * so converting back to BigDecimal never loses anything the database would keep.
+ *
+ * Average price policy: the new average is (previous average x previous filled + price x quantity)
+ * divided by the new filled quantity, rounded HALF_UP to the price scale after every fill. This is
+ * the same result as BigDecimal#divide(newFilled, 4, HALF_UP) on the same inputs.
+ */
+public final class FixedPoint {
+
+    public static final int PRICE_SCALE = 4;
+    public static final int QUANTITY_SCALE = 2;
+
+    private FixedPoint() {
+    }
+
+    /**
+     * @throws IllegalArgumentException when the price has more decimals than the price scale
+     */
+    public static long toPriceUnits(BigDecimal price) {
+        return toUnits(price, PRICE_SCALE, "price");
+    }
+
+    /**
+     * @throws IllegalArgumentException when the quantity has more decimals than the quantity scale
+     */
+    public static long toQuantityUnits(BigDecimal quantity) {
+        return toUnits(quantity, QUANTITY_SCALE, "quantity");
+    }
+
+    // For values derived by arithmetic (protection bands, stored averages) that may not sit on the grid
+    public static long toPriceUnits(BigDecimal price, RoundingMode roundingMode) {
+        return price.setScale(PRICE_SCALE, roundingMode).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toPrice(long units) {
+        return BigDecimal.valueOf(units, PRICE_SCALE);
+    }
+
+    public static BigDecimal toQuantity(long units) {
+        return BigDecimal.valueOf(units, QUANTITY_SCALE);
+    }
+
+    public static long averagePrice(long previousAverage, long previousFilled, long price, long quantity) {
+        long filled = previousFilled + quantity;
+        try {
+            long numerator = Math.addExact(Math.multiplyExact(previousAverage, previousFilled),
+                    Math.multiplyExact(price, quantity));
+            long quotient = numerator / filled;
+            long remainder = numerator % filled;
+            // Operands are non-negative, so HALF_UP rounds up when the remainder is at least half
+            return remainder * 2 >= filled ? quotient + 1 : quotient;
+        } catch (ArithmeticException overflow) {
+            BigDecimal numerator = BigDecimal.valueOf(previousAverage).multiply(BigDecimal.valueOf(previousFilled))
+                    .add(BigDecimal.valueOf(price).multiply(BigDecimal.valueOf(quantity)));
+            return numerator.divide(BigDecimal.valueOf(filled), 0, RoundingMode.HALF_UP).longValueExact();
+        }
+    }
+
+    private static long toUnits(BigDecimal value, int scale, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException(name + " must not be null");
+        }
+        try {
+            return value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(name + " " + value + " does not fit " + scale + " decimal places", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.stofina.app.orderservice.util;
+
+/**
+ * Keeps the highest id second a {@link SnowflakeIdGenerator} may have handed out ahead of the
+ * clock, so a restarted generator does not hand out the same ids again.
+ */
+public interface IdHighWaterMark {
+
+    /**
+     * For generators whose ids never have to survive a restart (tests, tools).
+     */
+    IdHighWaterMark NONE = new IdHighWaterMark() {
+        @Override
+        public long load() {
+            return -1;
+        }
+
+        @Override
+        public void store(long seconds) {
+        }
+    };
+
+    /**
+     * @return seconds since {@link SnowflakeIdGenerator#EPOCH} last stored, or -1 when nothing was stored
+     */
+    long load();
+
+    /**
+     * Stores the mark durably; ids up to this second may be handed out once it returns.
+     */
+    void store(long seconds);
+}
@@ -0,0 +1,169 @@
+package com.stofina.app.orderservice.util;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style ids: 31 bits of seconds since {@link #EPOCH}, 6 bits of node id and 16 bits of
+ * per-second sequence. The layout is kept to 53 bits so ids survive as exact JavaScript numbers
+ * in the frontend. Ids are unique across nodes with distinct node ids and need no database round trip.
+ *
+ * The generator keeps a single (timestamp, sequence) cursor in an AtomicLong and reserves whole
+ * blocks with one CAS. When a second's sequence runs out, or the wall clock steps back, the
+ * cursor simply moves ahead of the clock, so ids never repeat and never go backwards.
+ * {@link #nextId()} hands out ids from a per-thread block, so they are monotonic per thread and
+ * roughly time-ordered across threads.
+ *
+ * Seconds borrowed ahead of the clock exist only in this process, so before such ids are handed
+ * out the borrowed second (plus a few seconds of lease) is stored in an {@link IdHighWaterMark}.
+ * A restarted generator continues after the stored mark.
+ */
+public class SnowflakeIdGenerator {
+
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    public static final int NODE_BITS = 6;
+    public static final int SEQUENCE_BITS = 16;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    // Stored marks run this far ahead of the borrowed second, so the mark is rewritten rarely
+    private static final long LEASE_SECONDS = 5;
+
+    private static volatile SnowflakeIdGenerator shared;
+
+    private final long nodeId;
+    private final int blockSize;
+    private final LongSupplier clock;
+    private final IdHighWaterMark highWaterMark;
+    // Highest second covered by the stored mark
+    private volatile long leasedSecond;
+    // (seconds since EPOCH << SEQUENCE_BITS) | sequence of the last reserved id
+    private final AtomicLong cursor = new AtomicLong();
+    private final ThreadLocal<IdBlock> threadBlocks = new ThreadLocal<>();
+
+    public SnowflakeIdGenerator(long nodeId, int blockSize) {
+        this(nodeId, blockSize, System::currentTimeMillis, IdHighWaterMark.NONE);
+    }
+
+    public SnowflakeIdGenerator(long nodeId, int blockSize, LongSupplier clock) {
+        this(nodeId, blockSize, clock, IdHighWaterMark.NONE);
+    }
+
+    public SnowflakeIdGenerator(long nodeId, int blockSize, LongSupplier clock, IdHighWaterMark highWaterMark) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.nodeId = nodeId;
+        this.blockSize = blockSize;
+        this.clock = clock;
+        this.highWaterMark = highWaterMark;
+
+        long mark = highWaterMark.load();
+        if (mark >= 0) {
+            // The previous run may have handed out ids up to the mark; continue after it
+            cursor.set(((mark + 1) << SEQUENCE_BITS) - 1);
+            leasedSecond = mark;
+        }
+    }
+
+    /**
+     * The generator used where Spring injection is not available (JPA id generation).
+     */
+    public static SnowflakeIdGenerator shared() {
+        SnowflakeIdGenerator generator = shared;
+        if (generator == null) {
+            throw new IllegalStateException("Snowflake id generator is not configured; set order-book.ids.node-id");
+        }
+        return generator;
+    }
+
+    public static void setShared(SnowflakeIdGenerator generator) {
+        shared = generator;
+    }
+
+    public long nextId() {
+        IdBlock block = threadBlocks.get();
+        if (block == null || !block.hasNext()) {
+            block = nextBlock(blockSize);
+            threadBlocks.set(block);
+        }
+        return block.next();
+    }
+
+    /**
+     * Reserves {@code count} ids with a single CAS. The block can be consumed by one thread without further coordination.
+     */
+    public IdBlock nextBlock(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + count);
+        }
+
+        while (true) {
+            long last = cursor.get();
+            long nowSecond = (clock.getAsLong() - EPOCH) / 1000;
+            long first = Math.max(last + 1, nowSecond << SEQUENCE_BITS);
+            long end = first + count - 1;
+            if (cursor.compareAndSet(last, end)) {
+                long endSecond = end >>> SEQUENCE_BITS;
+                if (endSecond > nowSecond && endSecond > leasedSecond) {
+                    extendLease(endSecond);
+                }
+                return new IdBlock(first, end);
+            }
+        }
+    }
+
+    private synchronized void extendLease(long borrowedSecond) {
+        if (borrowedSecond <= leasedSecond) {
+            return;
+        }
+        long lease = borrowedSecond + LEASE_SECONDS;
+        highWaterMark.store(lease);
+        leasedSecond = lease;
+    }
+
+    private long toId(long position) {
+        long timestamp = position >>> SEQUENCE_BITS;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (position & SEQUENCE_MASK);
+    }
+
+    // Epoch millis of the second the id was reserved in
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) * 1000 + EPOCH;
+    }
+
+    public static long nodeOf(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+
+    /**
+     * A reserved, increasing run of ids. Not thread-safe.
+     */
+    public final class IdBlock {
+        private long position;
+        private final long end;
+
+        private IdBlock(long first, long end) {
+            this.position = first;
+            this.end = end;
+        }
+
+        public boolean hasNext() {
+            return position <= end;
+        }
+
+        public long next() {
+            if (position > end) {
+                throw new IllegalStateException("Id block exhausted");
+            }
+            return toId(position++);
+        }
+
+        public int remaining() {
+            return (int) (end - position + 1);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.stofina.app.orderservice.engine;
+
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.entity.Trade;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookSequencerTest {
+
+    private final Map<String, List<Long>> executionOrder = new ConcurrentHashMap<>();
+    private final Map<String, String> executingThreads = new ConcurrentHashMap<>();
+
+    private OrderBookSequencer sequencer;
+
+    @BeforeEach
+    void setUp() {
+        sequencer = new OrderBookSequencer(2, 16, 50, new RecordingHandler());
+    }
+
+    @AfterEach
+    void tearDown() {
+        sequencer.shutdown();
+    }
+
+    @Test
+    void testSubmitNewOrder_PreservesPerSymbolOrderUnderContention() throws Exception {
+        int producers = 4;
+        int ordersPerProducer = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<List<Trade>>> results = Collections.synchronizedList(new ArrayList<>());
+
+        for (int p = 0; p < producers; p++) {
+            String symbol = p % 2 == 0 ? "THYAO" : "AKBNK";
+            long base = p * 10_000L;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ordersPerProducer; i++) {
+                    results.add(sequencer.submitNewOrder(order(base + i, symbol)));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        assertEquals(producers * ordersPerProducer, results.size());
+        for (List<Long> ids : executionOrder.values()) {
+            // Orders from the same producer keep their submission order
+            for (int i = 1; i < ids.size(); i++) {
+                long previous = ids.get(i - 1);
+                long current = ids.get(i);
+                if (previous / 10_000 == current / 10_000) {
+                    assertTrue(previous < current);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSubmitNewOrder_AfterShutdownFailsFast() {
+        sequencer.shutdown();
+
+        CompletableFuture<List<Trade>> result = sequencer.submitNewOrder(order(1L, "THYAO"));
+
+        assertTrue(result.isCompletedExceptionally());
+        assertFalse(executionOrder.containsKey("THYAO"));
+    }
+
+    @Test
+    void testSubmit_RunsSymbolOnItsOwnShardThread() {
+        sequencer.submitNewOrder(order(1L, "THYAO")).join();
+        sequencer.submitNewOrder(order(2L, "THYAO")).join();
+
+        String thread = executingThreads.get("THYAO");
+        assertTrue(thread.startsWith("order-book-shard-"));
+        assertTrue(sequencer.submit("THYAO", () -> sequencer.isOwnerThread("THYAO")).join());
+    }
+
+    @Test
+    void testSubmit_FromShardThreadRunsInline() {
+        Boolean cancelled = sequencer.submit("THYAO",
+                () -> sequencer.submitCancel(5L, "THYAO").join()).join();
+
+        assertTrue(cancelled);
+    }
+
+    @Test
+    void testSubmit_PropagatesHandlerFailure() {
+        CompletableFuture<Object> result = sequencer.submit("THYAO", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        Exception exception = assertThrows(Exception.class, result::join);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+    private Order order(Long orderId, String symbol) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setSymbol(symbol);
+        return order;
+    }
+
+    private class RecordingHandler implements BookCommandHandler {
+
+        @Override
+        public List<Trade> onNewOrder(Order order) {
+            executionOrder.computeIfAbsent(order.getSymbol(), s -> new ArrayList<>()).add(order.getOrderId());
+            executingThreads.put(order.getSymbol(), Thread.currentThread().getName());
+            return List.of();
+        }
+
+        @Override
+        public boolean onCancel(Long orderId, String symbol) {
+            return true;
+        }
+
+        @Override
+        public boolean onAmend(Order oldOrder, Order newOrder) {
+            return true;
+        }
+    }
+}
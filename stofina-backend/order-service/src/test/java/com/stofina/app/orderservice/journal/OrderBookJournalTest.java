@@ -0,0 +1,153 @@
+package com.stofina.app.orderservice.journal;
+
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.enums.OrderSide;
+import com.stofina.app.orderservice.enums.OrderStatus;
+import com.stofina.app.orderservice.enums.OrderType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookJournalTest {
+
+    private static final int SEGMENT_SIZE = 16 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecover_ReplaysRecordsInOrder() {
+        OrderBookJournal journal = openJournal();
+        Order order = order(1L, "45.50");
+        journal.appendAdd(order);
+        order.setFilledQuantity(new BigDecimal("40"));
+        order.setStatus(OrderStatus.PARTIALLY_FILLED);
+        journal.appendFill(order);
+        journal.appendCancel("THYAO", 1L);
+        journal.close();
+
+        List<JournalRecord> records = new ArrayList<>();
+        OrderBookJournal reopened = new OrderBookJournal(directory, SEGMENT_SIZE);
+        reopened.recover((symbol, restored) -> fail("No snapshot expected"), records::add);
+
+        assertEquals(3, records.size());
+        assertEquals(3, reopened.lastSequence());
+        Order restored = records.get(0).getOrder();
+        assertEquals(JournalRecordType.ADD, records.get(0).getType());
+        assertEquals(0, new BigDecimal("45.50").compareTo(restored.getPrice()));
+        assertEquals(order.getCreatedAt(), restored.getCreatedAt());
+        assertEquals(OrderType.LIMIT_BUY, restored.getOrderType());
+        assertEquals(0, new BigDecimal("40").compareTo(records.get(1).getFilledQuantity()));
+        assertEquals(OrderStatus.PARTIALLY_FILLED, records.get(1).getStatus());
+        assertEquals(JournalRecordType.CANCEL, records.get(2).getType());
+        assertEquals(1L, records.get(2).getOrderId());
+    }
+
+    @Test
+    void testRecover_LoadsSnapshotAndReplaysOnlyTail() {
+        OrderBookJournal journal = openJournal();
+        journal.appendAdd(order(1L, "45.50"));
+        journal.appendAdd(order(2L, "45.60"));
+        journal.writeSnapshot(journal.lastSequence(), List.of(
+                OrderBookJournal.encodeSnapshot("THYAO", journal.lastSequence(),
+                        List.of(order(1L, "45.50"), order(2L, "45.60")))));
+        journal.appendCancel("THYAO", 1L);
+        journal.close();
+
+        List<Long> snapshotOrders = new ArrayList<>();
+        List<JournalRecord> tail = new ArrayList<>();
+        new OrderBookJournal(directory, SEGMENT_SIZE)
+                .recover((symbol, restored) -> snapshotOrders.add(restored.getOrderId()), tail::add);
+
+        assertEquals(List.of(1L, 2L), snapshotOrders);
+        assertEquals(1, tail.size());
+        assertEquals(JournalRecordType.CANCEL, tail.get(0).getType());
+    }
+
+    @Test
+    void testWriteSnapshot_DeletesCoveredSegments() throws IOException {
+        OrderBookJournal journal = openJournal();
+        for (long id = 1; id <= 200; id++) {
+            journal.appendAdd(order(id, "45.50"));
+        }
+        assertTrue(segmentCount() > 1);
+
+        journal.writeSnapshot(journal.lastSequence(), List.of());
+        journal.close();
+
+        assertEquals(1, segmentCount());
+    }
+
+    @Test
+    void testRecover_StopsAtTornRecord() throws IOException {
+        OrderBookJournal journal = openJournal();
+        journal.appendAdd(order(1L, "45.50"));
+        journal.appendAdd(order(2L, "45.60"));
+        journal.close();
+
+        // Corrupt the payload of the second record
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            int firstLength = file.readInt();
+            // Skip the first record and the second record's [length][crc] header, then flip a body byte
+            long position = 8 + firstLength + 8 + 20;
+            file.seek(position);
+            byte original = file.readByte();
+            file.seek(position);
+            file.writeByte(original ^ 0x7f);
+        }
+
+        List<JournalRecord> records = new ArrayList<>();
+        OrderBookJournal reopened = new OrderBookJournal(directory, SEGMENT_SIZE);
+        reopened.recover((symbol, restored) -> { }, records::add);
+
+        assertEquals(1, records.size());
+        // Appends continue after the last intact record
+        reopened.appendCancel("THYAO", 1L);
+        assertEquals(2, reopened.lastSequence());
+        reopened.close();
+    }
+
+    private OrderBookJournal openJournal() {
+        OrderBookJournal journal = new OrderBookJournal(directory, SEGMENT_SIZE);
+        journal.recover((symbol, order) -> { }, record -> { });
+        return journal;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".log")).count();
+        }
+    }
+
+    private Order order(Long orderId, String price) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setTenantId(1L);
+        order.setAccountId(1000L + orderId);
+        order.setSymbol("THYAO");
+        order.setSide(OrderSide.BUY);
+        order.setOrderType(OrderType.LIMIT_BUY);
+        order.setPrice(new BigDecimal(price));
+        order.setQuantity(new BigDecimal("100"));
+        order.setFilledQuantity(BigDecimal.ZERO);
+        order.setStatus(OrderStatus.ACTIVE);
+        order.setCreatedAt(LocalDateTime.of(2025, 1, 2, 10, 15, 30, 123_000_000));
+        order.setIsBot(false);
+        return order;
+    }
+}
@@ -0,0 +1,49 @@
+package com.stofina.app.orderservice.kafka;
+
+import com.stofina.app.orderservice.dto.response.StockResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflatedPriceTickTest {
+
+    @Test
+    void testConflate_KeepsLatestTickAndRangePerSymbol() {
+        List<ConflatedPriceTick> ticks = new ArrayList<>(ConflatedPriceTick.conflate(List.of(
+                tick("THYAO", "100.00"),
+                tick("GARAN", "50.00"),
+                tick("THYAO", "97.50"),
+                tick("THYAO", "103.00"),
+                tick("THYAO", "101.00"))));
+
+        assertEquals(2, ticks.size());
+        ConflatedPriceTick thyao = ticks.get(0);
+        assertEquals("THYAO", thyao.getSymbol());
+        assertEquals(0, new BigDecimal("101.00").compareTo(thyao.getCurrentPrice()));
+        assertEquals(0, new BigDecimal("97.50").compareTo(thyao.getLowPrice()));
+        assertEquals(0, new BigDecimal("103.00").compareTo(thyao.getHighPrice()));
+        assertEquals(4, thyao.getTickCount());
+        assertEquals(1, ticks.get(1).getTickCount());
+    }
+
+    @Test
+    void testConflate_SkipsTicksWithoutPrice() {
+        List<StockResponse> batch = new ArrayList<>();
+        batch.add(null);
+        batch.add(tick("THYAO", null));
+        batch.add(tick(null, "10.00"));
+
+        assertTrue(ConflatedPriceTick.conflate(batch).isEmpty());
+    }
+
+    private StockResponse tick(String symbol, String price) {
+        StockResponse response = new StockResponse();
+        response.setSymbol(symbol);
+        response.setCurrentPrice(price != null ? new BigDecimal(price) : null);
+        return response;
+    }
+}
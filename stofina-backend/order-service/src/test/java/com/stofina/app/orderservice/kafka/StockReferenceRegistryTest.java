@@ -0,0 +1,49 @@
+package com.stofina.app.orderservice.kafka;
+
+import com.stofina.app.commondata.marketdata.StockReference;
+import com.stofina.app.commondata.marketdata.StockTick;
+import com.stofina.app.orderservice.dto.response.StockResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockReferenceRegistryTest {
+
+    private StockReferenceRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new StockReferenceRegistry();
+    }
+
+    @Test
+    void testResolve_WithKnownSymbolId() {
+        registry.consumeStockReference(StockReference.builder()
+                .symbolId(7).symbol("THYAO").companyName("Türk Hava Yolları")
+                .defaultPrice(new BigDecimal("100.00")).build());
+
+        StockResponse response = registry.resolve("THYAO", tick(7, "101.25"));
+
+        assertEquals("THYAO", response.getSymbol());
+        assertEquals("Türk Hava Yolları", response.getCompanyName());
+        assertEquals(0, new BigDecimal("101.25").compareTo(response.getCurrentPrice()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(response.getDefaultPrice()));
+        assertNotNull(response.getLastUpdated());
+    }
+
+    @Test
+    void testResolve_WithUnknownSymbolId() {
+        StockResponse response = registry.resolve("GARAN", tick(3, "55.10"));
+
+        assertEquals("GARAN", response.getSymbol());
+        assertNull(response.getCompanyName());
+        assertNull(registry.resolve(null, tick(3, "55.10")));
+    }
+
+    private StockTick tick(int symbolId, String price) {
+        return StockTick.of(symbolId, new BigDecimal(price), BigDecimal.ZERO, BigDecimal.ZERO, System.currentTimeMillis());
+    }
+}
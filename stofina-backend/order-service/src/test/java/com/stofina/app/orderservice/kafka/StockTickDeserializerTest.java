@@ -0,0 +1,45 @@
+package com.stofina.app.orderservice.kafka;
+
+import com.stofina.app.commondata.marketdata.StockTick;
+import com.stofina.app.commondata.marketdata.StockTickCodec;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockTickDeserializerTest {
+
+    private final StockTickDeserializer deserializer = new StockTickDeserializer();
+
+    @Test
+    void testDeserialize_WithEncodedTick() {
+        StockTick tick = StockTick.of(7, new BigDecimal("101.2345"), new BigDecimal("-1.5"),
+                new BigDecimal("-1.46"), 1_700_000_000_000L);
+
+        byte[] data = StockTickCodec.encode(tick);
+        StockTick decoded = deserializer.deserialize("stock-topic", data);
+
+        assertEquals(StockTickCodec.ENCODED_SIZE, data.length);
+        assertEquals(tick, decoded);
+        assertEquals(0, new BigDecimal("101.2345").compareTo(decoded.getPrice()));
+        assertEquals(0, new BigDecimal("-1.5").compareTo(decoded.getChangeAmount()));
+        assertEquals(0, new BigDecimal("-1.46").compareTo(decoded.getChangePercent()));
+    }
+
+    @Test
+    void testDeserialize_WithUnknownVersion() {
+        byte[] data = StockTickCodec.encode(StockTick.of(1, BigDecimal.TEN, null, null, 0L));
+        data[0] = 2;
+
+        assertNull(deserializer.deserialize("stock-topic", data));
+    }
+
+    @Test
+    void testDeserialize_WithLegacyJsonPayload() {
+        byte[] json = "{\"symbol\":\"THYAO\",\"currentPrice\":100}".getBytes();
+
+        assertNull(deserializer.deserialize("stock-topic", json));
+        assertNull(deserializer.deserialize("stock-topic", null));
+    }
+}
@@ -0,0 +1,131 @@
+package com.stofina.app.orderservice.model;
+
+import com.stofina.app.orderservice.enums.OrderSide;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DisplayBookTest {
+
+    private static final Function<BigDecimal, BigDecimal> FIXED_QUANTITY = distance -> new BigDecimal("100");
+
+    private DisplayBook book;
+
+    @BeforeEach
+    void setUp() {
+        book = new DisplayBook("THYAO");
+    }
+
+    @Test
+    void testRecenterBotLadder_WithFirstPlacement() {
+        // Centre 100 gives a 0.100 grid: bids 97.0-99.5, asks 100.5-103.0
+        int placed = book.recenterBotLadder(new BigDecimal("100"), FIXED_QUANTITY);
+
+        assertEquals(52, placed);
+        assertEquals(26, book.getBotOrderCount(OrderSide.BUY));
+        assertEquals(26, book.getBotOrderCount(OrderSide.SELL));
+        SimpleOrderBookSnapshot snapshot = book.snapshot();
+        assertEquals(10, snapshot.getBids().size());
+        assertEquals(0, snapshot.getBestBid().compareTo(new BigDecimal("99.5")));
+        assertEquals(0, snapshot.getBestAsk().compareTo(new BigDecimal("100.5")));
+        assertEquals(0, snapshot.getSpread().compareTo(BigDecimal.ONE));
+    }
+
+    @Test
+    void testRecenterBotLadder_WithSmallMove() {
+        book.recenterBotLadder(new BigDecimal("100"), FIXED_QUANTITY);
+        book.drainLevelChanges(OrderSide.BUY);
+        book.drainLevelChanges(OrderSide.SELL);
+        long version = book.snapshot().getVersion();
+
+        // Bids move from 97.0-99.5 to 97.2-99.6, asks from 100.5-103.0 to 100.8-103.2
+        int changed = book.recenterBotLadder(new BigDecimal("100.2"), FIXED_QUANTITY);
+
+        assertEquals(8, changed);
+        assertTrue(book.snapshot().getVersion() > version);
+        assertEquals(0, book.snapshot().getBestBid().compareTo(new BigDecimal("99.6")));
+        Map<BigDecimal, BigDecimal> bidChanges = book.drainLevelChanges(OrderSide.BUY);
+        assertEquals(3, bidChanges.size());
+        assertEquals(0, bidChanges.get(new BigDecimal("97.0")).signum());
+        assertEquals(0, bidChanges.get(new BigDecimal("97.1")).signum());
+        assertEquals(0, bidChanges.get(new BigDecimal("99.6")).compareTo(new BigDecimal("100")));
+        assertTrue(book.drainLevelChanges(OrderSide.BUY).isEmpty());
+    }
+
+    @Test
+    void testRecenterBotLadder_WithUnmovedWindow() {
+        book.recenterBotLadder(new BigDecimal("100.05"), FIXED_QUANTITY);
+        long version = book.snapshot().getVersion();
+
+        assertEquals(0, book.recenterBotLadder(new BigDecimal("100.06"), FIXED_QUANTITY));
+
+        assertEquals(version, book.snapshot().getVersion());
+    }
+
+    @Test
+    void testSnapshot_WithBotAndUserOrdersAtSamePrice() {
+        book.recenterBotLadder(new BigDecimal("100"), FIXED_QUANTITY);
+        book.addUserOrder(user(1L, OrderSide.BUY, "99.50", "20"));
+
+        OrderLevel best = book.snapshot().getBids().get(0);
+
+        assertEquals(0, best.getPrice().compareTo(new BigDecimal("99.5")));
+        assertEquals(0, best.getQuantity().compareTo(new BigDecimal("120")));
+        assertEquals(2, best.getOrderCount());
+        assertEquals(53, book.getOrderCount());
+    }
+
+    @Test
+    void testRemoveUserOrder_WithSharedLevel() {
+        book.recenterBotLadder(new BigDecimal("100"), FIXED_QUANTITY);
+        book.addUserOrder(user(1L, OrderSide.BUY, "99.50", "20"));
+        long version = book.snapshot().getVersion();
+
+        assertTrue(book.removeUserOrder(1L));
+        assertFalse(book.removeUserOrder(1L));
+
+        SimpleOrderBookSnapshot snapshot = book.snapshot();
+        assertTrue(snapshot.getVersion() > version);
+        assertEquals(1, snapshot.getBids().get(0).getOrderCount());
+        assertEquals(0, snapshot.getBids().get(0).getQuantity().compareTo(new BigDecimal("100")));
+    }
+
+    @Test
+    void testRecenterBotLadder_KeepsUserLevels() {
+        book.recenterBotLadder(new BigDecimal("100"), FIXED_QUANTITY);
+        book.addUserOrder(user(1L, OrderSide.BUY, "99.55", "20"));
+
+        book.recenterBotLadder(new BigDecimal("90"), FIXED_QUANTITY);
+
+        assertTrue(book.getLevelQuantities(OrderSide.BUY).containsKey(new BigDecimal("99.55")));
+        assertEquals(1, book.getUserOrders().size());
+        assertEquals(0, book.snapshot().getBestBid().compareTo(new BigDecimal("99.55")));
+    }
+
+    @Test
+    void testClear_WithOrdersOnBothSides() {
+        book.recenterBotLadder(new BigDecimal("100"), FIXED_QUANTITY);
+        book.addUserOrder(user(1L, OrderSide.SELL, "101.00", "20"));
+        book.drainLevelChanges(OrderSide.SELL);
+
+        book.clear();
+
+        assertTrue(book.snapshot().isEmpty());
+        assertNull(book.snapshot().getBestBid());
+        assertEquals(0, book.getOrderCount());
+        // Cleared levels are handed to the replica as removals
+        assertTrue(book.drainLevelChanges(OrderSide.SELL).values().stream().allMatch(quantity -> quantity.signum() == 0));
+    }
+
+    private DisplayOrder user(Long orderId, OrderSide side, String price, String quantity) {
+        DisplayOrder order = new DisplayOrder("THYAO", side, new BigDecimal(price), new BigDecimal(quantity), false);
+        order.setDisplayOrderId(orderId);
+        return order;
+    }
+}
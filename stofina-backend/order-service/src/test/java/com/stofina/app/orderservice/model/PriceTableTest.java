@@ -0,0 +1,110 @@
+package com.stofina.app.orderservice.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceTableTest {
+
+    @Test
+    void testGet_WithUpdatedPrice() {
+        PriceTable table = new PriceTable(TimeUnit.MINUTES.toNanos(5));
+
+        table.update("THYAO", new BigDecimal("100.50"));
+        table.update("THYAO", new BigDecimal("101.00"));
+
+        assertEquals(new BigDecimal("101.00"), table.get("THYAO"));
+        assertNull(table.get("GARAN"));
+        assertTrue(table.getLastUpdateMillis("THYAO") > 0);
+    }
+
+    @Test
+    void testGet_WithStalePrice() throws InterruptedException {
+        PriceTable table = new PriceTable(TimeUnit.MILLISECONDS.toNanos(20));
+        table.update("THYAO", new BigDecimal("100.50"));
+
+        Thread.sleep(50);
+
+        assertNull(table.get("THYAO"));
+        assertTrue(table.snapshot().getPrices().isEmpty());
+        // A fresh update brings the symbol back
+        table.update("THYAO", new BigDecimal("99.00"));
+        assertEquals(new BigDecimal("99.00"), table.get("THYAO"));
+    }
+
+    @Test
+    void testSnapshot_WithClearedTable() {
+        PriceTable table = new PriceTable(TimeUnit.MINUTES.toNanos(5));
+        table.update("THYAO", new BigDecimal("100.50"));
+        table.update("GARAN", new BigDecimal("55.10"));
+
+        PriceSnapshot before = table.snapshot();
+        table.clear();
+        PriceSnapshot after = table.snapshot();
+
+        assertEquals(2, before.size());
+        assertEquals(new BigDecimal("55.10"), before.getPrice("GARAN"));
+        assertEquals(2, before.getVersion());
+        assertEquals(0, after.size());
+        assertTrue(after.getVersion() > before.getVersion());
+        assertNull(table.get("THYAO"));
+        assertEquals(0L, table.getLastUpdateMillis("THYAO"));
+    }
+
+    @Test
+    void testSnapshot_ReusedUntilPriceChanges() {
+        PriceTable table = new PriceTable(TimeUnit.MINUTES.toNanos(5));
+        table.update("THYAO", new BigDecimal("100.50"));
+
+        PriceSnapshot first = table.snapshot();
+        PriceSnapshot second = table.snapshot();
+        table.update("THYAO", new BigDecimal("101.00"));
+        PriceSnapshot third = table.snapshot();
+
+        assertSame(first, second);
+        assertNotSame(second, third);
+        assertEquals(new BigDecimal("101.00"), third.getPrice("THYAO"));
+    }
+
+    @Test
+    void testSnapshot_RebuiltWhenIncludedPriceGoesStale() throws InterruptedException {
+        PriceTable table = new PriceTable(TimeUnit.MILLISECONDS.toNanos(20));
+        table.update("THYAO", new BigDecimal("100.50"));
+
+        assertEquals(1, table.snapshot().size());
+        Thread.sleep(40);
+
+        assertEquals(0, table.snapshot().size());
+    }
+
+    @Test
+    void testSnapshot_WithConcurrentUpdates() throws InterruptedException {
+        PriceTable table = new PriceTable(TimeUnit.MINUTES.toNanos(5));
+        table.update("THYAO", BigDecimal.ZERO);
+        table.update("GARAN", BigDecimal.ZERO);
+
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= 20_000; i++) {
+                BigDecimal price = BigDecimal.valueOf(i);
+                table.update("THYAO", price);
+                table.update("GARAN", price);
+            }
+        });
+        writer.start();
+
+        BigDecimal lastSeen = BigDecimal.ZERO;
+        while (writer.isAlive()) {
+            PriceSnapshot snapshot = table.snapshot();
+            // Each symbol is read whole, and a later snapshot never goes back to an older update
+            BigDecimal seen = snapshot.getPrice("GARAN");
+            assertTrue(seen.compareTo(lastSeen) >= 0);
+            lastSeen = seen;
+        }
+        writer.join();
+
+        assertEquals(BigDecimal.valueOf(20_000), table.snapshot().getPrice("GARAN"));
+    }
+}
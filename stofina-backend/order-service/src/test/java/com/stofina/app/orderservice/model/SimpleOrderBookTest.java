@@ -0,0 +1,244 @@
+package com.stofina.app.orderservice.model;
+
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.enums.OrderSide;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimpleOrderBookTest {
+
+    private static final BigDecimal TICK_SIZE = new BigDecimal("0.01");
+
+    private long nextOrderId = 1;
+
+    static Stream<SimpleOrderBook> orderBooks() {
+        return Stream.of(
+            new SimpleOrderBook("THYAO"),
+            new SimpleOrderBook("THYAO", TICK_SIZE, 64)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("orderBooks")
+    void testBestPrices_WithMultipleLevels(SimpleOrderBook book) {
+        book.addOrder(order(OrderSide.BUY, "45.50", 100));
+        book.addOrder(order(OrderSide.BUY, "45.60", 100));
+        book.addOrder(order(OrderSide.SELL, "45.80", 100));
+        book.addOrder(order(OrderSide.SELL, "45.70", 100));
+
+        assertEquals(0, new BigDecimal("45.60").compareTo(book.getBestBid()));
+        assertEquals(0, new BigDecimal("45.70").compareTo(book.getBestAsk()));
+        assertEquals(0, new BigDecimal("0.10").compareTo(book.getSpread()));
+        assertEquals(4, book.getTotalOrderCount());
+    }
+
+    @ParameterizedTest
+    @MethodSource("orderBooks")
+    void testTopLevels_AggregatesOrdersAtSamePrice(SimpleOrderBook book) {
+        book.addOrder(order(OrderSide.SELL, "45.70", 100));
+        book.addOrder(order(OrderSide.SELL, "45.7", 50));
+        book.addOrder(order(OrderSide.SELL, "46.00", 10));
+
+        List<OrderLevel> asks = book.getTop10Asks();
+
+        assertEquals(2, asks.size());
+        assertEquals(0, new BigDecimal("150").compareTo(asks.get(0).getQuantity()));
+        assertEquals(2, asks.get(0).getOrderCount());
+        assertEquals(0, new BigDecimal("46.00").compareTo(asks.get(1).getPrice()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("orderBooks")
+    void testRemoveOrder_UpdatesBestPrice(SimpleOrderBook book) {
+        Order best = order(OrderSide.BUY, "45.60", 100);
+        book.addOrder(best);
+        book.addOrder(order(OrderSide.BUY, "45.40", 100));
+
+        assertTrue(book.removeOrder(best.getOrderId()));
+        assertFalse(book.removeOrder(best.getOrderId()));
+        assertEquals(0, new BigDecimal("45.40").compareTo(book.getBestBid()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("orderBooks")
+    void testClear_EmptiesBookInPlace(SimpleOrderBook book) {
+        book.addOrder(order(OrderSide.BUY, "45.50", 100));
+        book.addOrder(order(OrderSide.BUY, "45.50", 50));
+        book.addOrder(order(OrderSide.SELL, "45.70", 100));
+        long versionBefore = book.getSnapshot().getVersion();
+
+        List<Order> cleared = book.clear();
+
+        assertEquals(3, cleared.size());
+        assertTrue(book.isEmpty());
+        assertEquals(0, book.getTotalOrderCount());
+        assertTrue(book.getTop10Bids().isEmpty());
+        assertTrue(book.getTop10Asks().isEmpty());
+        assertNotEquals(versionBefore, book.getSnapshot().getVersion());
+
+        book.addOrder(cleared.get(0));
+        assertEquals(0, new BigDecimal("45.50").compareTo(book.getBestBid()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("orderBooks")
+    void testRemoveOrder_FromMiddleOfLevelKeepsFifoOrder(SimpleOrderBook book) {
+        Order first = order(OrderSide.BUY, "45.50", 100);
+        Order middle = order(OrderSide.BUY, "45.50", 200);
+        Order last = order(OrderSide.BUY, "45.50", 300);
+        book.addOrder(first);
+        book.addOrder(middle);
+        book.addOrder(last);
+
+        assertTrue(book.removeOrder(middle.getOrderId()));
+
+        assertEquals(List.of(first, last), book.getBidOrders());
+        assertNull(book.getOrder(middle.getOrderId()));
+        assertSame(last, book.getOrder(last.getOrderId()));
+        assertEquals(2, book.getTotalOrderCount());
+    }
+
+    @ParameterizedTest
+    @MethodSource("orderBooks")
+    void testRemoveOrder_ReclaimsEmptyLevel(SimpleOrderBook book) {
+        Order only = order(OrderSide.SELL, "45.70", 100);
+        book.addOrder(only);
+
+        assertTrue(book.removeOrder(only.getOrderId()));
+
+        assertTrue(book.isEmpty());
+        assertNull(book.getBestAsk());
+        assertTrue(book.getTop10Asks().isEmpty());
+    }
+
+    @ParameterizedTest
+    @MethodSource("orderBooks")
+    void testReplaceOrder_QuantityReductionKeepsPriority(SimpleOrderBook book) {
+        Order first = order(OrderSide.SELL, "45.70", 100);
+        Order second = order(OrderSide.SELL, "45.70", 100);
+        book.addOrder(first);
+        book.addOrder(second);
+
+        Order reduced = copy(first, "45.70", 50);
+        assertTrue(book.replaceOrder(first.getOrderId(), reduced));
+
+        assertSame(reduced, book.getAskOrders().get(0));
+    }
+
+    @ParameterizedTest
+    @MethodSource("orderBooks")
+    void testReplaceOrder_PriceChangeRequeuesOrder(SimpleOrderBook book) {
+        Order first = order(OrderSide.SELL, "45.70", 100);
+        Order second = order(OrderSide.SELL, "45.80", 100);
+        book.addOrder(first);
+        book.addOrder(second);
+
+        Order repriced = copy(first, "45.80", 100);
+        assertTrue(book.replaceOrder(first.getOrderId(), repriced));
+
+        assertEquals(List.of(second, repriced), book.getAskOrders());
+        assertEquals(0, new BigDecimal("45.80").compareTo(book.getBestAsk()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("orderBooks")
+    void testRefreshOrder_KeepsLevelTotalAfterPartialFill(SimpleOrderBook book) {
+        Order partial = order(OrderSide.BUY, "45.50", 100);
+        book.addOrder(partial);
+        book.addOrder(order(OrderSide.BUY, "45.50", 50));
+
+        partial.setFilledQuantity(new BigDecimal("40"));
+        assertTrue(book.refreshOrder(partial.getOrderId()));
+        assertEquals(0, new BigDecimal("110").compareTo(book.getTop10Bids().get(0).getQuantity()));
+
+        assertTrue(book.removeOrder(partial.getOrderId()));
+        assertEquals(0, new BigDecimal("50").compareTo(book.getTop10Bids().get(0).getQuantity()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("orderBooks")
+    void testTopLevels_ReusedWhenChangeIsOutsideTopLevels(SimpleOrderBook book) {
+        for (int i = 0; i < 10; i++) {
+            book.addOrder(order(OrderSide.SELL, "45." + (70 + i), 100));
+        }
+        List<OrderLevel> asks = book.getTop10Asks();
+
+        book.addOrder(order(OrderSide.SELL, "46.50", 100));
+        assertSame(asks, book.getTop10Asks());
+
+        book.addOrder(order(OrderSide.SELL, "45.75", 100));
+        List<OrderLevel> rebuilt = book.getTop10Asks();
+        assertNotSame(asks, rebuilt);
+        assertEquals(0, new BigDecimal("200").compareTo(rebuilt.get(5).getQuantity()));
+    }
+
+    @Test
+    void testGetSnapshot_PublishedUntilBookChanges() {
+        SimpleOrderBook book = new SimpleOrderBook("THYAO");
+        book.addOrder(order(OrderSide.BUY, "45.50", 100));
+
+        SimpleOrderBookSnapshot snapshot = book.getSnapshot();
+        assertSame(snapshot, book.getPublishedSnapshot());
+        assertEquals(100, snapshot.getTotalBidQuantity());
+
+        book.addOrder(order(OrderSide.SELL, "45.70", 100));
+        assertNull(book.getPublishedSnapshot());
+        assertEquals(0, new BigDecimal("45.70").compareTo(book.getSnapshot().getBestAsk()));
+    }
+
+    @Test
+    void testAddOrder_RejectsDuplicateOrderId() {
+        SimpleOrderBook book = new SimpleOrderBook("THYAO");
+        Order order = order(OrderSide.BUY, "45.50", 100);
+        book.addOrder(order);
+
+        assertThrows(IllegalArgumentException.class, () -> book.addOrder(order));
+    }
+
+    @Test
+    void testTickLadder_GrowsWhenPriceOutsideWindow() {
+        SimpleOrderBook book = new SimpleOrderBook("THYAO", TICK_SIZE, 64);
+        book.addOrder(order(OrderSide.SELL, "45.00", 100));
+        book.addOrder(order(OrderSide.SELL, "52.00", 100));
+        book.addOrder(order(OrderSide.SELL, "40.00", 100));
+
+        List<OrderLevel> asks = book.getTop10Asks();
+
+        assertEquals(3, asks.size());
+        assertEquals(0, new BigDecimal("40.00").compareTo(asks.get(0).getPrice()));
+        assertEquals(0, new BigDecimal("52.00").compareTo(asks.get(2).getPrice()));
+    }
+
+    @Test
+    void testTickLadder_RejectsPriceOffTickGrid() {
+        SimpleOrderBook book = new SimpleOrderBook("THYAO", TICK_SIZE, 64);
+
+        assertThrows(IllegalArgumentException.class, () -> book.addOrder(order(OrderSide.BUY, "45.505", 100)));
+    }
+
+    private Order copy(Order original, String price, int quantity) {
+        Order order = order(original.getSide(), price, quantity);
+        order.setOrderId(original.getOrderId());
+        return order;
+    }
+
+    private Order order(OrderSide side, String price, int quantity) {
+        Order order = new Order();
+        order.setOrderId(nextOrderId++);
+        order.setSymbol("THYAO");
+        order.setSide(side);
+        order.setPrice(new BigDecimal(price));
+        order.setQuantity(new BigDecimal(quantity));
+        order.setFilledQuantity(BigDecimal.ZERO);
+        order.setCreatedAt(LocalDateTime.now());
+        return order;
+    }
+}
@@ -0,0 +1,138 @@
+package com.stofina.app.orderservice.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StopLossTriggerIndexTest {
+
+    private StopLossTriggerIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new StopLossTriggerIndex();
+    }
+
+    @Test
+    void testClaimTriggered_WithPriceAtOrBelowTrigger() {
+        index.add(watcher(1L, "THYAO", "95.00"));
+        index.add(watcher(2L, "THYAO", "100.00"));
+        index.add(watcher(3L, "THYAO", "105.00"));
+        index.add(watcher(4L, "GARAN", "200.00"));
+
+        List<SimpleStopLossWatcher> claimed = index.claimTriggered("THYAO", new BigDecimal("100"));
+
+        assertEquals(List.of(2L, 3L), claimed.stream().map(SimpleStopLossWatcher::getOrderId).toList());
+        assertEquals(1, index.countBySymbol("THYAO"));
+        assertEquals(1, index.countBySymbol("GARAN"));
+        // Claimed watchers stay registered until the caller removes them
+        assertTrue(index.contains(2L));
+    }
+
+    @Test
+    void testClaimTriggered_WithSameTriggerPrice() {
+        index.add(watcher(1L, "THYAO", "100.00"));
+        index.add(watcher(2L, "THYAO", "100.0"));
+
+        assertEquals(2, index.claimTriggered("THYAO", new BigDecimal("99.99")).size());
+        assertTrue(index.claimTriggered("THYAO", new BigDecimal("99.99")).isEmpty());
+    }
+
+    @Test
+    void testClaimTriggered_WithPriceAboveAllTriggers() {
+        index.add(watcher(1L, "THYAO", "95.00"));
+
+        assertTrue(index.claimTriggered("THYAO", new BigDecimal("96")).isEmpty());
+        assertTrue(index.claimTriggered("UNKNOWN", new BigDecimal("1")).isEmpty());
+        assertEquals(1, index.countBySymbol("THYAO"));
+    }
+
+    @Test
+    void testRemove_WithArmedWatcher() {
+        index.add(watcher(1L, "THYAO", "100.00"));
+
+        assertNotNull(index.remove(1L));
+
+        assertFalse(index.contains(1L));
+        assertTrue(index.claimTriggered("THYAO", new BigDecimal("50")).isEmpty());
+        assertNull(index.remove(1L));
+    }
+
+    @Test
+    void testRearm_WithClaimedWatcher() {
+        index.add(watcher(1L, "THYAO", "100.00"));
+        SimpleStopLossWatcher claimed = index.claimTriggered("THYAO", new BigDecimal("99")).get(0);
+
+        index.rearm(claimed);
+
+        assertEquals(1, index.claimTriggered("THYAO", new BigDecimal("99")).size());
+    }
+
+    @Test
+    void testRearm_WithRemovedWatcher() {
+        index.add(watcher(1L, "THYAO", "100.00"));
+        SimpleStopLossWatcher claimed = index.claimTriggered("THYAO", new BigDecimal("99")).get(0);
+        index.remove(1L);
+
+        index.rearm(claimed);
+
+        assertTrue(index.claimTriggered("THYAO", new BigDecimal("99")).isEmpty());
+    }
+
+    @Test
+    void testClaimTriggered_CountsChecksBeforeTrigger() {
+        index.add(watcher(1L, "THYAO", "90.00"));
+        index.claimTriggered("THYAO", new BigDecimal("100"));
+        index.claimTriggered("THYAO", new BigDecimal("95"));
+
+        SimpleStopLossWatcher claimed = index.claimTriggered("THYAO", new BigDecimal("89")).get(0);
+
+        assertEquals(2, claimed.getCheckCount());
+        assertNotNull(claimed.getLastCheckAt());
+    }
+
+    @Test
+    void testSyncActivity_WithChecksSinceLastSync() {
+        index.add(watcher(1L, "THYAO", "90.00"));
+        index.claimTriggered("THYAO", new BigDecimal("100"));
+        index.claimTriggered("THYAO", new BigDecimal("95"));
+
+        List<SimpleStopLossWatcher> synced = index.syncActivity("THYAO", 0);
+
+        assertEquals(1, synced.size());
+        assertEquals(2, synced.get(0).getCheckCount());
+        assertTrue(index.syncActivity("THYAO", 0).isEmpty());
+        assertTrue(index.syncActivity("THYAO", 60_000).isEmpty());
+        // Synced checks are not counted again when the watcher triggers
+        assertEquals(2, index.claimTriggered("THYAO", new BigDecimal("89")).get(0).getCheckCount());
+    }
+
+    @Test
+    void testRemoveIf_WithExpiredWatchers() {
+        SimpleStopLossWatcher expired = watcher(1L, "THYAO", "100.00");
+        expired.setCreatedAt(LocalDateTime.now().minusDays(2));
+        index.add(expired);
+        index.add(watcher(2L, "THYAO", "100.00"));
+
+        int removed = index.removeIf(w -> w.getCreatedAt().isBefore(LocalDateTime.now().minusDays(1)));
+
+        assertEquals(1, removed);
+        assertEquals(1, index.size());
+        assertEquals(1, index.countBySymbol("THYAO"));
+    }
+
+    private SimpleStopLossWatcher watcher(Long orderId, String symbol, String triggerPrice) {
+        SimpleStopLossWatcher watcher = new SimpleStopLossWatcher();
+        watcher.setOrderId(orderId);
+        watcher.setSymbol(symbol);
+        watcher.setTriggerPrice(new BigDecimal(triggerPrice));
+        watcher.setQuantity(BigDecimal.TEN);
+        watcher.setCreatedAt(LocalDateTime.now());
+        return watcher;
+    }
+}
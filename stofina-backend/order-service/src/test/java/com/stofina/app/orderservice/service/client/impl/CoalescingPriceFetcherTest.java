@@ -0,0 +1,75 @@
+package com.stofina.app.orderservice.service.client.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingPriceFetcherTest {
+
+    private final List<List<String>> calls = new ArrayList<>();
+    private final List<CompletableFuture<Map<String, BigDecimal>>> responses = new ArrayList<>();
+
+    private final CoalescingPriceFetcher fetcher = new CoalescingPriceFetcher(symbols -> {
+        calls.add(symbols);
+        CompletableFuture<Map<String, BigDecimal>> response = new CompletableFuture<>();
+        responses.add(response);
+        return response;
+    }, 2);
+
+    @Test
+    void testFetch_WithConcurrentRequestsForSameSymbol() throws Exception {
+        CompletableFuture<BigDecimal> first = fetcher.fetch("THYAO");
+        CompletableFuture<BigDecimal> second = fetcher.fetch("THYAO");
+
+        assertSame(first, second);
+        assertEquals(1, calls.size());
+
+        responses.get(0).complete(Map.of("THYAO", new BigDecimal("100.50")));
+
+        assertEquals(new BigDecimal("100.50"), second.get());
+        assertEquals(0, fetcher.getInFlightCount());
+    }
+
+    @Test
+    void testFetch_WithMissesQueuedBehindInFlightBatch() throws Exception {
+        CompletableFuture<BigDecimal> thyao = fetcher.fetch("THYAO");
+        CompletableFuture<BigDecimal> garan = fetcher.fetch("GARAN");
+        CompletableFuture<BigDecimal> akbnk = fetcher.fetch("AKBNK");
+        CompletableFuture<BigDecimal> tuprs = fetcher.fetch("TUPRS");
+
+        // Misses wait for the running call and then go out together, split by the batch size
+        assertEquals(List.of(List.of("THYAO")), calls);
+        responses.get(0).complete(Map.of("THYAO", new BigDecimal("100.50")));
+
+        assertEquals(List.of(List.of("THYAO"), List.of("GARAN", "AKBNK"), List.of("TUPRS")), calls);
+        responses.get(1).complete(Map.of("GARAN", new BigDecimal("55.10")));
+        responses.get(2).complete(Map.of("TUPRS", new BigDecimal("150.00")));
+
+        assertEquals(new BigDecimal("100.50"), thyao.get());
+        assertEquals(new BigDecimal("55.10"), garan.get());
+        assertNull(akbnk.get());
+        assertEquals(new BigDecimal("150.00"), tuprs.get());
+        assertEquals(3, calls.size());
+    }
+
+    @Test
+    void testFetch_WithFailedBatch() {
+        CompletableFuture<BigDecimal> thyao = fetcher.fetch("THYAO");
+        responses.get(0).completeExceptionally(new RuntimeException("market-data unavailable"));
+
+        assertThrows(ExecutionException.class, thyao::get);
+        assertEquals(0, fetcher.getInFlightCount());
+
+        // The next request starts a new fetch instead of reusing the failure
+        CompletableFuture<BigDecimal> retry = fetcher.fetch("THYAO");
+        assertNotSame(thyao, retry);
+        assertEquals(2, calls.size());
+    }
+}
@@ -0,0 +1,128 @@
+package com.stofina.app.orderservice.service.client.impl;
+
+import com.stofina.app.orderservice.dto.portfolio.TradeConfirmationItem;
+import com.stofina.app.orderservice.dto.portfolio.TradeConfirmationResult;
+import com.stofina.app.orderservice.dto.portfolio.TradeConfirmationType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TradeConfirmationBatcherTest {
+
+    private final List<List<TradeConfirmationItem>> calls = new CopyOnWriteArrayList<>();
+    private final List<CompletableFuture<List<TradeConfirmationResult>>> responses = new CopyOnWriteArrayList<>();
+
+    private TradeConfirmationBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    void testSubmit_WithFullBatch() throws Exception {
+        batcher = new TradeConfirmationBatcher(this::record, 2, 60_000);
+
+        CompletableFuture<TradeConfirmationResult> first = batcher.submit(item(1L, TradeConfirmationType.BUY));
+        assertTrue(calls.isEmpty());
+        CompletableFuture<TradeConfirmationResult> second = batcher.submit(item(2L, TradeConfirmationType.SELL));
+
+        // The second confirmation fills the batch, so it goes out without waiting for the window
+        assertEquals(1, calls.size());
+        assertEquals(List.of(1L, 2L), calls.get(0).stream().map(TradeConfirmationItem::getOrderId).toList());
+        assertEquals(0, batcher.getPendingCount());
+
+        responses.get(0).complete(List.of(result(1L, true), result(2L, false)));
+
+        assertTrue(first.get().isSuccess());
+        assertFalse(second.get().isSuccess());
+        assertEquals(2L, second.get().getOrderId());
+    }
+
+    @Test
+    void testSubmit_WithWindowClosing() throws Exception {
+        batcher = new TradeConfirmationBatcher(items -> {
+            calls.add(items);
+            return CompletableFuture.completedFuture(items.stream().map(item -> result(item.getOrderId(), true)).toList());
+        }, 100, 20);
+
+        CompletableFuture<TradeConfirmationResult> first = batcher.submit(item(1L, TradeConfirmationType.BUY));
+        CompletableFuture<TradeConfirmationResult> second = batcher.submit(item(2L, TradeConfirmationType.SELL_PARTIAL));
+
+        assertEquals(2L, second.get(5, TimeUnit.SECONDS).getOrderId());
+        assertEquals(1L, first.get(5, TimeUnit.SECONDS).getOrderId());
+        assertEquals(1, calls.size());
+        assertEquals(2, calls.get(0).size());
+    }
+
+    @Test
+    void testSubmit_WithFailedBatch() {
+        batcher = new TradeConfirmationBatcher(this::record, 2, 60_000);
+
+        CompletableFuture<TradeConfirmationResult> first = batcher.submit(item(1L, TradeConfirmationType.BUY));
+        CompletableFuture<TradeConfirmationResult> second = batcher.submit(item(2L, TradeConfirmationType.BUY));
+        responses.get(0).completeExceptionally(new IllegalStateException("portfolio down"));
+
+        ExecutionException error = assertThrows(ExecutionException.class, first::get);
+        assertEquals("portfolio down", error.getCause().getMessage());
+        assertThrows(ExecutionException.class, second::get);
+    }
+
+    @Test
+    void testSubmit_WithMissingResult() throws Exception {
+        batcher = new TradeConfirmationBatcher(this::record, 2, 60_000);
+
+        CompletableFuture<TradeConfirmationResult> first = batcher.submit(item(1L, TradeConfirmationType.BUY));
+        CompletableFuture<TradeConfirmationResult> second = batcher.submit(item(2L, TradeConfirmationType.BUY));
+        responses.get(0).complete(List.of(result(1L, true)));
+
+        assertTrue(first.get().isSuccess());
+        assertThrows(ExecutionException.class, second::get);
+    }
+
+    @Test
+    void testShutdown_WithPendingConfirmations() {
+        batcher = new TradeConfirmationBatcher(this::record, 100, 60_000);
+        batcher.submit(item(1L, TradeConfirmationType.BUY));
+
+        batcher.shutdown();
+        batcher.submit(item(2L, TradeConfirmationType.SELL));
+
+        assertEquals(2, calls.size());
+        assertEquals(1, calls.get(1).size());
+        assertEquals(0, batcher.getPendingCount());
+    }
+
+    private CompletableFuture<List<TradeConfirmationResult>> record(List<TradeConfirmationItem> items) {
+        calls.add(items);
+        CompletableFuture<List<TradeConfirmationResult>> response = new CompletableFuture<>();
+        responses.add(response);
+        return response;
+    }
+
+    private TradeConfirmationItem item(Long orderId, TradeConfirmationType type) {
+        return TradeConfirmationItem.builder()
+                .orderId(orderId)
+                .accountId(10L)
+                .type(type)
+                .fulfilledQuantity(type == TradeConfirmationType.BUY_PARTIAL || type == TradeConfirmationType.SELL_PARTIAL ? 5 : null)
+                .build();
+    }
+
+    private TradeConfirmationResult result(Long orderId, boolean success) {
+        return TradeConfirmationResult.builder()
+                .orderId(orderId)
+                .success(success)
+                .errorCode(success ? null : "CONFLICT")
+                .build();
+    }
+}
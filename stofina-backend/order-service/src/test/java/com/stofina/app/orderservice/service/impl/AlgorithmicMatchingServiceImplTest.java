@@ -0,0 +1,150 @@
+package com.stofina.app.orderservice.service.impl;
+
+import com.stofina.app.orderservice.config.OrderBookConfig;
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.entity.Trade;
+import com.stofina.app.orderservice.enums.OrderSide;
+import com.stofina.app.orderservice.enums.OrderStatus;
+import com.stofina.app.orderservice.enums.OrderType;
+import com.stofina.app.orderservice.repository.OrderRepository;
+import com.stofina.app.orderservice.service.SimpleOrderBookManager;
+import com.stofina.app.orderservice.service.client.PortfolioClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AlgorithmicMatchingServiceImplTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private SimpleOrderBookManager orderBookManager;
+
+    @Mock
+    private PortfolioClient portfolioClient;
+
+    private AlgorithmicMatchingServiceImpl algorithmicMatchingService;
+
+    @BeforeEach
+    void setUp() {
+        OrderBookConfig config = new OrderBookConfig();
+        config.getAlgorithmicMatching().setTickMillis(10);
+        config.getAlgorithmicMatching().setWorkers(1);
+        algorithmicMatchingService = new AlgorithmicMatchingServiceImpl(orderRepository, portfolioClient, config);
+        ReflectionTestUtils.setField(algorithmicMatchingService, "orderBookManager", orderBookManager);
+        algorithmicMatchingService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        algorithmicMatchingService.shutdown();
+    }
+
+    @Test
+    void testCancelAlgorithmicMatching_WithPendingAttempt() {
+        algorithmicMatchingService.scheduleAlgorithmicMatching(order(1L), 15);
+
+        assertEquals(1, algorithmicMatchingService.getTrackedOrderCount());
+        assertEquals(1, algorithmicMatchingService.getPendingTimerCount());
+
+        algorithmicMatchingService.cancelAlgorithmicMatching(1L);
+
+        assertEquals(0, algorithmicMatchingService.getTrackedOrderCount());
+        assertEquals(0, algorithmicMatchingService.getPendingTimerCount());
+        assertTrue(algorithmicMatchingService.isEligibleForAlgorithmicMatching(1L));
+    }
+
+    @Test
+    void testExecuteAlgorithmicMatching_WithFilledOrder() {
+        Order order = order(1L);
+        order.setStatus(OrderStatus.FILLED);
+
+        assertTrue(algorithmicMatchingService.executeAlgorithmicMatching(order).isEmpty());
+
+        assertEquals(0, algorithmicMatchingService.getTrackedOrderCount());
+        verify(orderRepository, never()).findById(any());
+    }
+
+    @Test
+    void testExecuteAlgorithmicMatching_WithAttemptsExhausted() {
+        lenient().when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Order order = order(1L);
+        lenient().when(orderBookManager.submitCounterFill(any(), any()))
+                .thenAnswer(invocation -> fill(order, invocation.getArgument(1)));
+
+        algorithmicMatchingService.executeAlgorithmicMatching(order);
+        algorithmicMatchingService.executeAlgorithmicMatching(order);
+
+        // Whatever strategy ran, the second attempt is the last one and the order is no longer tracked
+        assertEquals(0, algorithmicMatchingService.getTrackedOrderCount());
+        assertEquals(0, algorithmicMatchingService.getPendingTimerCount());
+        verify(orderRepository, never()).findById(any());
+    }
+
+    @Test
+    void testExecuteAlgorithmicMatching_FillsThroughOrderBookShard() {
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(orderBookManager.submitCounterFill(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        // The strategy is random, so run fresh orders until one of them takes a fill strategy
+        long orderId = 0;
+        while (mockingDetails(orderBookManager).getInvocations().isEmpty() && orderId < 200) {
+            Order order = order(++orderId);
+            algorithmicMatchingService.executeAlgorithmicMatching(order);
+            algorithmicMatchingService.executeAlgorithmicMatching(order);
+        }
+        long filledOrderId = orderId;
+
+        verify(orderBookManager, atLeastOnce()).submitCounterFill(eq(filledOrderId),
+                argThat(counter -> Boolean.TRUE.equals(counter.getIsBot()) && counter.getSide() == OrderSide.SELL));
+        // Only the counter bot order is inserted; the resting user order is never saved from here
+        verify(orderRepository, never()).save(argThat(saved -> !Boolean.TRUE.equals(saved.getIsBot())));
+    }
+
+    // Stands in for the shard: fills the resting order by the counter order's quantity
+    private CompletableFuture<List<Trade>> fill(Order resting, Order counter) {
+        resting.setFilledQuantity(resting.getFilledQuantity().add(counter.getQuantity()));
+        resting.setStatus(resting.getRemainingQuantity().signum() > 0 ? OrderStatus.PARTIALLY_FILLED : OrderStatus.FILLED);
+        Trade trade = new Trade();
+        trade.setQuantity(counter.getQuantity());
+        trade.setPrice(counter.getPrice());
+        return CompletableFuture.completedFuture(List.of(trade));
+    }
+
+    private Order order(Long orderId) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setTenantId(1L);
+        order.setAccountId(1L);
+        order.setSymbol("THYAO");
+        order.setSide(OrderSide.BUY);
+        order.setOrderType(OrderType.LIMIT_BUY);
+        order.setPrice(new BigDecimal("100.00"));
+        order.setQuantity(new BigDecimal("100"));
+        order.setFilledQuantity(BigDecimal.ZERO);
+        order.setStatus(OrderStatus.NEW);
+        return order;
+    }
+}
@@ -0,0 +1,112 @@
+package com.stofina.app.orderservice.service.impl;
+
+import com.stofina.app.orderservice.config.OrderBookConfig;
+import com.stofina.app.orderservice.dto.response.TradeFeedMessage;
+import com.stofina.app.orderservice.entity.Trade;
+import com.stofina.app.orderservice.enums.OrderSide;
+import com.stofina.app.orderservice.model.SimpleOrderBookSnapshot;
+import com.stofina.app.orderservice.service.OrderBookFeedService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class MarketFeedPublisherImplTest {
+
+    @Mock
+    private OrderBookFeedService orderBookFeedService;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private OrderBookConfig config;
+
+    private MarketFeedPublisherImpl publisher;
+
+    @BeforeEach
+    void setUp() {
+        config = new OrderBookConfig();
+        // Not started: the tests drive flush() directly
+        publisher = new MarketFeedPublisherImpl(orderBookFeedService, messagingTemplate, config);
+    }
+
+    @Test
+    void testFlush_ConflatesRepeatedChangesIntoOnePublish() {
+        AtomicInteger snapshotsBuilt = new AtomicInteger();
+        SimpleOrderBookSnapshot snapshot = new SimpleOrderBookSnapshot("THYAO", List.of(), List.of(), null, null,
+                null, null, 0, 0);
+        for (int i = 0; i < 100; i++) {
+            publisher.markOrderBookDirty("thyao", () -> {
+                snapshotsBuilt.incrementAndGet();
+                return snapshot;
+            });
+        }
+
+        publisher.flush();
+        publisher.flush();
+
+        assertEquals(1, snapshotsBuilt.get());
+        verify(orderBookFeedService, times(1)).publish(snapshot);
+    }
+
+    @Test
+    void testFlush_BatchesTradesIntoOneFramePerSymbol() {
+        publisher.publishTrades(List.of(trade(1L), trade(2L)), OrderSide.BUY);
+        publisher.publishTrades(List.of(trade(3L)), OrderSide.SELL);
+
+        publisher.flush();
+
+        ArgumentCaptor<TradeFeedMessage> captor = ArgumentCaptor.forClass(TradeFeedMessage.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/trades/THYAO"), captor.capture());
+        List<TradeFeedMessage.TradeItem> trades = captor.getValue().getPayload().getTrades();
+        assertEquals(List.of(1L, 2L, 3L), trades.stream().map(TradeFeedMessage.TradeItem::getId).toList());
+        assertEquals(OrderSide.SELL, trades.get(2).getSide());
+    }
+
+    @Test
+    void testFlush_SplitsTradesAboveFrameLimit() {
+        config.getFeed().setMaxTradesPerFrame(2);
+        publisher.publishTrades(List.of(trade(1L), trade(2L), trade(3L)), OrderSide.BUY);
+
+        publisher.flush();
+        publisher.flush();
+        publisher.flush();
+
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/trades/THYAO"), any(TradeFeedMessage.class));
+    }
+
+    @Test
+    void testFlush_NothingPendingSendsNothing() {
+        publisher.flush();
+
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+        verify(orderBookFeedService, never()).publish(any());
+    }
+
+    private Trade trade(Long id) {
+        Trade trade = new Trade();
+        trade.setTradeId(id);
+        trade.setSymbol("THYAO");
+        trade.setPrice(new BigDecimal("45.70"));
+        trade.setQuantity(new BigDecimal("10"));
+        trade.setExecutedAt(LocalDateTime.now());
+        return trade;
+    }
+}
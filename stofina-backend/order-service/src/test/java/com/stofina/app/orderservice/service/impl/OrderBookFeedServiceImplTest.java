@@ -0,0 +1,99 @@
+package com.stofina.app.orderservice.service.impl;
+
+import com.stofina.app.orderservice.dto.response.OrderBookFeedMessage;
+import com.stofina.app.orderservice.enums.OrderSide;
+import com.stofina.app.orderservice.model.OrderLevel;
+import com.stofina.app.orderservice.model.SimpleOrderBookSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class OrderBookFeedServiceImplTest {
+
+    private static final String SYMBOL = "THYAO";
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private OrderBookFeedServiceImpl feedService;
+
+    @BeforeEach
+    void setUp() {
+        feedService = new OrderBookFeedServiceImpl(messagingTemplate);
+    }
+
+    @Test
+    void testSnapshot_ReturnsLevelsAtCurrentSequence() {
+        OrderBookFeedMessage message = feedService.snapshot(book(
+                List.of(level("45.50", 100), level("45.40", 200)),
+                List.of(level("45.70", 50))));
+
+        assertEquals(OrderBookFeedMessage.TYPE_SNAPSHOT, message.getType());
+        assertEquals(1, message.getPayload().getSequence());
+        assertEquals(2, message.getPayload().getBids().size());
+        assertEquals(OrderBookFeedServiceImpl.checksum(message.getPayload().getBids(), message.getPayload().getAsks()),
+                message.getPayload().getChecksum());
+    }
+
+    @Test
+    void testPublish_SendsOnlyChangedLevels() {
+        feedService.publish(book(List.of(level("45.50", 100), level("45.40", 200)), List.of(level("45.70", 50))));
+
+        feedService.publish(book(List.of(level("45.50", 150)), List.of(level("45.70", 50))));
+
+        ArgumentCaptor<OrderBookFeedMessage> captor = ArgumentCaptor.forClass(OrderBookFeedMessage.class);
+        verify(messagingTemplate, times(2)).convertAndSend(eq("/topic/orderbook/THYAO"), captor.capture());
+        OrderBookFeedMessage delta = captor.getAllValues().get(1);
+        assertEquals(OrderBookFeedMessage.TYPE_DELTA, delta.getType());
+        assertEquals(2, delta.getPayload().getSequence());
+        assertEquals(List.of(
+                new OrderBookFeedMessage.LevelChange(OrderSide.BUY, new BigDecimal("45.50"), new BigDecimal("150"), 1),
+                new OrderBookFeedMessage.LevelChange(OrderSide.BUY, new BigDecimal("45.40"), BigDecimal.ZERO, 0)),
+                delta.getPayload().getChanges());
+        assertEquals(OrderBookFeedServiceImpl.checksum(List.of(level("45.50", 150)), List.of(level("45.70", 50))),
+                delta.getPayload().getChecksum());
+    }
+
+    @Test
+    void testPublish_UnchangedBookSendsNothing() {
+        SimpleOrderBookSnapshot snapshot = book(List.of(level("45.50", 100)), List.of());
+        feedService.snapshot(snapshot);
+        clearInvocations(messagingTemplate);
+
+        feedService.publish(book(List.of(level("45.5", 100)), List.of()));
+
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+        assertEquals(1, feedService.getSequence(SYMBOL));
+    }
+
+    @Test
+    void testChecksum_IgnoresTrailingZeros() {
+        assertEquals(OrderBookFeedServiceImpl.checksum(List.of(level("45.50", 100)), List.of()),
+                OrderBookFeedServiceImpl.checksum(List.of(level("45.5", 100)), List.of()));
+    }
+
+    private SimpleOrderBookSnapshot book(List<OrderLevel> bids, List<OrderLevel> asks) {
+        return new SimpleOrderBookSnapshot(SYMBOL, bids, asks, null, null, null, null, 0, 0);
+    }
+
+    private OrderLevel level(String price, int quantity) {
+        return new OrderLevel(new BigDecimal(price), new BigDecimal(quantity), 1);
+    }
+}
@@ -0,0 +1,168 @@
+package com.stofina.app.orderservice.service.impl;
+
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.enums.OrderStatus;
+import com.stofina.app.orderservice.repository.OrderRepository;
+import com.stofina.app.orderservice.service.AlgorithmicMatchingService;
+import com.stofina.app.orderservice.service.SimpleOrderBookManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PendingOrderServiceImplTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private SimpleOrderBookManager orderBookManager;
+
+    @Mock
+    private AlgorithmicMatchingService algorithmicMatchingService;
+
+    private PendingOrderServiceImpl pendingOrderService;
+
+    @BeforeEach
+    void setUp() {
+        pendingOrderService = new PendingOrderServiceImpl(orderRepository, orderBookManager, algorithmicMatchingService);
+    }
+
+    @Test
+    void testCheckAndActivatePendingOrders_WithOrdersAtBandEdges() {
+        addPending(1L, "THYAO", "98.50");
+        addPending(2L, "THYAO", "101.50");
+        addPending(3L, "THYAO", "101.51");
+        addPending(4L, "THYAO", "98.49");
+        addPending(5L, "GARAN", "100.00");
+        when(orderBookManager.submitOrders(anyString(), anyList()))
+                .thenReturn(CompletableFuture.completedFuture(new ArrayList<>()));
+
+        List<Order> activated = pendingOrderService.checkAndActivatePendingOrders("THYAO", new BigDecimal("100"));
+
+        assertEquals(List.of(1L, 2L), activated.stream().map(Order::getOrderId).toList());
+        assertTrue(activated.stream().allMatch(order -> order.getStatus() == OrderStatus.ACTIVE));
+        verify(orderRepository, times(1)).updateOrderStatuses(List.of(1L, 2L), OrderStatus.ACTIVE);
+        verify(orderBookManager, times(1)).submitOrders("THYAO", activated);
+        assertEquals(List.of(4L, 3L), pendingOrderService.getPendingOrdersBySymbol("THYAO").stream()
+                .map(Order::getOrderId).toList());
+        assertEquals(3, pendingOrderService.getAllPendingOrders().size());
+    }
+
+    @Test
+    void testCheckAndActivatePendingOrders_WithPriceRangeOfBatch() {
+        addPending(1L, "THYAO", "95.00");
+        addPending(2L, "THYAO", "103.00");
+        addPending(3L, "THYAO", "110.00");
+        when(orderBookManager.submitOrders(anyString(), anyList()))
+                .thenReturn(CompletableFuture.completedFuture(new ArrayList<>()));
+
+        List<Order> activated = pendingOrderService.checkAndActivatePendingOrders("THYAO",
+                new BigDecimal("96"), new BigDecimal("104"));
+
+        assertEquals(List.of(1L, 2L), activated.stream().map(Order::getOrderId).toList());
+        assertEquals(1, pendingOrderService.getAllPendingOrders().size());
+    }
+
+    @Test
+    void testCheckAndActivatePendingOrders_WithNoOrderInBand() {
+        addPending(1L, "THYAO", "120.00");
+
+        List<Order> activated = pendingOrderService.checkAndActivatePendingOrders("THYAO", new BigDecimal("100"));
+
+        assertTrue(activated.isEmpty());
+        verify(orderRepository, never()).updateOrderStatuses(anyList(), any());
+        verify(orderBookManager, never()).submitOrders(anyString(), anyList());
+    }
+
+    @Test
+    void testCheckAndActivatePendingOrders_WithFailedStatusUpdate() {
+        addPending(1L, "THYAO", "100.00");
+        when(orderRepository.updateOrderStatuses(anyList(), eq(OrderStatus.ACTIVE)))
+                .thenThrow(new RuntimeException("database unavailable"));
+
+        List<Order> activated = pendingOrderService.checkAndActivatePendingOrders("THYAO", new BigDecimal("100"));
+
+        assertTrue(activated.isEmpty());
+        assertEquals(1, pendingOrderService.getPendingOrdersBySymbol("THYAO").size());
+        verify(orderBookManager, never()).submitOrders(anyString(), anyList());
+    }
+
+    @Test
+    void testCheckAndActivatePendingOrders_SubmitsOnceActivationIsCommitted() {
+        addPending(1L, "THYAO", "100.00");
+        when(orderBookManager.submitOrders(anyString(), anyList()))
+                .thenReturn(CompletableFuture.completedFuture(new ArrayList<>()));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            List<Order> activated = pendingOrderService.checkAndActivatePendingOrders("THYAO", new BigDecimal("100"));
+
+            assertEquals(1, activated.size());
+            verify(orderRepository).updateOrderStatuses(List.of(1L), OrderStatus.ACTIVE);
+            verify(orderBookManager, times(1)).submitOrders("THYAO", activated);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testCheckAndActivatePendingOrders_WithOuterRollback() {
+        addPending(1L, "THYAO", "100.00");
+        when(orderBookManager.submitOrders(anyString(), anyList()))
+                .thenReturn(CompletableFuture.completedFuture(new ArrayList<>()));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            List<Order> activated = pendingOrderService.checkAndActivatePendingOrders("THYAO", new BigDecimal("100"));
+
+            // The status update committed on its own; the caller's rollback must not strand the orders
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            assertEquals(OrderStatus.ACTIVE, activated.get(0).getStatus());
+            verify(orderBookManager, times(1)).submitOrders("THYAO", activated);
+            assertTrue(pendingOrderService.getAllPendingOrders().isEmpty());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testRemovePendingOrder_WithActivationAfterRemoval() {
+        addPending(1L, "THYAO", "100.00");
+
+        assertTrue(pendingOrderService.removePendingOrder(1L));
+
+        assertTrue(pendingOrderService.checkAndActivatePendingOrders("THYAO", new BigDecimal("100")).isEmpty());
+        assertFalse(pendingOrderService.removePendingOrder(1L));
+    }
+
+    private void addPending(Long orderId, String symbol, String price) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setSymbol(symbol);
+        order.setPrice(new BigDecimal(price));
+        order.setQuantity(BigDecimal.TEN);
+        pendingOrderService.addToPendingActivation(order, new BigDecimal("100"), order.getPrice());
+    }
+}
@@ -0,0 +1,350 @@
+package com.stofina.app.orderservice.service.impl;
+
+import com.stofina.app.orderservice.config.OrderBookConfig;
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.entity.Trade;
+import com.stofina.app.orderservice.enums.OrderSide;
+import com.stofina.app.orderservice.enums.OrderStatus;
+import com.stofina.app.orderservice.enums.OrderType;
+import com.stofina.app.orderservice.service.AlgorithmicMatchingService;
+import com.stofina.app.orderservice.service.MarketFeedPublisher;
+import com.stofina.app.orderservice.service.TradePersistenceService;
+import com.stofina.app.orderservice.service.TradeSettlementService;
+import com.stofina.app.orderservice.util.SnowflakeIdGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SimpleOrderBookManagerImplTest {
+
+    private static final String SYMBOL = "THYAO";
+
+    @Mock
+    private AlgorithmicMatchingService algorithmicMatchingService;
+
+    @Mock
+    private TradeSettlementService tradeSettlementService;
+
+    @Mock
+    private TradePersistenceService tradePersistenceService;
+
+    @Mock
+    private MarketFeedPublisher marketFeedPublisher;
+
+    private SimpleOrderBookManagerImpl orderBookManager;
+
+    private long nextOrderId = 1;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(tradePersistenceService.whenDurable()).thenReturn(CompletableFuture.completedFuture(null));
+        orderBookManager = new SimpleOrderBookManagerImpl(algorithmicMatchingService, tradeSettlementService,
+                tradePersistenceService, new OrderBookConfig(), new SnowflakeIdGenerator(0, 64),
+                marketFeedPublisher);
+        orderBookManager.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderBookManager.shutdown();
+    }
+
+    @Test
+    void testAddOrder_LimitBuyWalksLevelsUntilLimit() {
+        orderBookManager.addOrder(limit(OrderSide.SELL, "45.70", 100));
+        orderBookManager.addOrder(limit(OrderSide.SELL, "45.80", 100));
+        orderBookManager.addOrder(limit(OrderSide.SELL, "45.90", 100));
+
+        Order buy = limit(OrderSide.BUY, "45.80", 250);
+        List<Trade> trades = orderBookManager.addOrder(buy);
+
+        assertEquals(2, trades.size());
+        assertEquals(0, new BigDecimal("45.70").compareTo(trades.get(0).getPrice()));
+        assertEquals(0, new BigDecimal("45.80").compareTo(trades.get(1).getPrice()));
+        assertEquals(OrderStatus.PARTIALLY_FILLED, buy.getStatus());
+        verify(tradeSettlementService, times(2)).submitTrade(any(Trade.class), any(Order.class), any(Order.class));
+        verify(tradePersistenceService, times(2)).recordTrade(any(Trade.class));
+        verify(tradePersistenceService).recordOrderUpdate(buy);
+        verify(marketFeedPublisher).publishTrades(List.of(trades.get(0)), OrderSide.BUY);
+        verify(marketFeedPublisher).publishTrades(List.of(trades.get(1)), OrderSide.BUY);
+        assertEquals(0, new BigDecimal("45.80").compareTo(orderBookManager.getBestBid(SYMBOL)));
+        assertEquals(0, new BigDecimal("45.90").compareTo(orderBookManager.getBestAsk(SYMBOL)));
+    }
+
+    @Test
+    void testAddOrder_FillsSameLevelInTimePriority() {
+        Order first = limit(OrderSide.BUY, "45.50", 100);
+        Order second = limit(OrderSide.BUY, "45.50", 100);
+        orderBookManager.addOrder(first);
+        orderBookManager.addOrder(second);
+
+        List<Trade> trades = orderBookManager.addOrder(limit(OrderSide.SELL, "45.50", 150));
+
+        assertEquals(2, trades.size());
+        assertEquals(first.getOrderId(), trades.get(0).getBuyOrderId());
+        assertEquals(OrderStatus.FILLED, first.getStatus());
+        assertEquals(0, new BigDecimal("50").compareTo(second.getRemainingQuantity()));
+    }
+
+    @Test
+    void testAddOrder_AveragePriceRoundsHalfUpAcrossFills() {
+        orderBookManager.addOrder(limit(OrderSide.SELL, "10.00", 1));
+        orderBookManager.addOrder(limit(OrderSide.SELL, "10.01", 2));
+
+        Order buy = limit(OrderSide.BUY, "10.01", 3);
+        orderBookManager.addOrder(buy);
+
+        // (10.00 x 1 + 10.01 x 2) / 3 = 10.00666... -> 10.0067
+        assertEquals(OrderStatus.FILLED, buy.getStatus());
+        assertEquals(0, new BigDecimal("10.0067").compareTo(buy.getAveragePrice()));
+        assertEquals(0, new BigDecimal("3").compareTo(buy.getFilledQuantity()));
+    }
+
+    @Test
+    void testAddOrder_MarketBuyStopsAtProtectionBand() {
+        orderBookManager.addOrder(limit(OrderSide.SELL, "100.00", 100));
+        orderBookManager.addOrder(limit(OrderSide.SELL, "104.00", 100));
+        orderBookManager.addOrder(limit(OrderSide.SELL, "106.00", 100));
+
+        Order marketBuy = limit(OrderSide.BUY, null, 300);
+        marketBuy.setOrderType(OrderType.MARKET_BUY);
+        List<Trade> trades = orderBookManager.addOrder(marketBuy);
+
+        assertEquals(2, trades.size());
+        assertEquals(0, new BigDecimal("100").compareTo(marketBuy.getRemainingQuantity()));
+        assertNull(orderBookManager.getBestBid(SYMBOL));
+        assertEquals(0, new BigDecimal("106.00").compareTo(orderBookManager.getBestAsk(SYMBOL)));
+    }
+
+    @Test
+    void testAddOrder_MarketRemainderIsCancelledAndReleased() {
+        orderBookManager.addOrder(limit(OrderSide.SELL, "100.00", 100));
+        orderBookManager.addOrder(limit(OrderSide.SELL, "106.00", 100));
+
+        Order marketBuy = limit(OrderSide.BUY, null, 300);
+        marketBuy.setOrderType(OrderType.MARKET_BUY);
+        marketBuy.setIsBot(false);
+        orderBookManager.addOrder(marketBuy);
+
+        // The part the protection band left over is cancelled, not left open
+        assertEquals(OrderStatus.CANCELLED, marketBuy.getStatus());
+        assertEquals(0, new BigDecimal("100").compareTo(marketBuy.getFilledQuantity()));
+        verify(tradePersistenceService, atLeastOnce()).recordOrderUpdate(marketBuy);
+        verify(tradeSettlementService).submitOrderCancellation(eq(marketBuy), anyString());
+        assertNull(orderBookManager.findRestingOrder(SYMBOL, marketBuy.getOrderId()));
+    }
+
+    @Test
+    void testSubmitOrder_AcknowledgesDurabilityOffTheShard() {
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        when(tradePersistenceService.whenDurable()).thenReturn(durable);
+        orderBookManager.addOrder(limit(OrderSide.SELL, "45.70", 100));
+
+        CompletableFuture<List<Trade>> result = orderBookManager.submitOrder(limit(OrderSide.BUY, "45.70", 100));
+
+        // The shard has moved on while the caller still waits for the commit
+        assertEquals(0, orderBookManager.getTotalOrderCount(SYMBOL));
+        assertFalse(result.isDone());
+        durable.complete(null);
+        assertEquals(1, result.join().size());
+        verify(tradePersistenceService, never()).awaitDurable();
+    }
+
+    @Test
+    void testAddOrder_WithoutCrossDoesNotSettle() {
+        orderBookManager.addOrder(limit(OrderSide.SELL, "45.70", 100));
+        orderBookManager.addOrder(limit(OrderSide.BUY, "45.60", 100));
+
+        verify(tradeSettlementService, never()).submitTrade(any(), any(), any());
+        verify(tradePersistenceService, never()).recordTrade(any());
+    }
+
+    @Test
+    void testClearOrderBook_KeepsSymbolWhileClearing() {
+        Order resting = limit(OrderSide.SELL, "45.70", 100);
+        orderBookManager.addOrder(resting);
+
+        orderBookManager.clearOrderBook(SYMBOL);
+
+        assertTrue(orderBookManager.getActiveSymbols().contains(SYMBOL));
+        assertEquals(0, orderBookManager.getTotalOrderCount(SYMBOL));
+        assertNull(orderBookManager.findRestingOrder(SYMBOL, resting.getOrderId()));
+        verify(algorithmicMatchingService).cancelAlgorithmicMatching(resting.getOrderId());
+    }
+
+    @Test
+    void testStart_RejectsRelativeJournalDirectory() {
+        OrderBookConfig config = new OrderBookConfig();
+        config.getJournal().setEnabled(true);
+        config.getJournal().setDirectory("data/order-book-journal");
+
+        SimpleOrderBookManagerImpl manager = new SimpleOrderBookManagerImpl(algorithmicMatchingService,
+                tradeSettlementService, tradePersistenceService, config, new SnowflakeIdGenerator(0, 64),
+                marketFeedPublisher);
+
+        assertThrows(IllegalStateException.class, manager::start);
+    }
+
+    @Test
+    void testStart_RebuildsBooksFromJournal(@TempDir Path journalDirectory) {
+        OrderBookConfig config = new OrderBookConfig();
+        config.getJournal().setEnabled(true);
+        config.getJournal().setDirectory(journalDirectory.toString());
+        config.getJournal().setSegmentSizeMb(1);
+
+        SimpleOrderBookManagerImpl first = new SimpleOrderBookManagerImpl(algorithmicMatchingService,
+                tradeSettlementService, tradePersistenceService, config, new SnowflakeIdGenerator(0, 64),
+                marketFeedPublisher);
+        first.start();
+        Order resting = limit(OrderSide.SELL, "45.70", 100);
+        Order cancelled = limit(OrderSide.SELL, "45.80", 100);
+        first.addOrder(resting);
+        first.addOrder(cancelled);
+        first.addOrder(limit(OrderSide.BUY, "45.50", 100));
+        first.snapshotOrderBooks();
+        first.addOrder(limit(OrderSide.BUY, "45.70", 40));
+        first.removeOrder(cancelled.getOrderId(), SYMBOL);
+        first.getSequencer().shutdown();
+
+        SimpleOrderBookManagerImpl restarted = new SimpleOrderBookManagerImpl(algorithmicMatchingService,
+                tradeSettlementService, tradePersistenceService, config, new SnowflakeIdGenerator(0, 64),
+                marketFeedPublisher);
+        restarted.start();
+        try {
+            assertEquals(2, restarted.getTotalOrderCount(SYMBOL));
+            assertEquals(0, new BigDecimal("45.50").compareTo(restarted.getBestBid(SYMBOL)));
+            Order restored = restarted.findRestingOrder(SYMBOL, resting.getOrderId());
+            assertEquals(0, new BigDecimal("60").compareTo(restored.getRemainingQuantity()));
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void testStart_MigratesJournalWhenShardCountChanges(@TempDir Path journalDirectory) {
+        OrderBookConfig config = new OrderBookConfig();
+        config.getJournal().setEnabled(true);
+        config.getJournal().setDirectory(journalDirectory.toString());
+        config.getJournal().setSegmentSizeMb(1);
+        config.getSequencer().setShards(2);
+
+        SimpleOrderBookManagerImpl first = new SimpleOrderBookManagerImpl(algorithmicMatchingService,
+                tradeSettlementService, tradePersistenceService, config, new SnowflakeIdGenerator(0, 64),
+                marketFeedPublisher);
+        first.start();
+        for (String symbol : List.of("THYAO", "AKBNK", "GARAN")) {
+            Order order = limit(OrderSide.SELL, "45.70", 100);
+            order.setSymbol(symbol);
+            first.addOrder(order);
+        }
+        first.shutdown();
+
+        config.getSequencer().setShards(3);
+        SimpleOrderBookManagerImpl restarted = new SimpleOrderBookManagerImpl(algorithmicMatchingService,
+                tradeSettlementService, tradePersistenceService, config, new SnowflakeIdGenerator(0, 64),
+                marketFeedPublisher);
+        restarted.start();
+        try {
+            for (String symbol : List.of("THYAO", "AKBNK", "GARAN")) {
+                assertEquals(1, restarted.getTotalOrderCount(symbol), symbol);
+            }
+            assertFalse(Files.exists(journalDirectory.resolve("shards-2")));
+            assertTrue(Files.exists(journalDirectory.resolve("shards-3").resolve("layout.ready")));
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    @Test
+    void testGetMatchingOrders_ReturnsCrossingOrdersInPriority() {
+        Order low = limit(OrderSide.BUY, "45.40", 100);
+        Order high = limit(OrderSide.BUY, "45.60", 100);
+        Order mid = limit(OrderSide.BUY, "45.50", 100);
+        orderBookManager.addOrder(low);
+        orderBookManager.addOrder(high);
+        orderBookManager.addOrder(mid);
+
+        List<Order> matching = orderBookManager.getMatchingOrders(limit(OrderSide.SELL, "45.50", 100));
+
+        assertEquals(List.of(high, mid), matching);
+    }
+
+    @Test
+    void testSubmitCounterFill_UpdatesRestingOrderAndLevelTotals() {
+        Order resting = limit(OrderSide.BUY, "45.50", 100);
+        orderBookManager.addOrder(resting);
+
+        List<Trade> trades = orderBookManager.submitCounterFill(resting.getOrderId(),
+                limit(OrderSide.SELL, "45.50", 40)).join();
+
+        assertEquals(1, trades.size());
+        assertTrue(trades.get(0).getIsBotTrade());
+        assertEquals(OrderStatus.PARTIALLY_FILLED, resting.getStatus());
+        assertEquals(0, new BigDecimal("60").compareTo(resting.getRemainingQuantity()));
+        assertEquals(0, new BigDecimal("60").compareTo(
+                orderBookManager.getOrderBookSnapshot(SYMBOL).getBids().get(0).getQuantity()));
+        verify(tradeSettlementService).submitTrade(any(Trade.class), any(Order.class), any(Order.class));
+        verify(tradePersistenceService).recordTrade(trades.get(0));
+        verify(tradePersistenceService).recordOrderUpdate(resting);
+        verify(marketFeedPublisher).publishTrades(trades, OrderSide.SELL);
+    }
+
+    @Test
+    void testSubmitCounterFill_NeverFillsMoreThanRemaining() {
+        Order resting = limit(OrderSide.BUY, "45.50", 100);
+        orderBookManager.addOrder(resting);
+        orderBookManager.submitCounterFill(resting.getOrderId(), limit(OrderSide.SELL, "45.50", 70)).join();
+
+        Order counter = limit(OrderSide.SELL, "45.50", 70);
+        List<Trade> trades = orderBookManager.submitCounterFill(resting.getOrderId(), counter).join();
+
+        assertEquals(0, new BigDecimal("30").compareTo(trades.get(0).getQuantity()));
+        assertEquals(OrderStatus.FILLED, resting.getStatus());
+        assertEquals(OrderStatus.PARTIALLY_FILLED, counter.getStatus());
+        assertNull(orderBookManager.findRestingOrder(SYMBOL, resting.getOrderId()));
+        verify(algorithmicMatchingService).cancelAlgorithmicMatching(resting.getOrderId());
+
+        // Once filled the order has left the book, so a late attempt fills nothing
+        assertTrue(orderBookManager.submitCounterFill(resting.getOrderId(),
+                limit(OrderSide.SELL, "45.50", 10)).join().isEmpty());
+    }
+
+    private Order limit(OrderSide side, String price, int quantity) {
+        Order order = new Order();
+        order.setOrderId(nextOrderId++);
+        order.setTenantId(1L);
+        order.setAccountId(999999L);
+        order.setSymbol(SYMBOL);
+        order.setSide(side);
+        order.setOrderType(side == OrderSide.BUY ? OrderType.LIMIT_BUY : OrderType.LIMIT_SELL);
+        order.setPrice(price != null ? new BigDecimal(price) : null);
+        order.setQuantity(new BigDecimal(quantity));
+        order.setFilledQuantity(BigDecimal.ZERO);
+        order.setIsBot(true);
+        order.setCreatedAt(LocalDateTime.now());
+        return order;
+    }
+}
@@ -0,0 +1,112 @@
+package com.stofina.app.orderservice.service.impl;
+
+import com.stofina.app.orderservice.config.OrderBookConfig;
+import com.stofina.app.orderservice.model.SimpleStopLossWatcher;
+import com.stofina.app.orderservice.model.StopLossWatcherStateUpdate;
+import com.stofina.app.orderservice.repository.StopLossWatcherRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class StopLossPersistenceServiceImplTest {
+
+    @Mock
+    private StopLossWatcherRepository stopLossWatcherRepository;
+
+    private OrderBookConfig config;
+    private StopLossPersistenceServiceImpl persistenceService;
+
+    @BeforeEach
+    void setUp() {
+        config = new OrderBookConfig();
+        // Long interval so only explicit flushes or a full batch trigger writes
+        config.getStopLoss().setFlushIntervalMillis(60_000);
+        config.getStopLoss().setBatchSize(3);
+        persistenceService = new StopLossPersistenceServiceImpl(stopLossWatcherRepository,
+                TransactionOperations.withoutTransaction(), config);
+        persistenceService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistenceService.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_MergesRepeatedWatcherUpdates() {
+        SimpleStopLossWatcher watcher = watcher(1L);
+        watcher.setCheckCount(4);
+        persistenceService.recordState(StopLossWatcherStateUpdate.of(watcher, true));
+        watcher.setTriggered(true);
+        persistenceService.recordState(StopLossWatcherStateUpdate.of(watcher, true));
+
+        persistenceService.flush();
+
+        ArgumentCaptor<Collection<StopLossWatcherStateUpdate>> updates = ArgumentCaptor.forClass(Collection.class);
+        verify(stopLossWatcherRepository).batchUpdateState(updates.capture(), anyInt());
+        List<StopLossWatcherStateUpdate> written = new ArrayList<>(updates.getValue());
+        assertEquals(1, written.size());
+        assertTrue(written.get(0).isTriggered());
+        assertTrue(written.get(0).isActive());
+        assertEquals(4, written.get(0).getCheckCount());
+        assertEquals(0, persistenceService.getPendingCount());
+    }
+
+    @Test
+    void testRecordState_FlushesWhenBatchIsFull() {
+        for (long orderId = 1; orderId <= 3; orderId++) {
+            persistenceService.recordState(StopLossWatcherStateUpdate.of(watcher(orderId), false));
+        }
+
+        verify(stopLossWatcherRepository, timeout(2000)).batchUpdateState(anyCollection(), anyInt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_RetriesFailedBatch() {
+        config.getStopLoss().setFlushIntervalMillis(10);
+        List<Integer> writtenSizes = new ArrayList<>();
+        doThrow(new RuntimeException("database unavailable"))
+                .doAnswer(invocation -> {
+                    writtenSizes.add(((Collection<StopLossWatcherStateUpdate>) invocation.getArgument(0)).size());
+                    return null;
+                })
+                .when(stopLossWatcherRepository).batchUpdateState(anyCollection(), anyInt());
+        persistenceService.recordState(StopLossWatcherStateUpdate.of(watcher(1L), false));
+
+        persistenceService.flush();
+
+        verify(stopLossWatcherRepository, times(2)).batchUpdateState(anyCollection(), anyInt());
+        assertEquals(List.of(1), writtenSizes);
+        assertEquals(0, persistenceService.getPendingCount());
+    }
+
+    private SimpleStopLossWatcher watcher(Long orderId) {
+        SimpleStopLossWatcher watcher = new SimpleStopLossWatcher();
+        watcher.setOrderId(orderId);
+        watcher.setSymbol("THYAO");
+        watcher.setTriggerPrice(new BigDecimal("100.00"));
+        return watcher;
+    }
+}
@@ -0,0 +1,187 @@
+package com.stofina.app.orderservice.service.impl;
+
+import com.stofina.app.orderservice.config.OrderBookConfig;
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.entity.Trade;
+import com.stofina.app.orderservice.enums.OrderStatus;
+import com.stofina.app.orderservice.enums.PersistenceDurability;
+import com.stofina.app.orderservice.model.OrderStateUpdate;
+import com.stofina.app.orderservice.repository.OrderRepository;
+import com.stofina.app.orderservice.repository.TradeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TradePersistenceServiceImplTest {
+
+    @Mock
+    private TradeRepository tradeRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private OrderBookConfig config;
+    private TradePersistenceServiceImpl persistenceService;
+
+    @BeforeEach
+    void setUp() {
+        config = new OrderBookConfig();
+        // Long interval so only explicit flushes or a full batch trigger writes
+        config.getPersistence().setFlushIntervalMillis(60_000);
+        config.getPersistence().setBatchSize(100);
+        persistenceService = new TradePersistenceServiceImpl(tradeRepository, orderRepository,
+                TransactionOperations.withoutTransaction(), config);
+        persistenceService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistenceService.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_MergesRepeatedOrderUpdates() {
+        Order order = order(1L);
+        order.setFilledQuantity(new BigDecimal("10"));
+        persistenceService.recordOrderUpdate(order);
+        order.setFilledQuantity(new BigDecimal("30"));
+        order.setStatus(OrderStatus.PARTIALLY_FILLED);
+        persistenceService.recordOrderUpdate(order);
+        persistenceService.recordOrderUpdate(order(2L));
+        persistenceService.recordTrade(new Trade());
+        persistenceService.recordTrade(new Trade());
+
+        persistenceService.flush();
+
+        ArgumentCaptor<Collection<OrderStateUpdate>> updates = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Collection<Trade>> trades = ArgumentCaptor.forClass(Collection.class);
+        verify(orderRepository).batchUpdateState(updates.capture(), anyInt());
+        verify(tradeRepository).batchInsert(trades.capture(), anyInt());
+
+        List<OrderStateUpdate> written = new ArrayList<>(updates.getValue());
+        assertEquals(2, written.size());
+        assertEquals(1L, written.get(0).getOrderId());
+        assertEquals(0, new BigDecimal("30").compareTo(written.get(0).getFilledQuantity()));
+        assertEquals(OrderStatus.PARTIALLY_FILLED, written.get(0).getStatus());
+        assertEquals(2, trades.getValue().size());
+        assertEquals(0, persistenceService.getPendingCount());
+    }
+
+    @Test
+    void testAwaitDurable_AsyncDoesNotWaitForWrite() {
+        persistenceService.recordTrade(new Trade());
+
+        persistenceService.awaitDurable();
+
+        assertEquals(1, persistenceService.getPendingCount());
+    }
+
+    @Test
+    void testAwaitDurable_SyncWaitsForCommit() {
+        config.getPersistence().setDurability(PersistenceDurability.SYNC);
+        persistenceService.recordTrade(new Trade());
+
+        persistenceService.awaitDurable();
+
+        verify(tradeRepository).batchInsert(anyCollection(), anyInt());
+        assertEquals(0, persistenceService.getPendingCount());
+    }
+
+    @Test
+    void testWhenDurable_SyncCompletesOnceCommitted() throws Exception {
+        config.getPersistence().setDurability(PersistenceDurability.SYNC);
+        persistenceService.recordTrade(new Trade());
+
+        persistenceService.whenDurable().get(2, TimeUnit.SECONDS);
+
+        verify(tradeRepository).batchInsert(anyCollection(), anyInt());
+        assertEquals(0, persistenceService.getPendingCount());
+    }
+
+    @Test
+    void testFlush_RetriesFailedBatch() {
+        config.getPersistence().setFlushIntervalMillis(10);
+        List<Integer> attemptSizes = new ArrayList<>();
+        doThrow(new RuntimeException("database unavailable"))
+                .doAnswer(invocation -> {
+                    attemptSizes.add(((Collection<?>) invocation.getArgument(0)).size());
+                    return null;
+                })
+                .when(tradeRepository).batchInsert(anyCollection(), anyInt());
+
+        persistenceService.recordTrade(new Trade());
+        persistenceService.flush();
+
+        verify(tradeRepository, times(2)).batchInsert(anyCollection(), anyInt());
+        assertEquals(List.of(1), attemptSizes);
+        assertEquals(0, persistenceService.getPendingCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_KeepsFailingRecordQueuedUntilItCanBeWritten() {
+        config.getPersistence().setFlushIntervalMillis(10);
+        config.getPersistence().setMaxFlushAttempts(3);
+        config.getPersistence().setSyncTimeoutMillis(300);
+        Trade poison = new Trade();
+        poison.setTradeId(1L);
+        Trade good = new Trade();
+        good.setTradeId(2L);
+        AtomicBoolean databaseDown = new AtomicBoolean(true);
+        List<Long> written = new ArrayList<>();
+        doAnswer(invocation -> {
+            Collection<Trade> batch = invocation.getArgument(0);
+            if (databaseDown.get() && batch.contains(poison)) {
+                throw new RuntimeException("database unavailable");
+            }
+            batch.forEach(trade -> written.add(trade.getTradeId()));
+            return null;
+        }).when(tradeRepository).batchInsert(anyCollection(), anyInt());
+
+        persistenceService.recordTrade(poison);
+        persistenceService.recordTrade(good);
+        persistenceService.flush();
+
+        // The good trade is written around the failing one, which stays queued instead of being dropped
+        assertEquals(List.of(2L), written);
+        assertEquals(1, persistenceService.getPendingCount());
+
+        databaseDown.set(false);
+        config.getPersistence().setSyncTimeoutMillis(5000);
+        persistenceService.flush();
+
+        assertEquals(List.of(2L, 1L), written);
+        assertEquals(0, persistenceService.getPendingCount());
+    }
+
+    private Order order(Long orderId) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setQuantity(new BigDecimal("100"));
+        order.setFilledQuantity(BigDecimal.ZERO);
+        order.setStatus(OrderStatus.ACTIVE);
+        return order;
+    }
+}
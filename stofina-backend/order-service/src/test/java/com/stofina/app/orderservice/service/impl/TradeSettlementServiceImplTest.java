@@ -0,0 +1,308 @@
+package com.stofina.app.orderservice.service.impl;
+
+import com.stofina.app.orderservice.config.OrderBookConfig;
+import com.stofina.app.orderservice.dto.portfolio.OrderCancellationRequest;
+import com.stofina.app.orderservice.dto.portfolio.PortfolioResponse;
+import com.stofina.app.orderservice.dto.portfolio.TradeConfirmationItem;
+import com.stofina.app.orderservice.dto.portfolio.TradeConfirmationResult;
+import com.stofina.app.orderservice.dto.portfolio.TradeConfirmationType;
+import com.stofina.app.orderservice.entity.Order;
+import com.stofina.app.orderservice.entity.Trade;
+import com.stofina.app.orderservice.enums.OrderSide;
+import com.stofina.app.orderservice.enums.OrderStatus;
+import com.stofina.app.orderservice.enums.OrderType;
+import com.stofina.app.orderservice.service.CompensationService;
+import com.stofina.app.orderservice.service.TradeSettlementService;
+import com.stofina.app.orderservice.service.client.PortfolioClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TradeSettlementServiceImplTest {
+
+    @Mock
+    private PortfolioClient portfolioClient;
+
+    @Mock
+    private CompensationService compensationService;
+
+    private TradeSettlementServiceImpl settlementService;
+
+    @BeforeEach
+    void setUp() {
+        OrderBookConfig config = new OrderBookConfig();
+        config.getSettlement().setWorkers(2);
+        config.getSettlement().setConfirmationTimeoutMillis(1000);
+        settlementService = new TradeSettlementServiceImpl(portfolioClient, compensationService, config);
+        settlementService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        settlementService.shutdown();
+    }
+
+    @Test
+    void testSubmitTrade_ConfirmsBothSidesUsingStateAtHandOver() {
+        when(portfolioClient.confirmTrades(anyList())).thenAnswer(invocation -> answer(invocation.getArgument(0), null));
+
+        Order buy = order(1L, OrderSide.BUY, 100, 100);
+        Order sell = order(2L, OrderSide.SELL, 300, 100);
+        settlementService.submitTrade(trade(buy, sell, 100), buy, sell);
+        // Later fills must not leak into the queued confirmation
+        sell.setFilledQuantity(new BigDecimal("300"));
+
+        awaitSettled(1);
+        List<TradeConfirmationItem> items = sentItems();
+        TradeConfirmationItem buyItem = items.stream().filter(item -> item.getOrderId() == 1L).findFirst().orElseThrow();
+        TradeConfirmationItem sellItem = items.stream().filter(item -> item.getOrderId() == 2L).findFirst().orElseThrow();
+        assertEquals(TradeConfirmationType.BUY, buyItem.getType());
+        assertEquals(101L, buyItem.getAccountId());
+        assertEquals(TradeConfirmationType.SELL_PARTIAL, sellItem.getType());
+        assertEquals(102L, sellItem.getAccountId());
+        assertEquals(100, sellItem.getFulfilledQuantity());
+        verify(compensationService, never()).compensateFailedTrade(any(), any(), any(), anyString());
+    }
+
+    @Test
+    void testSubmitTrade_CompensatesWhenConfirmationFails() {
+        when(portfolioClient.confirmTrades(anyList())).thenAnswer(invocation -> answer(invocation.getArgument(0), 1L));
+        when(compensationService.compensateFailedTrade(any(), any(), any(), anyString())).thenReturn(true);
+
+        Order buy = order(1L, OrderSide.BUY, 100, 100);
+        Order sell = order(2L, OrderSide.SELL, 100, 100);
+        Trade trade = trade(buy, sell, 100);
+        settlementService.submitTrade(trade, buy, sell);
+
+        verify(compensationService, timeout(2000)).compensateFailedTrade(eq(trade), eq(buy), eq(sell), anyString());
+        awaitStatus(status -> status.getCompensated() == 1 && status.getFailed() == 1);
+    }
+
+    @Test
+    void testSubmitTrade_CompensatesWithOrderStateAtHandOver() {
+        CompletableFuture<Void> portfolioAnswers = new CompletableFuture<>();
+        when(portfolioClient.confirmTrades(anyList())).thenAnswer(invocation -> {
+            List<TradeConfirmationItem> items = invocation.getArgument(0);
+            return portfolioAnswers.thenCompose(ignored -> answer(items, 1L));
+        });
+        when(compensationService.compensateFailedTrade(any(), any(), any(), anyString())).thenReturn(true);
+
+        Order buy = order(1L, OrderSide.BUY, 100, 100);
+        buy.setStatus(OrderStatus.FILLED);
+        Order sell = order(2L, OrderSide.SELL, 100, 100);
+        Trade trade = trade(buy, sell, 100);
+        settlementService.submitTrade(trade, buy, sell);
+        // Each side settles on its own account lane; both wait until the live order has changed
+        verify(portfolioClient, timeout(2000).times(2)).confirmTrades(anyList());
+
+        // The matching thread keeps working on the live order after the hand-over
+        buy.setStatus(OrderStatus.CANCELLED);
+        buy.setFilledQuantity(BigDecimal.ZERO);
+        portfolioAnswers.complete(null);
+
+        ArgumentCaptor<Order> compensatedBuy = ArgumentCaptor.forClass(Order.class);
+        verify(compensationService, timeout(2000)).compensateFailedTrade(eq(trade), compensatedBuy.capture(), eq(sell), anyString());
+        assertNotSame(buy, compensatedBuy.getValue());
+        assertEquals(OrderStatus.FILLED, compensatedBuy.getValue().getStatus());
+        assertEquals(0, new BigDecimal("100").compareTo(compensatedBuy.getValue().getFilledQuantity()));
+    }
+
+    @Test
+    void testSubmitTrade_SkipsBotSides() {
+        Order buy = order(1L, OrderSide.BUY, 100, 100);
+        Order sell = order(2L, OrderSide.SELL, 100, 100);
+        buy.setIsBot(true);
+        sell.setIsBot(true);
+
+        settlementService.submitTrade(trade(buy, sell, 100), buy, sell);
+
+        awaitSettled(1);
+        verify(portfolioClient, never()).confirmTrades(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetStatus_ReportsPendingLagWhilePortfolioIsSlow() {
+        CompletableFuture<List<TradeConfirmationResult>> slowResponse = new CompletableFuture<>();
+        when(portfolioClient.confirmTrades(anyList()))
+                .thenReturn(slowResponse)
+                .thenAnswer(invocation -> answer(invocation.getArgument(0), null));
+
+        Order firstBuy = order(10L, OrderSide.BUY, 100, 100);
+        firstBuy.setAccountId(110L);
+        Order firstSell = order(11L, OrderSide.SELL, 100, 100);
+        firstSell.setIsBot(true);
+        settlementService.submitTrade(trade(firstBuy, firstSell, 100), firstBuy, firstSell);
+        awaitStatus(status -> status.getInFlight() == 1);
+
+        // Same lane as the first buy side: both wait behind the slow call
+        for (long id = 2; id <= 3; id++) {
+            Order buy = order(id * 10, OrderSide.BUY, 100, 100);
+            buy.setAccountId(110L);
+            Order sell = order(id * 10 + 1, OrderSide.SELL, 100, 100);
+            sell.setIsBot(true);
+            settlementService.submitTrade(trade(buy, sell, 100), buy, sell);
+        }
+
+        awaitStatus(status -> status.getInFlight() == 1 && status.getQueueDepth() == 2);
+        assertEquals(3, settlementService.getStatus().getSubmitted());
+
+        slowResponse.complete(List.of(result(10L, true)));
+        awaitSettled(3);
+        assertEquals(0, settlementService.getStatus().getOldestPendingMillis());
+
+        // The two queued confirmations were drained into one batch call
+        ArgumentCaptor<List<TradeConfirmationItem>> batches = ArgumentCaptor.forClass(List.class);
+        verify(portfolioClient, times(2)).confirmTrades(batches.capture());
+        assertEquals(List.of(20L, 30L), batches.getAllValues().get(1).stream().map(TradeConfirmationItem::getOrderId).toList());
+    }
+
+    @Test
+    void testSubmitOrderConfirmation_KeepsAccountOrderWhileEarlierConfirmationIsSlow() {
+        CompletableFuture<List<TradeConfirmationResult>> slowResponse = new CompletableFuture<>();
+        when(portfolioClient.confirmTrades(anyList()))
+                .thenReturn(slowResponse)
+                .thenAnswer(invocation -> answer(invocation.getArgument(0), null));
+
+        Order partial = order(1L, OrderSide.BUY, 300, 100);
+        partial.setStatus(OrderStatus.PARTIALLY_FILLED);
+        settlementService.submitOrderConfirmation(partial, trade(partial, order(2L, OrderSide.SELL, 100, 100), 100));
+        awaitStatus(status -> status.getInFlight() == 1);
+
+        Order filled = order(1L, OrderSide.BUY, 300, 300);
+        filled.setStatus(OrderStatus.FILLED);
+        settlementService.submitOrderConfirmation(filled, trade(filled, order(3L, OrderSide.SELL, 200, 200), 200));
+
+        // Same account, same lane: the full confirmation waits for the partial one
+        awaitStatus(status -> status.getInFlight() == 1 && status.getQueueDepth() == 1);
+        verify(portfolioClient, times(1)).confirmTrades(anyList());
+
+        slowResponse.complete(List.of(result(1L, true)));
+        awaitSettled(2);
+        List<TradeConfirmationItem> items = sentItems();
+        assertEquals(List.of(TradeConfirmationType.BUY_PARTIAL, TradeConfirmationType.BUY),
+                items.stream().map(TradeConfirmationItem::getType).toList());
+        // The portfolio service gets the account with every confirmation
+        assertTrue(items.stream().allMatch(item -> item.getAccountId() == 101L));
+        assertEquals(100, items.get(0).getFulfilledQuantity());
+    }
+
+    @Test
+    void testSubmitOrderConfirmation_FailsTasksWhenBatchCallFails() {
+        when(portfolioClient.confirmTrades(anyList()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("portfolio down")));
+
+        Order filled = order(1L, OrderSide.SELL, 100, 100);
+        filled.setStatus(OrderStatus.FILLED);
+        settlementService.submitOrderConfirmation(filled, trade(order(2L, OrderSide.BUY, 100, 100), filled, 100));
+
+        awaitStatus(status -> status.getFailed() == 1 && status.getInFlight() == 0);
+        assertEquals(0, settlementService.getStatus().getSettled());
+    }
+
+    @Test
+    void testSubmitOrderCancellation_ReleasesUnfilledQuantityAfterQueuedConfirmations() {
+        when(portfolioClient.confirmTrades(anyList())).thenAnswer(invocation -> answer(invocation.getArgument(0), null));
+        when(portfolioClient.cancelBuyOrder(any())).thenReturn(CompletableFuture.completedFuture(
+                PortfolioResponse.builder().success(true).build()));
+
+        Order buy = order(1L, OrderSide.BUY, 300, 100);
+        buy.setOrderType(OrderType.MARKET_BUY);
+        Order sell = order(2L, OrderSide.SELL, 100, 100);
+        sell.setIsBot(true);
+        settlementService.submitTrade(trade(buy, sell, 100), buy, sell);
+        buy.setStatus(OrderStatus.CANCELLED);
+        settlementService.submitOrderCancellation(buy, "Market order not filled within protection band");
+
+        awaitSettled(2);
+        ArgumentCaptor<OrderCancellationRequest> request = ArgumentCaptor.forClass(OrderCancellationRequest.class);
+        InOrder order = inOrder(portfolioClient);
+        order.verify(portfolioClient).confirmTrades(anyList());
+        order.verify(portfolioClient).cancelBuyOrder(request.capture());
+        assertEquals(1L, request.getValue().getOrderId());
+        assertEquals(101L, request.getValue().getAccountId());
+        assertEquals(200, request.getValue().getUnfilledQuantity());
+    }
+
+    private void awaitSettled(long count) {
+        awaitStatus(status -> status.getSettled() == count && status.getInFlight() == 0);
+    }
+
+    private void awaitStatus(java.util.function.Predicate<TradeSettlementService.SettlementStatus> condition) {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.test(settlementService.getStatus())) {
+            assertTrue(System.currentTimeMillis() < deadline, "Settlement status: " + settlementService.getStatus());
+            Thread.onSpinWait();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TradeConfirmationItem> sentItems() {
+        ArgumentCaptor<List<TradeConfirmationItem>> batches = ArgumentCaptor.forClass(List.class);
+        verify(portfolioClient, atLeastOnce()).confirmTrades(batches.capture());
+        return batches.getAllValues().stream().flatMap(List::stream).toList();
+    }
+
+    private CompletableFuture<List<TradeConfirmationResult>> answer(List<TradeConfirmationItem> items, Long rejectedOrderId) {
+        return CompletableFuture.completedFuture(items.stream()
+                .map(item -> result(item.getOrderId(), !item.getOrderId().equals(rejectedOrderId)))
+                .toList());
+    }
+
+    private TradeConfirmationResult result(Long orderId, boolean success) {
+        return TradeConfirmationResult.builder()
+                .orderId(orderId)
+                .success(success)
+                .errorCode(success ? null : "CONFLICT")
+                .build();
+    }
+
+    private Trade trade(Order buy, Order sell, int quantity) {
+        Trade trade = new Trade();
+        trade.setTradeId(buy.getOrderId() * 1000 + sell.getOrderId());
+        trade.setBuyOrderId(buy.getOrderId());
+        trade.setSellOrderId(sell.getOrderId());
+        trade.setSymbol("THYAO");
+        trade.setPrice(new BigDecimal("45.50"));
+        trade.setQuantity(new BigDecimal(quantity));
+        trade.setExecutedAt(LocalDateTime.now());
+        return trade;
+    }
+
+    private Order order(Long orderId, OrderSide side, int quantity, int filled) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setAccountId(orderId + 100);
+        order.setSymbol("THYAO");
+        order.setSide(side);
+        order.setPrice(new BigDecimal("45.50"));
+        order.setQuantity(new BigDecimal(quantity));
+        order.setFilledQuantity(new BigDecimal(filled));
+        order.setIsBot(false);
+        return order;
+    }
+}
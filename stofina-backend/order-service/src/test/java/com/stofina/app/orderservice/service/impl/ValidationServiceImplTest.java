@@ -1,6 +1,9 @@
 package com.stofina.app.orderservice.service.impl;
 
+import com.stofina.app.orderservice.config.OrderBookConfig;
 import com.stofina.app.orderservice.dto.request.CreateOrderRequest;
+import com.stofina.app.orderservice.dto.request.UpdateOrderRequest;
+import com.stofina.app.orderservice.entity.Order;
 import com.stofina.app.orderservice.enums.OrderType;
 import com.stofina.app.orderservice.service.client.MarketDataClient;
 import com.stofina.app.orderservice.service.client.PortfolioClient;
@@ -9,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -17,6 +21,8 @@ import java.time.LocalTime;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +34,9 @@ class ValidationServiceImplTest {
     @Mock
     private PortfolioClient portfolioClient;
 
+    @Spy
+    private OrderBookConfig orderBookConfig = new OrderBookConfig();
+
     @InjectMocks
     private ValidationServiceImpl validationService;
 
@@ -107,6 +116,38 @@ class ValidationServiceImplTest {
         assertEquals("Price must be provided for this order type", exception.getMessage());
     }
 
+    @Test
+    void testValidateOrderRequest_WithPriceOffTick() {
+        orderBookConfig.getTickLadder().getSymbols().put("THYAO", new BigDecimal("0.05"));
+        validRequest.setPrice(new BigDecimal("45.52"));
+
+        IllegalArgumentException exception = assertThrows(
+            IllegalArgumentException.class,
+            () -> validationService.validateOrderRequest(validRequest)
+        );
+
+        assertTrue(exception.getMessage().contains("not a multiple of tick size 0.05"));
+    }
+
+    @Test
+    void testValidateOrderRequest_WithPriceOnTick() {
+        orderBookConfig.getTickLadder().getSymbols().put("THYAO", new BigDecimal("0.05"));
+        validRequest.setPrice(new BigDecimal("45.55"));
+
+        assertDoesNotThrow(() -> validationService.validateOrderRequest(validRequest));
+    }
+
+    @Test
+    void testValidateOrderUpdate_WithPriceOffTick() {
+        orderBookConfig.getTickLadder().getSymbols().put("THYAO", new BigDecimal("0.05"));
+        Order existing = new Order();
+        existing.setSymbol("THYAO");
+        UpdateOrderRequest request = new UpdateOrderRequest();
+        request.setPrice(new BigDecimal("45.51"));
+
+        assertThrows(IllegalArgumentException.class, () -> validationService.validateOrderUpdate(existing, request));
+    }
+
     @Test
     void testCheckMarketHours_DuringMarketHours() {
         LocalTime currentTime = LocalTime.now();
@@ -125,9 +166,10 @@ class ValidationServiceImplTest {
         BigDecimal orderPrice = new BigDecimal("45.50");
 
         when(marketDataClient.getCurrentPrice("THYAO")).thenReturn(currentPrice);
-        when(marketDataClient.validatePriceInRange("THYAO", orderPrice)).thenReturn(true);
+        when(marketDataClient.isPriceInRange(currentPrice, orderPrice)).thenReturn(true);
 
         assertDoesNotThrow(() -> validationService.checkPriceLimits("THYAO", orderPrice));
+        verify(marketDataClient, times(1)).getCurrentPrice("THYAO");
     }
 
     @Test
@@ -136,7 +178,7 @@ class ValidationServiceImplTest {
         BigDecimal orderPrice = new BigDecimal("50.00");
 
         when(marketDataClient.getCurrentPrice("THYAO")).thenReturn(currentPrice);
-        when(marketDataClient.validatePriceInRange("THYAO", orderPrice)).thenReturn(false);
+        when(marketDataClient.isPriceInRange(currentPrice, orderPrice)).thenReturn(false);
 
         IllegalArgumentException exception = assertThrows(
             IllegalArgumentException.class,
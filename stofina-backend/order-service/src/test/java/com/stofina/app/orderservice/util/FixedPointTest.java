@@ -0,0 +1,54 @@
+package com.stofina.app.orderservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointTest {
+
+    @Test
+    void testToPriceUnits_ConvertsExactly() {
+        assertEquals(457000L, FixedPoint.toPriceUnits(new BigDecimal("45.7")));
+        assertEquals(457000L, FixedPoint.toPriceUnits(new BigDecimal("45.700000")));
+        assertEquals(0, new BigDecimal("45.70").compareTo(FixedPoint.toPrice(457000L)));
+    }
+
+    @Test
+    void testToPriceUnits_RejectsValuesOffTheScale() {
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.toPriceUnits(new BigDecimal("45.12345")));
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.toQuantityUnits(new BigDecimal("1.005")));
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.toQuantityUnits(null));
+    }
+
+    @Test
+    void testAveragePrice_MatchesBigDecimalRounding() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal previousAverage = BigDecimal.valueOf(random.nextInt(10_000_000) + 1, 4);
+            BigDecimal previousFilled = BigDecimal.valueOf(random.nextInt(100_000) + 1, 2);
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(10_000_000) + 1, 4);
+            BigDecimal quantity = BigDecimal.valueOf(random.nextInt(100_000) + 1, 2);
+
+            BigDecimal filled = previousFilled.add(quantity);
+            BigDecimal expected = previousAverage.multiply(previousFilled).add(price.multiply(quantity))
+                    .divide(filled, 4, RoundingMode.HALF_UP);
+
+            long actual = FixedPoint.averagePrice(FixedPoint.toPriceUnits(previousAverage),
+                    FixedPoint.toQuantityUnits(previousFilled), FixedPoint.toPriceUnits(price),
+                    FixedPoint.toQuantityUnits(quantity));
+
+            assertEquals(0, expected.compareTo(FixedPoint.toPrice(actual)));
+        }
+    }
+
+    @Test
+    void testAveragePrice_FallsBackOnOverflow() {
+        long average = FixedPoint.averagePrice(Long.MAX_VALUE / 4, 10, Long.MAX_VALUE / 4, 10);
+
+        assertEquals(Long.MAX_VALUE / 4, average);
+    }
+}
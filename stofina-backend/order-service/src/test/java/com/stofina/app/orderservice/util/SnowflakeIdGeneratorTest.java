@@ -0,0 +1,116 @@
+package com.stofina.app.orderservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void testNextId_UniqueAcrossThreads() throws InterruptedException {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, 16);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 20_000;
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(generator.nextId());
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        assertEquals(threads * perThread, ids.size());
+        assertTrue(ids.stream().allMatch(id -> SnowflakeIdGenerator.nodeOf(id) == 7));
+    }
+
+    @Test
+    void testNextBlock_StaysMonotonicWhenClockStepsBack() {
+        AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH + 1_000);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 4, clock::get);
+
+        long before = generator.nextBlock(1).next();
+        clock.addAndGet(-5_000);
+        long after = generator.nextBlock(1).next();
+
+        assertTrue(after > before);
+    }
+
+    @Test
+    void testNextBlock_RollsIntoNextSecondWhenSequenceRunsOut() {
+        AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH + 1_000);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, 4, clock::get);
+
+        SnowflakeIdGenerator.IdBlock block = generator.nextBlock(70_000);
+        long first = block.next();
+        long last = first;
+        while (block.hasNext()) {
+            long next = block.next();
+            assertTrue(next > last);
+            last = next;
+        }
+
+        assertEquals(SnowflakeIdGenerator.EPOCH + 1_000, SnowflakeIdGenerator.timestampOf(first));
+        assertEquals(SnowflakeIdGenerator.EPOCH + 2_000, SnowflakeIdGenerator.timestampOf(last));
+        assertThrows(IllegalStateException.class, block::next);
+    }
+
+    @Test
+    void testNextId_FitsJavaScriptSafeInteger() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID, 64);
+
+        assertTrue(generator.nextId() < (1L << 53));
+    }
+
+    @Test
+    void testConstructor_RejectsNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(64, 64));
+    }
+
+    @Test
+    void testConstructor_ContinuesAfterBorrowedSecondsOfPreviousRun() {
+        AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH + 1_000);
+        AtomicLong stored = new AtomicLong(-1);
+        IdHighWaterMark mark = new IdHighWaterMark() {
+            @Override
+            public long load() {
+                return stored.get();
+            }
+
+            @Override
+            public void store(long seconds) {
+                stored.set(seconds);
+            }
+        };
+
+        SnowflakeIdGenerator first = new SnowflakeIdGenerator(1, 4, clock::get, mark);
+        // More ids than one second holds: the block borrows the next second
+        SnowflakeIdGenerator.IdBlock block = first.nextBlock(70_000);
+        long lastId = 0;
+        while (block.hasNext()) {
+            lastId = block.next();
+        }
+        assertEquals(SnowflakeIdGenerator.EPOCH + 2_000, SnowflakeIdGenerator.timestampOf(lastId));
+        assertTrue(stored.get() >= 2);
+
+        // Restart within the same second
+        SnowflakeIdGenerator restarted = new SnowflakeIdGenerator(1, 4, clock::get, mark);
+        assertTrue(restarted.nextId() > lastId);
+    }
+
+    @Test
+    void testShared_FailsWhenNotConfigured() {
+        SnowflakeIdGenerator.setShared(null);
+
+        assertThrows(IllegalStateException.class, SnowflakeIdGenerator::shared);
+    }
+}
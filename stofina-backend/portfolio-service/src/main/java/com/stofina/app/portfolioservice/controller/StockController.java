@@ -1,10 +1,13 @@
 package com.stofina.app.portfolioservice.controller;
 
 import com.stofina.app.portfolioservice.dto.StockDto;
+import com.stofina.app.portfolioservice.dto.TradeConfirmationResultDto;
 import com.stofina.app.portfolioservice.request.account.TransferStockRequest;
 import com.stofina.app.portfolioservice.request.stock.BuyStockRequest;
 import com.stofina.app.portfolioservice.request.stock.SellStockRequest;
+import com.stofina.app.portfolioservice.request.stock.TradeConfirmationBatchRequest;
 import com.stofina.app.portfolioservice.service.IStockService;
+import com.stofina.app.portfolioservice.service.ITradeConfirmationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -33,6 +36,7 @@ import static com.stofina.app.portfolioservice.constant.PortfolioConstants.*;
 public class StockController {
 
     private final IStockService stockService;
+    private final ITradeConfirmationService tradeConfirmationService;
 
     @Operation(summary = "Buy Stock", description = "Places a buy order and reserves funds")
     @ApiResponses({
@@ -121,6 +125,14 @@ public class StockController {
         stockService.confirmSellPartially(orderId, fulfilledQuantity);
         return ResponseEntity.ok().build();
     }
+    @Operation(summary = "Confirm Trades In Batch", description = "Confirms buy and sell orders, fully or partially, in one call and reports the outcome of each")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Batch processed, results in request order")
+    })
+    @PostMapping("/confirm-batch")
+    public ResponseEntity<List<TradeConfirmationResultDto>> confirmTrades(@Valid @RequestBody TradeConfirmationBatchRequest request) {
+        return ResponseEntity.ok(tradeConfirmationService.confirmTrades(request.getConfirmations()));
+    }
     @Operation(summary = "Cancel Sell Order", description = "Cancels a sell order and releases reserved stock")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Sell order cancelled")
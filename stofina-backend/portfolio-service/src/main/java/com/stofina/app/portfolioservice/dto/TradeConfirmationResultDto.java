@@ -0,0 +1,20 @@
+package com.stofina.app.portfolioservice.dto;
+
+import com.stofina.app.portfolioservice.enums.TradeConfirmationType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeConfirmationResultDto {
+    private Long orderId;
+    private TradeConfirmationType type;
+    private boolean success;
+    // HTTP status name the single-order endpoint would have answered with, e.g. NOT_FOUND
+    private String errorCode;
+    private String message;
+}
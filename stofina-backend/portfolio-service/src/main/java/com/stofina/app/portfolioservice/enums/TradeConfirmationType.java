@@ -0,0 +1,8 @@
+package com.stofina.app.portfolioservice.enums;
+
+public enum TradeConfirmationType {
+    BUY,
+    SELL,
+    BUY_PARTIAL,
+    SELL_PARTIAL
+}
@@ -0,0 +1,10 @@
+package com.stofina.app.portfolioservice.exception;
+
+import com.stofina.app.commondata.exception.ApiException;
+import org.springframework.http.HttpStatus;
+
+public class StaleAccountStateException extends ApiException {
+    public StaleAccountStateException(String message) {
+        super(message, HttpStatus.CONFLICT);
+    }
+}
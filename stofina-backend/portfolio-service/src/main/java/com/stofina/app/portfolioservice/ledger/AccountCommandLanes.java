@@ -0,0 +1,364 @@
+package com.stofina.app.portfolioservice.ledger;
+
+import com.stofina.app.portfolioservice.exception.StaleAccountStateException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs every command that changes an account on the single thread of that account's lane, so commands
+ * of one account never race and need no row locks. Accounts are spread over a fixed number of lanes.
+ *
+ * A lane takes the commands waiting in its queue as one batch and runs them in one transaction, writing
+ * the ledger changes once at the end. If any command of the batch fails, the batch is rolled back and
+ * its commands are run again one transaction each, so only the failing command reports an error. A batch
+ * that failed because an account was changed outside the ledger is first run once more on the reloaded
+ * account.
+ *
+ * A command touching two accounts runs on the lower of the two lanes while the other lane is parked.
+ * Commands must only touch the accounts they were submitted for.
+ */
+@Component
+@Slf4j
+public class AccountCommandLanes {
+
+    private final TransactionOperations transactionOperations;
+    private final AccountLedger ledger;
+    private final int laneCount;
+    private final int maxBatchSize;
+    private final long idleEvictionMillis;
+
+    private final ThreadLocal<Set<Lane>> ownedLanes = new ThreadLocal<>();
+    private Lane[] lanes;
+    private volatile boolean running;
+
+    public AccountCommandLanes(TransactionOperations transactionOperations,
+                               AccountLedger ledger,
+                               @Value("${portfolio.lanes.count:16}") int laneCount,
+                               @Value("${portfolio.lanes.max-batch-size:64}") int maxBatchSize,
+                               @Value("${portfolio.ledger.idle-eviction-millis:600000}") long idleEvictionMillis) {
+        this.transactionOperations = transactionOperations;
+        this.ledger = ledger;
+        this.laneCount = Math.max(1, laneCount);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.idleEvictionMillis = Math.max(1_000, idleEvictionMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i);
+            lanes[i].thread.start();
+        }
+        log.info("Account command lanes started: {} lanes, batches of up to {} commands", laneCount, maxBatchSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Lane lane : lanes) {
+            lane.thread.interrupt();
+        }
+    }
+
+    /**
+     * Runs the command on the account's lane and waits for it to commit. Exceptions of the command are
+     * rethrown to the caller as they are.
+     */
+    public <T> T execute(Long accountId, Supplier<T> command) {
+        Lane lane = laneOf(accountId);
+        if (owns(lane)) {
+            // Already on this lane: join the running batch
+            return command.get();
+        }
+        return await(enqueue(lane, new LaneCommand<>(command, null)));
+    }
+
+    public void run(Long accountId, Runnable command) {
+        execute(accountId, () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs a command that changes two accounts, holding the lanes of both.
+     */
+    public <T> T execute(Long firstAccountId, Long secondAccountId, Supplier<T> command) {
+        Lane first = laneOf(firstAccountId);
+        Lane second = laneOf(secondAccountId);
+        if (first == second) {
+            return execute(firstAccountId, command);
+        }
+        if (owns(first) && owns(second)) {
+            return command.get();
+        }
+        Lane host = first.index < second.index ? first : second;
+        Lane other = host == first ? second : first;
+        return await(enqueue(host, new LaneCommand<>(command, other)));
+    }
+
+    public void run(Long firstAccountId, Long secondAccountId, Runnable command) {
+        execute(firstAccountId, secondAccountId, () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    /**
+     * Queues the command on the account's lane without waiting; commands of one account complete in
+     * the order they were submitted.
+     */
+    public <T> CompletableFuture<T> submit(Long accountId, Supplier<T> command) {
+        Lane lane = laneOf(accountId);
+        if (owns(lane)) {
+            try {
+                return CompletableFuture.completedFuture(command.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return enqueue(lane, new LaneCommand<>(command, null));
+    }
+
+    private <T> CompletableFuture<T> enqueue(Lane lane, LaneCommand<T> command) {
+        if (!running) {
+            throw new IllegalStateException("Account command lanes are stopped");
+        }
+        Set<Lane> owned = ownedLanes.get();
+        if (owned != null && !owned.isEmpty()) {
+            // Waiting on another lane from a lane can deadlock the two lanes
+            throw new IllegalStateException("Command for lane " + lane.index + " submitted from another lane");
+        }
+        lane.queue.add(command);
+        return command.future;
+    }
+
+    private Lane laneOf(Long accountId) {
+        return lanes[accountId == null ? 0 : Math.floorMod(Long.hashCode(accountId), lanes.length)];
+    }
+
+    private boolean owns(Lane lane) {
+        Set<Lane> owned = ownedLanes.get();
+        return owned != null && owned.contains(lane);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private final class Lane implements Runnable {
+
+        private final int index;
+        private final BlockingQueue<LaneCommand<?>> queue = new LinkedBlockingQueue<>();
+        private final Thread thread;
+        private long lastEvictionAt = System.currentTimeMillis();
+
+        private Lane(int index) {
+            this.index = index;
+            this.thread = new Thread(this, "account-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            Set<Lane> owned = new HashSet<>();
+            owned.add(this);
+            ownedLanes.set(owned);
+
+            while (running) {
+                LaneCommand<?> first;
+                try {
+                    first = queue.poll(idleEvictionMillis / 4, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+
+                if (first != null) {
+                    if (first.isParkRequest()) {
+                        park(first);
+                    } else if (first.otherLane != null) {
+                        runWithOtherLane(first, owned);
+                    } else {
+                        runBatch(drainBatch(first));
+                    }
+                }
+                evictIdleEntries();
+            }
+
+            LaneCommand<?> left;
+            while ((left = queue.poll()) != null) {
+                left.fail(new IllegalStateException("Account command lanes are stopped"));
+            }
+        }
+
+        private List<LaneCommand<?>> drainBatch(LaneCommand<?> first) {
+            List<LaneCommand<?>> batch = new ArrayList<>();
+            batch.add(first);
+            // Only this thread takes from the queue, so a peeked command is still there to poll
+            while (batch.size() < maxBatchSize) {
+                LaneCommand<?> next = queue.peek();
+                if (next == null || next.isParkRequest() || next.otherLane != null) {
+                    break;
+                }
+                batch.add(queue.poll());
+            }
+            return batch;
+        }
+
+        private void runBatch(List<LaneCommand<?>> batch) {
+            RuntimeException error = commit(batch);
+            if (error instanceof StaleAccountStateException) {
+                // The stale entries were discarded; running the batch again works on the reloaded accounts
+                log.warn("Account lane {} batch of {} commands hit a changed account, running it again: {}",
+                        index, batch.size(), error.getMessage());
+                error = commit(batch);
+            }
+            if (error == null) {
+                batch.forEach(LaneCommand::complete);
+                return;
+            }
+
+            if (batch.size() == 1) {
+                batch.get(0).fail(error);
+                return;
+            }
+            log.warn("Account lane {} batch of {} commands rolled back, running them one by one: {}",
+                    index, batch.size(), error.getMessage());
+            for (LaneCommand<?> command : batch) {
+                runBatch(List.of(command));
+            }
+        }
+
+        private RuntimeException commit(List<LaneCommand<?>> batch) {
+            try {
+                transactionOperations.executeWithoutResult(status -> {
+                    for (LaneCommand<?> command : batch) {
+                        command.execute();
+                    }
+                    ledger.flush();
+                });
+            } catch (RuntimeException e) {
+                ledger.discard();
+                return e;
+            }
+            ledger.committed();
+            return null;
+        }
+
+        private void runWithOtherLane(LaneCommand<?> command, Set<Lane> owned) {
+            Lane other = command.otherLane;
+            LaneCommand<Void> parkRequest = LaneCommand.parkRequest();
+            other.queue.add(parkRequest);
+            // The other lane is always higher, so hosts wait upwards only and cannot wait on each other
+            awaitUninterruptibly(parkRequest.parked);
+
+            owned.add(other);
+            try {
+                runBatch(List.of(command));
+            } finally {
+                owned.remove(other);
+                parkRequest.released.countDown();
+            }
+        }
+
+        private void park(LaneCommand<?> parkRequest) {
+            parkRequest.parked.countDown();
+            awaitUninterruptibly(parkRequest.released);
+        }
+
+        private void evictIdleEntries() {
+            long now = System.currentTimeMillis();
+            if (now - lastEvictionAt < idleEvictionMillis / 4) {
+                return;
+            }
+            lastEvictionAt = now;
+            int evicted = ledger.evictIdle(accountId -> laneOf(accountId) == this, idleEvictionMillis);
+            if (evicted > 0) {
+                log.debug("Account lane {} evicted {} idle ledger entries", index, evicted);
+            }
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class LaneCommand<T> {
+
+        private final Supplier<T> body;
+        private final Lane otherLane;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private CountDownLatch parked;
+        private CountDownLatch released;
+        private T result;
+
+        private LaneCommand(Supplier<T> body, Lane otherLane) {
+            this.body = body;
+            this.otherLane = otherLane;
+        }
+
+        private static LaneCommand<Void> parkRequest() {
+            LaneCommand<Void> request = new LaneCommand<>(null, null);
+            request.parked = new CountDownLatch(1);
+            request.released = new CountDownLatch(1);
+            return request;
+        }
+
+        private boolean isParkRequest() {
+            return parked != null;
+        }
+
+        private void execute() {
+            result = body.get();
+        }
+
+        // Results are handed out only after the batch committed
+        private void complete() {
+            future.complete(result);
+        }
+
+        private void fail(Throwable error) {
+            future.completeExceptionally(error);
+        }
+    }
+}
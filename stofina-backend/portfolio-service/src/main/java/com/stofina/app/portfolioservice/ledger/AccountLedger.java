@@ -0,0 +1,286 @@
+package com.stofina.app.portfolioservice.ledger;
+
+import com.stofina.app.portfolioservice.exception.AccountNotFoundException;
+import com.stofina.app.portfolioservice.exception.StaleAccountStateException;
+import com.stofina.app.portfolioservice.exception.TransactionNotFoundException;
+import com.stofina.app.portfolioservice.model.Account;
+import com.stofina.app.portfolioservice.model.Stock;
+import com.stofina.app.portfolioservice.model.Transaction;
+import com.stofina.app.portfolioservice.repository.AccountRepository;
+import com.stofina.app.portfolioservice.repository.StockRepository;
+import com.stofina.app.portfolioservice.repository.TransactionRepository;
+import com.stofina.app.portfolioservice.util.AccountBalanceCalculator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory balances and positions of the accounts served by the command lanes.
+ *
+ * An account is loaded from the database the first time a lane touches it and then kept, so commands
+ * no longer reload the account, its positions and its restrictions. Entries are only read and changed
+ * by the lane that owns the account. Changes are written when the lane commits its batch, with one
+ * update per changed account and position; when the batch rolls back, the touched entries are dropped
+ * and reloaded from the database by the next command.
+ *
+ * An account is only written over the version it was loaded with. If another writer changed it in the
+ * meantime, the flush fails with {@link StaleAccountStateException} instead of overwriting that change.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AccountLedger {
+
+    private static final int ORDER_ACCOUNT_CACHE_SIZE = 100_000;
+
+    private final AccountRepository accountRepository;
+    private final StockRepository stockRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountBalanceCalculator balanceCalculator;
+
+    private final Map<Long, LedgerEntry> entries = new ConcurrentHashMap<>();
+    // Entries touched by the batch the current lane thread is running
+    private final ThreadLocal<Map<Long, LedgerEntry>> touched = ThreadLocal.withInitial(LinkedHashMap::new);
+
+    // An order never moves to another account, so its account is looked up once
+    private final Map<Long, Long> orderAccounts = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > ORDER_ACCOUNT_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Account of the order, used to pick the lane before the order's transaction is loaded.
+     */
+    public Long accountOfOrder(Long orderId) {
+        synchronized (orderAccounts) {
+            Long accountId = orderAccounts.get(orderId);
+            if (accountId != null) {
+                return accountId;
+            }
+        }
+        Long accountId = transactionRepository.findByOrderId(orderId)
+                .map(Transaction::getAccountId)
+                .orElseThrow(() -> new TransactionNotFoundException("Transaction not found for order ID: " + orderId));
+        synchronized (orderAccounts) {
+            orderAccounts.put(orderId, accountId);
+        }
+        return accountId;
+    }
+
+    public Account account(Long accountId) {
+        return touch(accountId).account;
+    }
+
+    /**
+     * Marks the account as changed; it is written when the batch commits.
+     */
+    public void save(Account account) {
+        touch(account.getId()).accountChanged = true;
+    }
+
+    public void recalculateWithdrawableBalance(Account account) {
+        LedgerEntry entry = touch(account.getId());
+        BigDecimal withdrawable = account.getTotalBalance()
+                .subtract(account.getReservedBalance())
+                .subtract(entry.restrictedTotal);
+        account.setWithdrawableBalance(withdrawable.max(BigDecimal.ZERO));
+    }
+
+    /**
+     * Follows a change of the amount held by the account's active withdrawal restrictions.
+     */
+    public void adjustRestrictedTotal(Long accountId, BigDecimal delta) {
+        LedgerEntry entry = touch(accountId);
+        entry.restrictedTotal = entry.restrictedTotal.add(delta);
+    }
+
+    public Optional<Stock> findPosition(Long accountId, String symbol) {
+        return Optional.ofNullable(positions(touch(accountId)).get(symbol));
+    }
+
+    /**
+     * Keeps a new or changed position; it is written when the batch commits.
+     */
+    public void save(Stock stock) {
+        LedgerEntry entry = touch(stock.getAccountId());
+        positions(entry).put(stock.getSymbol(), stock);
+        entry.changedPositions.add(stock.getSymbol());
+    }
+
+    public void delete(Stock stock) {
+        LedgerEntry entry = touch(stock.getAccountId());
+        if (positions(entry).remove(stock.getSymbol(), stock) && stock.getId() != null) {
+            entry.removedPositions.add(stock);
+        }
+    }
+
+    /**
+     * Writes the changes of the running batch; called inside the batch transaction.
+     */
+    public void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        for (LedgerEntry entry : touched.get().values()) {
+            if (entry.accountChanged) {
+                Account account = entry.account;
+                int updated = accountRepository.updateLedgerState(account.getId(), account.getStatus(),
+                        account.getTotalBalance(), account.getAvailableBalance(), account.getReservedBalance(),
+                        account.getWithdrawableBalance(), now, account.getVersion());
+                if (updated == 0) {
+                    if (!accountRepository.existsById(account.getId())) {
+                        throw new AccountNotFoundException("Account not found with id: " + account.getId());
+                    }
+                    // Written elsewhere since it was loaded; the rollback discards the entry and it is reloaded
+                    throw new StaleAccountStateException("Account " + account.getId() + " was changed since it was loaded");
+                }
+                // A rollback after this point discards the entry, so the cached version never runs ahead
+                account.setVersion(account.getVersion() + 1);
+            }
+            for (Stock removed : entry.removedPositions) {
+                stockRepository.deletePosition(removed.getId());
+            }
+            for (String symbol : entry.changedPositions) {
+                Stock stock = entry.positions.get(symbol);
+                if (stock == null) {
+                    continue;
+                }
+                if (stock.getId() == null) {
+                    // Persist a copy, so the cached position never becomes a managed entity
+                    stock.setId(stockRepository.save(copyOf(stock)).getId());
+                } else {
+                    stockRepository.updatePosition(stock.getId(), stock.getQuantity(), stock.getAverageCost(), now);
+                }
+            }
+        }
+    }
+
+    /**
+     * The batch committed: its changes are now the database state.
+     */
+    public void committed() {
+        long now = System.currentTimeMillis();
+        for (LedgerEntry entry : touched.get().values()) {
+            entry.accountChanged = false;
+            entry.changedPositions.clear();
+            entry.removedPositions.clear();
+            entry.lastUsedAt = now;
+        }
+        touched.get().clear();
+    }
+
+    /**
+     * The batch rolled back: touched entries may hold changes the database never got, so they are dropped.
+     */
+    public void discard() {
+        Map<Long, LedgerEntry> batch = touched.get();
+        batch.keySet().forEach(entries::remove);
+        if (!batch.isEmpty()) {
+            log.debug("Discarded ledger entries after rollback: {}", batch.keySet());
+        }
+        batch.clear();
+    }
+
+    /**
+     * Drops entries of the calling lane that were not used for the given time.
+     */
+    public int evictIdle(LongPredicate ownedByLane, long idleMillis) {
+        long threshold = System.currentTimeMillis() - idleMillis;
+        int evicted = 0;
+        for (Map.Entry<Long, LedgerEntry> entry : entries.entrySet()) {
+            if (ownedByLane.test(entry.getKey()) && entry.getValue().lastUsedAt < threshold
+                    && entries.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private LedgerEntry touch(Long accountId) {
+        Map<Long, LedgerEntry> batch = touched.get();
+        LedgerEntry entry = batch.get(accountId);
+        if (entry != null) {
+            return entry;
+        }
+        entry = entries.get(accountId);
+        if (entry == null) {
+            entry = load(accountId);
+            entries.put(accountId, entry);
+        }
+        batch.put(accountId, entry);
+        return entry;
+    }
+
+    private LedgerEntry load(Long accountId) {
+        Account stored = accountRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + accountId));
+
+        // Detached copy without the lazy stock collection; positions are kept by the ledger itself
+        Account account = Account.builder()
+                .id(stored.getId())
+                .customerId(stored.getCustomerId())
+                .accountNumber(stored.getAccountNumber())
+                .status(stored.getStatus())
+                .totalBalance(stored.getTotalBalance())
+                .availableBalance(stored.getAvailableBalance())
+                .reservedBalance(stored.getReservedBalance())
+                .withdrawableBalance(stored.getWithdrawableBalance())
+                .version(stored.getVersion())
+                .build();
+        return new LedgerEntry(account, balanceCalculator.computeActiveRestrictedTotal(accountId));
+    }
+
+    private Map<String, Stock> positions(LedgerEntry entry) {
+        if (entry.positions == null) {
+            Map<String, Stock> positions = new HashMap<>();
+            for (Stock stock : stockRepository.findByAccountId(entry.account.getId())) {
+                positions.put(stock.getSymbol(), copyOf(stock));
+            }
+            entry.positions = positions;
+        }
+        return entry.positions;
+    }
+
+    private static Stock copyOf(Stock stock) {
+        return Stock.builder()
+                .id(stock.getId())
+                .accountId(stock.getAccountId())
+                .symbol(stock.getSymbol())
+                .quantity(stock.getQuantity())
+                .averageCost(stock.getAverageCost())
+                .build();
+    }
+
+    private static final class LedgerEntry {
+        private final Account account;
+        private BigDecimal restrictedTotal;
+        // Loaded on first use; many commands never look at positions
+        private Map<String, Stock> positions;
+        private boolean accountChanged;
+        private final Set<String> changedPositions = new HashSet<>();
+        private final List<Stock> removedPositions = new ArrayList<>();
+        private long lastUsedAt = System.currentTimeMillis();
+
+        private LedgerEntry(Account account, BigDecimal restrictedTotal) {
+            this.account = account;
+            this.restrictedTotal = restrictedTotal;
+        }
+    }
+}
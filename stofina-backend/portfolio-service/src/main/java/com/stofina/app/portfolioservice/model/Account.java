@@ -4,6 +4,7 @@ import com.stofina.app.portfolioservice.enums.AccountStatus;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -41,6 +42,12 @@ public class Account extends BaseEntity {
     @Column(precision = 19, scale = 4)
     private BigDecimal withdrawableBalance;
 
+    // Bumped by every write; the account ledger only writes over the version it loaded
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Stock> stocks = new ArrayList<>();
 
@@ -1,8 +1,14 @@
 package com.stofina.app.portfolioservice.repository;
 
+import com.stofina.app.portfolioservice.enums.AccountStatus;
 import com.stofina.app.portfolioservice.model.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
 
@@ -14,4 +20,18 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
     boolean existsByAccountNumber(String accountNumber);
 
+    @Modifying
+    @Query("update Account a set a.status = :status, a.totalBalance = :totalBalance, " +
+            "a.availableBalance = :availableBalance, a.reservedBalance = :reservedBalance, " +
+            "a.withdrawableBalance = :withdrawableBalance, a.lastModificationDate = :modifiedAt, " +
+            "a.version = a.version + 1 where a.id = :id and a.version = :version")
+    int updateLedgerState(@Param("id") Long id,
+                          @Param("status") AccountStatus status,
+                          @Param("totalBalance") BigDecimal totalBalance,
+                          @Param("availableBalance") BigDecimal availableBalance,
+                          @Param("reservedBalance") BigDecimal reservedBalance,
+                          @Param("withdrawableBalance") BigDecimal withdrawableBalance,
+                          @Param("modifiedAt") LocalDateTime modifiedAt,
+                          @Param("version") Long version);
+
 }
@@ -2,7 +2,12 @@ package com.stofina.app.portfolioservice.repository;
 
 import com.stofina.app.portfolioservice.model.Stock;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +17,16 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
 
     Optional<Stock> findByAccountIdAndSymbol(Long accountId, String symbol);
 
+    @Modifying
+    @Query("update Stock s set s.quantity = :quantity, s.averageCost = :averageCost, " +
+            "s.lastModificationDate = :modifiedAt where s.id = :id")
+    int updatePosition(@Param("id") Long id,
+                       @Param("quantity") Integer quantity,
+                       @Param("averageCost") BigDecimal averageCost,
+                       @Param("modifiedAt") LocalDateTime modifiedAt);
+
+    @Modifying
+    @Query("delete from Stock s where s.id = :id")
+    int deletePosition(@Param("id") Long id);
+
 }
@@ -0,0 +1,20 @@
+package com.stofina.app.portfolioservice.request.stock;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TradeConfirmationBatchRequest {
+
+    @NotEmpty(message = "At least one confirmation is required")
+    @Size(max = 500, message = "At most 500 confirmations per batch")
+    private List<@Valid TradeConfirmationItem> confirmations;
+}
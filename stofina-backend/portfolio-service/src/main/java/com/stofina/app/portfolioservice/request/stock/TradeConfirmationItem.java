@@ -0,0 +1,27 @@
+package com.stofina.app.portfolioservice.request.stock;
+
+import com.stofina.app.portfolioservice.enums.TradeConfirmationType;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TradeConfirmationItem {
+
+    @NotNull(message = "Order ID is required")
+    private Long orderId;
+
+    // Used to group the batch by account; the order's transaction stays the source of truth
+    private Long accountId;
+
+    @NotNull(message = "Confirmation type is required")
+    private TradeConfirmationType type;
+
+    // Required for partial confirmations
+    @Positive(message = "Fulfilled quantity must be greater than 0")
+    private Integer fulfilledQuantity;
+}
@@ -1,12 +1,11 @@
 package com.stofina.app.portfolioservice.scheduler;
 
 import com.stofina.app.portfolioservice.enums.RestrictionStatus;
-import com.stofina.app.portfolioservice.exception.AccountNotFoundException;
+import com.stofina.app.portfolioservice.ledger.AccountCommandLanes;
+import com.stofina.app.portfolioservice.ledger.AccountLedger;
 import com.stofina.app.portfolioservice.model.Account;
 import com.stofina.app.portfolioservice.model.WithdrawalRestriction;
-import com.stofina.app.portfolioservice.repository.AccountRepository;
 import com.stofina.app.portfolioservice.repository.WithdrawalRestrictionRepository;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -21,11 +20,11 @@ import java.util.List;
 public class TPlus2Job {
 
     private final WithdrawalRestrictionRepository restrictionRepository;
-    private final AccountRepository accountRepository;
+    private final AccountLedger ledger;
+    private final AccountCommandLanes lanes;
 
 
     @Scheduled(cron = "0 0 8 * * *")
-    @Transactional
     public void releaseSettledRestrictions() {
         LocalDateTime now = LocalDateTime.now();
 
@@ -33,19 +32,34 @@ public class TPlus2Job {
                 .findAllByStatusAndSettlementDateBefore(RestrictionStatus.ACTIVE, now);
 
         for (WithdrawalRestriction restriction : restrictions) {
-            Account account = accountRepository.findById(restriction.getAccountId())
-                    .orElseThrow(() -> new AccountNotFoundException("Account not found for restriction ID: " + restriction.getId()));
+            // Each release changes the account on its lane; one failing release does not hold back the rest
+            try {
+                lanes.run(restriction.getAccountId(), () -> release(restriction.getId()));
+            } catch (RuntimeException e) {
+                log.error("T+2 restriction release failed (restrictionId={}): {}", restriction.getId(), e.getMessage());
+            }
+        }
+    }
 
-            account.setWithdrawableBalance(
-                    account.getWithdrawableBalance().add(restriction.getRestrictedAmount())
-            );
-            restriction.setStatus(RestrictionStatus.RELEASED);
+    private void release(Long restrictionId) {
+        WithdrawalRestriction restriction = restrictionRepository.findById(restrictionId)
+                .filter(r -> r.getStatus() == RestrictionStatus.ACTIVE)
+                .orElse(null);
+        if (restriction == null) {
+            return;
+        }
 
-            accountRepository.save(account);
-            restrictionRepository.save(restriction);
+        Account account = ledger.account(restriction.getAccountId());
+        account.setWithdrawableBalance(
+                account.getWithdrawableBalance().add(restriction.getRestrictedAmount())
+        );
+        ledger.adjustRestrictedTotal(account.getId(), restriction.getRestrictedAmount().negate());
+        restriction.setStatus(RestrictionStatus.RELEASED);
 
-            log.info("T+2 restriction released for account {}: {} added to available balance (restrictionId={})",
-                    account.getId(), restriction.getRestrictedAmount(), restriction.getId());
-        }
+        ledger.save(account);
+        restrictionRepository.save(restriction);
+
+        log.info("T+2 restriction released for account {}: {} added to available balance (restrictionId={})",
+                account.getId(), restriction.getRestrictedAmount(), restriction.getId());
     }
 }
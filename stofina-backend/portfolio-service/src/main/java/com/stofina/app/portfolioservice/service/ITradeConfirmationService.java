@@ -0,0 +1,21 @@
+package com.stofina.app.portfolioservice.service;
+
+import com.stofina.app.portfolioservice.dto.TradeConfirmationResultDto;
+import com.stofina.app.portfolioservice.request.stock.TradeConfirmationItem;
+
+import java.util.List;
+
+/**
+ * Service interface for confirming many trade executions at once.
+ */
+public interface ITradeConfirmationService {
+
+    /**
+     * Applies the confirmations on the lanes of their accounts, in as few transactions as possible.
+     * A failing confirmation does not fail the others; each one gets its own result.
+     *
+     * @param confirmations buy, sell and partial confirmations in the order they happened
+     * @return one result per confirmation, in request order
+     */
+    List<TradeConfirmationResultDto> confirmTrades(List<TradeConfirmationItem> confirmations);
+}
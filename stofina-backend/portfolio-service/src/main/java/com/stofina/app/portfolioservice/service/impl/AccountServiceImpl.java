@@ -6,6 +6,8 @@ import com.stofina.app.portfolioservice.dto.BalanceReservationDto;
 import com.stofina.app.portfolioservice.dto.WithdrawableBalanceDto;
 import com.stofina.app.portfolioservice.enums.*;
 import com.stofina.app.portfolioservice.exception.AccountNotFoundException;
+import com.stofina.app.portfolioservice.ledger.AccountCommandLanes;
+import com.stofina.app.portfolioservice.ledger.AccountLedger;
 import com.stofina.app.portfolioservice.mapper.AccountMapper;
 import com.stofina.app.portfolioservice.model.Account;
 import com.stofina.app.portfolioservice.model.BalanceReservation;
@@ -37,6 +39,8 @@ public class AccountServiceImpl implements IAccountService {
     private final AccountMapper accountMapper;
     private final BalanceReservationRepository reservationRepository;
     private final AccountBalanceCalculator balanceCalculator;
+    private final AccountLedger ledger;
+    private final AccountCommandLanes lanes;
 
     @Override
     public AccountDto createAccount(CreateAccountRequest request) {
@@ -72,13 +76,17 @@ public class AccountServiceImpl implements IAccountService {
 
     @Override
     public void deposit(Long accountId, DepositRequest request) {
-        Account account = findAccount(accountId);
+        lanes.run(accountId, () -> depositInLane(accountId, request));
+    }
+
+    private void depositInLane(Long accountId, DepositRequest request) {
+        Account account = ledger.account(accountId);
         BigDecimal amount = request.getAmount();
 
         account.setTotalBalance(account.getTotalBalance().add(amount));
         account.setAvailableBalance(account.getAvailableBalance().add(amount));
-        balanceCalculator.recalculateWithdrawableBalance(account);
-        accountRepository.save(account);
+        ledger.recalculateWithdrawableBalance(account);
+        ledger.save(account);
 
         Transaction transaction = Transaction.builder()
                 .accountId(accountId)
@@ -100,7 +108,11 @@ public class AccountServiceImpl implements IAccountService {
 
     @Override
     public void withdraw(Long accountId, WithdrawRequest request) {
-        Account account = findAccount(accountId);
+        lanes.run(accountId, () -> withdrawInLane(accountId, request));
+    }
+
+    private void withdrawInLane(Long accountId, WithdrawRequest request) {
+        Account account = ledger.account(accountId);
         BigDecimal amount = request.getAmount();
 
         if (account.getWithdrawableBalance().compareTo(amount) < 0) {
@@ -109,8 +121,8 @@ public class AccountServiceImpl implements IAccountService {
 
         account.setTotalBalance(account.getTotalBalance().subtract(amount));
         account.setAvailableBalance(account.getAvailableBalance().subtract(amount));
-        balanceCalculator.recalculateWithdrawableBalance(account);
-        accountRepository.save(account);
+        ledger.recalculateWithdrawableBalance(account);
+        ledger.save(account);
 
         Transaction transaction = Transaction.builder()
                 .accountId(accountId)
@@ -132,11 +144,14 @@ public class AccountServiceImpl implements IAccountService {
 
     @Override
     public AccountDto updateStatus(Long accountId, PatchAccountStatusRequest request) {
-        Account account = findAccount(accountId);
-        account.setStatus(request.getNewStatus());
-        accountRepository.save(account);
+        lanes.run(accountId, () -> {
+            Account account = ledger.account(accountId);
+            account.setStatus(request.getNewStatus());
+            ledger.save(account);
+        });
         log.info("Updated account ID {} status to {}", accountId, request.getNewStatus());
-        return accountMapper.toAccountDto(account);
+        // The ledger copy has no stocks; the DTO is built from the stored account
+        return accountMapper.toAccountDto(findAccount(accountId));
     }
     @Override
     public BalanceDto getBalanceByAccountId(Long accountId) {
@@ -170,7 +185,6 @@ public class AccountServiceImpl implements IAccountService {
         return dto;
     }
     @Override
-    @Transactional
     public void transferMoney( TransferMoneyRequest request) {
         String fromAccountNumber = request.getFromAccountNumber();
         String toAccountNumber = request.getToAccountNumber();
@@ -180,11 +194,24 @@ public class AccountServiceImpl implements IAccountService {
             throw new IllegalArgumentException("Transfer amount must be positive.");
         }
 
-        Account fromAccount = accountRepository.findByAccountNumber(fromAccountNumber)
-                .orElseThrow(() -> new AccountNotFoundException("From account not found: " + fromAccountNumber));
+        Long fromAccountId = accountRepository.findByAccountNumber(fromAccountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("From account not found: " + fromAccountNumber))
+                .getId();
+
+        Long toAccountId = accountRepository.findByAccountNumber(toAccountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("To account not found: " + toAccountNumber))
+                .getId();
+
+        lanes.run(fromAccountId, toAccountId, () -> transferMoneyInLane(request, fromAccountId, toAccountId));
+    }
+
+    private void transferMoneyInLane(TransferMoneyRequest request, Long fromAccountId, Long toAccountId) {
+        String fromAccountNumber = request.getFromAccountNumber();
+        String toAccountNumber = request.getToAccountNumber();
+        BigDecimal amount = request.getAmount();
 
-        Account toAccount = accountRepository.findByAccountNumber(toAccountNumber)
-                .orElseThrow(() -> new AccountNotFoundException("To account not found: " + toAccountNumber));
+        Account fromAccount = ledger.account(fromAccountId);
+        Account toAccount = ledger.account(toAccountId);
 
         if (fromAccount.getAvailableBalance().compareTo(amount) < 0) {
             throw new IllegalStateException("Insufficient balance in source account.");
@@ -193,15 +220,15 @@ public class AccountServiceImpl implements IAccountService {
         // 3. Update source account
         fromAccount.setAvailableBalance(fromAccount.getAvailableBalance().subtract(amount));
         fromAccount.setTotalBalance(fromAccount.getTotalBalance().subtract(amount));
-        balanceCalculator.recalculateWithdrawableBalance(fromAccount);
+        ledger.recalculateWithdrawableBalance(fromAccount);
 
         // 4. Update target account
         toAccount.setAvailableBalance(toAccount.getAvailableBalance().add(amount));
         toAccount.setTotalBalance(toAccount.getTotalBalance().add(amount));
-        balanceCalculator.recalculateWithdrawableBalance(toAccount);
+        ledger.recalculateWithdrawableBalance(toAccount);
 
-        accountRepository.save(fromAccount);
-        accountRepository.save(toAccount);
+        ledger.save(fromAccount);
+        ledger.save(toAccount);
 
         // 5. Record transaction on both sides
         Transaction withdrawTxn = Transaction.builder()
@@ -4,6 +4,8 @@ import com.stofina.app.portfolioservice.exception.NotEnoughBalanceException;
 import com.stofina.app.portfolioservice.dto.StockDto;
 import com.stofina.app.portfolioservice.enums.*;
 import com.stofina.app.portfolioservice.exception.*;
+import com.stofina.app.portfolioservice.ledger.AccountCommandLanes;
+import com.stofina.app.portfolioservice.ledger.AccountLedger;
 import com.stofina.app.portfolioservice.mapper.StockMapper;
 import com.stofina.app.portfolioservice.mapper.TransactionMapper;
 import com.stofina.app.portfolioservice.model.*;
@@ -12,8 +14,6 @@ import com.stofina.app.portfolioservice.request.account.TransferStockRequest;
 import com.stofina.app.portfolioservice.request.stock.BuyStockRequest;
 import com.stofina.app.portfolioservice.request.stock.SellStockRequest;
 import com.stofina.app.portfolioservice.service.IStockService;
-import com.stofina.app.portfolioservice.util.AccountBalanceCalculator;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,7 +28,6 @@ import java.util.List;
 @Slf4j
 public class StockServiceImpl implements IStockService {
 
-    private final AccountRepository accountRepository;
     private final StockRepository stockRepository;
     private final TransactionRepository transactionRepository;
     private final BalanceReservationRepository reservationRepository;
@@ -36,10 +35,16 @@ public class StockServiceImpl implements IStockService {
     private final TransactionMapper transactionMapper;
     private final StockMapper stockMapper;
     private final StockReservationRepository stockReservationRepository;
-    private final AccountBalanceCalculator withdrawableBalanceComponent;
+    private final AccountLedger ledger;
+    private final AccountCommandLanes lanes;
+
+    // Commands changing an account run on its lane, inside the lane's batch transaction
     @Override
-    @Transactional
     public void buyStock(BuyStockRequest request) {
+        lanes.run(request.getAccountId(), () -> buyStockInLane(request));
+    }
+
+    private void buyStockInLane(BuyStockRequest request) {
         Account account = findAccount(request.getAccountId());
 
         BigDecimal totalCost = request.getPrice().multiply(BigDecimal.valueOf(request.getQuantity()));
@@ -73,16 +78,19 @@ public class StockServiceImpl implements IStockService {
         // 3. Update account balance
         account.setAvailableBalance(account.getAvailableBalance().subtract(totalCost));
         account.setReservedBalance(account.getReservedBalance().add(totalCost));
-        withdrawableBalanceComponent.recalculateWithdrawableBalance(account);
-        accountRepository.save(account);
+        ledger.recalculateWithdrawableBalance(account);
+        ledger.save(account);
 
         log.info("Buy order placed for account {}: {} x {} reserved (orderId={})",
                 account.getId(), request.getQuantity(), request.getSymbol(), request.getOrderId());
     }
 
     @Override
-    @Transactional
     public void confirmBuy(Long orderId) {
+        lanes.run(ledger.accountOfOrder(orderId), () -> confirmBuyInLane(orderId));
+    }
+
+    private void confirmBuyInLane(Long orderId) {
         Transaction transaction = getTransactionBuOrderId(orderId);
 
         if (transaction.getTransactionStatus() != TransactionStatus.PENDING &&
@@ -106,7 +114,7 @@ public class StockServiceImpl implements IStockService {
         transactionRepository.save(transaction);
 
         // Update stock
-        Stock stock = stockRepository.findByAccountIdAndSymbol(account.getId(), transaction.getSymbol())
+        Stock stock = ledger.findPosition(account.getId(), transaction.getSymbol())
                 .orElse(Stock.builder()
                         .accountId(account.getId())
                         .symbol(transaction.getSymbol())
@@ -128,13 +136,13 @@ public class StockServiceImpl implements IStockService {
 
         stock.setQuantity(newQuantity+stock.getQuantity());
         stock.setAverageCost(newAverageCost);
-        stockRepository.save(stock);
+        ledger.save(stock);
 
         // Update account balances
         account.setTotalBalance(account.getTotalBalance().subtract(amount));
         account.setReservedBalance(account.getReservedBalance().subtract(amount));
-        withdrawableBalanceComponent.recalculateWithdrawableBalance(account);
-        accountRepository.save(account);
+        ledger.recalculateWithdrawableBalance(account);
+        ledger.save(account);
 
         // Release reservation
         BalanceReservation reservation = reservationRepository.findByAccountIdAndOrderId(account.getId(), orderId)
@@ -148,8 +156,11 @@ public class StockServiceImpl implements IStockService {
     }
 
     @Override
-    @Transactional
     public void cancelBuy(Long orderId) {
+        lanes.run(ledger.accountOfOrder(orderId), () -> cancelBuyInLane(orderId));
+    }
+
+    private void cancelBuyInLane(Long orderId) {
         Transaction transaction = getTransactionBuOrderId(orderId);
 
         Account account = findAccount(transaction.getAccountId());
@@ -191,8 +202,8 @@ public class StockServiceImpl implements IStockService {
         // Update account balances
         account.setAvailableBalance(account.getAvailableBalance().add(refundAmount));
         account.setReservedBalance(account.getReservedBalance().subtract(refundAmount));
-        withdrawableBalanceComponent.recalculateWithdrawableBalance(account);
-        accountRepository.save(account);
+        ledger.recalculateWithdrawableBalance(account);
+        ledger.save(account);
 
         // Update reservation
         reservation.setStatus(ReservationStatus.RELEASED);
@@ -210,10 +221,13 @@ public class StockServiceImpl implements IStockService {
     }
 
     @Override
-    @Transactional
     public void sellStock(SellStockRequest request) {
+        lanes.run(request.getAccountId(), () -> sellStockInLane(request));
+    }
+
+    private void sellStockInLane(SellStockRequest request) {
         Account account = findAccount(request.getAccountId());
-        Stock stock = stockRepository.findByAccountIdAndSymbol(account.getId(), request.getSymbol())
+        Stock stock = ledger.findPosition(account.getId(), request.getSymbol())
                 .orElseThrow(() -> new StockNotFoundException("Stock not found in account"));
 
         if (stock.getQuantity() < request.getQuantity()) {
@@ -240,9 +254,9 @@ public class StockServiceImpl implements IStockService {
         // Decrease stock quantity
         stock.setQuantity(stock.getQuantity() - request.getQuantity());
         if (stock.getQuantity() <= 0) {
-            stockRepository.delete(stock);
+            ledger.delete(stock);
         } else {
-            stockRepository.save(stock);
+            ledger.save(stock);
         }
 
         // Create transaction (PENDING)
@@ -276,8 +290,11 @@ public class StockServiceImpl implements IStockService {
     }
 
     @Override
-    @Transactional
     public void cancelSell(Long orderId) {
+        lanes.run(ledger.accountOfOrder(orderId), () -> cancelSellInLane(orderId));
+    }
+
+    private void cancelSellInLane(Long orderId) {
         Transaction transaction = getTransactionBuOrderId(orderId);
 
         // Sadece PENDING veya PARTIALLY_SETTLED durumundaki işlemler iptal edilebilir
@@ -297,7 +314,7 @@ public class StockServiceImpl implements IStockService {
         StockReservation stockReservation = stockReservationRepository.findByAccountIdAndOrderId(account.getId(), orderId)
                 .orElseThrow(() -> new RuntimeException("Stock reservation not found"));
 
-        Stock stock = stockRepository.findByAccountIdAndSymbol(account.getId(), stockReservation.getSymbol())
+        Stock stock = ledger.findPosition(account.getId(), stockReservation.getSymbol())
                 .orElse(Stock.builder()
                         .accountId(account.getId())
                         .symbol(stockReservation.getSymbol())
@@ -306,7 +323,7 @@ public class StockServiceImpl implements IStockService {
                         .build());
 
         stock.setQuantity(stock.getQuantity()+stockReservation.getReservedQuantity()-stockReservation.getUsedQuantity());
-        stockRepository.save(stock);
+        ledger.save(stock);
 
         stockReservation.setStatus(ReservationStatus.RELEASED);
         stockReservation.setUsedQuantity(transaction.getFulfilledQuantity());
@@ -318,8 +335,11 @@ public class StockServiceImpl implements IStockService {
 
 
     @Override
-    @Transactional
     public void confirmSell(Long orderId) {
+        lanes.run(ledger.accountOfOrder(orderId), () -> confirmSellInLane(orderId));
+    }
+
+    private void confirmSellInLane(Long orderId) {
         Transaction transaction = getTransactionBuOrderId(orderId);
 
         if (transaction.getTransactionStatus() != TransactionStatus.PENDING &&
@@ -347,10 +367,10 @@ public class StockServiceImpl implements IStockService {
 
         // Update Account
         account.setTotalBalance(account.getTotalBalance().add(proceeds));
-        withdrawableBalanceComponent.recalculateWithdrawableBalance(account);
-        accountRepository.save(account);
+        ledger.recalculateWithdrawableBalance(account);
+        ledger.save(account);
         WithdrawalRestriction restriction=restrictionRepository.findByOrderId((orderId)).orElseThrow(()->new RestrictionNotFoundException("Restriction not found for order ID: " + orderId));
-        restriction.setRestrictedAmount(transaction.getPrice().multiply(BigDecimal.valueOf(transaction.getQuantity())));
+        setRestrictedAmount(restriction, transaction.getPrice().multiply(BigDecimal.valueOf(transaction.getQuantity())));
 
         log.info("Sell order confirmed for account {}. Fulfilled quantity: {}, Proceeds {} settled.",
                 account.getId(), fulfilledQuantity, proceeds);
@@ -383,8 +403,11 @@ public class StockServiceImpl implements IStockService {
                 });
     }
     @Override
-    @Transactional
     public void confirmBuyPartially(Long orderId, int fulfilledQuantity) {
+        lanes.run(ledger.accountOfOrder(orderId), () -> confirmBuyPartiallyInLane(orderId, fulfilledQuantity));
+    }
+
+    private void confirmBuyPartiallyInLane(Long orderId, int fulfilledQuantity) {
 
         Transaction transaction = getTransactionBuOrderId(orderId);
         if (transaction.getTransactionStatus() != TransactionStatus.PENDING&&transaction.getTransactionStatus() != TransactionStatus.PARTIALLY_SETTLED) {
@@ -421,7 +444,7 @@ public class StockServiceImpl implements IStockService {
         transactionRepository.save(transaction);
 
         // Update Stock
-        Stock stock = stockRepository.findByAccountIdAndSymbol(account.getId(), transaction.getSymbol())
+        Stock stock = ledger.findPosition(account.getId(), transaction.getSymbol())
                 .orElse(Stock.builder()
                         .accountId(account.getId())
                         .symbol(transaction.getSymbol())
@@ -441,13 +464,13 @@ public class StockServiceImpl implements IStockService {
 
         stock.setQuantity(totalQty);
         stock.setAverageCost(newAverageCost);
-        stockRepository.save(stock);
+        ledger.save(stock);
 
         // Update Account
         account.setTotalBalance(account.getTotalBalance().subtract(fulfilledAmount));
         account.setReservedBalance(account.getReservedBalance().subtract(fulfilledAmount));
-        withdrawableBalanceComponent.recalculateWithdrawableBalance(account);
-        accountRepository.save(account);
+        ledger.recalculateWithdrawableBalance(account);
+        ledger.save(account);
 
         // Update BalanceReservation
         BalanceReservation reservation = reservationRepository.findByAccountIdAndOrderId(account.getId(), orderId)
@@ -463,8 +486,11 @@ public class StockServiceImpl implements IStockService {
     }
 
     @Override
-    @Transactional
     public void confirmSellPartially(Long orderId, int fulfilledQuantity) {
+        lanes.run(ledger.accountOfOrder(orderId), () -> confirmSellPartiallyInLane(orderId, fulfilledQuantity));
+    }
+
+    private void confirmSellPartiallyInLane(Long orderId, int fulfilledQuantity) {
         Transaction transaction = getTransactionBuOrderId(orderId);
 
         if (transaction.getTransactionStatus() != TransactionStatus.PENDING &&
@@ -499,12 +525,12 @@ public class StockServiceImpl implements IStockService {
         transaction.setBalanceAfterTransaction(account.getTotalBalance().add(proceeds));
         transactionRepository.save(transaction);
         WithdrawalRestriction restriction=restrictionRepository.findByOrderId((orderId)).orElseThrow(()->new RestrictionNotFoundException("Restriction not found for order ID: " + orderId));
-        restriction.setRestrictedAmount(restriction.getRestrictedAmount().add(proceeds));
+        setRestrictedAmount(restriction, restriction.getRestrictedAmount().add(proceeds));
 
         // Update Account
         account.setTotalBalance(account.getTotalBalance().add(proceeds));
-        withdrawableBalanceComponent.recalculateWithdrawableBalance(account);
-        accountRepository.save(account);
+        ledger.recalculateWithdrawableBalance(account);
+        ledger.save(account);
 
         // Update Stock reservation
         StockReservation stockReservation = stockReservationRepository.findByAccountIdAndOrderId(account.getId(), orderId)
@@ -517,12 +543,22 @@ public class StockServiceImpl implements IStockService {
 
 
     private Account findAccount(Long id) {
-        return accountRepository.findById(id)
-                .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + id));
+        return ledger.account(id);
+    }
+
+    // The ledger keeps the total of active restrictions for the withdrawable balance
+    private void setRestrictedAmount(WithdrawalRestriction restriction, BigDecimal amount) {
+        if (restriction.getStatus() == RestrictionStatus.ACTIVE) {
+            ledger.adjustRestrictedTotal(restriction.getAccountId(), amount.subtract(restriction.getRestrictedAmount()));
+        }
+        restriction.setRestrictedAmount(amount);
     }
     @Override
-    @Transactional
     public void transferStock(TransferStockRequest request) {
+        lanes.run(request.getFromAccountId(), request.getToAccountId(), () -> transferStockInLane(request));
+    }
+
+    private void transferStockInLane(TransferStockRequest request) {
         Account fromAccount = findAccount(request.getFromAccountId());
         Account toAccount = findAccount(request.getToAccountId());
 
@@ -530,7 +566,7 @@ public class StockServiceImpl implements IStockService {
             throw new IllegalArgumentException("Cannot transfer stock to the same account");
         }
 
-        Stock fromStock = stockRepository.findByAccountIdAndSymbol(fromAccount.getId(), request.getSymbol())
+        Stock fromStock = ledger.findPosition(fromAccount.getId(), request.getSymbol())
                 .orElseThrow(() -> new StockNotFoundException("Source account does not own the stock"));
 
         if (fromStock.getQuantity() < request.getQuantity()) {
@@ -540,13 +576,13 @@ public class StockServiceImpl implements IStockService {
         // 1. Update source stock
         fromStock.setQuantity(fromStock.getQuantity() - request.getQuantity());
         if (fromStock.getQuantity() == 0) {
-            stockRepository.delete(fromStock);
+            ledger.delete(fromStock);
         } else {
-            stockRepository.save(fromStock);
+            ledger.save(fromStock);
         }
 
         // 2. Update destination stock
-        Stock toStock = stockRepository.findByAccountIdAndSymbol(toAccount.getId(), request.getSymbol())
+        Stock toStock = ledger.findPosition(toAccount.getId(), request.getSymbol())
                 .orElse(Stock.builder()
                         .accountId(toAccount.getId())
                         .symbol(request.getSymbol())
@@ -555,7 +591,7 @@ public class StockServiceImpl implements IStockService {
                         .build());
 
         toStock.setQuantity(toStock.getQuantity() + request.getQuantity());
-        stockRepository.save(toStock);
+        ledger.save(toStock);
 
         Transaction outTxn = Transaction.builder()
                 .accountId(fromAccount.getId())
@@ -0,0 +1,110 @@
+package com.stofina.app.portfolioservice.service.impl;
+
+import com.stofina.app.commondata.exception.ApiException;
+import com.stofina.app.portfolioservice.dto.TradeConfirmationResultDto;
+import com.stofina.app.portfolioservice.ledger.AccountCommandLanes;
+import com.stofina.app.portfolioservice.ledger.AccountLedger;
+import com.stofina.app.portfolioservice.request.stock.TradeConfirmationItem;
+import com.stofina.app.portfolioservice.service.IStockService;
+import com.stofina.app.portfolioservice.service.ITradeConfirmationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Queues every confirmation on the lane of its order's account, in request order. The lane commits the
+ * confirmations of an account that wait together in one transaction, and different accounts are
+ * confirmed in parallel on their own lanes. When a confirmation fails, the lane rolls back and runs the
+ * rest one by one, so only the failing confirmation is left out.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TradeConfirmationServiceImpl implements ITradeConfirmationService {
+
+    private final IStockService stockService;
+    private final AccountLedger ledger;
+    private final AccountCommandLanes lanes;
+
+    @Override
+    public List<TradeConfirmationResultDto> confirmTrades(List<TradeConfirmationItem> confirmations) {
+        List<CompletableFuture<Void>> pending = new ArrayList<>(confirmations.size());
+        for (TradeConfirmationItem item : confirmations) {
+            pending.add(submit(item));
+        }
+
+        List<TradeConfirmationResultDto> results = new ArrayList<>(confirmations.size());
+        int failed = 0;
+        for (int i = 0; i < confirmations.size(); i++) {
+            TradeConfirmationItem item = confirmations.get(i);
+            try {
+                pending.get(i).join();
+                results.add(TradeConfirmationResultDto.builder()
+                        .orderId(item.getOrderId())
+                        .type(item.getType())
+                        .success(true)
+                        .build());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.warn("Trade confirmation failed for order {} ({}): {}", item.getOrderId(), item.getType(), cause.getMessage());
+                results.add(failure(item, cause));
+                failed++;
+            }
+        }
+
+        if (failed > 0) {
+            log.warn("Confirmed trade batch with failures: {} of {} confirmations failed", failed, confirmations.size());
+        } else {
+            log.info("Confirmed {} trades", confirmations.size());
+        }
+        return results;
+    }
+
+    private CompletableFuture<Void> submit(TradeConfirmationItem item) {
+        try {
+            // The lane follows the order's stored account; the account in the request is not trusted for it
+            Long accountId = ledger.accountOfOrder(item.getOrderId());
+            return lanes.submit(accountId, () -> {
+                apply(item);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void apply(TradeConfirmationItem item) {
+        switch (item.getType()) {
+            case BUY -> stockService.confirmBuy(item.getOrderId());
+            case SELL -> stockService.confirmSell(item.getOrderId());
+            case BUY_PARTIAL -> stockService.confirmBuyPartially(item.getOrderId(), fulfilledQuantity(item));
+            case SELL_PARTIAL -> stockService.confirmSellPartially(item.getOrderId(), fulfilledQuantity(item));
+        }
+    }
+
+    private int fulfilledQuantity(TradeConfirmationItem item) {
+        if (item.getFulfilledQuantity() == null) {
+            throw new IllegalArgumentException("Fulfilled quantity is required for order: " + item.getOrderId());
+        }
+        return item.getFulfilledQuantity();
+    }
+
+    private TradeConfirmationResultDto failure(TradeConfirmationItem item, Throwable e) {
+        HttpStatus status = e instanceof ApiException apiException ? apiException.getHttpStatus()
+                : e instanceof IllegalArgumentException ? HttpStatus.BAD_REQUEST
+                : HttpStatus.INTERNAL_SERVER_ERROR;
+        return TradeConfirmationResultDto.builder()
+                .orderId(item.getOrderId())
+                .type(item.getType())
+                .success(false)
+                .errorCode(status.name())
+                .message(e.getMessage())
+                .build();
+    }
+}
@@ -3,10 +3,11 @@ package com.stofina.app.portfolioservice.service.impl;
 import com.stofina.app.portfolioservice.dto.WithdrawalRestrictionDto;
 import com.stofina.app.portfolioservice.enums.RestrictionStatus;
 import com.stofina.app.portfolioservice.enums.RestrictionType;
+import com.stofina.app.portfolioservice.ledger.AccountCommandLanes;
+import com.stofina.app.portfolioservice.ledger.AccountLedger;
 import com.stofina.app.portfolioservice.mapper.WithdrawalRestrictionMapper;
 import com.stofina.app.portfolioservice.model.Account;
 import com.stofina.app.portfolioservice.model.WithdrawalRestriction;
-import com.stofina.app.portfolioservice.repository.AccountRepository;
 import com.stofina.app.portfolioservice.repository.WithdrawalRestrictionRepository;
 import com.stofina.app.portfolioservice.service.IWithdrawalRestrictionService;
 import lombok.RequiredArgsConstructor;
@@ -25,8 +26,9 @@ import java.util.stream.Collectors;
 public class WithdrawalRestrictionServiceImpl implements IWithdrawalRestrictionService {
 
     private final WithdrawalRestrictionRepository restrictionRepository;
-    private final AccountRepository accountRepository;
     private final WithdrawalRestrictionMapper mapper;
+    private final AccountLedger ledger;
+    private final AccountCommandLanes lanes;
 
     @Override
     public void createRestriction(Long accountId, BigDecimal amount, LocalDate tradeDate,
@@ -42,7 +44,11 @@ public class WithdrawalRestrictionServiceImpl implements IWithdrawalRestrictionS
                 .description(description)
                 .build();
 
-        restrictionRepository.save(restriction);
+        lanes.run(accountId, () -> {
+            // Counted before the insert; a ledger entry loaded after it would already include the new row
+            ledger.adjustRestrictedTotal(accountId, amount);
+            restrictionRepository.save(restriction);
+        });
         log.info("Created T+2 restriction for account {} amount {} to be released on {}",
                 accountId, amount, settlementDate);
     }
@@ -61,22 +67,35 @@ public class WithdrawalRestrictionServiceImpl implements IWithdrawalRestrictionS
         List<WithdrawalRestriction> expired = restrictionRepository
                 .findByStatusAndSettlementDateBefore(RestrictionStatus.ACTIVE, now);
 
+        int count = 0;
         for (WithdrawalRestriction r : expired) {
-            r.setStatus(RestrictionStatus.EXPIRED);
+            if (lanes.execute(r.getAccountId(), () -> expire(r.getId()))) {
+                count++;
+            }
+        }
 
-            Account account = accountRepository.findById(r.getAccountId())
-                    .orElseThrow(() -> new IllegalStateException("Account not found"));
+        log.info("Expired {} T+2 restrictions", count);
+    }
 
-            account.setWithdrawableBalance(account.getWithdrawableBalance().add(r.getRestrictedAmount()));
+    private boolean expire(Long restrictionId) {
+        WithdrawalRestriction r = restrictionRepository.findById(restrictionId)
+                .filter(restriction -> restriction.getStatus() == RestrictionStatus.ACTIVE)
+                .orElse(null);
+        if (r == null) {
+            return false;
+        }
+        r.setStatus(RestrictionStatus.EXPIRED);
 
-            restrictionRepository.save(r);
-            accountRepository.save(account);
+        Account account = ledger.account(r.getAccountId());
+        account.setWithdrawableBalance(account.getWithdrawableBalance().add(r.getRestrictedAmount()));
+        ledger.adjustRestrictedTotal(account.getId(), r.getRestrictedAmount().negate());
 
-            log.info("Expired restriction ID {} - amount {} added to withdrawable balance of account {}",
-                    r.getId(), r.getRestrictedAmount(), account.getId());
-        }
+        restrictionRepository.save(r);
+        ledger.save(account);
 
-        log.info("Expired {} T+2 restrictions", expired.size());
+        log.info("Expired restriction ID {} - amount {} added to withdrawable balance of account {}",
+                r.getId(), r.getRestrictedAmount(), account.getId());
+        return true;
     }
     @Override
     public List<WithdrawalRestrictionDto> getRestrictionsByAccountId(Long accountId) {
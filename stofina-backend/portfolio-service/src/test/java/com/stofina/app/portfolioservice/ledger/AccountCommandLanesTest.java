@@ -0,0 +1,139 @@
+package com.stofina.app.portfolioservice.ledger;
+
+import com.stofina.app.portfolioservice.exception.StaleAccountStateException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountCommandLanesTest {
+
+    @Mock
+    private AccountLedger ledger;
+
+    private AccountCommandLanes lanes;
+
+    @AfterEach
+    void tearDown() {
+        if (lanes != null) {
+            lanes.stop();
+        }
+    }
+
+    @Test
+    void testSubmit_WithFailingCommandInBatch_ReplaysCommandsOneByOne() throws Exception {
+        lanes = start(1);
+        CountDownLatch laneBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> blocker = lanes.submit(1L, () -> {
+            laneBusy.countDown();
+            await(release);
+            return null;
+        });
+        assertTrue(laneBusy.await(2, TimeUnit.SECONDS));
+
+        // Queued behind the blocker, so the lane takes all three as one batch
+        AtomicInteger firstRuns = new AtomicInteger();
+        AtomicInteger lastRuns = new AtomicInteger();
+        CompletableFuture<String> first = lanes.submit(1L, () -> {
+            firstRuns.incrementAndGet();
+            return "first";
+        });
+        CompletableFuture<String> failing = lanes.submit(1L, () -> {
+            throw new IllegalArgumentException("rejected");
+        });
+        CompletableFuture<String> last = lanes.submit(1L, () -> {
+            lastRuns.incrementAndGet();
+            return "last";
+        });
+        release.countDown();
+
+        blocker.get(2, TimeUnit.SECONDS);
+        assertEquals("first", first.get(2, TimeUnit.SECONDS));
+        assertEquals("last", last.get(2, TimeUnit.SECONDS));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failing.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+
+        // Once in the rolled back batch, once in its own transaction; the batch stopped before the last one
+        assertEquals(2, firstRuns.get());
+        assertEquals(1, lastRuns.get());
+        // The rolled back batch and the failing replay each drop the touched entries
+        verify(ledger, times(2)).discard();
+        verify(ledger, times(3)).committed();
+    }
+
+    @Test
+    void testExecute_WithStaleAccount_RunsCommandAgainOnReloadedEntry() {
+        lanes = start(1);
+        doThrow(new StaleAccountStateException("changed")).doNothing().when(ledger).flush();
+        AtomicInteger runs = new AtomicInteger();
+
+        String result = lanes.execute(1L, () -> "run-" + runs.incrementAndGet());
+
+        assertEquals("run-2", result);
+        verify(ledger, times(1)).discard();
+        verify(ledger, times(1)).committed();
+    }
+
+    @Test
+    void testExecute_WithTwoAccounts_ParksOtherLaneUntilCommandCommits() throws Exception {
+        lanes = start(2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<String> hostThread = new AtomicReference<>();
+        AtomicReference<String> nestedThread = new AtomicReference<>();
+
+        // Accounts 0 and 1 sit on lanes 0 and 1; the transfer runs on the lower lane
+        CompletableFuture<Void> transfer = CompletableFuture.runAsync(() -> lanes.run(0L, 1L, () -> {
+            hostThread.set(Thread.currentThread().getName());
+            // The parked lane is owned by the transfer, so its commands join the running batch
+            lanes.run(1L, () -> nestedThread.set(Thread.currentThread().getName()));
+            started.countDown();
+            await(release);
+        }));
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+
+        CompletableFuture<String> otherLane = lanes.submit(1L, () -> Thread.currentThread().getName());
+        Thread.sleep(100);
+        assertFalse(otherLane.isDone(), "Lane 1 must stay parked while the transfer runs");
+
+        release.countDown();
+        transfer.get(2, TimeUnit.SECONDS);
+        assertEquals("account-lane-1", otherLane.get(2, TimeUnit.SECONDS));
+        assertEquals("account-lane-0", hostThread.get());
+        assertEquals("account-lane-0", nestedThread.get());
+        verify(ledger, atLeast(2)).committed();
+    }
+
+    private AccountCommandLanes start(int laneCount) {
+        AccountCommandLanes commandLanes = new AccountCommandLanes(TransactionOperations.withoutTransaction(),
+                ledger, laneCount, 64, 60_000);
+        commandLanes.start();
+        return commandLanes;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(2, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.stofina.app.portfolioservice.ledger;
+
+import com.stofina.app.portfolioservice.enums.AccountStatus;
+import com.stofina.app.portfolioservice.exception.AccountNotFoundException;
+import com.stofina.app.portfolioservice.exception.StaleAccountStateException;
+import com.stofina.app.portfolioservice.model.Account;
+import com.stofina.app.portfolioservice.repository.AccountRepository;
+import com.stofina.app.portfolioservice.repository.StockRepository;
+import com.stofina.app.portfolioservice.repository.TransactionRepository;
+import com.stofina.app.portfolioservice.util.AccountBalanceCalculator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AccountLedgerTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private AccountBalanceCalculator balanceCalculator;
+
+    private AccountLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new AccountLedger(accountRepository, stockRepository, transactionRepository, balanceCalculator);
+        when(balanceCalculator.computeActiveRestrictedTotal(1L)).thenReturn(BigDecimal.ZERO);
+    }
+
+    @Test
+    void testDiscard_ReloadsAccountOnNextUse() {
+        when(accountRepository.findById(1L))
+                .thenReturn(Optional.of(stored("100", 3L)))
+                .thenReturn(Optional.of(stored("250", 5L)));
+
+        Account account = ledger.account(1L);
+        account.setTotalBalance(new BigDecimal("40"));
+        ledger.save(account);
+        ledger.discard();
+
+        Account reloaded = ledger.account(1L);
+        assertNotSame(account, reloaded);
+        assertEquals(new BigDecimal("250"), reloaded.getTotalBalance());
+        assertEquals(5L, reloaded.getVersion());
+        verify(accountRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testFlush_WritesOverLoadedVersionAndFollowsIt() {
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(stored("100", 3L)));
+        when(accountRepository.updateLedgerState(eq(1L), any(), any(), any(), any(), any(), any(), eq(3L))).thenReturn(1);
+        when(accountRepository.updateLedgerState(eq(1L), any(), any(), any(), any(), any(), any(), eq(4L))).thenReturn(1);
+
+        Account account = ledger.account(1L);
+        account.setTotalBalance(new BigDecimal("90"));
+        ledger.save(account);
+        ledger.flush();
+        ledger.committed();
+
+        // The committed entry stays cached and writes over the version it wrote last
+        Account cached = ledger.account(1L);
+        cached.setTotalBalance(new BigDecimal("80"));
+        ledger.save(cached);
+        ledger.flush();
+        ledger.committed();
+
+        assertSame(account, cached);
+        assertEquals(5L, cached.getVersion());
+        verify(accountRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testFlush_WithAccountChangedElsewhere_FailsAndReloadsAfterDiscard() {
+        when(accountRepository.findById(1L))
+                .thenReturn(Optional.of(stored("100", 3L)))
+                .thenReturn(Optional.of(stored("300", 4L)));
+        when(accountRepository.updateLedgerState(eq(1L), any(), any(), any(), any(), any(), any(), eq(3L))).thenReturn(0);
+        when(accountRepository.existsById(1L)).thenReturn(true);
+
+        Account account = ledger.account(1L);
+        account.setTotalBalance(new BigDecimal("90"));
+        ledger.save(account);
+
+        assertThrows(StaleAccountStateException.class, () -> ledger.flush());
+        ledger.discard();
+
+        Account reloaded = ledger.account(1L);
+        assertEquals(new BigDecimal("300"), reloaded.getTotalBalance());
+        assertEquals(4L, reloaded.getVersion());
+    }
+
+    @Test
+    void testFlush_WithDeletedAccount_ThrowsNotFound() {
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(stored("100", 3L)));
+        when(accountRepository.updateLedgerState(eq(1L), any(), any(), any(), any(), any(), any(), eq(3L))).thenReturn(0);
+        when(accountRepository.existsById(1L)).thenReturn(false);
+
+        ledger.save(ledger.account(1L));
+
+        assertThrows(AccountNotFoundException.class, () -> ledger.flush());
+    }
+
+    private Account stored(String totalBalance, Long version) {
+        return Account.builder()
+                .id(1L)
+                .customerId(7L)
+                .accountNumber("ACC-1")
+                .status(AccountStatus.ACTIVE)
+                .totalBalance(new BigDecimal(totalBalance))
+                .availableBalance(new BigDecimal(totalBalance))
+                .reservedBalance(BigDecimal.ZERO)
+                .withdrawableBalance(new BigDecimal(totalBalance))
+                .version(version)
+                .build();
+    }
+}
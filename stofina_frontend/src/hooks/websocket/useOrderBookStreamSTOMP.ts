@@ -1,9 +1,10 @@
 "use client";
 
-import { useCallback, useEffect, useState } from 'react';
+import { useCallback, useEffect, useRef, useState } from 'react';
 import { IMessage } from '@stomp/stompjs';
 import { useSTOMPWebSocket } from './useSTOMPWebSocket';
 import { OrderBookLevel } from '../../types/orderbook.types';
+import { applyLevelChanges, FeedLevel, orderBookChecksum } from '../../utils/orderBookFeed.utils';
 
 /**
  * Order book streaming hook using STOMP protocol
@@ -15,6 +16,10 @@ export const useOrderBookStreamSTOMP = (symbol: string) => {
   const [sellOrders, setSellOrders] = useState<OrderBookLevel[]>([]);
   const [lastUpdate, setLastUpdate] = useState<Date | null>(null);
   const [currentSymbol, setCurrentSymbol] = useState<string>(symbol);
+  // Feed state: deltas apply on top of the last snapshot; null sequence means waiting for a snapshot
+  const bidsRef = useRef<FeedLevel[]>([]);
+  const asksRef = useRef<FeedLevel[]>([]);
+  const sequenceRef = useRef<number | null>(null);
 
   // STOMP WebSocket connection
   const { 
@@ -31,42 +36,92 @@ export const useOrderBookStreamSTOMP = (symbol: string) => {
     debug: false
   });
 
+  /**
+   * Ask the backend for a fresh snapshot (on connect, symbol change or a detected gap)
+   */
+  const requestSnapshot = useCallback(() => {
+    sequenceRef.current = null;
+    const subscriptionMessage = {
+      type: 'SUBSCRIBE_ORDER_BOOK',
+      payload: {
+        symbol: currentSymbol.toUpperCase(),
+        maxLevels: 20
+      },
+      timestamp: new Date().toISOString(),
+      id: `orderbook-sub-${Date.now()}`
+    };
+
+    console.log('[Order Book] Sending subscription request:', subscriptionMessage);
+    send(`/app/orderbook/subscribe/${currentSymbol}`, subscriptionMessage);
+  }, [currentSymbol, send]);
+
+  const publishLevels = useCallback((bids: FeedLevel[], asks: FeedLevel[]) => {
+    bidsRef.current = bids;
+    asksRef.current = asks;
+    setBuyOrders(bids);
+    setSellOrders(asks);
+    setLastUpdate(new Date());
+  }, []);
+
   /**
    * Handle incoming order book messages
    */
   const handleOrderBookMessage = useCallback((message: IMessage) => {
-    console.log('[Order Book] ⭐ MESAJ GELDİ:', message.body);
     try {
       const data = JSON.parse(message.body);
-      console.log('[Order Book] Parsed data:', data);
-
-      // Handle order book updates
-      if (data.type === 'ORDER_BOOK_UPDATE') {
-        const orderBookData = data.payload;
-        
-        if (orderBookData.symbol === currentSymbol.toUpperCase()) {
-          const bookData = orderBookData.data;
-          setBuyOrders(bookData.bids || []);
-          setSellOrders(bookData.asks || []);
-          setLastUpdate(new Date());
-          console.log('[Order Book] Updated - Bids:', bookData.bids?.length, 'Asks:', bookData.asks?.length);
+      const payload = data.payload;
+      if (!payload || payload.symbol !== currentSymbol.toUpperCase()) {
+        return;
+      }
+
+      if (data.type === 'ORDER_BOOK_SNAPSHOT') {
+        // Only the snapshot this session asked for arrives, on its user queue
+        sequenceRef.current = payload.sequence;
+        publishLevels(payload.bids || [], payload.asks || []);
+        return;
+      }
+
+      if (data.type === 'ORDER_BOOK_DELTA') {
+        if (sequenceRef.current === null || payload.sequence <= sequenceRef.current) {
+          return;
+        }
+        if (payload.sequence !== sequenceRef.current + 1) {
+          console.warn('[Order Book] Sequence gap, resyncing:', sequenceRef.current, '->', payload.sequence);
+          requestSnapshot();
+          return;
+        }
+
+        const bids = applyLevelChanges(bidsRef.current, payload.changes || [], 'BUY');
+        const asks = applyLevelChanges(asksRef.current, payload.changes || [], 'SELL');
+        if (orderBookChecksum(bids, asks) !== payload.checksum) {
+          console.warn('[Order Book] Checksum mismatch, resyncing at sequence', payload.sequence);
+          requestSnapshot();
+          return;
         }
+
+        sequenceRef.current = payload.sequence;
+        publishLevels(bids, asks);
       }
     } catch (err) {
       console.error('[Order Book] Failed to process message:', err);
     }
-  }, [currentSymbol]);
+  }, [currentSymbol, publishLevels, requestSnapshot]);
 
   /**
-   * Subscribe to order book topic when connected
+   * Subscribe to the delta topic and to this session's snapshot queue when connected
    */
   useEffect(() => {
     if (isConnected && currentSymbol) {
       const topic = `/topic/orderbook/${currentSymbol.toUpperCase()}`;
-      console.log('[Order Book] Subscribing to:', topic);
-      const unsubscribe = subscribe(topic, handleOrderBookMessage);
+      const snapshotQueue = `/user/queue/orderbook/${currentSymbol}`;
+      console.log('[Order Book] Subscribing to:', topic, snapshotQueue);
+      const unsubscribeSnapshots = subscribe(snapshotQueue, handleOrderBookMessage);
+      const unsubscribeDeltas = subscribe(topic, handleOrderBookMessage);
       
-      return unsubscribe;
+      return () => {
+        unsubscribeDeltas();
+        unsubscribeSnapshots();
+      };
     }
   }, [isConnected, currentSymbol, subscribe, handleOrderBookMessage]);
 
@@ -75,20 +130,9 @@ export const useOrderBookStreamSTOMP = (symbol: string) => {
    */
   useEffect(() => {
     if (isConnected && currentSymbol) {
-      const subscriptionMessage = {
-        type: 'SUBSCRIBE_ORDER_BOOK',
-        payload: {
-          symbol: currentSymbol.toUpperCase(),
-          maxLevels: 20
-        },
-        timestamp: new Date().toISOString(),
-        id: `orderbook-sub-${Date.now()}`
-      };
-
-      console.log('[Order Book] Sending subscription request:', subscriptionMessage);
-      send(`/app/orderbook/subscribe/${currentSymbol}`, subscriptionMessage);
+      requestSnapshot();
     }
-  }, [isConnected, currentSymbol, send]);
+  }, [isConnected, currentSymbol, requestSnapshot]);
 
   /**
    * Update symbol when prop changes
@@ -97,6 +141,9 @@ export const useOrderBookStreamSTOMP = (symbol: string) => {
     if (symbol !== currentSymbol) {
       setCurrentSymbol(symbol);
       // Clear existing data when symbol changes
+      bidsRef.current = [];
+      asksRef.current = [];
+      sequenceRef.current = null;
       setBuyOrders([]);
       setSellOrders([]);
       setLastUpdate(null);
@@ -3,7 +3,7 @@
 import { useCallback, useEffect, useState } from 'react';
 import { IMessage } from '@stomp/stompjs';
 import { useSTOMPWebSocket } from './useSTOMPWebSocket';
-import { TradeEvent } from '../../types/trading.types';
+import { Trade, TradeEvent } from '../../types/trading.types';
 
 /**
  * Trade stream hook using STOMP protocol
@@ -39,8 +39,24 @@ export const useTradeStreamSTOMP = (symbol: string) => {
       const data = JSON.parse(message.body);
       console.log('[Trade Stream] Received:', data);
 
-      // Handle trade events
-      if (data.type === 'TRADE_EXECUTED') {
+      // Trades arrive batched: one frame per symbol per publish interval, oldest first
+      if (data.type === 'TRADES_EXECUTED') {
+        const payload = data.payload;
+
+        if (payload?.symbol === currentSymbol.toUpperCase() && payload.trades?.length) {
+          const events: TradeEvent[] = payload.trades.map((trade: Trade) => ({
+            type: 'TRADE_EXECUTED',
+            trade,
+            symbol: payload.symbol,
+            timestamp: trade.timestamp
+          }));
+          const newestFirst = events.reverse();
+
+          setRecentTrades(prev => [...newestFirst, ...prev].slice(0, 50));
+          setLastTrade(newestFirst[0]);
+          setLastUpdate(new Date());
+        }
+      } else if (data.type === 'TRADE_EXECUTED') {
         const tradeData = data.payload as TradeEvent;
         
         if (tradeData.symbol === currentSymbol.toUpperCase()) {
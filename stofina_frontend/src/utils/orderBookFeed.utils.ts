@@ -0,0 +1,74 @@
+import { OrderBookLevel } from '../types/orderbook.types';
+
+/**
+ * Level as sent by the order-service feed (/topic/orderbook/{symbol})
+ */
+export interface FeedLevel extends OrderBookLevel {
+  orderCount?: number;
+}
+
+/**
+ * Changed level in an ORDER_BOOK_DELTA message; quantity 0 removes the level
+ */
+export interface FeedLevelChange {
+  side: 'BUY' | 'SELL';
+  price: number;
+  quantity: number;
+  orderCount: number;
+}
+
+const CRC32_TABLE = (() => {
+  const table = new Uint32Array(256);
+  for (let n = 0; n < 256; n++) {
+    let c = n;
+    for (let k = 0; k < 8; k++) {
+      c = c & 1 ? 0xedb88320 ^ (c >>> 1) : c >>> 1;
+    }
+    table[n] = c >>> 0;
+  }
+  return table;
+})();
+
+const crc32 = (text: string): number => {
+  let crc = 0xffffffff;
+  for (let i = 0; i < text.length; i++) {
+    crc = CRC32_TABLE[(crc ^ text.charCodeAt(i)) & 0xff] ^ (crc >>> 8);
+  }
+  return (crc ^ 0xffffffff) >>> 0;
+};
+
+/**
+ * Same checksum the backend sends: CRC32 over "price:quantity;" for bids then asks, best first
+ */
+export const orderBookChecksum = (bids: FeedLevel[], asks: FeedLevel[]): number => {
+  const encode = (levels: FeedLevel[]) =>
+    levels.map(level => `${Number(level.price)}:${Number(level.quantity)};`).join('');
+  return crc32(encode(bids) + encode(asks));
+};
+
+/**
+ * Applies delta changes for one side and returns the levels sorted best first
+ */
+export const applyLevelChanges = (
+  levels: FeedLevel[],
+  changes: FeedLevelChange[],
+  side: 'BUY' | 'SELL'
+): FeedLevel[] => {
+  const byPrice = new Map<number, FeedLevel>(levels.map(level => [Number(level.price), level]));
+
+  changes
+    .filter(change => change.side === side)
+    .forEach(change => {
+      const price = Number(change.price);
+      if (Number(change.quantity) === 0) {
+        byPrice.delete(price);
+      } else {
+        const quantity = Number(change.quantity);
+        byPrice.set(price, { price, quantity, total: price * quantity, orderCount: change.orderCount });
+      }
+    });
+
+  return Array.from(byPrice.values()).sort((a, b) =>
+    side === 'BUY' ? Number(b.price) - Number(a.price) : Number(a.price) - Number(b.price)
+  );
+};